@@ -0,0 +1,416 @@
+/******************************************************************************
+ *  Compilation:  javac AStarSP.java
+ *  Execution:    java AStarSP input.txt s t [landmarks]
+ *  Dependencies: CSRDigraph.java EdgeWeightedDigraph.java EdgeWeightedGraph.java
+ *                IndexDoubleMinPQ.java Stack.java DirectedEdge.java DijkstraSP.java
+ *                In.java StdOut.java
+ *  Data files:   https://algs4.cs.princeton.edu/44sp/tinyEWD.txt
+ *                https://algs4.cs.princeton.edu/44sp/mediumEWD.txt
+ *                https://algs4.cs.princeton.edu/44sp/largeEWD.txt
+ *
+ *  Answers point-to-point shortest-path queries s->t with the A* search
+ *  algorithm, guided by a pluggable potential function such as the
+ *  landmark (ALT) lower bounds. Assumes all weights are non-negative.
+ *
+ *  % java AStarSP tinyEWD.txt 0 6 2
+ *  0 to 6 (1.51)  0->2  0.26   2->7  0.34   7->3  0.39   3->6  0.52
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+
+/**
+ *  The {@code AStarSP} class represents a data type for answering
+ *  <em>point-to-point</em> shortest-path queries in an edge-weighted digraph
+ *  (or graph) where the edge weights are non-negative.
+ *  <p>
+ *  This implementation uses the <em>A* search algorithm</em>: Dijkstra's
+ *  algorithm from <em>s</em>, in which the key of each vertex <em>v</em> is the
+ *  length of the shortest <em>s</em>-<em>v</em> path found so far plus a
+ *  <em>potential</em> &pi;(<em>v</em>), a lower bound on the length of a shortest
+ *  path from <em>v</em> to <em>t</em>. The search stops as soon as <em>t</em> is
+ *  removed from the priority queue. The better the lower bounds, the fewer vertices
+ *  are scanned; with the zero potential, this is Dijkstra's algorithm stopped
+ *  early at <em>t</em>. In the worst case, a query takes
+ *  &Theta;(<em>E</em> log <em>V</em>) time, plus the time to evaluate the
+ *  potential at every vertex scanned.
+ *  <p>
+ *  The potential is supplied as a {@link Potential}. It must be
+ *  <em>feasible</em>: for every edge <em>v</em>&rarr;<em>w</em> from which
+ *  <em>t</em> is reachable,
+ *  &pi;(<em>v</em>) &le; <em>weight</em>(<em>v</em>&rarr;<em>w</em>) + &pi;(<em>w</em>),
+ *  and &pi;(<em>t</em>) = 0; otherwise, the paths returned need not be shortest.
+ *  The {@link #landmarks(CSRDigraph, int)} method computes the
+ *  feasible <em>ALT</em> potential (<em>A*</em>, <em>landmarks</em>, and the
+ *  <em>triangle</em> inequality), which uses the distances to and from a few
+ *  landmark vertices and is well suited to road networks.
+ *  <p>
+ *  As in {@link BidirectionalDijkstraSP}, the digraph is converted to a
+ *  {@link CSRDigraph} once and the per-vertex arrays are reused by every query.
+ *  A single instance must not be queried by more than one thread at a time.
+ *  For an edge-weighted graph, each edge <em>v</em>-<em>w</em> is treated as
+ *  the two directed edges <em>v</em>&rarr;<em>w</em> and <em>w</em>&rarr;<em>v</em>.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/44sp">Section 4.4</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class AStarSP {
+
+    /**
+     *  A lower bound on the length of a shortest path between two vertices,
+     *  used to guide the search of {@link AStarSP}.
+     */
+    public interface Potential {
+
+        /**
+         * Returns a lower bound on the length of a shortest path from
+         * vertex {@code v} to vertex {@code t}.
+         *
+         * @param  v the vertex
+         * @param  t the destination vertex
+         * @return a non-negative lower bound on the length of a shortest path
+         *         from {@code v} to {@code t}, which is 0 if {@code v == t}
+         */
+        double lowerBound(int v, int t);
+    }
+
+    // the potential of Dijkstra's algorithm
+    private static final Potential ZERO = new Potential() {
+        public double lowerBound(int v, int t) {
+            return 0.0;
+        }
+    };
+
+    private final CSRDigraph G;          // the digraph
+    private final Potential potential;   // lower bounds on the distances to t
+    private final int V;                 // number of vertices
+
+    private final double[] distTo;       // distTo[v] = length of shortest s->v path found
+    private final double[] pi;           // pi[v] = potential of v for the current query
+    private final int[] parent;          // parent[v] = position in G of last edge on s->v path
+    private final int[] mark;            // distTo[v] and pi[v] are valid iff mark[v] == query
+    private final IndexDoubleMinPQ pq;   // priority queue of vertices
+
+    private int query;                   // number of the current query
+    private int s, t;                    // endpoints of the last query
+    private int scanned;                 // number of vertices scanned by the last query
+
+    /**
+     * Initializes a point-to-point shortest-path data type for the
+     * edge-weighted digraph {@code G}, using the zero potential.
+     *
+     * @param  G the edge-weighted digraph
+     * @throws IllegalArgumentException if an edge weight is negative
+     */
+    public AStarSP(EdgeWeightedDigraph G) {
+        this(new CSRDigraph(G), ZERO);
+    }
+
+    /**
+     * Initializes a point-to-point shortest-path data type for the
+     * edge-weighted digraph {@code G}, using the landmark potential
+     * with the specified number of landmarks.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  landmarks the number of landmarks
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code landmarks >= 1}
+     */
+    public AStarSP(EdgeWeightedDigraph G, int landmarks) {
+        this(new CSRDigraph(G), landmarks, false);
+    }
+
+    /**
+     * Initializes a point-to-point shortest-path data type for the
+     * edge-weighted graph {@code G}, using the landmark potential
+     * with the specified number of landmarks.
+     *
+     * @param  G the edge-weighted graph
+     * @param  landmarks the number of landmarks
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code landmarks >= 1}
+     */
+    public AStarSP(EdgeWeightedGraph G, int landmarks) {
+        this(new CSRDigraph(G), landmarks, true);
+    }
+
+    private AStarSP(CSRDigraph G, int landmarks, boolean symmetric) {
+        this(G, landmarks(G, symmetric ? G : G.reverse(), landmarks));
+    }
+
+    /**
+     * Initializes a point-to-point shortest-path data type for the
+     * digraph {@code G} in CSR form, using the specified potential.
+     *
+     * @param  G the digraph
+     * @param  potential the potential
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException if {@code potential} is {@code null}
+     */
+    public AStarSP(CSRDigraph G, Potential potential) {
+        if (potential == null) throw new IllegalArgumentException("potential is null");
+        checkWeights(G);
+        this.G = G;
+        this.potential = potential;
+        this.V = G.V();
+        distTo = new double[V];
+        pi = new double[V];
+        parent = new int[V];
+        mark = new int[V];
+        pq = new IndexDoubleMinPQ(V);
+    }
+
+    // throw an IllegalArgumentException if an edge weight is negative
+    private static void checkWeights(CSRDigraph G) {
+        for (int i = 0; i < G.E(); i++) {
+            if (G.weight(i) < 0)
+                throw new IllegalArgumentException("edge at position " + i + " has negative weight");
+        }
+    }
+
+    // run the query s->t unless it is the last query answered
+    private void run(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        if (query > 0 && s == this.s && t == this.t) return;
+
+        if (query == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            query = 0;
+        }
+        query++;
+        this.s = s;
+        this.t = t;
+        scanned = 0;
+
+        label(s, 0.0, -1);
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            scanned++;
+            if (v == t) break;
+            for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                int w = G.target(i);
+                double d = distTo[v] + G.weight(i);
+                if (mark[w] != query || d < distTo[w])
+                    label(w, d, i);
+            }
+        }
+
+        // leave the queue empty for the next query
+        while (!pq.isEmpty()) pq.delMin();
+    }
+
+    // set the distance label of w; a vertex already scanned is scanned again
+    // if its distance improves, which can happen only if the potential is infeasible
+    // or because of floating-point rounding error
+    private void label(int w, double d, int i) {
+        if (mark[w] != query) {
+            mark[w] = query;
+            pi[w] = potential.lowerBound(w, t);
+        }
+        distTo[w] = d;
+        parent[w] = i;
+
+        // with large potentials, d + pi[w] can round to the key already in pq
+        double key = d + pi[w];
+        if (!pq.contains(w))            pq.insert(w, key);
+        else if (key < pq.keyOf(w))     pq.decreaseKey(w, key);
+    }
+
+    /**
+     * Returns the length of a shortest path from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return the length of a shortest path from {@code s} to {@code t};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public double distance(int s, int t) {
+        run(s, t);
+        if (mark[t] != query) return Double.POSITIVE_INFINITY;
+        return distTo[t];
+    }
+
+    /**
+     * Returns true if there is a path from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return {@code true} if there is a path from {@code s} to {@code t};
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public boolean hasPath(int s, int t) {
+        run(s, t);
+        return mark[t] == query;
+    }
+
+    /**
+     * Returns a shortest path from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return a shortest path from {@code s} to {@code t};
+     *         {@code null} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public Iterable<DirectedEdge> path(int s, int t) {
+        if (!hasPath(s, t)) return null;
+        Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+        for (int x = t; parent[x] != -1; ) {
+            int i = parent[x];
+            int v = G.tail(i);
+            path.push(new DirectedEdge(v, x, G.weight(i)));
+            x = v;
+        }
+        return path;
+    }
+
+    /**
+     * Returns the number of vertices scanned by the last query.
+     *
+     * @return the number of vertices scanned by the last query
+     */
+    public int scanned() {
+        return scanned;
+    }
+
+    /**
+     * Returns the landmark (ALT) potential of the digraph {@code G}, with the
+     * specified number of landmarks. The landmarks are chosen greedily, each
+     * one as far as possible from the ones already chosen, and the distances
+     * from and to each landmark are computed with Dijkstra's algorithm,
+     * taking &Theta;(<em>k</em> <em>E</em> log <em>V</em>) time and
+     * &Theta;(<em>k</em> <em>V</em>) space, where <em>k</em> is the number
+     * of landmarks. By the triangle inequality, for each landmark <em>L</em>,
+     * both <em>d</em>(<em>L</em>, <em>t</em>) &minus; <em>d</em>(<em>L</em>, <em>v</em>)
+     * and <em>d</em>(<em>v</em>, <em>L</em>) &minus; <em>d</em>(<em>t</em>, <em>L</em>)
+     * are lower bounds on <em>d</em>(<em>v</em>, <em>t</em>).
+     *
+     * @param  G the digraph
+     * @param  k the number of landmarks
+     * @return the landmark potential of {@code G}
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code k >= 1}
+     */
+    public static Potential landmarks(CSRDigraph G, int k) {
+        return landmarks(G, G.reverse(), k);
+    }
+
+    private static Potential landmarks(CSRDigraph G, CSRDigraph R, int k) {
+        if (k < 1) throw new IllegalArgumentException("number of landmarks must be positive");
+        checkWeights(G);
+        int V = G.V();
+        k = Math.min(k, Math.max(V, 1));
+        final double[][] from = new double[k][];   // from[j][v] = distance from j-th landmark to v
+        final double[][] to   = new double[k][];   // to[j][v]   = distance from v to j-th landmark
+
+        // closest[v] = distance to v from the closest landmark chosen so far
+        double[] closest = new double[V];
+        Arrays.fill(closest, Double.POSITIVE_INFINITY);
+        int landmark = 0;
+        for (int j = 0; j < k && V > 0; j++) {
+            from[j] = distances(G, landmark);
+            to[j] = (R == G) ? from[j] : distances(R, landmark);
+            int next = landmark;
+            for (int v = 0; v < V; v++) {
+                closest[v] = Math.min(closest[v], from[j][v]);
+                if (closest[v] > closest[next]) next = v;
+            }
+            landmark = next;
+        }
+
+        return new Potential() {
+            public double lowerBound(int v, int t) {
+                double bound = 0.0;
+                for (int j = 0; j < from.length; j++) {
+                    double[] f = from[j];
+                    double[] g = to[j];
+                    if (f == null) break;
+                    if (f[v] < Double.POSITIVE_INFINITY && f[t] < Double.POSITIVE_INFINITY)
+                        bound = Math.max(bound, f[t] - f[v]);
+                    if (g[v] < Double.POSITIVE_INFINITY && g[t] < Double.POSITIVE_INFINITY)
+                        bound = Math.max(bound, g[v] - g[t]);
+                }
+                return bound;
+            }
+        };
+    }
+
+    // distances from s to every vertex in G
+    private static double[] distances(CSRDigraph G, int s) {
+        int V = G.V();
+        double[] distTo = new double[V];
+        Arrays.fill(distTo, Double.POSITIVE_INFINITY);
+        distTo[s] = 0.0;
+        IndexDoubleMinPQ pq = new IndexDoubleMinPQ(V);
+        pq.insert(s, 0.0);
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                int w = G.target(i);
+                double d = distTo[v] + G.weight(i);
+                if (distTo[w] > d) {
+                    distTo[w] = d;
+                    if (pq.contains(w)) pq.decreaseKey(w, d);
+                    else                pq.insert(w, d);
+                }
+            }
+        }
+        return distTo;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Unit tests the {@code AStarSP} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(in);
+        int s = Integer.parseInt(args[1]);
+        int t = Integer.parseInt(args[2]);
+        int landmarks = (args.length > 3) ? Integer.parseInt(args[3]) : 4;
+
+        AStarSP sp = new AStarSP(G, landmarks);
+        if (sp.hasPath(s, t)) {
+            StdOut.printf("%d to %d (%.2f)  ", s, t, sp.distance(s, t));
+            for (DirectedEdge e : sp.path(s, t)) {
+                StdOut.print(e + "   ");
+            }
+            StdOut.println();
+        }
+        else {
+            StdOut.printf("%d to %d         no path\n", s, t);
+        }
+
+        if (!checkRounding()) StdOut.println("rounding check failed");
+    }
+
+    // a shorter path to a vertex in the priority queue, whose key rounds
+    // to the same value because the potential is large
+    private static boolean checkRounding() {
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(4);
+        G.addEdge(new DirectedEdge(0, 2, 1.0));
+        G.addEdge(new DirectedEdge(0, 1, 0.5));
+        G.addEdge(new DirectedEdge(1, 2, 0.4));
+        G.addEdge(new DirectedEdge(2, 3, 1e16));
+        final double[] pi = { 1e16 + 0.9, 1e16 + 0.4, 1e16, 0.0 };
+        AStarSP sp = new AStarSP(new CSRDigraph(G), new Potential() {
+            public double lowerBound(int v, int t) {
+                return pi[v];
+            }
+        });
+        return sp.distance(0, 3) == new DijkstraSP(G, 0).distTo(3);
+    }
+}
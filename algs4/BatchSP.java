@@ -0,0 +1,411 @@
+/******************************************************************************
+ *  Compilation:  javac BatchSP.java
+ *  Execution:    java BatchSP [-directed] file1.txt file2.txt ... < pairs.txt
+ *  Dependencies: CSRDigraph.java CSRGraph.java IndexDoubleMinPQ.java ParallelFor.java
+ *                DirectedEdge.java Stack.java In.java StdIn.java StdOut.java
+ *
+ *  Loads a graph, or a series of graph snapshots, once and answers a stream
+ *  of shortest-path queries s->t against every snapshot, caching the
+ *  shortest-paths trees of recently used sources and solving each batch
+ *  of queries on a pool of worker threads.
+ *
+ *  % java BatchSP dataset1.txt dataset2.txt dataset3.txt
+ *  0 5
+ *  0 5  0.64000 0.71000 0.58000
+ *  0 3
+ *  0 3  0.26000 0.26000 0.19000
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *  The {@code BatchSP} class represents a data type for answering many
+ *  shortest-path queries <em>s</em>-<em>t</em> against the same graph, or the
+ *  same series of graph snapshots, where the edge weights are non-negative.
+ *  <p>
+ *  Each snapshot is parsed once, when the data type is constructed, and stored
+ *  as a {@link CSRDigraph}; an undirected snapshot is stored with each edge in
+ *  both directions. A query from <em>s</em> computes the shortest-paths tree from
+ *  <em>s</em> in a snapshot with Dijkstra's algorithm and keeps it in a
+ *  least-recently-used cache, so that later queries from the same source in the
+ *  same snapshot take constant time. The cache is bounded by the memory taken by
+ *  the trees it holds (12 bytes per vertex), rather than by their number.
+ *  <p>
+ *  The {@link #distances(int[], int[])} method answers a batch of queries: it
+ *  groups the queries by source and splits the groups, in each snapshot, among
+ *  a fixed pool of worker threads (by default, one per available processor),
+ *  with a {@code ParallelFor}. The pool is created by the first batch and
+ *  reused by the later ones, until {@link #close()} releases it. The {@code BatchSP} methods may be called concurrently
+ *  by several threads.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/44sp">Section 4.4</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class BatchSP {
+    private final CSRDigraph[] snapshots;  // snapshots[k] = k-th snapshot
+    private final long cacheBytes;         // maximum number of bytes of trees in the cache
+    private final ParallelFor loop;        // runs the batches of queries
+    private final LinkedHashMap<Long, Tree> cache;  // (snapshot, source) -> tree, in access order
+    private long bytes;                    // number of bytes of trees in the cache
+    private long hits;                     // number of queries answered from the cache
+    private long misses;                   // number of trees computed
+
+    // a shortest-paths tree in one snapshot
+    private static final class Tree {
+        final double[] distTo;   // distTo[v] = length of shortest s->v path
+        final int[] parent;      // parent[v] = position of last edge on shortest s->v path
+
+        Tree(double[] distTo, int[] parent) {
+            this.distTo = distTo;
+            this.parent = parent;
+        }
+
+        long bytes() {
+            return 12L * distTo.length + 64;
+        }
+    }
+
+    /**
+     * Initializes a batch shortest-path data type for the specified snapshots,
+     * with a cache taking up to a quarter of the maximum heap size and one
+     * worker thread per available processor.
+     *
+     * @param  snapshots the snapshots
+     * @throws IllegalArgumentException if {@code snapshots} or any snapshot is {@code null}
+     * @throws IllegalArgumentException if an edge weight is negative
+     */
+    public BatchSP(CSRDigraph[] snapshots) {
+        this(snapshots, Runtime.getRuntime().maxMemory() / 4, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Initializes a batch shortest-path data type for the specified snapshots,
+     * with the specified cache size and number of worker threads.
+     *
+     * @param  snapshots the snapshots
+     * @param  cacheBytes the maximum number of bytes of shortest-paths trees in the cache
+     * @param  threads the number of worker threads
+     * @throws IllegalArgumentException if {@code snapshots} or any snapshot is {@code null}
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code cacheBytes >= 0} and {@code threads >= 1}
+     */
+    public BatchSP(CSRDigraph[] snapshots, long cacheBytes, int threads) {
+        if (snapshots == null) throw new IllegalArgumentException("argument is null");
+        if (cacheBytes < 0) throw new IllegalArgumentException("cache size must be non-negative");
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+        for (int k = 0; k < snapshots.length; k++) {
+            CSRDigraph G = snapshots[k];
+            if (G == null) throw new IllegalArgumentException("snapshot " + k + " is null");
+            for (int i = 0; i < G.E(); i++) {
+                if (G.weight(i) < 0)
+                    throw new IllegalArgumentException("edge at position " + i + " of snapshot " + k + " has negative weight");
+            }
+        }
+        this.snapshots = snapshots.clone();
+        this.cacheBytes = cacheBytes;
+        this.loop = new ParallelFor(threads, 1);
+        this.cache = new LinkedHashMap<Long, Tree>(16, 0.75f, true);
+    }
+
+    /**
+     * Reads the specified snapshot files in parallel and initializes a batch
+     * shortest-path data type for them. Each file is in the format accepted by
+     * {@link EdgeWeightedDigraph#EdgeWeightedDigraph(In)} (if {@code directed})
+     * or {@link EdgeWeightedGraph#EdgeWeightedGraph(In)} (otherwise).
+     *
+     * @param  files the snapshot files
+     * @param  directed whether the snapshots are directed
+     * @return a batch shortest-path data type for the snapshots
+     * @throws IllegalArgumentException if {@code files} is {@code null}
+     * @throws IllegalArgumentException if any file is in the wrong format
+     * @throws IllegalArgumentException if an edge weight is negative
+     */
+    public static BatchSP load(final File[] files, final boolean directed) {
+        if (files == null) throw new IllegalArgumentException("argument is null");
+        final CSRDigraph[] snapshots = new CSRDigraph[files.length];
+        ParallelFor loop = new ParallelFor(Runtime.getRuntime().availableProcessors(), 1);
+        try {
+            loop.run(files.length, new ParallelFor.Body() {
+                public void run(int lo, int hi, int chunk) {
+                    for (int k = lo; k < hi; k++) {
+                        In in = new In(files[k].getPath());
+                        if (directed) snapshots[k] = new CSRDigraph(in, true);
+                        else          snapshots[k] = new CSRGraph(in, true).asDigraph();
+                    }
+                }
+            });
+        }
+        finally {
+            loop.shutdown();
+        }
+        return new BatchSP(snapshots);
+    }
+
+    // the shortest-paths tree from s in the k-th snapshot, from the cache if possible
+    private Tree tree(int k, int s) {
+        Long key = ((long) k << 32) | s;
+        synchronized (cache) {
+            Tree tree = cache.get(key);
+            if (tree != null) {
+                hits++;
+                return tree;
+            }
+            misses++;
+        }
+
+        Tree tree = dijkstra(snapshots[k], s);
+        long size = tree.bytes();
+        synchronized (cache) {
+            if (size <= cacheBytes && !cache.containsKey(key)) {
+                cache.put(key, tree);
+                bytes += size;
+
+                // evict the least recently used trees
+                Iterator<Map.Entry<Long, Tree>> it = cache.entrySet().iterator();
+                while (bytes > cacheBytes) {
+                    Map.Entry<Long, Tree> eldest = it.next();
+                    bytes -= eldest.getValue().bytes();
+                    it.remove();
+                }
+            }
+        }
+        return tree;
+    }
+
+    // Dijkstra's algorithm from s in G
+    private static Tree dijkstra(CSRDigraph G, int s) {
+        int V = G.V();
+        double[] distTo = new double[V];
+        int[] parent = new int[V];
+        Arrays.fill(distTo, Double.POSITIVE_INFINITY);
+        distTo[s] = 0.0;
+        parent[s] = -1;
+        IndexDoubleMinPQ pq = new IndexDoubleMinPQ(V);
+        pq.insert(s, 0.0);
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                int w = G.target(i);
+                double dist = distTo[v] + G.weight(i);
+                if (distTo[w] > dist) {
+                    distTo[w] = dist;
+                    parent[w] = i;
+                    if (pq.contains(w)) pq.decreaseKey(w, dist);
+                    else                pq.insert(w, dist);
+                }
+            }
+        }
+        return new Tree(distTo, parent);
+    }
+
+    /**
+     * Returns the number of snapshots.
+     * @return the number of snapshots
+     */
+    public int size() {
+        return snapshots.length;
+    }
+
+    /**
+     * Returns the length of a shortest path from {@code s} to {@code t}
+     * in the specified snapshot.
+     *
+     * @param  k the index of the snapshot
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return the length of a shortest path from {@code s} to {@code t} in
+     *         snapshot {@code k}; {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= k < size()}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     *         in snapshot {@code k}
+     */
+    public double distance(int k, int s, int t) {
+        validateSnapshot(k);
+        validateVertex(k, s);
+        validateVertex(k, t);
+        return tree(k, s).distTo[t];
+    }
+
+    /**
+     * Returns the lengths of a shortest path from {@code s} to {@code t}
+     * in every snapshot.
+     *
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return an array whose {@code k}th entry is the length of a shortest path
+     *         from {@code s} to {@code t} in snapshot {@code k};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     *         in every snapshot
+     */
+    public double[] distances(int s, int t) {
+        return distances(new int[] { s }, new int[] { t })[0];
+    }
+
+    /**
+     * Answers a batch of queries in every snapshot, on a pool of worker threads.
+     *
+     * @param  sources the source vertices of the queries
+     * @param  targets the destination vertices of the queries
+     * @return an array whose entry {@code [i][k]} is the length of a shortest path from
+     *         {@code sources[i]} to {@code targets[i]} in snapshot {@code k};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException if {@code sources} or {@code targets} is {@code null}
+     * @throws IllegalArgumentException if {@code sources} and {@code targets}
+     *         have different lengths
+     * @throws IllegalArgumentException unless every vertex is between {@code 0}
+     *         and {@code V-1} in every snapshot
+     */
+    public double[][] distances(final int[] sources, final int[] targets) {
+        if (sources == null || targets == null) throw new IllegalArgumentException("argument is null");
+        if (sources.length != targets.length)
+            throw new IllegalArgumentException("number of sources and targets differ");
+        int n = sources.length;
+        for (int k = 0; k < snapshots.length; k++) {
+            for (int i = 0; i < n; i++) {
+                validateVertex(k, sources[i]);
+                validateVertex(k, targets[i]);
+            }
+        }
+
+        // sort the queries by source, so that each group of queries with
+        // the same source is contiguous
+        final int[] order = new int[n];
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++)
+            keys[i] = ((long) sources[i] << 32) | i;
+        Arrays.sort(keys);
+        for (int i = 0; i < n; i++)
+            order[i] = (int) keys[i];
+
+        // the groups of queries with the same source are order[first[g]] through
+        // order[first[g+1]-1], for g = 0, 1, ..., groups-1
+        final int[] first = new int[n+1];
+        int groups = 0;
+        for (int lo = 0; lo < n; ) {
+            int hi = lo;
+            while (hi < n && sources[order[hi]] == sources[order[lo]]) hi++;
+            first[groups++] = lo;
+            lo = hi;
+        }
+        first[groups] = n;
+
+        // solve group j / S in snapshot j % S, for j = 0, 1, ..., groups*S - 1
+        final int S = snapshots.length;
+        final double[][] result = new double[n][S];
+        loop.run(groups * S, new ParallelFor.Body() {
+            public void run(int lo, int hi, int chunk) {
+                for (int j = lo; j < hi; j++) {
+                    int g = j / S, snapshot = j % S;
+                    Tree tree = tree(snapshot, sources[order[first[g]]]);
+                    for (int x = first[g]; x < first[g+1]; x++) {
+                        int i = order[x];
+                        result[i][snapshot] = tree.distTo[targets[i]];
+                    }
+                }
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Returns a shortest path from {@code s} to {@code t} in the specified snapshot.
+     *
+     * @param  k the index of the snapshot
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return a shortest path from {@code s} to {@code t} in snapshot {@code k};
+     *         {@code null} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= k < size()}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     *         in snapshot {@code k}
+     */
+    public Iterable<DirectedEdge> path(int k, int s, int t) {
+        validateSnapshot(k);
+        validateVertex(k, s);
+        validateVertex(k, t);
+        Tree tree = tree(k, s);
+        if (tree.distTo[t] == Double.POSITIVE_INFINITY) return null;
+        CSRDigraph G = snapshots[k];
+        Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+        for (int x = t; tree.parent[x] != -1; ) {
+            int i = tree.parent[x];
+            int v = G.tail(i);
+            path.push(new DirectedEdge(v, x, G.weight(i)));
+            x = v;
+        }
+        return path;
+    }
+
+    /**
+     * Returns the number of queries answered with a shortest-paths tree in the cache.
+     * @return the number of cache hits
+     */
+    public long hits() {
+        synchronized (cache) {
+            return hits;
+        }
+    }
+
+    /**
+     * Returns the number of shortest-paths trees computed.
+     * @return the number of cache misses
+     */
+    public long misses() {
+        synchronized (cache) {
+            return misses;
+        }
+    }
+
+    /**
+     * Releases the worker threads, which are created once and reused by every
+     * batch of queries. They are created again if another batch is answered.
+     */
+    public void close() {
+        loop.shutdown();
+    }
+
+    private void validateSnapshot(int k) {
+        if (k < 0 || k >= snapshots.length)
+            throw new IllegalArgumentException("index " + k + " is not between 0 and " + (snapshots.length - 1));
+    }
+
+    private void validateVertex(int k, int v) {
+        int V = snapshots[k].V();
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1) + " in snapshot " + k);
+    }
+
+    /**
+     * Reads pairs of vertices from standard input and prints the length of
+     * a shortest path between them in every snapshot.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        boolean directed = args.length > 0 && args[0].equals("-directed");
+        int first = directed ? 1 : 0;
+        File[] files = new File[args.length - first];
+        for (int i = first; i < args.length; i++)
+            files[i - first] = new File(args[i]);
+
+        BatchSP sp = BatchSP.load(files, directed);
+        while (!StdIn.isEmpty()) {
+            int s = StdIn.readInt();
+            int t = StdIn.readInt();
+            StdOut.print(s + " " + t + " ");
+            for (double d : sp.distances(s, t))
+                StdOut.printf(" %.5f", d);
+            StdOut.println();
+        }
+        sp.close();
+    }
+}
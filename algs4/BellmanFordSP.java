@@ -1,8 +1,7 @@
 /******************************************************************************
  *  Compilation:  javac BellmanFordSP.java
- *  Execution:    java BellmanFordSP filename.txt s
- *  Dependencies: EdgeWeightedDigraph.java DirectedEdge.java Queue.java
- *                EdgeWeightedDirectedCycle.java
+ *  Execution:    java BellmanFordSP filename.txt s [options]
+ *  Dependencies: EdgeWeightedDigraph.java DirectedEdge.java Stack.java
  *  Data files:   https://algs4.cs.princeton.edu/44sp/tinyEWDn.txt
  *                https://algs4.cs.princeton.edu/44sp/tinyEWDnc.txt
  *                https://algs4.cs.princeton.edu/44sp/mediumEWD.txt
@@ -31,6 +30,8 @@
 
 package edu.princeton.cs.algs4;
 
+import java.util.Arrays;
+
 /**
  *  The {@code BellmanFordSP} class represents a data type for solving the
  *  single-source shortest paths problem in edge-weighted digraphs with
@@ -48,6 +49,17 @@ package edu.princeton.cs.algs4;
  *  It uses &Theta;(<em>V</em>) extra space (not including the
  *  edge-weighted digraph).
  *  <p>
+ *  By default, it looks for a cycle in the predecessor graph after every
+ *  <em>V</em> relaxations, by walking up from each vertex until reaching
+ *  a vertex already visited, which takes &Theta;(<em>V</em>) time and no
+ *  extra space. With the {@link #SUBTREE_DISASSEMBLY} option, it instead keeps
+ *  the shortest-paths tree as a list of vertices in preorder; when the
+ *  distance to a vertex decreases, the vertices below it are removed from the
+ *  tree (and not relaxed until their distances decrease in turn), and a
+ *  negative cycle is found as soon as it forms. The {@link #SMALL_LABEL_FIRST}
+ *  and {@link #LARGE_LABEL_LAST} options change the order of the queue, which
+ *  often reduces the number of relaxations.
+ *  <p>
  *  This correctly computes shortest paths if all arithmetic performed is
  *  without floating-point rounding error or arithmetic overflow.
  *  This is the case if all edge weights are integers and if none of the
@@ -67,11 +79,43 @@ public class BellmanFordSP {
     // for floating-point precision issues
     private static final double EPSILON = 1E-14;
 
+    /**
+     * Option to keep the shortest-paths tree explicitly and, whenever the distance
+     * to a vertex decreases, remove the subtree below it (Tarjan's subtree
+     * disassembly), instead of looking for a cycle every <em>V</em> relaxations.
+     */
+    public static final int SUBTREE_DISASSEMBLY = 1;
+
+    /**
+     * Option to put a vertex at the front of the queue, rather than at the back,
+     * if its distance is less than the distance of the vertex at the front
+     * (the small label first heuristic).
+     */
+    public static final int SMALL_LABEL_FIRST = 2;
+
+    /**
+     * Option to move the vertex at the front of the queue to the back, rather than
+     * relax it, while its distance is greater than the average distance of the
+     * vertices on the queue (the large label last heuristic).
+     */
+    public static final int LARGE_LABEL_LAST = 4;
+
+    private static final int OPTIONS = SUBTREE_DISASSEMBLY | SMALL_LABEL_FIRST | LARGE_LABEL_LAST;
+
     private double[] distTo;               // distTo[v] = distance  of shortest s->v path
     private DirectedEdge[] edgeTo;         // edgeTo[v] = last edge on shortest s->v path
     private boolean[] onQueue;             // onQueue[v] = is v currently on the queue?
-    private Queue<Integer> queue;          // queue of vertices to relax
+    private int[] queue;                   // queue of vertices to relax, as a circular deque
+    private int first;                     // queue[first] = vertex at the front of the queue
+    private int n;                         // number of vertices on the queue
+    private double queued;                 // sum of distTo[v] for the vertices v on the queue
+    private int options;                   // the options
     private int cost;                      // number of calls to relax()
+    private int[] mark;                    // mark[v] = last walk up the tree that visited v
+    private int walk;                      // number of walks up the tree
+    private boolean[] inTree;              // inTree[v] = is v on the shortest-paths tree?
+    private int[] next, prev;              // the vertices of the tree, as a circular list in preorder
+    private int[] depth;                   // depth[v] = depth of v in the tree
     private Iterable<DirectedEdge> cycle;  // negative cycle (or null if no such cycle)
 
     /**
@@ -82,20 +126,51 @@ public class BellmanFordSP {
      * @throws IllegalArgumentException unless {@code 0 <= s < V}
      */
     public BellmanFordSP(EdgeWeightedDigraph G, int s) {
+        this(G, s, 0);
+    }
+
+    /**
+     * Computes a shortest paths tree from {@code s} to every other vertex in
+     * the edge-weighted digraph {@code G}, with the specified options.
+     * @param G the acyclic digraph
+     * @param s the source vertex
+     * @param options any combination of {@link #SUBTREE_DISASSEMBLY},
+     *        {@link #SMALL_LABEL_FIRST}, and {@link #LARGE_LABEL_LAST},
+     *        combined with {@code |}, or {@code 0} for none
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException if {@code options} is not a combination of options
+     */
+    public BellmanFordSP(EdgeWeightedDigraph G, int s, int options) {
+        if ((options & ~OPTIONS) != 0)
+            throw new IllegalArgumentException("unknown options: " + options);
+        this.options = options;
         distTo  = new double[G.V()];
         edgeTo  = new DirectedEdge[G.V()];
         onQueue = new boolean[G.V()];
+        validateVertex(s);
         for (int v = 0; v < G.V(); v++)
             distTo[v] = Double.POSITIVE_INFINITY;
         distTo[s] = 0.0;
 
+        if (has(SUBTREE_DISASSEMBLY)) {
+            inTree = new boolean[G.V()];
+            next   = new int[G.V()];
+            prev   = new int[G.V()];
+            depth  = new int[G.V()];
+            inTree[s] = true;
+            next[s] = prev[s] = s;
+        }
+        else {
+            mark = new int[G.V()];
+        }
+
         // Bellman-Ford algorithm
-        queue = new Queue<Integer>();
-        queue.enqueue(s);
-        onQueue[s] = true;
-        while (!queue.isEmpty() && !hasNegativeCycle()) {
-            int v = queue.dequeue();
+        queue = new int[G.V()];
+        enqueue(s);
+        while (n > 0 && !hasNegativeCycle()) {
+            int v = dequeue();
             onQueue[v] = false;
+            if (inTree != null && !inTree[v]) continue;    // its distance is about to decrease
             relax(G, v);
         }
 
@@ -107,20 +182,97 @@ public class BellmanFordSP {
         for (DirectedEdge e : G.adj(v)) {
             int w = e.to();
             if (distTo[w] > distTo[v] + e.weight() + EPSILON) {
+                if (inTree != null && !disassemble(e)) return;  // found a negative cycle
+                if (onQueue[w]) queued += distTo[v] + e.weight() - distTo[w];
                 distTo[w] = distTo[v] + e.weight();
                 edgeTo[w] = e;
-                if (!onQueue[w]) {
-                    queue.enqueue(w);
-                    onQueue[w] = true;
-                }
+                if (!onQueue[w]) enqueue(w);
             }
-            if (++cost % G.V() == 0) {
+            if (inTree == null && ++cost % G.V() == 0) {
                 findNegativeCycle();
                 if (hasNegativeCycle()) return;  // found a negative cycle
             }
         }
     }
 
+    private boolean has(int option) {
+        return (options & option) != 0;
+    }
+
+    // add w to the queue, at the front if it has a small label
+    private void enqueue(int w) {
+        onQueue[w] = true;
+        queued += distTo[w];
+        if (has(SMALL_LABEL_FIRST) && n > 0 && distTo[w] < distTo[queue[first]]) {
+            first = (first == 0 ? queue.length : first) - 1;
+            queue[first] = w;
+        }
+        else {
+            queue[(first + n) % queue.length] = w;
+        }
+        n++;
+    }
+
+    // remove the vertex at the front of the queue, after moving large labels to the back
+    private int dequeue() {
+        if (has(LARGE_LABEL_LAST)) {
+            double average = queued / n;
+            for (int k = 1; k < n && distTo[queue[first]] > average; k++) {
+                queue[(first + n) % queue.length] = queue[first];
+                first = (first + 1) % queue.length;
+            }
+        }
+        int v = queue[first];
+        first = (first + 1) % queue.length;
+        n--;
+        queued = n == 0 ? 0.0 : queued - distTo[v];
+        return v;
+    }
+
+    // e = v->w lowers the distance to w: remove the subtree rooted at w from the
+    // shortest-paths tree and make w a child of v, or, if v is in that subtree,
+    // record the negative cycle that e closes and return false
+    private boolean disassemble(DirectedEdge e) {
+        int v = e.from(), w = e.to();
+        if (v == w) return closeCycle(e);
+        if (inTree[w]) {
+            int last = w;
+            for (int x = next[w]; depth[x] > depth[w]; x = next[x]) {
+                if (x == v) return closeCycle(e);
+                inTree[x] = false;
+                last = x;
+            }
+            next[prev[w]] = next[last];
+            prev[next[last]] = prev[w];
+        }
+        next[w] = next[v];
+        prev[next[v]] = w;
+        next[v] = w;
+        prev[w] = v;
+        depth[w] = depth[v] + 1;
+        inTree[w] = true;
+        return true;
+    }
+
+    // record the negative cycle formed by e = v->w and the tree path from w to v
+    private boolean closeCycle(DirectedEdge e) {
+        edgeTo[e.to()] = e;
+        cycle = cycle(e.to());
+        return false;
+    }
+
+    // the cycle in the predecessor graph through x, starting at its smallest vertex
+    private Iterable<DirectedEdge> cycle(int x) {
+        int min = x;
+        for (int y = edgeTo[x].from(); y != x; y = edgeTo[y].from())
+            min = Math.min(min, y);
+        Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+        path.push(edgeTo[min]);
+        for (int y = edgeTo[min].from(); y != min; y = edgeTo[y].from())
+            path.push(edgeTo[y]);
+        return path;
+    }
+
     /**
      * Is there a negative cycle reachable from the source vertex {@code s}?
      * @return {@code true} if there is a negative cycle reachable from the
@@ -140,16 +292,29 @@ public class BellmanFordSP {
         return cycle;
     }
 
-    // by finding a cycle in predecessor graph
+    // by finding a cycle in predecessor graph, walking up from each vertex
+    // until reaching a vertex already visited (or the root)
     private void findNegativeCycle() {
         int V = edgeTo.length;
-        EdgeWeightedDigraph spt = new EdgeWeightedDigraph(V);
-        for (int v = 0; v < V; v++)
-            if (edgeTo[v] != null)
-                spt.addEdge(edgeTo[v]);
-
-        EdgeWeightedDirectedCycle finder = new EdgeWeightedDirectedCycle(spt);
-        cycle = finder.cycle();
+        if (walk > Integer.MAX_VALUE - V) {
+            Arrays.fill(mark, 0);
+            walk = 0;
+        }
+        int start = walk;           // marks greater than start were made by this search
+        for (int v = 0; v < V; v++) {
+            if (mark[v] > start) continue;
+            walk++;
+            int x = v;
+            while (mark[x] <= start && edgeTo[x] != null) {
+                mark[x] = walk;
+                x = edgeTo[x].from();
+            }
+            if (mark[x] == walk) {
+                cycle = cycle(x);
+                return;
+            }
+            mark[x] = walk;
+        }
     }
 
     /**
@@ -280,9 +445,10 @@ public class BellmanFordSP {
     public static void main(String[] args) {
         In in = new In(args[0]);
         int s = Integer.parseInt(args[1]);
+        int options = args.length > 2 ? Integer.parseInt(args[2]) : 0;
         EdgeWeightedDigraph G = new EdgeWeightedDigraph(in);
 
-        BellmanFordSP sp = new BellmanFordSP(G, s);
+        BellmanFordSP sp = new BellmanFordSP(G, s, options);
 
         // print negative cycle
         if (sp.hasNegativeCycle()) {
@@ -0,0 +1,306 @@
+/******************************************************************************
+ *  Compilation:  javac BidirectionalDijkstraSP.java
+ *  Execution:    java BidirectionalDijkstraSP input.txt s t
+ *  Dependencies: CSRDigraph.java EdgeWeightedDigraph.java EdgeWeightedGraph.java
+ *                IndexDoubleMinPQ.java Stack.java DirectedEdge.java
+ *                In.java StdOut.java
+ *  Data files:   https://algs4.cs.princeton.edu/44sp/tinyEWD.txt
+ *                https://algs4.cs.princeton.edu/44sp/mediumEWD.txt
+ *                https://algs4.cs.princeton.edu/44sp/largeEWD.txt
+ *
+ *  Answers point-to-point shortest-path queries s->t with bidirectional
+ *  Dijkstra, stopping as soon as the two searches prove that no shorter
+ *  path exists. Assumes all weights are non-negative.
+ *
+ *  % java BidirectionalDijkstraSP tinyEWD.txt 0 6
+ *  0 to 6 (1.51)  0->2  0.26   2->7  0.34   7->3  0.39   3->6  0.52
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+
+/**
+ *  The {@code BidirectionalDijkstraSP} class represents a data type for
+ *  answering <em>point-to-point</em> shortest-path queries in an
+ *  edge-weighted digraph (or graph) where the edge weights are non-negative.
+ *  Unlike {@link DijkstraSP}, which computes a shortest-paths tree from a
+ *  source to every vertex, each query computes only a shortest path from
+ *  <em>s</em> to <em>t</em>.
+ *  <p>
+ *  This implementation uses <em>bidirectional Dijkstra</em>: a forward search
+ *  from <em>s</em> in the digraph and a backward search from <em>t</em> in its
+ *  reverse, always advancing the search with the smaller priority queue.
+ *  It stops as soon as the sum of the two smallest keys is at least the length
+ *  of the shortest <em>s</em>-<em>t</em> path found so far, so a query
+ *  typically scans far fewer vertices than a single-source search;
+ *  in the worst case, it takes &Theta;(<em>E</em> log <em>V</em>) time.
+ *  <p>
+ *  The digraph is converted to a {@link CSRDigraph} (and its reverse) once,
+ *  when the data type is constructed, and the per-vertex arrays are reused by
+ *  every query, with a stamp per vertex recording which query last wrote to it;
+ *  as a result, a query does not take time proportional to <em>V</em> just to
+ *  initialize its arrays. A single instance must not be queried by more than
+ *  one thread at a time.
+ *  <p>
+ *  For an edge-weighted graph, each edge <em>v</em>-<em>w</em> is treated as
+ *  the two directed edges <em>v</em>&rarr;<em>w</em> and <em>w</em>&rarr;<em>v</em>,
+ *  and the edges on a shortest path are returned as {@link DirectedEdge} objects
+ *  oriented from <em>s</em> to <em>t</em>.
+ *  <p>
+ *  This correctly computes shortest paths if all arithmetic performed is
+ *  without floating-point rounding error or arithmetic overflow.
+ *  This is the case if all edge weights are integers and if none of the
+ *  intermediate results exceeds 2<sup>52</sup>. Since all intermediate
+ *  results are sums of edge weights, they are bounded by <em>V C</em>,
+ *  where <em>V</em> is the number of vertices and <em>C</em> is the maximum
+ *  weight of any edge.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/44sp">Section 4.4</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class BidirectionalDijkstraSP {
+    private final CSRDigraph G;          // the digraph
+    private final CSRDigraph R;          // its reverse (G itself, for an undirected graph)
+    private final int V;                 // number of vertices
+
+    private final double[] distF;        // distF[v] = length of shortest s->v path found (forward)
+    private final double[] distR;        // distR[v] = length of shortest v->t path found (backward)
+    private final int[] parentF;         // parentF[v] = position in G of last edge on s->v path
+    private final int[] parentR;         // parentR[v] = position in R of first edge on v->t path
+    private final int[] markF;           // distF[v] is valid iff markF[v] == query
+    private final int[] markR;           // distR[v] is valid iff markR[v] == query
+    private final IndexDoubleMinPQ pqF;  // priority queue of the forward search
+    private final IndexDoubleMinPQ pqR;  // priority queue of the backward search
+
+    private int query;                   // number of the current query
+    private int s, t;                    // endpoints of the last query
+    private double best;                 // length of shortest s->t path found so far
+    private int meet;                    // vertex on the shortest s->t path found so far (-1 if none)
+    private int scanned;                 // number of vertices scanned by the last query
+
+    /**
+     * Initializes a point-to-point shortest-path data type for the
+     * edge-weighted digraph {@code G}.
+     *
+     * @param  G the edge-weighted digraph
+     * @throws IllegalArgumentException if an edge weight is negative
+     */
+    public BidirectionalDijkstraSP(EdgeWeightedDigraph G) {
+        this(new CSRDigraph(G));
+    }
+
+    /**
+     * Initializes a point-to-point shortest-path data type for the
+     * edge-weighted graph {@code G}.
+     *
+     * @param  G the edge-weighted graph
+     * @throws IllegalArgumentException if an edge weight is negative
+     */
+    public BidirectionalDijkstraSP(EdgeWeightedGraph G) {
+        this(new CSRDigraph(G), true);
+    }
+
+    /**
+     * Initializes a point-to-point shortest-path data type for the
+     * digraph {@code G} in CSR form.
+     *
+     * @param  G the digraph
+     * @throws IllegalArgumentException if an edge weight is negative
+     */
+    public BidirectionalDijkstraSP(CSRDigraph G) {
+        this(G, false);
+    }
+
+    private BidirectionalDijkstraSP(CSRDigraph G, boolean symmetric) {
+        for (int i = 0; i < G.E(); i++) {
+            if (G.weight(i) < 0)
+                throw new IllegalArgumentException("edge at position " + i + " has negative weight");
+        }
+        this.G = G;
+        this.R = symmetric ? G : G.reverse();
+        this.V = G.V();
+        distF = new double[V];
+        distR = new double[V];
+        parentF = new int[V];
+        parentR = new int[V];
+        markF = new int[V];
+        markR = new int[V];
+        pqF = new IndexDoubleMinPQ(V);
+        pqR = new IndexDoubleMinPQ(V);
+        meet = -1;
+        best = Double.POSITIVE_INFINITY;
+    }
+
+    // run the query s->t unless it is the last query answered
+    private void run(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        if (query > 0 && s == this.s && t == this.t) return;
+
+        if (query == Integer.MAX_VALUE) {
+            Arrays.fill(markF, 0);
+            Arrays.fill(markR, 0);
+            query = 0;
+        }
+        query++;
+        this.s = s;
+        this.t = t;
+        best = Double.POSITIVE_INFINITY;
+        meet = -1;
+        scanned = 0;
+
+        label(pqF, distF, parentF, markF, s, 0.0, -1);
+        label(pqR, distR, parentR, markR, t, 0.0, -1);
+        if (s == t) {
+            best = 0.0;
+            meet = s;
+        }
+
+        // advance the search with the smaller queue until the two searches
+        // prove that no path shorter than best exists
+        while (!pqF.isEmpty() && !pqR.isEmpty()) {
+            if (pqF.minKey() + pqR.minKey() >= best) break;
+            if (pqF.size() <= pqR.size()) scan(G, pqF, distF, parentF, markF, distR, markR);
+            else                          scan(R, pqR, distR, parentR, markR, distF, markF);
+        }
+
+        // leave the queues empty for the next query
+        while (!pqF.isEmpty()) pqF.delMin();
+        while (!pqR.isEmpty()) pqR.delMin();
+    }
+
+    // scan the vertex with the smallest key in one direction
+    private void scan(CSRDigraph D, IndexDoubleMinPQ pq, double[] dist, int[] parent, int[] mark,
+                      double[] otherDist, int[] otherMark) {
+        int v = pq.delMin();
+        scanned++;
+        for (int i = D.offset(v), end = D.offset(v+1); i < end; i++) {
+            int w = D.target(i);
+            double d = dist[v] + D.weight(i);
+            if (mark[w] != query || d < dist[w]) {
+                label(pq, dist, parent, mark, w, d, i);
+                if (otherMark[w] == query && d + otherDist[w] < best) {
+                    best = d + otherDist[w];
+                    meet = w;
+                }
+            }
+        }
+    }
+
+    // set the distance label of w in one direction
+    private void label(IndexDoubleMinPQ pq, double[] dist, int[] parent, int[] mark,
+                       int w, double d, int i) {
+        dist[w] = d;
+        parent[w] = i;
+        mark[w] = query;
+        if (pq.contains(w)) pq.decreaseKey(w, d);
+        else                pq.insert(w, d);
+    }
+
+    /**
+     * Returns the length of a shortest path from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return the length of a shortest path from {@code s} to {@code t};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public double distance(int s, int t) {
+        run(s, t);
+        return best;
+    }
+
+    /**
+     * Returns true if there is a path from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return {@code true} if there is a path from {@code s} to {@code t};
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public boolean hasPath(int s, int t) {
+        run(s, t);
+        return best < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns a shortest path from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return a shortest path from {@code s} to {@code t};
+     *         {@code null} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     */
+    public Iterable<DirectedEdge> path(int s, int t) {
+        run(s, t);
+        if (meet == -1) return null;
+
+        // the edges of the backward search, from meet to t
+        Stack<DirectedEdge> back = new Stack<DirectedEdge>();
+        for (int x = meet; parentR[x] != -1; ) {
+            int i = parentR[x];
+            int w = R.tail(i);
+            back.push(new DirectedEdge(x, w, R.weight(i)));
+            x = w;
+        }
+
+        // followed by the edges of the forward search, from s to meet
+        Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+        for (DirectedEdge e : back)
+            path.push(e);
+        for (int x = meet; parentF[x] != -1; ) {
+            int i = parentF[x];
+            int v = G.tail(i);
+            path.push(new DirectedEdge(v, x, G.weight(i)));
+            x = v;
+        }
+        return path;
+    }
+
+    /**
+     * Returns the number of vertices scanned by the last query. This is a
+     * measure of the work done by the query; a single-source search scans
+     * every vertex reachable from the source.
+     *
+     * @return the number of vertices scanned by the last query
+     */
+    public int scanned() {
+        return scanned;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Unit tests the {@code BidirectionalDijkstraSP} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(in);
+        int s = Integer.parseInt(args[1]);
+        int t = Integer.parseInt(args[2]);
+
+        BidirectionalDijkstraSP sp = new BidirectionalDijkstraSP(G);
+        if (sp.hasPath(s, t)) {
+            StdOut.printf("%d to %d (%.2f)  ", s, t, sp.distance(s, t));
+            for (DirectedEdge e : sp.path(s, t)) {
+                StdOut.print(e + "   ");
+            }
+            StdOut.println();
+        }
+        else {
+            StdOut.printf("%d to %d         no path\n", s, t);
+        }
+    }
+}
@@ -0,0 +1,454 @@
+/******************************************************************************
+ *  Compilation:  javac BinaryGraph.java
+ *  Execution:    java BinaryGraph [-directed] [-weighted] [-edges] input.txt output.bin
+ *                java BinaryGraph graph.bin
+ *  Dependencies: CSRGraph.java CSRDigraph.java BinaryOut.java In.java StdOut.java
+ *                Stopwatch.java
+ *  Data files:   https://algs4.cs.princeton.edu/43mst/largeEWG.txt
+ *
+ *  Reads and writes graphs in a compact binary format, and converts
+ *  graphs from the text format read by EdgeWeightedGraph(In) and friends.
+ *
+ *  % java BinaryGraph -weighted largeEWG.txt largeEWG.bin
+ *  1000000 vertices, 7586063 edges, weighted, undirected, CSR layout
+ *
+ *  % java BinaryGraph largeEWG.bin
+ *  1000000 vertices, 7586063 edges, weighted, undirected
+ *  loaded in 0.341 seconds
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ *  The {@code BinaryGraph} class provides static methods for writing graphs
+ *  in {@link CSRGraph} or {@link CSRDigraph} form to a binary file, and for
+ *  reading them back, without parsing any text.
+ *  <p>
+ *  A binary graph file consists of a 20-byte header followed by the edge
+ *  arrays, all big-endian, as written by {@link BinaryOut}:
+ *  <ul>
+ *  <li> the 32-bit magic number {@code 0x414C4734} (the characters {@code ALG4}),
+ *  <li> the 32-bit format version, currently 1,
+ *  <li> 32 bits of flags: {@code 1} if the graph is directed, {@code 2} if
+ *       it is edge-weighted, and {@code 4} if it uses the CSR layout,
+ *  <li> the 32-bit number of vertices <em>V</em> and number of edges <em>E</em>,
+ *  </ul>
+ *  In the <em>CSR layout</em>, the header is followed by the <em>V</em>+1
+ *  32-bit offsets, the <em>m</em> 32-bit neighbors and (if edge-weighted) the
+ *  <em>m</em> 64-bit weights of the graph in CSR form, where <em>m</em> is
+ *  <em>E</em> for a digraph and 2<em>E</em> for an undirected graph.
+ *  In the <em>edge-list layout</em>, the header is followed by the
+ *  <em>E</em> 32-bit tails, the <em>E</em> 32-bit heads, and (if edge-weighted)
+ *  the <em>E</em> 64-bit weights of the edges. The CSR layout reproduces the
+ *  adjacency lists exactly and is loaded with no further work; the edge-list
+ *  layout is smaller for undirected graphs, but the CSR arrays are rebuilt
+ *  when it is loaded.
+ *  <p>
+ *  The readers map the file into memory with {@link FileChannel#map} and
+ *  bulk-copy each array out of the mapped buffer, in chunks of at most
+ *  2<sup>30</sup> bytes, so files larger than 2 GB can be read.
+ *  Reading a graph with <em>E</em> edges and <em>V</em> vertices takes
+ *  &Theta;(<em>E</em> + <em>V</em>) time with a small constant, compared
+ *  with tokenizing and parsing every number of the text format.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/41graph">Section 4.1</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public final class BinaryGraph {
+
+    /**
+     * The magic number at the start of every binary graph file.
+     */
+    public static final int MAGIC = 0x414C4734;
+
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+
+    // flags
+    private static final int DIRECTED = 1;
+    private static final int WEIGHTED = 2;
+    private static final int CSR      = 4;
+
+    // largest region mapped at once; a multiple of 8 bytes
+    private static final int CHUNK_BYTES = 1 << 30;
+
+    // this class should not be instantiated
+    private BinaryGraph() { }
+
+    /**
+     * Writes the graph to the specified file in the CSR layout.
+     *
+     * @param  G the graph
+     * @param  filename the name of the file
+     * @throws IllegalArgumentException if {@code G} or {@code filename} is {@code null}
+     * @throws IllegalArgumentException if the file cannot be created
+     */
+    public static void write(CSRGraph G, String filename) {
+        write(G, filename, true);
+    }
+
+    /**
+     * Writes the graph to the specified file, in either the CSR layout or
+     * the edge-list layout.
+     *
+     * @param  G the graph
+     * @param  filename the name of the file
+     * @param  csr {@code true} for the CSR layout; {@code false} for the edge-list layout
+     * @throws IllegalArgumentException if {@code G} or {@code filename} is {@code null}
+     * @throws IllegalArgumentException if the file cannot be created
+     */
+    public static void write(CSRGraph G, String filename, boolean csr) {
+        if (G == null) throw new IllegalArgumentException("graph is null");
+        BinaryOut out = open(filename);
+        int V = G.V(), m = G.offset(V);
+        boolean weighted = G.isWeighted();
+        writeHeader(out, (weighted ? WEIGHTED : 0) | (csr ? CSR : 0), V, G.E());
+        if (csr) {
+            for (int v = 0; v <= V; v++)
+                out.write(G.offset(v));
+            for (int i = 0; i < m; i++)
+                out.write(G.target(i));
+            if (weighted) {
+                for (int i = 0; i < m; i++)
+                    out.write(G.weight(i));
+            }
+        }
+        else {
+            // one copy of each edge, in the same order as EdgeWeightedGraph.edges()
+            int[] position = new int[G.E()];
+            int t = G.E();
+            for (int v = 0; v < V; v++) {
+                int selfLoops = 0;
+                for (int i = G.offset(v); i < G.offset(v+1); i++) {
+                    int w = G.target(i);
+                    if (w > v || (w == v && selfLoops++ % 2 == 0))
+                        position[--t] = i;
+                }
+            }
+            for (int i : position)
+                out.write(G.tail(i));
+            for (int i : position)
+                out.write(G.target(i));
+            if (weighted) {
+                for (int i : position)
+                    out.write(G.weight(i));
+            }
+        }
+        out.close();
+    }
+
+    /**
+     * Writes the digraph to the specified file in the CSR layout.
+     *
+     * @param  G the digraph
+     * @param  filename the name of the file
+     * @throws IllegalArgumentException if {@code G} or {@code filename} is {@code null}
+     * @throws IllegalArgumentException if the file cannot be created
+     */
+    public static void write(CSRDigraph G, String filename) {
+        write(G, filename, true);
+    }
+
+    /**
+     * Writes the digraph to the specified file, in either the CSR layout or
+     * the edge-list layout.
+     *
+     * @param  G the digraph
+     * @param  filename the name of the file
+     * @param  csr {@code true} for the CSR layout; {@code false} for the edge-list layout
+     * @throws IllegalArgumentException if {@code G} or {@code filename} is {@code null}
+     * @throws IllegalArgumentException if the file cannot be created
+     */
+    public static void write(CSRDigraph G, String filename, boolean csr) {
+        if (G == null) throw new IllegalArgumentException("digraph is null");
+        BinaryOut out = open(filename);
+        int V = G.V(), E = G.E();
+        boolean weighted = G.isWeighted();
+        writeHeader(out, DIRECTED | (weighted ? WEIGHTED : 0) | (csr ? CSR : 0), V, E);
+        if (csr) {
+            for (int v = 0; v <= V; v++)
+                out.write(G.offset(v));
+            for (int i = 0; i < E; i++)
+                out.write(G.target(i));
+        }
+        else {
+            // each adjacency list in reverse, so reading rebuilds the same lists
+            for (int v = 0; v < V; v++)
+                for (int i = G.offset(v+1) - 1; i >= G.offset(v); i--)
+                    out.write(v);
+            for (int v = 0; v < V; v++)
+                for (int i = G.offset(v+1) - 1; i >= G.offset(v); i--)
+                    out.write(G.target(i));
+        }
+        if (weighted) {
+            if (csr) {
+                for (int i = 0; i < E; i++)
+                    out.write(G.weight(i));
+            }
+            else {
+                for (int v = 0; v < V; v++)
+                    for (int i = G.offset(v+1) - 1; i >= G.offset(v); i--)
+                        out.write(G.weight(i));
+            }
+        }
+        out.close();
+    }
+
+    /**
+     * Reads an undirected graph from the specified binary graph file.
+     *
+     * @param  filename the name of the file
+     * @return the graph
+     * @throws IllegalArgumentException if {@code filename} is {@code null}
+     * @throws IllegalArgumentException if the file cannot be read, is not a
+     *         binary graph file, or contains a directed graph
+     */
+    public static CSRGraph readGraph(String filename) {
+        if (filename == null) throw new IllegalArgumentException("filename is null");
+        try (FileChannel channel = FileChannel.open(new File(filename).toPath(), StandardOpenOption.READ)) {
+            int[] header = readHeader(channel, filename);
+            int flags = header[0], V = header[1], E = header[2];
+            if ((flags & DIRECTED) != 0)
+                throw new IllegalArgumentException(filename + " contains a directed graph");
+            boolean weighted = (flags & WEIGHTED) != 0;
+            long position = HEADER_BYTES;
+            if ((flags & CSR) != 0) {
+                int m = 2*E;
+                checkSize(channel, filename, 4L*(V+1) + 4L*m + (weighted ? 8L*m : 0));
+                int[] offsets = new int[V+1];
+                int[] targets = new int[m];
+                double[] weights = weighted ? new double[m] : null;
+                position = read(channel, position, offsets);
+                position = read(channel, position, targets);
+                if (weighted) read(channel, position, weights);
+                checkCSR(filename, V, offsets, targets);
+                return new CSRGraph(V, E, offsets, targets, weights);
+            }
+            else {
+                checkSize(channel, filename, 8L*E + (weighted ? 8L*E : 0));
+                int[] from = new int[E];
+                int[] to = new int[E];
+                double[] weight = weighted ? new double[E] : null;
+                position = read(channel, position, from);
+                position = read(channel, position, to);
+                if (weighted) read(channel, position, weight);
+                return new CSRGraph(V, from, to, weight);
+            }
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("could not read " + filename, ioe);
+        }
+    }
+
+    /**
+     * Reads a digraph from the specified binary graph file.
+     *
+     * @param  filename the name of the file
+     * @return the digraph
+     * @throws IllegalArgumentException if {@code filename} is {@code null}
+     * @throws IllegalArgumentException if the file cannot be read, is not a
+     *         binary graph file, or contains an undirected graph
+     */
+    public static CSRDigraph readDigraph(String filename) {
+        if (filename == null) throw new IllegalArgumentException("filename is null");
+        try (FileChannel channel = FileChannel.open(new File(filename).toPath(), StandardOpenOption.READ)) {
+            int[] header = readHeader(channel, filename);
+            int flags = header[0], V = header[1], E = header[2];
+            if ((flags & DIRECTED) == 0)
+                throw new IllegalArgumentException(filename + " contains an undirected graph");
+            boolean weighted = (flags & WEIGHTED) != 0;
+            long position = HEADER_BYTES;
+            if ((flags & CSR) != 0) {
+                checkSize(channel, filename, 4L*(V+1) + 4L*E + (weighted ? 8L*E : 0));
+                int[] offsets = new int[V+1];
+                int[] targets = new int[E];
+                double[] weights = weighted ? new double[E] : null;
+                position = read(channel, position, offsets);
+                position = read(channel, position, targets);
+                if (weighted) read(channel, position, weights);
+                checkCSR(filename, V, offsets, targets);
+                return new CSRDigraph(V, E, offsets, targets, weights);
+            }
+            else {
+                checkSize(channel, filename, 8L*E + (weighted ? 8L*E : 0));
+                int[] from = new int[E];
+                int[] to = new int[E];
+                double[] weight = weighted ? new double[E] : null;
+                position = read(channel, position, from);
+                position = read(channel, position, to);
+                if (weighted) read(channel, position, weight);
+                return new CSRDigraph(V, from, to, weight);
+            }
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("could not read " + filename, ioe);
+        }
+    }
+
+    /**
+     * Returns true if the specified binary graph file contains a directed graph.
+     *
+     * @param  filename the name of the file
+     * @return {@code true} if the file contains a digraph; {@code false} otherwise
+     * @throws IllegalArgumentException if {@code filename} is {@code null}
+     * @throws IllegalArgumentException if the file cannot be read or is not a binary graph file
+     */
+    public static boolean isDirected(String filename) {
+        if (filename == null) throw new IllegalArgumentException("filename is null");
+        try (FileChannel channel = FileChannel.open(new File(filename).toPath(), StandardOpenOption.READ)) {
+            return (readHeader(channel, filename)[0] & DIRECTED) != 0;
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("could not read " + filename, ioe);
+        }
+    }
+
+    private static BinaryOut open(String filename) {
+        if (filename == null) throw new IllegalArgumentException("filename is null");
+        try {
+            return new BinaryOut(new FileOutputStream(filename));
+        }
+        catch (IOException ioe) {
+            throw new IllegalArgumentException("could not create " + filename, ioe);
+        }
+    }
+
+    private static void writeHeader(BinaryOut out, int flags, int V, int E) {
+        out.write(MAGIC);
+        out.write(VERSION);
+        out.write(flags);
+        out.write(V);
+        out.write(E);
+    }
+
+    // returns { flags, V, E }
+    private static int[] readHeader(FileChannel channel, String filename) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.BIG_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0)
+                throw new IllegalArgumentException(filename + " is not a binary graph file");
+        }
+        buffer.flip();
+        if (buffer.getInt() != MAGIC)
+            throw new IllegalArgumentException(filename + " is not a binary graph file");
+        int version = buffer.getInt();
+        if (version != VERSION)
+            throw new IllegalArgumentException(filename + " has unsupported format version " + version);
+        int flags = buffer.getInt();
+        int V = buffer.getInt();
+        int E = buffer.getInt();
+        if (V < 0 || E < 0 || ((flags & (DIRECTED | CSR)) == CSR && E > Integer.MAX_VALUE / 2))
+            throw new IllegalArgumentException(filename + " is not a valid binary graph file");
+        return new int[] { flags, V, E };
+    }
+
+    private static void checkSize(FileChannel channel, String filename, long bytes) throws IOException {
+        if (channel.size() != HEADER_BYTES + bytes)
+            throw new IllegalArgumentException(filename + " is not a valid binary graph file");
+    }
+
+    // bulk-copies a.length ints starting at the given file position; returns the next position
+    private static long read(FileChannel channel, long position, int[] a) throws IOException {
+        for (int i = 0; i < a.length; ) {
+            int n = Math.min(a.length - i, CHUNK_BYTES / 4);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L*n);
+            buffer.order(ByteOrder.BIG_ENDIAN).asIntBuffer().get(a, i, n);
+            position += 4L*n;
+            i += n;
+        }
+        return position;
+    }
+
+    // bulk-copies a.length doubles starting at the given file position; returns the next position
+    private static long read(FileChannel channel, long position, double[] a) throws IOException {
+        for (int i = 0; i < a.length; ) {
+            int n = Math.min(a.length - i, CHUNK_BYTES / 8);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, 8L*n);
+            buffer.order(ByteOrder.BIG_ENDIAN).asDoubleBuffer().get(a, i, n);
+            position += 8L*n;
+            i += n;
+        }
+        return position;
+    }
+
+    // throws an IllegalArgumentException unless the arrays describe a valid graph
+    private static void checkCSR(String filename, int V, int[] offsets, int[] targets) {
+        boolean valid = offsets[0] == 0 && offsets[V] == targets.length;
+        for (int v = 0; v < V && valid; v++)
+            valid = offsets[v] <= offsets[v+1];
+        for (int i = 0; i < targets.length && valid; i++)
+            valid = targets[i] >= 0 && targets[i] < V;
+        if (!valid)
+            throw new IllegalArgumentException(filename + " is not a valid binary graph file");
+    }
+
+    private static String describe(int V, int E, boolean weighted, boolean directed) {
+        return V + " vertices, " + E + " edges, "
+             + (weighted ? "weighted, " : "unweighted, ")
+             + (directed ? "directed" : "undirected");
+    }
+
+    /**
+     * Converts a graph in text format to a binary graph file, or reads a binary
+     * graph file and prints a summary.
+     * <p>
+     * With two file arguments, reads a graph in the text format of
+     * {@link EdgeWeightedGraph#EdgeWeightedGraph(In)} (or of {@link Graph#Graph(In)}
+     * without {@code -weighted}) from the first and writes it to the second;
+     * {@code -directed} reads it as a digraph and {@code -edges} selects
+     * the edge-list layout instead of the CSR layout.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        boolean directed = false, weighted = false, csr = true;
+        int k = 0;
+        for (; k < args.length && args[k].startsWith("-"); k++) {
+            if      (args[k].equals("-directed")) directed = true;
+            else if (args[k].equals("-weighted")) weighted = true;
+            else if (args[k].equals("-edges"))    csr = false;
+            else throw new IllegalArgumentException("unknown option " + args[k]);
+        }
+
+        if (args.length - k == 1) {
+            Stopwatch timer = new Stopwatch();
+            if (isDirected(args[k])) {
+                CSRDigraph G = readDigraph(args[k]);
+                StdOut.println(describe(G.V(), G.E(), G.isWeighted(), true));
+            }
+            else {
+                CSRGraph G = readGraph(args[k]);
+                StdOut.println(describe(G.V(), G.E(), G.isWeighted(), false));
+            }
+            StdOut.printf("loaded in %.3f seconds\n", timer.elapsedTime());
+        }
+        else if (args.length - k == 2) {
+            In in = new In(args[k]);
+            if (directed) {
+                CSRDigraph G = new CSRDigraph(in, weighted);
+                write(G, args[k+1], csr);
+                StdOut.println(describe(G.V(), G.E(), weighted, true) + (csr ? ", CSR layout" : ", edge-list layout"));
+            }
+            else {
+                CSRGraph G = new CSRGraph(in, weighted);
+                write(G, args[k+1], csr);
+                StdOut.println(describe(G.V(), G.E(), weighted, false) + (csr ? ", CSR layout" : ", edge-list layout"));
+            }
+        }
+        else {
+            StdOut.println("usage: java BinaryGraph [-directed] [-weighted] [-edges] input.txt output.bin");
+            StdOut.println("       java BinaryGraph graph.bin");
+        }
+    }
+}
@@ -13,6 +13,7 @@
 
 package edu.princeton.cs.algs4;
 
+import java.util.Iterator;
 
 /**
  *  The {@code Bipartite} class represents a data type for
@@ -24,14 +25,15 @@ package edu.princeton.cs.algs4;
  *  bipartition; if not, the <em>oddCycle</em> operation determines a
  *  cycle with an odd number of edges.
  *  <p>
- *  This implementation uses <em>depth-first search</em>.
+ *  This implementation uses <em>depth-first search</em>, with an explicit
+ *  stack instead of recursion, so that it does not overflow the call stack
+ *  on graphs with long paths.
  *  The constructor takes &Theta;(<em>V</em> + <em>E</em>) time in
  *  the worst case, where <em>V</em> is the number of vertices and <em>E</em>
  *  is the number of edges.
  *  Each instance method takes &Theta;(1) time.
  *  It uses &Theta;(<em>V</em>) extra space (not including the graph).
- *  See {@link BipartiteX} for a nonrecursive version that uses breadth-first
- *  search.
+ *  See {@link BipartiteX} for a version that uses breadth-first search.
  *  <p>
  *  For additional documentation, see <a href="https://algs4.cs.princeton.edu/41graph">Section 4.1</a>
  *  of <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
@@ -58,26 +60,38 @@ public class Bipartite {
         marked = new boolean[G.V()];
         edgeTo = new int[G.V()];
 
-        for (int v = 0; v < G.V(); v++) {
+        int[] path = new int[G.V()];
+        Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[G.V()];
+        for (int v = 0; v < G.V() && cycle == null; v++) {
             if (!marked[v]) {
-                dfs(G, v);
+                dfs(G, v, path, adj);
             }
         }
         assert check(G);
     }
 
-    private void dfs(Graph G, int v) {
-        marked[v] = true;
-        for (int w : G.adj(v)) {
-
-            // short circuit if odd-length cycle found
-            if (cycle != null) return;
+    // depth-first search from s, with path[i] = i-th vertex on the path
+    // from s and adj[i] = iterator over its adjacency list
+    private void dfs(Graph G, int s, int[] path, Iterator<Integer>[] adj) {
+        int n = 0;
+        marked[s] = true;
+        path[n] = s;
+        adj[n++] = G.adj(s).iterator();
+        while (n > 0) {
+            int v = path[n-1];
+            if (!adj[n-1].hasNext()) {
+                adj[--n] = null;
+                continue;
+            }
+            int w = adj[n-1].next();
 
-            // found uncolored vertex, so recur
+            // found uncolored vertex, so descend
             if (!marked[w]) {
+                marked[w] = true;
                 edgeTo[w] = v;
                 color[w] = !color[v];
-                dfs(G, w);
+                path[n] = w;
+                adj[n++] = G.adj(w).iterator();
             }
 
             // if v-w create an odd-length cycle, find it
@@ -89,6 +103,7 @@ public class Bipartite {
                     cycle.push(x);
                 }
                 cycle.push(w);
+                return;
             }
         }
     }
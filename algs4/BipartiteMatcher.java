@@ -0,0 +1,585 @@
+/******************************************************************************
+ *  Compilation:  javac BipartiteMatcher.java
+ *  Execution:    java BipartiteMatcher V1 V2 E
+ *  Dependencies: CSRGraph.java Graph.java GraphGenerator.java StdRandom.java
+ *                StdOut.java
+ *
+ *  Find a maximum cardinality matching (and minimum cardinality vertex cover)
+ *  in a bipartite graph stored in primitive arrays, using the Hopcroft-Karp
+ *  algorithm, and maintain it as vertices and edges are added.
+ *
+ *  % java BipartiteMatcher 100000 100000 300000
+ *  Number of edges in max matching        = 92753
+ *  Graph has a perfect matching           = false
+ *  After adding 1000 vertices and 100000 edges:
+ *  Number of edges in max matching        = 95153
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+
+/**
+ *  The {@code BipartiteMatcher} class represents a data type for computing a
+ *  <em>maximum (cardinality) matching</em> and a
+ *  <em>minimum (cardinality) vertex cover</em> in a bipartite graph, and for
+ *  keeping them up to date as vertices and edges are added to the graph.
+ *  It supports the same operations as {@link HopcroftKarp}, along with
+ *  <em>add-vertex</em> and <em>add-edge</em> operations.
+ *  <p>
+ *  This implementation uses the <em>Hopcroft-Karp algorithm</em>, on a graph
+ *  stored in primitive arrays: the edges of the graph it is constructed from,
+ *  in CSR form (see {@link CSRGraph}), and the edges added later, in linked
+ *  lists of array positions (each edge in the lists of both endpoints). The two
+ *  sides of the bipartition are found with an iterative breadth-first search,
+ *  and the connected components are kept in a union-find data structure
+ *  (weighted by size, with path halving). When an edge added later joins two
+ *  components whose sides do not match, the sides of the smaller component are
+ *  swapped; an edge can be added between any two vertices except two vertices
+ *  on the same side of the same component. Each phase computes the distances of the
+ *  vertices on the first side (color {@code true}) from the unmatched vertices
+ *  on that side with a breadth-first search, and then finds a maximal set of
+ *  shortest augmenting paths with an iterative depth-first search, in which
+ *  each vertex remembers the next edge to try. The queue, the stack, and the
+ *  other arrays are allocated once and reused by every phase; no objects are
+ *  created per vertex, edge, or phase.
+ *  <p>
+ *  Adding an edge between two unmatched vertices adds it to the matching.
+ *  Otherwise, the matching may no longer be maximum, and the Hopcroft-Karp
+ *  algorithm is run again, starting from the current matching, at the next
+ *  query; since each edge added increases the size of a maximum matching by
+ *  at most one, this usually takes a few phases.
+ *  <p>
+ *  The constructor takes <em>O</em>((<em>E</em> + <em>V</em>) sqrt(<em>V</em>))
+ *  time in the worst case, where <em>E</em> is the number of edges and
+ *  <em>V</em> is the number of vertices in the graph, and so does the first query
+ *  after edges are added; other queries and the <em>add-vertex</em> operation
+ *  take constant amortized time. The <em>add-edge</em> operation takes the time of
+ *  a union-find operation, plus, if the sides of a component are swapped, time
+ *  proportional to the number of vertices and edges in that component; since the
+ *  smaller component is swapped, each vertex is swapped at most log<sub>2</sub>
+ *  <em>V</em> times.
+ *  It uses extra space proportional to <em>V</em> (not including the graph),
+ *  plus 16 bytes per edge added.
+ *  <p>
+ *  For additional documentation, see
+ *  <a href="https://algs4.cs.princeton.edu/65reductions">Section 6.5</a>
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class BipartiteMatcher {
+    private static final int UNMATCHED = -1;
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    private final CSRGraph G;         // the graph the matcher was constructed from
+    private final int arcs;           // number of positions in G
+    private int V;                    // number of vertices
+    private boolean[] color;          // color[v] = side of the bipartition containing v
+    private int[] mate;               // mate[v] = vertex matched to v (or UNMATCHED)
+    private int cardinality;          // cardinality of current matching
+    private boolean maximum;          // is the current matching maximum?
+    private boolean[] inMinVertexCover;  // inMinVertexCover[v] = true iff v is in min vertex cover
+
+    // connected components, in a union-find data structure
+    private int[] parent;             // parent[v] = parent of v in the union-find forest
+    private int[] count;              // count[r] = number of vertices in the component with root r
+
+    // edges added to the graph, in linked lists: the edges v-w added later are
+    // w = added[k], for k = first[v], next[k], next[next[k]], ... until -1
+    private int[] first;
+    private int[] added;
+    private int[] next;
+    private int n;                    // number of edges added
+
+    // buffers for the Hopcroft-Karp algorithm, reused by every phase
+    private int[] distTo;             // distTo[v] = distance of v from an unmatched vertex (INFINITY if none)
+    private int[] current;            // current[v] = next edge (as a position) to try from v
+    private int[] queue;              // queue of the breadth-first search, and stack of the depth-first search
+
+    /**
+     * Determines a maximum matching (and a minimum vertex cover)
+     * in a bipartite graph.
+     *
+     * @param  G the bipartite graph
+     * @throws IllegalArgumentException if {@code G} is not bipartite
+     */
+    public BipartiteMatcher(Graph G) {
+        this(new CSRGraph(G));
+    }
+
+    /**
+     * Determines a maximum matching (and a minimum vertex cover)
+     * in a bipartite graph, stored in CSR form.
+     *
+     * @param  G the bipartite graph
+     * @throws IllegalArgumentException if {@code G} is {@code null}
+     * @throws IllegalArgumentException if {@code G} is not bipartite
+     */
+    public BipartiteMatcher(CSRGraph G) {
+        if (G == null) throw new IllegalArgumentException("argument is null");
+        this.G = G;
+        this.V = G.V();
+        this.arcs = G.offset(V);
+        int capacity = Math.max(V, 1);
+        color = new boolean[capacity];
+        mate = new int[capacity];
+        first = new int[capacity];
+        parent = new int[capacity];
+        count = new int[capacity];
+        distTo = new int[capacity];
+        current = new int[capacity];
+        queue = new int[capacity];
+        added = new int[1];
+        next = new int[1];
+        Arrays.fill(mate, UNMATCHED);
+        Arrays.fill(first, -1);
+
+        if (!bipartition())
+            throw new IllegalArgumentException("graph is not bipartite");
+        match();
+    }
+
+    // color the vertices, and find the components, with breadth-first search;
+    // is the graph bipartite?
+    private boolean bipartition() {
+        boolean[] marked = new boolean[V];
+        for (int s = 0; s < V; s++) {
+            if (marked[s]) continue;
+            int head = 0, tail = 0;
+            queue[tail++] = s;
+            marked[s] = true;
+            color[s] = true;
+            while (head < tail) {
+                int v = queue[head++];
+                parent[v] = s;
+                for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                    int w = G.target(i);
+                    if (!marked[w]) {
+                        marked[w] = true;
+                        color[w] = !color[v];
+                        queue[tail++] = w;
+                    }
+                    else if (color[w] == color[v]) return false;
+                }
+            }
+            count[s] = tail;
+        }
+        return true;
+    }
+
+    /**
+     * Adds a vertex, on the specified side of the bipartition, to the graph.
+     *
+     * @param  color the side of the bipartition (as in {@link #color(int)})
+     * @return the new vertex
+     */
+    public int addVertex(boolean color) {
+        if (V == mate.length) {
+            int capacity = 2 * mate.length;
+            this.color = Arrays.copyOf(this.color, capacity);
+            mate = Arrays.copyOf(mate, capacity);
+            first = Arrays.copyOf(first, capacity);
+            parent = Arrays.copyOf(parent, capacity);
+            count = Arrays.copyOf(count, capacity);
+            distTo = Arrays.copyOf(distTo, capacity);
+            current = Arrays.copyOf(current, capacity);
+            queue = Arrays.copyOf(queue, capacity);
+            if (inMinVertexCover != null) inMinVertexCover = Arrays.copyOf(inMinVertexCover, capacity);
+        }
+        int v = V++;
+        this.color[v] = color;
+        mate[v] = UNMATCHED;
+        first[v] = -1;
+        parent[v] = v;
+        count[v] = 1;
+        if (inMinVertexCover != null) inMinVertexCover[v] = false;
+        return v;
+    }
+
+    /**
+     * Adds the edge {@code v-w} to the graph. If {@code v} and {@code w} are
+     * in different components and on the same side of the bipartition, the
+     * sides of the vertices in the smaller component are swapped.
+     *
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+     * @throws IllegalArgumentException if {@code v} and {@code w} are in the same
+     *         component and on the same side of the bipartition
+     */
+    public void addEdge(int v, int w) {
+        validate(v);
+        validate(w);
+        int p = find(v), q = find(w);
+        if (p == q) {
+            if (color[v] == color[w])
+                throw new IllegalArgumentException("edge " + v + "-" + w + " would make the graph not bipartite");
+        }
+        else {
+            if (count[p] < count[q]) {
+                if (color[v] == color[w]) swapSides(v);
+                parent[p] = q;
+                count[q] += count[p];
+            }
+            else {
+                if (color[v] == color[w]) swapSides(w);
+                parent[q] = p;
+                count[p] += count[q];
+            }
+        }
+        if (!color[v]) {
+            int t = v;
+            v = w;
+            w = t;
+        }
+        if (n + 2 > added.length) {
+            int capacity = 2*added.length + 2;
+            added = Arrays.copyOf(added, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        added[n] = w;
+        next[n] = first[v];
+        first[v] = n++;
+        added[n] = v;
+        next[n] = first[w];
+        first[w] = n++;
+
+        // a new edge between unmatched vertices extends a maximum matching to a maximum matching
+        if (mate[v] == UNMATCHED && mate[w] == UNMATCHED) {
+            mate[v] = w;
+            mate[w] = v;
+            cardinality++;
+            if (inMinVertexCover != null) inMinVertexCover[v] = true;
+        }
+        else {
+            maximum = false;
+            inMinVertexCover = null;
+        }
+    }
+
+    // root of the component containing v, with path halving
+    private int find(int v) {
+        while (v != parent[v]) {
+            parent[v] = parent[parent[v]];
+            v = parent[v];
+        }
+        return v;
+    }
+
+    // swap the sides of the vertices in the component containing s, with
+    // breadth-first search: a neighbor on the same side as a swapped vertex
+    // has not been swapped yet
+    private void swapSides(int s) {
+        int head = 0, tail = 0;
+        queue[tail++] = s;
+        color[s] = !color[s];
+        while (head < tail) {
+            int v = queue[head++];
+            for (int i = firstEdge(v); i >= 0; i = nextEdge(v, i)) {
+                int w = target(i);
+                if (color[w] == color[v]) {
+                    color[w] = !color[w];
+                    queue[tail++] = w;
+                }
+            }
+        }
+    }
+
+    // position of the first edge from v, or -1 if none
+    private int firstEdge(int v) {
+        if (v < G.V() && G.offset(v) < G.offset(v+1)) return G.offset(v);
+        return first[v] < 0 ? -1 : arcs + first[v];
+    }
+
+    // position of the edge from v after the one at position i, or -1 if none
+    private int nextEdge(int v, int i) {
+        if (i < arcs) {
+            if (i + 1 < G.offset(v+1)) return i + 1;
+            return first[v] < 0 ? -1 : arcs + first[v];
+        }
+        int k = next[i - arcs];
+        return k < 0 ? -1 : arcs + k;
+    }
+
+    // vertex that the edge at position i points to
+    private int target(int i) {
+        return i < arcs ? G.target(i) : added[i - arcs];
+    }
+
+    // run the Hopcroft-Karp algorithm from the current matching, then find a min vertex cover
+    private void match() {
+        if (maximum) return;
+        while (hasAugmentingPath()) {
+            for (int v = 0; v < V; v++)
+                current[v] = firstEdge(v);
+            for (int s = 0; s < V; s++) {
+                if (color[s] && mate[s] == UNMATCHED && augment(s))
+                    cardinality++;
+            }
+        }
+        maximum = true;
+
+        // vertices on the first side not reachable by an alternating path, and
+        // vertices on the other side that are (distTo[] holds the last search)
+        inMinVertexCover = new boolean[mate.length];
+        for (int v = 0; v < V; v++) {
+            if (!color[v]) continue;
+            if (distTo[v] == INFINITY) {
+                inMinVertexCover[v] = true;
+                continue;
+            }
+            for (int i = firstEdge(v); i >= 0; i = nextEdge(v, i))
+                inMinVertexCover[target(i)] = true;
+        }
+        assert certifySolution();
+    }
+
+    /*
+     * is there an augmenting path?
+     *   - if so, upon termination distTo[] contains the level graph, for the
+     *     vertices on the first side, and the length of a shortest one is in limit;
+     *   - if not, upon termination distTo[v] < INFINITY for the vertices on the
+     *     first side reachable via an alternating path from an unmatched vertex
+     */
+    private int limit;  // length (number of vertices on the first side) of a shortest augmenting path
+
+    private boolean hasAugmentingPath() {
+        int head = 0, tail = 0;
+        for (int v = 0; v < V; v++) {
+            if (color[v] && mate[v] == UNMATCHED) {
+                distTo[v] = 0;
+                queue[tail++] = v;
+            }
+            else distTo[v] = INFINITY;
+        }
+
+        // breadth-first search, from one vertex on the first side to the next
+        limit = INFINITY;
+        while (head < tail) {
+            int v = queue[head++];
+            if (distTo[v] >= limit) break;
+            for (int i = firstEdge(v); i >= 0; i = nextEdge(v, i)) {
+                int x = mate[target(i)];
+                if (x == UNMATCHED) {
+                    if (limit == INFINITY) limit = distTo[v] + 1;
+                }
+                else if (distTo[x] == INFINITY) {
+                    distTo[x] = distTo[v] + 1;
+                    queue[tail++] = x;
+                }
+            }
+        }
+        return limit != INFINITY;
+    }
+
+    // find an augmenting path from s in the level graph with nonrecursive DFS, and augment along it
+    private boolean augment(int s) {
+        int top = 0;
+        queue[top++] = s;
+        while (top > 0) {
+            int v = queue[top-1];
+            int i = current[v];
+
+            // retreat, no more edges in level graph leaving v
+            if (i < 0) {
+                distTo[v] = INFINITY;
+                top--;
+                if (top > 0) {
+                    int u = queue[top-1];
+                    current[u] = nextEdge(u, current[u]);
+                }
+                continue;
+            }
+
+            // advance along the edge to w, to the vertex matched to w
+            int w = target(i);
+            int x = mate[w];
+            if (x == UNMATCHED && distTo[v] + 1 == limit) {
+
+                // augmenting path found: update the matching
+                for (int k = top - 1; k >= 0; k--) {
+                    int u = queue[k];
+                    int y = target(current[u]);
+                    mate[u] = y;
+                    mate[y] = u;
+                }
+                return true;
+            }
+            if (x != UNMATCHED && distTo[x] == distTo[v] + 1) queue[top++] = x;
+            else current[v] = nextEdge(v, i);
+        }
+        return false;
+    }
+
+    /**
+     * Returns the number of vertices in the graph.
+     *
+     * @return the number of vertices in the graph
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the side of the bipartition that the specified vertex is on.
+     * The sides of the vertices in a component may be swapped when an edge
+     * joins it to another component.
+     *
+     * @param  v the vertex
+     * @return the side of the bipartition that vertex {@code v} is on
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean color(int v) {
+        validate(v);
+        return color[v];
+    }
+
+    /**
+     * Returns the vertex to which the specified vertex is matched in
+     * the maximum matching computed by the algorithm.
+     *
+     * @param  v the vertex
+     * @return the vertex to which vertex {@code v} is matched in the
+     *         maximum matching; {@code -1} if the vertex is not matched
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int mate(int v) {
+        validate(v);
+        match();
+        return mate[v];
+    }
+
+    /**
+     * Returns true if the specified vertex is matched in the maximum matching
+     * computed by the algorithm.
+     *
+     * @param  v the vertex
+     * @return {@code true} if vertex {@code v} is matched in maximum matching;
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean isMatched(int v) {
+        return mate(v) != UNMATCHED;
+    }
+
+    /**
+     * Returns the number of edges in any maximum matching.
+     *
+     * @return the number of edges in any maximum matching
+     */
+    public int size() {
+        match();
+        return cardinality;
+    }
+
+    /**
+     * Returns true if the graph contains a perfect matching.
+     * That is, the number of edges in a maximum matching is equal to one half
+     * of the number of vertices in the graph (so that every vertex is matched).
+     *
+     * @return {@code true} if the graph contains a perfect matching;
+     *         {@code false} otherwise
+     */
+    public boolean isPerfect() {
+        return size() * 2 == V;
+    }
+
+    /**
+     * Returns true if the specified vertex is in the minimum vertex cover
+     * computed by the algorithm.
+     *
+     * @param  v the vertex
+     * @return {@code true} if vertex {@code v} is in the minimum vertex cover;
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean inMinVertexCover(int v) {
+        validate(v);
+        match();
+        return inMinVertexCover[v];
+    }
+
+    // throw an exception if vertex is invalid
+    private void validate(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**************************************************************************
+     *
+     *  The code below is solely for testing correctness of the data type.
+     *
+     **************************************************************************/
+
+    // check that mate[] and inMinVertexCover[] define a max matching and min vertex cover, respectively
+    private boolean certifySolution() {
+
+        // check that mate[] uses each vertex at most once, and only edges of the graph
+        int matchedVertices = 0;
+        for (int v = 0; v < V; v++) {
+            int w = mate[v];
+            if (w == UNMATCHED) continue;
+            matchedVertices++;
+            if (w == v || mate[w] != v) return false;
+            if (!color[v]) continue;
+            boolean isEdge = false;
+            for (int i = firstEdge(v); i >= 0; i = nextEdge(v, i))
+                if (target(i) == w) isEdge = true;
+            if (!isEdge) return false;
+        }
+
+        // check that size() is consistent with mate[] and with the vertex cover
+        if (2*cardinality != matchedVertices) return false;
+        int sizeOfMinVertexCover = 0;
+        for (int v = 0; v < V; v++)
+            if (inMinVertexCover[v]) sizeOfMinVertexCover++;
+        if (cardinality != sizeOfMinVertexCover) return false;
+
+        // check that inMinVertexCover[] is a vertex cover
+        for (int v = 0; v < V; v++) {
+            if (!color[v]) continue;
+            for (int i = firstEdge(v); i >= 0; i = nextEdge(v, i))
+                if (!inMinVertexCover[v] && !inMinVertexCover[target(i)]) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Unit tests the {@code BipartiteMatcher} data type.
+     * Takes three command-line arguments {@code V1}, {@code V2}, and {@code E};
+     * creates a random bipartite graph with {@code V1} + {@code V2} vertices
+     * and {@code E} edges; computes a maximum matching; adds 1000 vertices
+     * and 100000 random edges; and prints the results.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+
+        int V1 = Integer.parseInt(args[0]);
+        int V2 = Integer.parseInt(args[1]);
+        int E  = Integer.parseInt(args[2]);
+        Graph G = GraphGenerator.bipartite(V1, V2, E);
+        if (G.V() < 1000) StdOut.println(G);
+
+        BipartiteMatcher matching = new BipartiteMatcher(G);
+
+        // print maximum matching
+        StdOut.printf("Number of edges in max matching        = %d\n", matching.size());
+        StdOut.printf("Graph has a perfect matching           = %b\n", matching.isPerfect());
+
+        // add vertices, and edges between random vertices on different sides
+        for (int k = 0; k < 1000; k++)
+            matching.addVertex(StdRandom.bernoulli());
+        int V = matching.V();
+        for (int k = 0; k < 100000; ) {
+            int v = StdRandom.uniformInt(V);
+            int w = StdRandom.uniformInt(V);
+            if (matching.color(v) == matching.color(w)) continue;
+            matching.addEdge(v, w);
+            k++;
+        }
+        StdOut.println("After adding 1000 vertices and 100000 edges:");
+        StdOut.printf("Number of edges in max matching        = %d\n", matching.size());
+    }
+
+}
@@ -0,0 +1,454 @@
+/******************************************************************************
+ *  Compilation:  javac BlockedFloydWarshall.java
+ *  Execution:    java BlockedFloydWarshall V E [threads]
+ *  Dependencies: AdjMatrixEdgeWeightedDigraph.java EdgeWeightedDigraph.java
+ *                BellmanFordSP.java ParallelFor.java Queue.java
+ *
+ *  Floyd-Warshall all-pairs shortest path algorithm, with the distance
+ *  matrix split into square tiles that are updated in parallel.
+ *
+ *  % java BlockedFloydWarshall 100 500
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+
+/**
+ *  The {@code BlockedFloydWarshall} class represents a data type for solving the
+ *  all-pairs shortest paths problem in edge-weighted digraphs with
+ *  no negative cycles, using several threads.
+ *  The edge weights can be positive, negative, or zero.
+ *  This class finds either a shortest path between every pair of vertices
+ *  or a negative cycle.
+ *  <p>
+ *  This implementation uses the <em>blocked</em> Floyd-Warshall algorithm of
+ *  Venkataraman, Sahni, and Mukhopadhyaya. The distances are stored in one
+ *  array, row by row, and the paths in a parallel array of <em>next hops</em>,
+ *  the second vertex on each shortest path, rather than as edges.
+ *  Of several shortest paths, one with the fewest edges is kept, so that
+ *  the next hops cannot go around a cycle of weight zero.
+ *  The matrix is split into tiles of 64-by-64 entries, and the
+ *  intermediate vertices are considered one block of 64 at a time: first
+ *  within the diagonal tile of the block, then within the other tiles in its
+ *  row and column of tiles, and then within all of the remaining tiles.
+ *  The tiles of each of the last two steps are independent of one another,
+ *  and are updated in parallel; each tile update touches only three tiles,
+ *  which fit in the processor's cache.
+ *  <p>
+ *  The constructor takes &Theta;(<em>V</em><sup>3</sup> / <em>p</em>) time with
+ *  <em>p</em> threads, where <em>V</em> is the number of vertices, and
+ *  16 <em>V</em><sup>2</sup> bytes of extra space (a distance, a next hop, and
+ *  a number of edges for each pair of vertices); the numbers of edges are
+ *  discarded when it returns, leaving 12 <em>V</em><sup>2</sup> bytes, about the
+ *  same as the two matrices of {@link FloydWarshall}.
+ *  It supports at most 46,340 vertices.
+ *  The {@code dist()} and {@code hasPath()} methods take &Theta;(1) time;
+ *  the {@code path()} method takes time proportional to the number of edges
+ *  on the path times log <em>V</em>.
+ *  <p>
+ *  This correctly computes shortest paths if all arithmetic performed is
+ *  without floating-point rounding error or arithmetic overflow.
+ *  This is the case if all edge weights are integers and if none of the
+ *  intermediate results exceeds 2<sup>52</sup>. Since all intermediate
+ *  results are sums of edge weights, they are bounded by <em>V C</em>,
+ *  where <em>V</em> is the number of vertices and <em>C</em> is the maximum
+ *  absolute value of any edge weight.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/44sp">Section 4.4</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class BlockedFloydWarshall {
+
+    // width of a tile
+    private static final int BLOCK = 64;
+
+    private int V;                         // number of vertices
+    private boolean hasNegativeCycle;      // is there a negative cycle?
+    private double[] distTo;               // distTo[v*V + w] = length of shortest v->w path
+    private int[] next;                    // next[v*V + w] = second vertex on shortest v->w path (-1 if none)
+    private int[] hops;                    // hops[v*V + w] = number of edges on shortest v->w path (null after solve)
+    private int[] offsets;                 // the lightest edges from v are at offsets[v] to offsets[v+1]-1
+    private int[] heads;                   // heads[i] = vertex that the lightest edge at i points to
+    private double[] weights;              // weights[i] = weight of the lightest edge at i
+    private Iterable<DirectedEdge> cycle;  // negative cycle (or null if not yet found)
+
+    /**
+     * Computes a shortest path from each vertex to every other vertex in
+     * the edge-weighted digraph {@code G}, using one thread per available
+     * processor. If no such shortest path exists for some pair of vertices,
+     * it computes a negative cycle.
+     * @param G the edge-weighted digraph
+     * @throws IllegalArgumentException if {@code G} has more than 46,340 vertices
+     */
+    public BlockedFloydWarshall(AdjMatrixEdgeWeightedDigraph G) {
+        this(G, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes a shortest path from each vertex to every other vertex in
+     * the edge-weighted digraph {@code G}, using the specified number of threads.
+     * If no such shortest path exists for some pair of vertices, it computes
+     * a negative cycle.
+     * @param G the edge-weighted digraph
+     * @param threads the number of threads
+     * @throws IllegalArgumentException if {@code G} has more than 46,340 vertices
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public BlockedFloydWarshall(AdjMatrixEdgeWeightedDigraph G, int threads) {
+        initialize(G.V(), threads);
+        for (int v = 0; v < G.V(); v++)
+            for (DirectedEdge e : G.adj(v))
+                addEdge(e);
+        solve(threads);
+    }
+
+    /**
+     * Computes a shortest path from each vertex to every other vertex in
+     * the edge-weighted digraph {@code G}, using one thread per available
+     * processor. If no such shortest path exists for some pair of vertices,
+     * it computes a negative cycle.
+     * @param G the edge-weighted digraph
+     * @throws IllegalArgumentException if {@code G} has more than 46,340 vertices
+     */
+    public BlockedFloydWarshall(EdgeWeightedDigraph G) {
+        this(G, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes a shortest path from each vertex to every other vertex in
+     * the edge-weighted digraph {@code G}, using the specified number of threads.
+     * If no such shortest path exists for some pair of vertices, it computes
+     * a negative cycle. Of several parallel edges, only the lightest is used.
+     * @param G the edge-weighted digraph
+     * @param threads the number of threads
+     * @throws IllegalArgumentException if {@code G} has more than 46,340 vertices
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public BlockedFloydWarshall(EdgeWeightedDigraph G, int threads) {
+        initialize(G.V(), threads);
+        for (int v = 0; v < G.V(); v++)
+            for (DirectedEdge e : G.adj(v))
+                addEdge(e);
+        solve(threads);
+    }
+
+    // initialize distances to infinity (and to 0 from each vertex to itself)
+    private void initialize(int V, int threads) {
+        if ((long) V * V > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("too many vertices: " + V);
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+        this.V = V;
+        distTo = new double[V*V];
+        next = new int[V*V];
+        hops = new int[V*V];
+        Arrays.fill(distTo, Double.POSITIVE_INFINITY);
+        Arrays.fill(next, -1);
+        for (int v = 0; v < V; v++)
+            distTo[v*V + v] = 0.0;
+    }
+
+    // keep the lightest edge from each vertex to each other vertex, and negative self-loops
+    private void addEdge(DirectedEdge e) {
+        int v = e.from(), w = e.to();
+        if (e.weight() < distTo[v*V + w]) {
+            distTo[v*V + w] = e.weight();
+            next[v*V + w] = w;
+            hops[v*V + w] = 1;
+        }
+    }
+
+    private void solve(int threads) {
+
+        // remember the lightest edges, to create the edges on the shortest paths
+        offsets = new int[V+1];
+        for (int v = 0; v < V; v++)
+            for (int w = 0; w < V; w++)
+                if (next[v*V + w] == w) offsets[v+1]++;
+        for (int v = 0; v < V; v++)
+            offsets[v+1] += offsets[v];
+        heads = new int[offsets[V]];
+        weights = new double[offsets[V]];
+        for (int v = 0, i = 0; v < V; v++) {
+            for (int w = 0; w < V; w++) {
+                if (next[v*V + w] == w) {
+                    heads[i] = w;
+                    weights[i] = distTo[v*V + w];
+                    i++;
+                }
+            }
+        }
+
+        // blocked Floyd-Warshall updates
+        final int blocks = (V + BLOCK - 1) / BLOCK;
+        ParallelFor loop = new ParallelFor(threads, 1);
+        try {
+            for (int b = 0; b < blocks; b++) {
+                final int k = b;
+
+                // the diagonal tile
+                update(k, k, k);
+
+                // the other tiles in row k and column k
+                loop.run(2 * (blocks-1), new ParallelFor.Body() {
+                    public void run(int lo, int hi, int chunk) {
+                        for (int t = lo; t < hi; t++) {
+                            int other = t % (blocks-1);
+                            if (other >= k) other++;
+                            if (t < blocks-1) update(k, other, k);
+                            else              update(other, k, k);
+                        }
+                    }
+                });
+
+                // all of the other tiles
+                loop.run((blocks-1) * (blocks-1), new ParallelFor.Body() {
+                    public void run(int lo, int hi, int chunk) {
+                        for (int t = lo; t < hi; t++) {
+                            int i = t / (blocks-1), j = t % (blocks-1);
+                            if (i >= k) i++;
+                            if (j >= k) j++;
+                            update(i, j, k);
+                        }
+                    }
+                });
+
+                // check for negative cycle
+                for (int v = 0; v < V; v++)
+                    if (distTo[v*V + v] < 0.0) hasNegativeCycle = true;
+                if (hasNegativeCycle) return;
+            }
+        }
+        finally {
+            loop.shutdown();
+
+            // only needed to break ties while solving
+            hops = null;
+        }
+        assert check();
+    }
+
+    // update tile (bi, bj) using the vertices of block bk as intermediate vertices
+    private void update(int bi, int bj, int bk) {
+        int iLo = bi*BLOCK, iHi = Math.min(V, iLo + BLOCK);
+        int jLo = bj*BLOCK, jHi = Math.min(V, jLo + BLOCK);
+        int kLo = bk*BLOCK, kHi = Math.min(V, kLo + BLOCK);
+        for (int k = kLo; k < kHi; k++) {
+            int rowK = k*V;
+            for (int i = iLo; i < iHi; i++) {
+                int rowI = i*V;
+                double dik = distTo[rowI + k];
+                if (dik == Double.POSITIVE_INFINITY) continue;
+                int hop = next[rowI + k];
+                int hik = hops[rowI + k];
+                for (int j = jLo; j < jHi; j++) {
+                    double d = dik + distTo[rowK + j];
+                    if (d < distTo[rowI + j]) {
+                        distTo[rowI + j] = d;
+                        next[rowI + j] = hop;
+                        hops[rowI + j] = hik + hops[rowK + j];
+                    }
+
+                    // break ties by number of edges, to avoid cycles of next hops
+                    else if (d == distTo[rowI + j] && hik + hops[rowK + j] < hops[rowI + j]) {
+                        next[rowI + j] = hop;
+                        hops[rowI + j] = hik + hops[rowK + j];
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Is there a negative cycle?
+     * @return {@code true} if there is a negative cycle, and {@code false} otherwise
+     */
+    public boolean hasNegativeCycle() {
+        return hasNegativeCycle;
+    }
+
+    /**
+     * Returns a negative cycle, or {@code null} if there is no such cycle.
+     * @return a negative cycle as an iterable of edges,
+     * or {@code null} if there is no such cycle
+     */
+    public Iterable<DirectedEdge> negativeCycle() {
+        if (!hasNegativeCycle) return null;
+        if (cycle == null) {
+            EdgeWeightedDigraph G = new EdgeWeightedDigraph(V);
+            for (int v = 0; v < V; v++)
+                for (int i = offsets[v]; i < offsets[v+1]; i++)
+                    G.addEdge(new DirectedEdge(v, heads[i], weights[i]));
+
+            // there is a negative cycle through v, so one reachable from v
+            for (int v = 0; v < V; v++) {
+                if (distTo[v*V + v] < 0.0) {
+                    BellmanFordSP sp = new BellmanFordSP(G, v, BellmanFordSP.SUBTREE_DISASSEMBLY);
+                    assert sp.hasNegativeCycle();
+                    cycle = sp.negativeCycle();
+                    break;
+                }
+            }
+        }
+        return cycle;
+    }
+
+    /**
+     * Is there a path from the vertex {@code s} to vertex {@code t}?
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return {@code true} if there is a path from vertex {@code s}
+     *         to vertex {@code t}, and {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     */
+    public boolean hasPath(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        return distTo[s*V + t] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the length of a shortest path from vertex {@code s} to vertex {@code t}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return the length of a shortest path from vertex {@code s} to vertex {@code t};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws UnsupportedOperationException if there is a negative cost cycle
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public double dist(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        if (hasNegativeCycle())
+            throw new UnsupportedOperationException("Negative cost cycle exists");
+        return distTo[s*V + t];
+    }
+
+    /**
+     * Returns a shortest path from vertex {@code s} to vertex {@code t}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return a shortest path from vertex {@code s} to vertex {@code t}
+     *         as an iterable of edges, and {@code null} if no such path
+     * @throws UnsupportedOperationException if there is a negative cost cycle
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public Iterable<DirectedEdge> path(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        if (hasNegativeCycle())
+            throw new UnsupportedOperationException("Negative cost cycle exists");
+        if (!hasPath(s, t)) return null;
+        Queue<DirectedEdge> path = new Queue<DirectedEdge>();
+        for (int v = s; v != t; ) {
+            int w = next[v*V + t];
+            path.enqueue(new DirectedEdge(v, w, weight(v, w)));
+            v = w;
+        }
+        return path;
+    }
+
+    // weight of the lightest edge v->w
+    private double weight(int v, int w) {
+        int lo = offsets[v], hi = offsets[v+1] - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if      (heads[mid] < w) lo = mid + 1;
+            else if (heads[mid] > w) hi = mid - 1;
+            else return weights[mid];
+        }
+        throw new IllegalStateException("no edge " + v + "->" + w);
+    }
+
+    // check optimality conditions
+    private boolean check() {
+        for (int v = 0; v < V; v++) {
+            for (int k = offsets[v]; k < offsets[v+1]; k++) {
+                int w = heads[k];
+                for (int i = 0; i < V; i++) {
+                    if (distTo[i*V + w] > distTo[i*V + v] + weights[k]) {
+                        System.err.println("edge " + v + "->" + w + " is eligible");
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Unit tests the {@code BlockedFloydWarshall} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+
+        // random graph with V vertices and E edges, parallel edges allowed
+        int V = Integer.parseInt(args[0]);
+        int E = Integer.parseInt(args[1]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        AdjMatrixEdgeWeightedDigraph G = new AdjMatrixEdgeWeightedDigraph(V);
+        for (int i = 0; i < E; i++) {
+            int v = StdRandom.uniformInt(V);
+            int w = StdRandom.uniformInt(V);
+            double weight = 0.01 * StdRandom.uniformInt(-15, 100);
+            if (v == w) G.addEdge(new DirectedEdge(v, w, Math.abs(weight)));
+            else G.addEdge(new DirectedEdge(v, w, weight));
+        }
+
+        StdOut.println(G);
+
+        // run blocked Floyd-Warshall algorithm
+        BlockedFloydWarshall spt = new BlockedFloydWarshall(G, threads);
+
+        // print all-pairs shortest path distances
+        StdOut.printf("  ");
+        for (int v = 0; v < G.V(); v++) {
+            StdOut.printf("%6d ", v);
+        }
+        StdOut.println();
+        for (int v = 0; v < G.V(); v++) {
+            StdOut.printf("%3d: ", v);
+            for (int w = 0; w < G.V(); w++) {
+                if (spt.hasPath(v, w)) StdOut.printf("%6.2f ", spt.dist(v, w));
+                else StdOut.printf("  Inf ");
+            }
+            StdOut.println();
+        }
+
+        // print negative cycle
+        if (spt.hasNegativeCycle()) {
+            StdOut.println("Negative cost cycle:");
+            for (DirectedEdge e : spt.negativeCycle())
+                StdOut.println(e);
+            StdOut.println();
+        }
+
+        // print all-pairs shortest paths
+        else {
+            for (int v = 0; v < G.V(); v++) {
+                for (int w = 0; w < G.V(); w++) {
+                    if (spt.hasPath(v, w)) {
+                        StdOut.printf("%d to %d (%5.2f)  ", v, w, spt.dist(v, w));
+                        for (DirectedEdge e : spt.path(v, w))
+                            StdOut.print(e + "  ");
+                        StdOut.println();
+                    }
+                    else {
+                        StdOut.printf("%d to %d no path\n", v, w);
+                    }
+                }
+            }
+        }
+    }
+
+}
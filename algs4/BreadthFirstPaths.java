@@ -104,6 +104,41 @@ public class BreadthFirstPaths {
         bfs(G, sources);
     }
 
+    /**
+     * Computes the shortest path between the source vertex {@code s}
+     * and every other vertex in the graph {@code G}, stored in CSR form.
+     * @param G the graph
+     * @param s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public BreadthFirstPaths(CSRGraph G, int s) {
+        marked = new boolean[G.V()];
+        distTo = new int[G.V()];
+        edgeTo = new int[G.V()];
+        validateVertex(s);
+        for (int v = 0; v < G.V(); v++)
+            distTo[v] = INFINITY;
+
+        // each vertex is enqueued at most once, so an array suffices as the queue
+        int[] queue = new int[G.V()];
+        int head = 0, tail = 0;
+        distTo[s] = 0;
+        marked[s] = true;
+        queue[tail++] = s;
+
+        while (head < tail) {
+            int v = queue[head++];
+            for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                int w = G.target(i);
+                if (!marked[w]) {
+                    edgeTo[w] = v;
+                    distTo[w] = distTo[v] + 1;
+                    marked[w] = true;
+                    queue[tail++] = w;
+                }
+            }
+        }
+    }
 
     // breadth-first search from a single source
     private void bfs(Graph G, int s) {
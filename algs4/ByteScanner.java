@@ -0,0 +1,643 @@
+/******************************************************************************
+ *  Compilation:  javac ByteScanner.java
+ *  Execution:    none
+ *  Dependencies: none
+ *
+ *  A whitespace-delimited tokenizer over a UTF-8 byte stream that parses
+ *  numbers directly from the bytes, used by In and StdIn in place of
+ *  java.util.Scanner.
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.InputMismatchException;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.Scanner;
+
+/**
+ *  The {@code ByteScanner} class provides the subset of the methods of
+ *  {@link Scanner} that {@link In} and {@link StdIn} use, with the same
+ *  semantics as a {@code Scanner} that reads UTF-8 input, uses the locale
+ *  {@link Locale#US}, and uses {@code \p{javaWhitespace}+} as its delimiter.
+ *  In particular, {@code nextInt()} and the other number-parsing methods
+ *  throw an {@link InputMismatchException} without consuming the token if
+ *  it cannot be parsed.
+ *  <p>
+ *  This implementation reads the input into a byte buffer and scans it
+ *  without regular expressions. Tokens that consist of an optional sign
+ *  and decimal digits (with an optional fraction and exponent, for
+ *  floating-point numbers) are converted directly from the buffered bytes,
+ *  without creating a {@code String}; a {@code double} with at most 15
+ *  significant digits and a decimal exponent of at most 22 in absolute
+ *  value is computed with a single correctly rounded multiplication or
+ *  division. Any other token (for example, one with grouping separators,
+ *  non-ASCII digits, or {@code NaN}) is converted by a {@code Scanner},
+ *  so the results are always the same as with a {@code Scanner}.
+ *  <p>
+ *  A {@code ByteScanner} can also wrap an existing {@code Scanner}, in which
+ *  case every method delegates to it.
+ */
+final class ByteScanner {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final Locale LOCALE = Locale.US;
+
+    // ASCII_WHITESPACE[c] = true if c is whitespace, as in Character.isWhitespace()
+    private static final boolean[] ASCII_WHITESPACE = new boolean[128];
+    static {
+        for (char c = 0; c < 128; c++)
+            ASCII_WHITESPACE[c] = Character.isWhitespace(c);
+    }
+
+    // exactly representable powers of 10
+    private static final double[] POWERS_OF_10 = {
+        1e0,  1e1,  1e2,  1e3,  1e4,  1e5,  1e6,  1e7,  1e8,  1e9,  1e10, 1e11,
+        1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final Scanner source;   // scanner to delegate to (null if reading bytes)
+    private final InputStream in;   // the input stream (null if delegating)
+    private byte[] buffer;          // unread input is buffer[pos..limit-1]
+    private int pos;
+    private int limit;
+    private boolean eof;            // has the input stream been exhausted?
+    private char lowSurrogate;      // second half of a character split by nextChar() (0 if none)
+    private int width;              // number of bytes in the code point last decoded
+
+    // parsed by scanNumber()
+    private boolean negative;       // sign of the number
+    private long mantissa;          // decimal digits, without the decimal point
+    private int digits;             // number of significant digits in mantissa
+    private int exponent;           // power of 10 by which to multiply mantissa
+    private int length;             // number of bytes in the token
+
+    /**
+     * Initializes a scanner that reads UTF-8 text from the specified input stream.
+     *
+     * @param in the input stream
+     */
+    ByteScanner(InputStream in) {
+        this.in = in;
+        this.source = null;
+        this.buffer = new byte[BUFFER_SIZE];
+    }
+
+    /**
+     * Initializes a scanner that delegates to the specified scanner.
+     *
+     * @param source the scanner
+     */
+    ByteScanner(Scanner source) {
+        this.in = null;
+        this.source = source;
+    }
+
+
+    /***************************************************************************
+     *  Buffering and decoding.
+     ***************************************************************************/
+
+    // ensures that at least n unread bytes are buffered, unless the input is exhausted;
+    // returns true if there are
+    private boolean fill(int n) {
+        if (limit - pos >= n) return true;
+        if (eof) return false;
+        if (pos + n > buffer.length) {
+            if (n > buffer.length) {
+                byte[] copy = new byte[Math.max(n, 2*buffer.length)];
+                System.arraycopy(buffer, pos, copy, 0, limit - pos);
+                buffer = copy;
+            }
+            else {
+                System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            }
+            limit -= pos;
+            pos = 0;
+        }
+        while (limit - pos < n) {
+            int r;
+            try {
+                r = in.read(buffer, limit, buffer.length - limit);
+            }
+            catch (IOException e) {
+                r = -1;     // as with Scanner, an I/O error ends the input
+            }
+            if (r < 0) {
+                eof = true;
+                return false;
+            }
+            limit += r;
+        }
+        return true;
+    }
+
+    // returns the unread byte k positions ahead, or -1 if there is no such byte
+    private int peek(int k) {
+        if (pos + k >= limit && !fill(k + 1)) return -1;
+        return buffer[pos + k] & 0xFF;
+    }
+
+    // decodes the code point that starts k bytes ahead, which must exist,
+    // and sets width to its length in bytes; malformed input decodes to U+FFFD
+    private int codePointAt(int k) {
+        int b = buffer[pos + k] & 0xFF;
+        width = 1;
+        if (b < 0x80) return b;
+
+        int n, cp, min;
+        if      ((b & 0xE0) == 0xC0) { n = 2; cp = b & 0x1F; min = 0x80;    }
+        else if ((b & 0xF0) == 0xE0) { n = 3; cp = b & 0x0F; min = 0x800;   }
+        else if ((b & 0xF8) == 0xF0) { n = 4; cp = b & 0x07; min = 0x10000; }
+        else return 0xFFFD;
+        for (int i = 1; i < n; i++) {
+            int c = peek(k + i);
+            if (c < 0 || (c & 0xC0) != 0x80) return 0xFFFD;
+            cp = (cp << 6) | (c & 0x3F);
+        }
+        if (cp < min || cp > Character.MAX_CODE_POINT || (cp >= 0xD800 && cp <= 0xDFFF)) return 0xFFFD;
+        width = n;
+        return cp;
+    }
+
+    // returns true if the input k bytes ahead is whitespace; sets width
+    private boolean isWhitespaceAt(int k) {
+        int b = buffer[pos + k];
+        if (b >= 0) {
+            width = 1;
+            return ASCII_WHITESPACE[b];
+        }
+        return Character.isWhitespace(codePointAt(k));
+    }
+
+    // returns the number of bytes of whitespace ahead, without consuming them,
+    // or -1 if the input contains only whitespace
+    private int whitespaceAhead() {
+        if (lowSurrogate != 0) return 0;
+        int k = 0;
+        while (true) {
+            if (peek(k) < 0) return -1;
+            if (!isWhitespaceAt(k)) return k;
+            k += width;
+        }
+    }
+
+    // as with Scanner, a failed attempt to read a token consumes the trailing whitespace
+    private NoSuchElementException noSuchElement() {
+        pos = limit;
+        return new NoSuchElementException();
+    }
+
+    // returns the length in bytes of the token that starts k bytes ahead
+    private int tokenLength(int k) {
+        int start = k;
+        while (peek(k) >= 0 && !isWhitespaceAt(k))
+            k += width;
+        return k - start;
+    }
+
+    // the n bytes ahead, decoded as UTF-8
+    private String decode(int n) {
+        String s = new String(buffer, pos, n, StandardCharsets.UTF_8);
+        if (lowSurrogate != 0) {
+            s = lowSurrogate + s;
+            lowSurrogate = 0;
+        }
+        return s;
+    }
+
+
+    /***************************************************************************
+     *  Tokens.
+     ***************************************************************************/
+
+    /**
+     * Returns true if there is another token.
+     *
+     * @return {@code true} if there is another token; {@code false} otherwise
+     */
+    boolean hasNext() {
+        if (source != null) return source.hasNext();
+        return whitespaceAhead() >= 0;
+    }
+
+    /**
+     * Reads and returns the next token.
+     *
+     * @return the next token
+     * @throws NoSuchElementException if there are no more tokens
+     */
+    String next() {
+        if (source != null) return source.next();
+        int k = whitespaceAhead();
+        if (k < 0) throw noSuchElement();
+        pos += k;
+        int n = tokenLength(0);
+        String token = decode(n);
+        pos += n;
+        return token;
+    }
+
+    // returns the next token without consuming it
+    private String peekToken() {
+        int k = whitespaceAhead();
+        if (k < 0) throw noSuchElement();
+
+        // tokenLength() can refill the buffer, which moves pos and may replace buffer
+        int n = tokenLength(k);
+        if (lowSurrogate != 0) return lowSurrogate + new String(buffer, pos, n, StandardCharsets.UTF_8);
+        return new String(buffer, pos + k, n, StandardCharsets.UTF_8);
+    }
+
+    // skips whitespace and parses the next token if it has the form
+    // [+-]?digits[.digits]?([eE][+-]?digits)? (or [+-]?.digits...), setting negative,
+    // mantissa, digits, exponent, and length; returns false without consuming
+    // anything if the token has any other form or more than 18 significant digits
+    // throws NoSuchElementException if there are no more tokens
+    private boolean scanNumber(boolean fraction) {
+        int k = whitespaceAhead();
+        if (k < 0) throw noSuchElement();
+        if (lowSurrogate != 0) return false;
+        int start = k;
+        int c = peek(k);
+        negative = false;
+        if (c == '-' || c == '+') {
+            negative = (c == '-');
+            c = peek(++k);
+        }
+        mantissa = 0;
+        digits = 0;
+        exponent = 0;
+        int count = 0;                         // number of digits before the exponent
+        boolean point = false;
+        while (true) {
+            if (c >= '0' && c <= '9') {
+                count++;
+                if (digits > 0 || c != '0') {
+                    if (++digits > 18) return false;
+                    mantissa = 10*mantissa + (c - '0');
+                }
+                if (point) exponent--;
+            }
+            else if (c == '.' && fraction && !point) {
+                point = true;
+            }
+            else break;
+            c = peek(++k);
+        }
+        if (count == 0) return false;
+        if ((c == 'e' || c == 'E') && fraction) {
+            c = peek(++k);
+            boolean negativeExponent = false;
+            if (c == '-' || c == '+') {
+                negativeExponent = (c == '-');
+                c = peek(++k);
+            }
+            if (c < '0' || c > '9') return false;
+            int e = 0;
+            while (c >= '0' && c <= '9') {
+                if (e > 100000) return false;
+                e = 10*e + (c - '0');
+                c = peek(++k);
+            }
+            exponent += negativeExponent ? -e : e;
+        }
+        if (c >= 0 && !isWhitespaceAt(k)) return false;
+        pos += start;
+        length = k - start;
+        return true;
+    }
+
+    // the next token, parsed by a Scanner; throws InputMismatchException
+    // if it cannot be parsed, after consuming the whitespace before the token
+    // (but not the token), as a Scanner does
+    private Scanner tokenScanner() {
+        int k = whitespaceAhead();
+        if (k < 0) throw noSuchElement();
+        pos += k;
+        Scanner scanner = new Scanner(peekToken());
+        scanner.useLocale(LOCALE);
+        return scanner;
+    }
+
+    /**
+     * Reads the next token and parses it as an {@code int}.
+     *
+     * @return the next token, as an {@code int}
+     * @throws NoSuchElementException if there are no more tokens
+     * @throws InputMismatchException if the next token cannot be parsed as an
+     *         {@code int}, in which case it is not consumed
+     */
+    int nextInt() {
+        if (source != null) return source.nextInt();
+        if (scanNumber(false)) {
+            long value = negative ? -mantissa : mantissa;
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                pos += length;
+                return (int) value;
+            }
+        }
+        int value = tokenScanner().nextInt();
+        next();
+        return value;
+    }
+
+    /**
+     * Reads the next token and parses it as a {@code long}.
+     *
+     * @return the next token, as a {@code long}
+     * @throws NoSuchElementException if there are no more tokens
+     * @throws InputMismatchException if the next token cannot be parsed as a
+     *         {@code long}, in which case it is not consumed
+     */
+    long nextLong() {
+        if (source != null) return source.nextLong();
+        if (scanNumber(false)) {
+            pos += length;
+            return negative ? -mantissa : mantissa;
+        }
+        long value = tokenScanner().nextLong();
+        next();
+        return value;
+    }
+
+    /**
+     * Reads the next token and parses it as a {@code short}.
+     *
+     * @return the next token, as a {@code short}
+     * @throws NoSuchElementException if there are no more tokens
+     * @throws InputMismatchException if the next token cannot be parsed as a
+     *         {@code short}, in which case it is not consumed
+     */
+    short nextShort() {
+        if (source != null) return source.nextShort();
+        if (scanNumber(false)) {
+            long value = negative ? -mantissa : mantissa;
+            if (value >= Short.MIN_VALUE && value <= Short.MAX_VALUE) {
+                pos += length;
+                return (short) value;
+            }
+        }
+        short value = tokenScanner().nextShort();
+        next();
+        return value;
+    }
+
+    /**
+     * Reads the next token and parses it as a {@code byte}.
+     *
+     * @return the next token, as a {@code byte}
+     * @throws NoSuchElementException if there are no more tokens
+     * @throws InputMismatchException if the next token cannot be parsed as a
+     *         {@code byte}, in which case it is not consumed
+     */
+    byte nextByte() {
+        if (source != null) return source.nextByte();
+        if (scanNumber(false)) {
+            long value = negative ? -mantissa : mantissa;
+            if (value >= Byte.MIN_VALUE && value <= Byte.MAX_VALUE) {
+                pos += length;
+                return (byte) value;
+            }
+        }
+        byte value = tokenScanner().nextByte();
+        next();
+        return value;
+    }
+
+    /**
+     * Reads the next token and parses it as a {@code double}.
+     *
+     * @return the next token, as a {@code double}
+     * @throws NoSuchElementException if there are no more tokens
+     * @throws InputMismatchException if the next token cannot be parsed as a
+     *         {@code double}, in which case it is not consumed
+     */
+    double nextDouble() {
+        if (source != null) return source.nextDouble();
+        if (scanNumber(true)) {
+            double value;
+            if (digits <= 15 && exponent >= -22 && exponent <= 22) {
+                value = (exponent >= 0) ? mantissa * POWERS_OF_10[exponent]
+                                        : mantissa / POWERS_OF_10[-exponent];
+                if (negative) value = -value;
+            }
+            else {
+                value = Double.parseDouble(new String(buffer, pos, length, StandardCharsets.ISO_8859_1));
+            }
+            pos += length;
+            return value;
+        }
+        double value = tokenScanner().nextDouble();
+        next();
+        return value;
+    }
+
+    /**
+     * Reads the next token and parses it as a {@code float}.
+     *
+     * @return the next token, as a {@code float}
+     * @throws NoSuchElementException if there are no more tokens
+     * @throws InputMismatchException if the next token cannot be parsed as a
+     *         {@code float}, in which case it is not consumed
+     */
+    float nextFloat() {
+        if (source != null) return source.nextFloat();
+        if (scanNumber(true)) {
+            float value = Float.parseFloat(new String(buffer, pos, length, StandardCharsets.ISO_8859_1));
+            pos += length;
+            return value;
+        }
+        float value = tokenScanner().nextFloat();
+        next();
+        return value;
+    }
+
+    /**
+     * Reads the next token and parses it as {@link Integer#parseInt(String)} does.
+     *
+     * @return the next token, as an {@code int}
+     * @throws NoSuchElementException if there are no more tokens
+     * @throws NumberFormatException if the next token cannot be parsed as an {@code int}
+     */
+    int parseInt() {
+        if (source == null && scanNumber(false)) {
+            long value = negative ? -mantissa : mantissa;
+            if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+                pos += length;
+                return (int) value;
+            }
+        }
+        return Integer.parseInt(next());
+    }
+
+    /**
+     * Reads the next token and parses it as {@link Long#parseLong(String)} does.
+     *
+     * @return the next token, as a {@code long}
+     * @throws NoSuchElementException if there are no more tokens
+     * @throws NumberFormatException if the next token cannot be parsed as a {@code long}
+     */
+    long parseLong() {
+        if (source == null && scanNumber(false)) {
+            pos += length;
+            return negative ? -mantissa : mantissa;
+        }
+        return Long.parseLong(next());
+    }
+
+    /**
+     * Reads the next token and parses it as {@link Double#parseDouble(String)} does.
+     *
+     * @return the next token, as a {@code double}
+     * @throws NoSuchElementException if there are no more tokens
+     * @throws NumberFormatException if the next token cannot be parsed as a {@code double}
+     */
+    double parseDouble() {
+        if (source == null && scanNumber(true)) {
+            if (digits <= 15 && exponent >= -22 && exponent <= 22) {
+                double value = (exponent >= 0) ? mantissa * POWERS_OF_10[exponent]
+                                               : mantissa / POWERS_OF_10[-exponent];
+                pos += length;
+                return negative ? -value : value;
+            }
+        }
+        return Double.parseDouble(next());
+    }
+
+
+    /***************************************************************************
+     *  Lines and characters.
+     ***************************************************************************/
+
+    /**
+     * Returns true if there is more input, including whitespace.
+     *
+     * @return {@code true} if there is more input; {@code false} otherwise
+     */
+    boolean hasNextLine() {
+        if (source != null) return source.hasNextLine();
+        return lowSurrogate != 0 || peek(0) >= 0;
+    }
+
+    /**
+     * Reads and returns the rest of the current line, consuming the line
+     * separator ({@code \n}, {@code \r}, {@code \r\n}, U+2028, U+2029, or U+0085)
+     * but not including it.
+     *
+     * @return the rest of the current line
+     * @throws NoSuchElementException if there is no more input
+     */
+    String nextLine() {
+        if (source != null) return source.nextLine();
+        if (!hasNextLine()) throw new NoSuchElementException("No line found");
+        int k = 0;
+        int separator = 0;
+        while (peek(k) >= 0) {
+            int b = buffer[pos + k];
+            if (b == '\n') {
+                separator = 1;
+                break;
+            }
+            if (b == '\r') {
+                separator = (peek(k + 1) == '\n') ? 2 : 1;
+                break;
+            }
+            if (b >= 0) {
+                k++;
+                continue;
+            }
+            int cp = codePointAt(k);
+            if (cp == 0x2028 || cp == 0x2029 || cp == 0x0085) {
+                separator = width;
+                break;
+            }
+            k += width;
+        }
+        String line = decode(k);
+        pos += k + separator;
+        return line;
+    }
+
+    /**
+     * Returns true if there is more input, including whitespace.
+     *
+     * @return {@code true} if there is more input; {@code false} otherwise
+     */
+    boolean hasNextChar() {
+        if (source != null) {
+            source.useDelimiter("");
+            boolean result = source.hasNext();
+            source.useDelimiter("\\p{javaWhitespace}+");
+            return result;
+        }
+        return hasNextLine();
+    }
+
+    /**
+     * Reads and returns the next character (a UTF-16 code unit) of input,
+     * which may be whitespace.
+     *
+     * @return the next character
+     * @throws NoSuchElementException if there is no more input
+     */
+    char nextChar() {
+        if (source != null) {
+            source.useDelimiter("");
+            try {
+                return source.next().charAt(0);
+            }
+            finally {
+                source.useDelimiter("\\p{javaWhitespace}+");
+            }
+        }
+        if (lowSurrogate != 0) {
+            char c = lowSurrogate;
+            lowSurrogate = 0;
+            return c;
+        }
+        if (peek(0) < 0) throw new NoSuchElementException();
+        int cp = codePointAt(0);
+        pos += width;
+        if (Character.isBmpCodePoint(cp)) return (char) cp;
+        lowSurrogate = Character.lowSurrogate(cp);
+        return Character.highSurrogate(cp);
+    }
+
+    /**
+     * Reads and returns the remainder of the input.
+     *
+     * @return the remainder of the input; the empty string if none
+     */
+    String nextAll() {
+        if (source != null) {
+            if (!source.hasNextLine()) return "";
+            String result = source.useDelimiter("\\A").next();
+            source.useDelimiter("\\p{javaWhitespace}+");
+            return result;
+        }
+        while (fill(limit - pos + 1)) { }
+        String result = decode(limit - pos);
+        pos = limit;
+        return result;
+    }
+
+    /**
+     * Closes the underlying input stream or scanner.
+     */
+    void close() {
+        if (source != null) {
+            source.close();
+            return;
+        }
+        try {
+            in.close();
+        }
+        catch (IOException e) {
+            // as with Scanner, ignore
+        }
+    }
+}
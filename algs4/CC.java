@@ -19,18 +19,16 @@
  *  1 components
  *  0 1 2 3 4 5 6 7 8 9 10 ...
  *
- *  % java -Xss50m CC largeG.txt
+ *  % java CC largeG.txt
  *  1 components
  *  0 1 2 3 4 5 6 7 8 9 10 ...
  *
- *  Note: This implementation uses a recursive DFS. To avoid needing
- *        a potentially very large stack size, replace with a nonrecursive
- *        DFS ala NonrecursiveDFS.java.
- *
  ******************************************************************************/
 
 package edu.princeton.cs.algs4;
 
+import java.util.Iterator;
+
 /**
  *  The {@code CC} class represents a data type for
  *  determining the connected components in an undirected graph.
@@ -46,7 +44,9 @@ package edu.princeton.cs.algs4;
  *  identifier if and only if they are in the same connected component.
 
  *  <p>
- *  This implementation uses depth-first search.
+ *  This implementation uses depth-first search, with an explicit stack
+ *  instead of recursion, so that it does not overflow the call stack
+ *  on graphs with long paths.
  *  The constructor takes &Theta;(<em>V</em> + <em>E</em>) time,
  *  where <em>V</em> is the number of vertices and <em>E</em> is the
  *  number of edges.
@@ -75,9 +75,10 @@ public class CC {
         marked = new boolean[G.V()];
         id = new int[G.V()];
         size = new int[G.V()];
+        Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[G.V()];
         for (int v = 0; v < G.V(); v++) {
             if (!marked[v]) {
-                dfs(G, v);
+                dfs(G, v, adj);
                 count++;
             }
         }
@@ -92,36 +93,61 @@ public class CC {
         marked = new boolean[G.V()];
         id = new int[G.V()];
         size = new int[G.V()];
+        int[] path = new int[G.V()];
+        Iterator<Edge>[] adj = (Iterator<Edge>[]) new Iterator[G.V()];
         for (int v = 0; v < G.V(); v++) {
             if (!marked[v]) {
-                dfs(G, v);
+                dfs(G, v, path, adj);
                 count++;
             }
         }
     }
 
-    // depth-first search for a Graph
-    private void dfs(Graph G, int v) {
-        marked[v] = true;
-        id[v] = count;
+    // depth-first search for a Graph, with adj[i] = iterator over the
+    // adjacency list of the i-th vertex on the path from s
+    private void dfs(Graph G, int s, Iterator<Integer>[] adj) {
+        int n = 0;
+        marked[s] = true;
+        id[s] = count;
         size[count]++;
-        for (int w : G.adj(v)) {
-            if (!marked[w]) {
-                dfs(G, w);
+        adj[n++] = G.adj(s).iterator();
+        while (n > 0) {
+            Iterator<Integer> it = adj[n-1];
+            if (it.hasNext()) {
+                int w = it.next();
+                if (!marked[w]) {
+                    marked[w] = true;
+                    id[w] = count;
+                    size[count]++;
+                    adj[n++] = G.adj(w).iterator();
+                }
             }
+            else adj[--n] = null;
         }
     }
 
-    // depth-first search for an EdgeWeightedGraph
-    private void dfs(EdgeWeightedGraph G, int v) {
-        marked[v] = true;
-        id[v] = count;
+    // depth-first search for an EdgeWeightedGraph, with path[i] = i-th vertex
+    // on the path from s and adj[i] = iterator over its adjacency list
+    private void dfs(EdgeWeightedGraph G, int s, int[] path, Iterator<Edge>[] adj) {
+        int n = 0;
+        marked[s] = true;
+        id[s] = count;
         size[count]++;
-        for (Edge e : G.adj(v)) {
-            int w = e.other(v);
-            if (!marked[w]) {
-                dfs(G, w);
+        path[n] = s;
+        adj[n++] = G.adj(s).iterator();
+        while (n > 0) {
+            Iterator<Edge> it = adj[n-1];
+            if (it.hasNext()) {
+                int w = it.next().other(path[n-1]);
+                if (!marked[w]) {
+                    marked[w] = true;
+                    id[w] = count;
+                    size[count]++;
+                    path[n] = w;
+                    adj[n++] = G.adj(w).iterator();
+                }
             }
+            else adj[--n] = null;
         }
     }
 
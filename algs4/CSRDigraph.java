@@ -0,0 +1,418 @@
+/******************************************************************************
+ *  Compilation:  javac CSRDigraph.java
+ *  Execution:    java CSRDigraph filename.txt
+ *  Dependencies: Digraph.java EdgeWeightedDigraph.java EdgeWeightedGraph.java
+ *                In.java StdOut.java
+ *  Data files:   https://algs4.cs.princeton.edu/42digraph/tinyDG.txt
+ *                https://algs4.cs.princeton.edu/44sp/tinyEWD.txt
+ *
+ *  An immutable directed graph, optionally edge-weighted, stored in
+ *  compressed sparse row (CSR) form using primitive arrays.
+ *  Parallel edges and self-loops are permitted.
+ *
+ *  % java CSRDigraph tinyEWD.txt
+ *  8 15
+ *  0: 2 0.26000  4 0.38000
+ *  1: 3 0.29000
+ *  2: 7 0.34000
+ *  3: 6 0.52000
+ *  4: 7 0.37000  5 0.35000
+ *  5: 1 0.32000  7 0.28000  4 0.35000
+ *  6: 4 0.93000  0 0.58000  2 0.40000
+ *  7: 3 0.39000  5 0.28000
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.NoSuchElementException;
+
+/**
+ *  The {@code CSRDigraph} class represents an immutable directed graph of
+ *  vertices named 0 through <em>V</em> – 1, in which each edge optionally
+ *  has a real-valued weight. Parallel edges and self-loops are permitted.
+ *  <p>
+ *  This implementation uses a <em>compressed sparse row</em> (CSR)
+ *  representation: the adjacency lists are stored back to back in a
+ *  primitive {@code int[]} array of edge heads (with the weights in a
+ *  parallel {@code double[]} array), and the edges pointing from vertex
+ *  <em>v</em> occupy the positions {@code offset(v)} through
+ *  {@code offset(v+1) - 1}, in the same order as in the {@link Digraph}
+ *  or {@link EdgeWeightedDigraph} the digraph is built from.
+ *  Each position therefore identifies one edge, so algorithms can keep
+ *  per-edge state in a primitive array indexed by position.
+ *  It uses 4<em>V</em> + 4<em>E</em> bytes (4<em>V</em> + 12<em>E</em> bytes
+ *  if edge-weighted).
+ *  <p>
+ *  All instance methods take &Theta;(1) time, except {@code reverse()}, which
+ *  takes &Theta;(<em>E</em> + <em>V</em>) time.
+ *  Constructing a digraph with <em>E</em> edges and <em>V</em> vertices takes
+ *  &Theta;(<em>E</em> + <em>V</em>) time.
+ *  A digraph without weights behaves as if every edge has weight 1.0.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/42digraph">Section 4.2</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class CSRDigraph {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private int V;             // number of vertices
+    private int E;             // number of edges
+    private int[] offsets;     // edges from v are at positions offsets[v]..offsets[v+1]-1
+    private int[] targets;     // targets[i] = head of edge at position i
+    private double[] weights;  // weights[i] = weight of edge at position i (null if unweighted)
+
+    /**
+     * Initializes a digraph in CSR form from the specified digraph.
+     *
+     * @param  G the digraph
+     * @throws IllegalArgumentException if {@code G} is {@code null}
+     */
+    public CSRDigraph(Digraph G) {
+        if (G == null) throw new IllegalArgumentException("argument is null");
+        V = G.V();
+        E = G.E();
+        offsets = new int[V+1];
+        for (int v = 0; v < V; v++)
+            offsets[v+1] = offsets[v] + G.outdegree(v);
+        targets = new int[E];
+        weights = null;
+        for (int v = 0; v < V; v++) {
+            int i = offsets[v];
+            for (int w : G.adj(v))
+                targets[i++] = w;
+        }
+    }
+
+    /**
+     * Initializes an edge-weighted digraph in CSR form from the specified
+     * edge-weighted digraph.
+     *
+     * @param  G the edge-weighted digraph
+     * @throws IllegalArgumentException if {@code G} is {@code null}
+     */
+    public CSRDigraph(EdgeWeightedDigraph G) {
+        if (G == null) throw new IllegalArgumentException("argument is null");
+        V = G.V();
+        E = G.E();
+        offsets = new int[V+1];
+        for (int v = 0; v < V; v++)
+            offsets[v+1] = offsets[v] + G.outdegree(v);
+        targets = new int[E];
+        weights = new double[E];
+        for (int v = 0; v < V; v++) {
+            int i = offsets[v];
+            for (DirectedEdge e : G.adj(v)) {
+                targets[i] = e.to();
+                weights[i] = e.weight();
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Initializes an edge-weighted digraph in CSR form from the specified
+     * edge-weighted graph, replacing each edge <em>v</em>-<em>w</em> with the
+     * two directed edges <em>v</em>&rarr;<em>w</em> and <em>w</em>&rarr;<em>v</em>.
+     * The adjacency lists are in the same order as in {@code G}; in particular,
+     * a self-loop appears twice, and the resulting digraph is its own reverse.
+     *
+     * @param  G the edge-weighted graph
+     * @throws IllegalArgumentException if {@code G} is {@code null}
+     */
+    public CSRDigraph(EdgeWeightedGraph G) {
+        if (G == null) throw new IllegalArgumentException("argument is null");
+        V = G.V();
+        E = 2*G.E();
+        offsets = new int[V+1];
+        for (int v = 0; v < V; v++)
+            offsets[v+1] = offsets[v] + G.degree(v);
+        targets = new int[E];
+        weights = new double[E];
+        for (int v = 0; v < V; v++) {
+            int i = offsets[v];
+            for (Edge e : G.adj(v)) {
+                targets[i] = e.other(v);
+                weights[i] = e.weight();
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Initializes a digraph in CSR form from an input stream, without building
+     * an intermediate {@link Digraph}.
+     * The format is the number of vertices <em>V</em>,
+     * followed by the number of edges <em>E</em>,
+     * followed by <em>E</em> pairs of vertices (each followed by an edge
+     * weight if {@code weighted} is true), with each entry separated by whitespace.
+     *
+     * @param  in the input stream
+     * @param  weighted whether each edge is followed by a weight
+     * @throws IllegalArgumentException if {@code in} is {@code null}
+     * @throws IllegalArgumentException if the endpoints of any edge are not in prescribed range
+     * @throws IllegalArgumentException if the number of vertices or edges is negative
+     * @throws IllegalArgumentException if the input stream is in the wrong format
+     */
+    public CSRDigraph(In in, boolean weighted) {
+        if (in == null) throw new IllegalArgumentException("argument is null");
+        try {
+            V = in.readInt();
+            if (V < 0) throw new IllegalArgumentException("number of vertices must be non-negative");
+            E = in.readInt();
+            if (E < 0) throw new IllegalArgumentException("number of edges must be non-negative");
+            int[] from = new int[E];
+            int[] to = new int[E];
+            double[] weight = weighted ? new double[E] : null;
+            for (int i = 0; i < E; i++) {
+                from[i] = in.readInt();
+                to[i] = in.readInt();
+                validateVertex(from[i]);
+                validateVertex(to[i]);
+                if (weighted) weight[i] = in.readDouble();
+            }
+            build(from, to, weight);
+        }
+        catch (NoSuchElementException e) {
+            throw new IllegalArgumentException("invalid input format in CSRDigraph constructor", e);
+        }
+    }
+
+    // builds a digraph from a list of edges v->w; weight may be null
+    CSRDigraph(int V, int[] from, int[] to, double[] weight) {
+        this.V = V;
+        this.E = from.length;
+        for (int i = 0; i < E; i++) {
+            validateVertex(from[i]);
+            validateVertex(to[i]);
+        }
+        build(from, to, weight);
+    }
+
+    // fill the arrays from a list of valid edges v->w
+    private void build(int[] from, int[] to, double[] weight) {
+        offsets = new int[V+1];
+        for (int i = 0; i < E; i++)
+            offsets[from[i]+1]++;
+        for (int v = 0; v < V; v++)
+            offsets[v+1] += offsets[v];
+        targets = new int[E];
+        weights = (weight != null) ? new double[E] : null;
+
+        // fill each adjacency list from the back, so that the order is
+        // the same as in a Digraph built from the same list of edges
+        int[] next = new int[V];
+        for (int v = 0; v < V; v++)
+            next[v] = offsets[v+1];
+        for (int i = 0; i < E; i++) {
+            int p = --next[from[i]];
+            targets[p] = to[i];
+            if (weight != null) weights[p] = weight[i];
+        }
+    }
+
+    // takes ownership of the arrays, which must describe a valid digraph
+    CSRDigraph(int V, int E, int[] offsets, int[] targets, double[] weights) {
+        this.V = V;
+        this.E = E;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Returns the number of vertices in this digraph.
+     *
+     * @return the number of vertices in this digraph
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges in this digraph.
+     *
+     * @return the number of edges in this digraph
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns true if the edges of this digraph have weights.
+     *
+     * @return {@code true} if the edges of this digraph have weights;
+     *         {@code false} otherwise
+     */
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Returns the number of directed edges incident from vertex {@code v}.
+     * This is known as the <em>outdegree</em> of vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the outdegree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int outdegree(int v) {
+        validateVertex(v);
+        return offsets[v+1] - offsets[v];
+    }
+
+    /**
+     * Returns the position of the first edge pointing from vertex {@code v}.
+     * The edges from {@code v} occupy positions {@code offset(v)} through
+     * {@code offset(v+1) - 1}; {@code offset(V)} is the number of edges <em>E</em>.
+     *
+     * @param  v the vertex, or {@code V}
+     * @return the position of the first edge pointing from {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v <= V}
+     */
+    public int offset(int v) {
+        if (v < 0 || v > V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + V);
+        return offsets[v];
+    }
+
+    /**
+     * Returns the head vertex of the edge at the specified position.
+     *
+     * @param  i the position, between 0 and <em>E</em> – 1
+     * @return the head vertex of the edge at position {@code i}
+     */
+    public int target(int i) {
+        return targets[i];
+    }
+
+    // vertex whose adjacency list contains position i, by binary search on offsets[]
+    int tail(int i) {
+        int lo = 0, hi = V - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= i) lo = mid;
+            else                   hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the weight of the edge at the specified position,
+     * or 1.0 if this digraph is not edge-weighted.
+     *
+     * @param  i the position, between 0 and <em>E</em> – 1
+     * @return the weight of the edge at position {@code i}
+     */
+    public double weight(int i) {
+        if (weights == null) {
+            if (i < 0 || i >= E) throw new ArrayIndexOutOfBoundsException(i);
+            return 1.0;
+        }
+        return weights[i];
+    }
+
+    /**
+     * Returns the edge at the specified position as a {@link DirectedEdge}.
+     *
+     * @param  v the tail vertex of the edge
+     * @param  i the position, between {@code offset(v)} and {@code offset(v+1) - 1}
+     * @return the edge at position {@code i}
+     */
+    public DirectedEdge edge(int v, int i) {
+        return new DirectedEdge(v, targets[i], weight(i));
+    }
+
+    /**
+     * Returns the reverse of this digraph.
+     *
+     * @return the reverse of this digraph
+     */
+    public CSRDigraph reverse() {
+        int[] roffsets = new int[V+1];
+        for (int i = 0; i < E; i++)
+            roffsets[targets[i]+1]++;
+        for (int v = 0; v < V; v++)
+            roffsets[v+1] += roffsets[v];
+        int[] rtargets = new int[E];
+        double[] rweights = (weights == null) ? null : new double[E];
+
+        // same order as Digraph.reverse(): scan edges in order, fill from the back
+        int[] next = new int[V];
+        for (int v = 0; v < V; v++)
+            next[v] = roffsets[v+1];
+        for (int v = 0; v < V; v++) {
+            for (int i = offsets[v]; i < offsets[v+1]; i++) {
+                int p = --next[targets[i]];
+                rtargets[p] = v;
+                if (weights != null) rweights[p] = weights[i];
+            }
+        }
+        return new CSRDigraph(V, E, roffsets, rtargets, rweights);
+    }
+
+    /**
+     * Returns this digraph as a {@link Digraph}, with the same adjacency lists.
+     *
+     * @return this digraph as a {@code Digraph}
+     */
+    public Digraph toDigraph() {
+        Digraph G = new Digraph(V);
+        for (int v = 0; v < V; v++)
+            for (int i = offsets[v+1] - 1; i >= offsets[v]; i--)
+                G.addEdge(v, targets[i]);
+        return G;
+    }
+
+    /**
+     * Returns this digraph as an {@link EdgeWeightedDigraph}, with the same
+     * adjacency lists.
+     *
+     * @return this digraph as an {@code EdgeWeightedDigraph}
+     */
+    public EdgeWeightedDigraph toEdgeWeightedDigraph() {
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(V);
+        for (int v = 0; v < V; v++)
+            for (int i = offsets[v+1] - 1; i >= offsets[v]; i--)
+                G.addEdge(edge(v, i));
+        return G;
+    }
+
+    /**
+     * Returns a string representation of this digraph.
+     *
+     * @return the number of vertices <em>V</em>, followed by the number of edges <em>E</em>,
+     *         followed by the <em>V</em> adjacency lists
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " " + E + NEWLINE);
+        for (int v = 0; v < V; v++) {
+            s.append(v + ": ");
+            for (int i = offsets[v]; i < offsets[v+1]; i++) {
+                if (weights == null) s.append(targets[i] + " ");
+                else s.append(String.format("%d %.5f  ", targets[i], weights[i]));
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Unit tests the {@code CSRDigraph} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CSRDigraph G = new CSRDigraph(new EdgeWeightedDigraph(in));
+        StdOut.println(G);
+    }
+}
@@ -0,0 +1,386 @@
+/******************************************************************************
+ *  Compilation:  javac CSRGraph.java
+ *  Execution:    java CSRGraph filename.txt
+ *  Dependencies: Graph.java EdgeWeightedGraph.java In.java StdOut.java
+ *  Data files:   https://algs4.cs.princeton.edu/41graph/tinyG.txt
+ *                https://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *
+ *  An immutable undirected graph, optionally edge-weighted, stored in
+ *  compressed sparse row (CSR) form using primitive arrays.
+ *  Parallel edges and self-loops are permitted.
+ *
+ *  % java CSRGraph tinyEWG.txt
+ *  8 16
+ *  0: 6 0.58000  2 0.26000  4 0.38000  7 0.16000
+ *  1: 3 0.29000  2 0.36000  7 0.19000  5 0.32000
+ *  2: 6 0.40000  7 0.34000  1 0.36000  0 0.26000  3 0.17000
+ *  3: 6 0.52000  1 0.29000  2 0.17000
+ *  4: 6 0.93000  0 0.38000  7 0.37000  5 0.35000
+ *  5: 1 0.32000  7 0.28000  4 0.35000
+ *  6: 4 0.93000  0 0.58000  3 0.52000  2 0.40000
+ *  7: 2 0.34000  1 0.19000  0 0.16000  5 0.28000  4 0.37000
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.NoSuchElementException;
+
+/**
+ *  The {@code CSRGraph} class represents an immutable undirected graph of
+ *  vertices named 0 through <em>V</em> – 1, in which each edge optionally
+ *  has a real-valued weight. Parallel edges and self-loops are permitted.
+ *  As in {@link Graph}, a self-loop <em>v</em>-<em>v</em> appears in the
+ *  adjacency list of <em>v</em> twice and contributes two to its degree.
+ *  <p>
+ *  This implementation uses a <em>compressed sparse row</em> (CSR)
+ *  representation: the adjacency lists are stored back to back in a
+ *  primitive {@code int[]} array of neighbors (with the weights in a parallel
+ *  {@code double[]} array), and the adjacency list of vertex <em>v</em>
+ *  occupies the positions {@code offset(v)} through {@code offset(v+1) - 1}.
+ *  Each undirected edge is stored once in the adjacency list of each
+ *  endpoint, in the same order as in the {@link Graph} or
+ *  {@link EdgeWeightedGraph} it is built from.
+ *  It uses 4<em>V</em> + 8<em>E</em> bytes (16<em>V</em> + 24<em>E</em> bytes
+ *  if edge-weighted), compared with well over 100 bytes per edge for the
+ *  {@link Bag}-based adjacency lists, and iterating over the neighbors
+ *  of a vertex scans a contiguous range of memory.
+ *  <p>
+ *  All instance methods take &Theta;(1) time.
+ *  Constructing a graph with <em>E</em> edges and <em>V</em> vertices takes
+ *  &Theta;(<em>E</em> + <em>V</em>) time.
+ *  A graph without weights behaves as if every edge has weight 1.0.
+ *  <p>
+ *  {@link DijkstraSP}, {@link PrimMST}, {@link KruskalMST},
+ *  {@link BreadthFirstPaths}, and {@link DepthFirstOrder} have constructors
+ *  that take a {@code CSRGraph} or {@link CSRDigraph} directly.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/41graph">Section 4.1</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class CSRGraph {
+    private static final String NEWLINE = System.getProperty("line.separator");
+
+    private int V;             // number of vertices
+    private int E;             // number of edges
+    private int[] offsets;     // adjacency list of v is targets[offsets[v]..offsets[v+1]-1]
+    private int[] targets;     // targets[i] = neighbor at position i
+    private double[] weights;  // weights[i] = weight of edge at position i (null if unweighted)
+
+    /**
+     * Initializes a graph in CSR form from the specified graph.
+     *
+     * @param  G the graph
+     * @throws IllegalArgumentException if {@code G} is {@code null}
+     */
+    public CSRGraph(Graph G) {
+        if (G == null) throw new IllegalArgumentException("argument is null");
+        V = G.V();
+        E = G.E();
+        offsets = new int[V+1];
+        for (int v = 0; v < V; v++)
+            offsets[v+1] = offsets[v] + G.degree(v);
+        targets = new int[offsets[V]];
+        weights = null;
+        for (int v = 0; v < V; v++) {
+            int i = offsets[v];
+            for (int w : G.adj(v))
+                targets[i++] = w;
+        }
+    }
+
+    /**
+     * Initializes an edge-weighted graph in CSR form from the specified
+     * edge-weighted graph.
+     *
+     * @param  G the edge-weighted graph
+     * @throws IllegalArgumentException if {@code G} is {@code null}
+     */
+    public CSRGraph(EdgeWeightedGraph G) {
+        if (G == null) throw new IllegalArgumentException("argument is null");
+        V = G.V();
+        E = G.E();
+        offsets = new int[V+1];
+        for (int v = 0; v < V; v++)
+            offsets[v+1] = offsets[v] + G.degree(v);
+        targets = new int[offsets[V]];
+        weights = new double[offsets[V]];
+        for (int v = 0; v < V; v++) {
+            int i = offsets[v];
+            for (Edge e : G.adj(v)) {
+                targets[i] = e.other(v);
+                weights[i] = e.weight();
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Initializes a graph in CSR form from an input stream, without building
+     * an intermediate {@link Graph}.
+     * The format is the number of vertices <em>V</em>,
+     * followed by the number of edges <em>E</em>,
+     * followed by <em>E</em> pairs of vertices (each followed by an edge
+     * weight if {@code weighted} is true), with each entry separated by whitespace.
+     *
+     * @param  in the input stream
+     * @param  weighted whether each edge is followed by a weight
+     * @throws IllegalArgumentException if {@code in} is {@code null}
+     * @throws IllegalArgumentException if the endpoints of any edge are not in prescribed range
+     * @throws IllegalArgumentException if the number of vertices or edges is negative
+     * @throws IllegalArgumentException if the input stream is in the wrong format
+     */
+    public CSRGraph(In in, boolean weighted) {
+        if (in == null) throw new IllegalArgumentException("argument is null");
+        try {
+            V = in.readInt();
+            if (V < 0) throw new IllegalArgumentException("number of vertices must be non-negative");
+            E = in.readInt();
+            if (E < 0) throw new IllegalArgumentException("number of edges must be non-negative");
+            int[] from = new int[E];
+            int[] to = new int[E];
+            double[] weight = weighted ? new double[E] : null;
+            for (int i = 0; i < E; i++) {
+                from[i] = in.readInt();
+                to[i] = in.readInt();
+                validateVertex(from[i]);
+                validateVertex(to[i]);
+                if (weighted) weight[i] = in.readDouble();
+            }
+            build(from, to, weight);
+        }
+        catch (NoSuchElementException e) {
+            throw new IllegalArgumentException("invalid input format in CSRGraph constructor", e);
+        }
+    }
+
+    // builds a graph from a list of edges v-w; weight may be null
+    CSRGraph(int V, int[] from, int[] to, double[] weight) {
+        this.V = V;
+        this.E = from.length;
+        for (int i = 0; i < E; i++) {
+            validateVertex(from[i]);
+            validateVertex(to[i]);
+        }
+        build(from, to, weight);
+    }
+
+    // fill the arrays from a list of valid edges v-w
+    private void build(int[] from, int[] to, double[] weight) {
+        offsets = new int[V+1];
+        for (int i = 0; i < E; i++) {
+            offsets[from[i]+1]++;
+            offsets[to[i]+1]++;
+        }
+        for (int v = 0; v < V; v++)
+            offsets[v+1] += offsets[v];
+        targets = new int[2*E];
+        weights = (weight != null) ? new double[2*E] : null;
+
+        // fill each adjacency list from the back, so that the order is
+        // the same as in a Graph built from the same list of edges
+        int[] next = new int[V];
+        for (int v = 0; v < V; v++)
+            next[v] = offsets[v+1];
+        for (int i = 0; i < E; i++) {
+            int v = from[i], w = to[i];
+            int p = --next[v];
+            targets[p] = w;
+            if (weight != null) weights[p] = weight[i];
+            p = --next[w];
+            targets[p] = v;
+            if (weight != null) weights[p] = weight[i];
+        }
+    }
+
+    // takes ownership of the arrays, which must describe a valid graph
+    CSRGraph(int V, int E, int[] offsets, int[] targets, double[] weights) {
+        this.V = V;
+        this.E = E;
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Returns the number of vertices in this graph.
+     *
+     * @return the number of vertices in this graph
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges in this graph.
+     *
+     * @return the number of edges in this graph
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns true if the edges of this graph have weights.
+     *
+     * @return {@code true} if the edges of this graph have weights;
+     *         {@code false} otherwise
+     */
+    public boolean isWeighted() {
+        return weights != null;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Returns the degree of vertex {@code v}.
+     *
+     * @param  v the vertex
+     * @return the degree of vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int degree(int v) {
+        validateVertex(v);
+        return offsets[v+1] - offsets[v];
+    }
+
+    /**
+     * Returns the position of the first entry in the adjacency list of vertex
+     * {@code v}. The adjacency list of {@code v} occupies positions
+     * {@code offset(v)} through {@code offset(v+1) - 1}; {@code offset(V)}
+     * is the total number of entries, 2<em>E</em>.
+     *
+     * @param  v the vertex, or {@code V}
+     * @return the position of the first entry in the adjacency list of {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v <= V}
+     */
+    public int offset(int v) {
+        if (v < 0 || v > V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + V);
+        return offsets[v];
+    }
+
+    /**
+     * Returns the neighbor stored at the specified position.
+     *
+     * @param  i the position, between 0 and 2<em>E</em> – 1
+     * @return the neighbor stored at position {@code i}
+     */
+    public int target(int i) {
+        return targets[i];
+    }
+
+    // vertex whose adjacency list contains position i, by binary search on offsets[]
+    int tail(int i) {
+        int lo = 0, hi = V - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= i) lo = mid;
+            else                   hi = mid - 1;
+        }
+        return lo;
+    }
+
+    /**
+     * Returns the weight of the edge stored at the specified position,
+     * or 1.0 if this graph is not edge-weighted.
+     *
+     * @param  i the position, between 0 and 2<em>E</em> – 1
+     * @return the weight of the edge stored at position {@code i}
+     */
+    public double weight(int i) {
+        if (weights == null) {
+            if (i < 0 || i >= targets.length) throw new ArrayIndexOutOfBoundsException(i);
+            return 1.0;
+        }
+        return weights[i];
+    }
+
+    /**
+     * Returns the edge at the specified position as an {@link Edge}.
+     *
+     * @param  v the vertex whose adjacency list contains position {@code i}
+     * @param  i the position, between {@code offset(v)} and {@code offset(v+1) - 1}
+     * @return the edge at position {@code i}
+     */
+    public Edge edge(int v, int i) {
+        return new Edge(v, targets[i], weight(i));
+    }
+
+    // this graph as a digraph with each edge in both directions, sharing the arrays
+    CSRDigraph asDigraph() {
+        return new CSRDigraph(V, 2*E, offsets, targets, weights);
+    }
+
+    /**
+     * Returns this graph as a {@link Graph}, with the same edges.
+     *
+     * @return this graph as a {@code Graph}
+     */
+    public Graph toGraph() {
+        Graph G = new Graph(V);
+        for (int v = 0; v < V; v++) {
+            int selfLoops = 0;
+            for (int i = offsets[v+1] - 1; i >= offsets[v]; i--) {
+                int w = targets[i];
+                if (w > v) G.addEdge(v, w);
+                else if (w == v && selfLoops++ % 2 == 0) G.addEdge(v, w);
+            }
+        }
+        return G;
+    }
+
+    /**
+     * Returns this graph as an {@link EdgeWeightedGraph}.
+     *
+     * @return this graph as an {@code EdgeWeightedGraph}
+     */
+    public EdgeWeightedGraph toEdgeWeightedGraph() {
+        EdgeWeightedGraph G = new EdgeWeightedGraph(V);
+        for (int v = 0; v < V; v++) {
+            int selfLoops = 0;
+            for (int i = offsets[v+1] - 1; i >= offsets[v]; i--) {
+                int w = targets[i];
+                if (w > v) G.addEdge(new Edge(v, w, weight(i)));
+                else if (w == v && selfLoops++ % 2 == 0) G.addEdge(new Edge(v, w, weight(i)));
+            }
+        }
+        return G;
+    }
+
+    /**
+     * Returns a string representation of this graph.
+     *
+     * @return the number of vertices <em>V</em>, followed by the number of edges <em>E</em>,
+     *         followed by the <em>V</em> adjacency lists
+     */
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        s.append(V + " " + E + NEWLINE);
+        for (int v = 0; v < V; v++) {
+            s.append(v + ": ");
+            for (int i = offsets[v]; i < offsets[v+1]; i++) {
+                if (weights == null) s.append(targets[i] + " ");
+                else s.append(String.format("%d %.5f  ", targets[i], weights[i]));
+            }
+            s.append(NEWLINE);
+        }
+        return s.toString();
+    }
+
+    /**
+     * Unit tests the {@code CSRGraph} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        CSRGraph G = new CSRGraph(new EdgeWeightedGraph(in));
+        StdOut.println(G);
+    }
+}
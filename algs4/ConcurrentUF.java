@@ -0,0 +1,250 @@
+/******************************************************************************
+ *  Compilation:  javac ConcurrentUF.java
+ *  Execution:    java ConcurrentUF [threads] < input.txt
+ *  Dependencies: ParallelFor.java StdIn.java StdOut.java
+ *  Data files:   https://algs4.cs.princeton.edu/15uf/tinyUF.txt
+ *                https://algs4.cs.princeton.edu/15uf/mediumUF.txt
+ *                https://algs4.cs.princeton.edu/15uf/largeUF.txt
+ *
+ *  Lock-free union-find, with union by rank and path splitting, that many
+ *  threads can use at the same time.
+ *
+ *  % java ConcurrentUF < tinyUF.txt
+ *  2 components
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *  The {@code ConcurrentUF} class represents a <em>union–find data type</em>
+ *  (also known as the <em>disjoint-sets data type</em>) whose operations
+ *  can be called by many threads at the same time, without locks.
+ *  It supports the same <em>union</em>, <em>find</em>, <em>connected</em>,
+ *  and <em>count</em> operations as {@link UF}, and a batch <em>union</em>
+ *  operation that merges the sets of many pairs of elements, in parallel.
+ *  <p>
+ *  This implementation follows Anderson and Woll. The parent and rank of
+ *  each element are packed into one {@code long}, so that a root is linked
+ *  below another root with a single compare-and-set that fails if the first
+ *  root has been linked or its rank has changed in the meantime. Roots are
+ *  linked by rank, with ties broken by index; since ranks only increase, this
+ *  order can never link a root below one of its own descendants, even when
+ *  two threads link the same roots at the same time. The <em>find</em>
+ *  operation uses <em>path splitting</em>, pointing each element on the
+ *  path to its grandparent with a compare-and-set, which is harmless if it
+ *  fails.
+ *  <p>
+ *  A <em>find</em> is linearizable but may return a canonical element that
+ *  another thread is about to link below another root; the <em>union</em>
+ *  and <em>connected</em> operations retry until they are consistent.
+ *  With a single thread, any sequence of <em>m</em> <em>union</em> and
+ *  <em>find</em> operations takes <em>O</em>(<em>m</em> log <em>n</em>) time
+ *  in the worst case and nearly linear time in practice.
+ *  The constructor takes &Theta;(<em>n</em>) time, where <em>n</em> is the
+ *  number of elements, and the <em>count</em> operation takes &Theta;(1) time.
+ *  <p>
+ *  For a single-threaded implementation of the same API, see {@link UF}.
+ *  For additional documentation, see
+ *  <a href="https://algs4.cs.princeton.edu/15uf">Section 1.5</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class ConcurrentUF {
+
+    private static final long PARENT = 0xFFFFFFFFL;
+
+    private final AtomicLongArray node;    // node[i] = rank of i in the high 32 bits, parent of i in the low 32 bits
+    private final AtomicInteger count;     // number of components
+
+    /**
+     * Initializes an empty union-find data structure with
+     * {@code n} elements {@code 0} through {@code n-1}.
+     * Initially, each element is in its own set.
+     *
+     * @param  n the number of elements
+     * @throws IllegalArgumentException if {@code n < 0}
+     */
+    public ConcurrentUF(int n) {
+        if (n < 0) throw new IllegalArgumentException();
+        count = new AtomicInteger(n);
+        node = new AtomicLongArray(n);
+        for (int i = 0; i < n; i++)
+            node.set(i, i);
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements
+     */
+    public int size() {
+        return node.length();
+    }
+
+    /**
+     * Returns the canonical element of the set containing element {@code p}.
+     *
+     * @param  p an element
+     * @return the canonical element of the set containing {@code p}
+     * @throws IllegalArgumentException unless {@code 0 <= p < n}
+     */
+    public int find(int p) {
+        validate(p);
+        while (true) {
+            long x = node.get(p);
+            int q = parent(x);
+            if (q == p) return p;
+            long y = node.get(q);
+            int r = parent(y);
+            if (r == q) return q;
+            node.compareAndSet(p, x, (x & ~PARENT) | r);    // path splitting
+            p = q;
+        }
+    }
+
+    /**
+     * Returns the number of sets.
+     *
+     * @return the number of sets (between {@code 1} and {@code n})
+     */
+    public int count() {
+        return count.get();
+    }
+
+    /**
+     * Returns true if the two elements are in the same set.
+     *
+     * @param  p one element
+     * @param  q the other element
+     * @return {@code true} if {@code p} and {@code q} are in the same set;
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless
+     *         both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public boolean connected(int p, int q) {
+        while (true) {
+            p = find(p);
+            q = find(q);
+            if (p == q) return true;
+
+            // p was still a root after q was found, so they were not connected then
+            if (parent(node.get(p)) == p) return false;
+        }
+    }
+
+    /**
+     * Merges the set containing element {@code p} with the set
+     * containing element {@code q}.
+     *
+     * @param  p one element
+     * @param  q the other element
+     * @return {@code true} if this call merged two sets; {@code false}
+     *         if {@code p} and {@code q} were already in the same set
+     * @throws IllegalArgumentException unless
+     *         both {@code 0 <= p < n} and {@code 0 <= q < n}
+     */
+    public boolean union(int p, int q) {
+        while (true) {
+            p = find(p);
+            q = find(q);
+            if (p == q) return false;
+            long x = node.get(p);
+            long y = node.get(q);
+            if (parent(x) != p || parent(y) != q) continue;
+
+            // make q the root of smaller rank (or of larger index, if the ranks are equal)
+            int rankP = rank(x), rankQ = rank(y);
+            if (rankP < rankQ || (rankP == rankQ && p > q)) {
+                int t = p;     p = q;         q = t;
+                long z = x;    x = y;         y = z;
+                int r = rankP; rankP = rankQ; rankQ = r;
+            }
+
+            // link q below p, unless q has changed since it was read
+            if (!node.compareAndSet(q, y, (y & ~PARENT) | p)) continue;
+            if (rankP == rankQ) node.compareAndSet(p, x, x + (1L << 32));
+            count.decrementAndGet();
+            return true;
+        }
+    }
+
+    /**
+     * Merges the set containing {@code p[i]} with the set containing
+     * {@code q[i]}, for each {@code i}, using the specified number of threads.
+     * The result is the same as calling {@code union(p[i], q[i])} for
+     * each {@code i} in turn.
+     *
+     * @param  p one element of each pair
+     * @param  q the other element of each pair
+     * @param  threads the number of threads
+     * @return the number of sets that were merged
+     * @throws IllegalArgumentException if {@code p} and {@code q} have different lengths
+     * @throws IllegalArgumentException unless every element is between {@code 0} and {@code n-1}
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public int union(final int[] p, final int[] q, int threads) {
+        if (p == null || q == null) throw new IllegalArgumentException("argument is null");
+        if (p.length != q.length) throw new IllegalArgumentException("arrays of different lengths");
+        ParallelFor loop = new ParallelFor(threads);
+        final int[] merged = new int[loop.chunks(p.length)];
+        try {
+            loop.run(p.length, new ParallelFor.Body() {
+                public void run(int lo, int hi, int chunk) {
+                    int count = 0;
+                    for (int i = lo; i < hi; i++)
+                        if (union(p[i], q[i])) count++;
+                    merged[chunk] = count;
+                }
+            });
+        }
+        finally {
+            loop.shutdown();
+        }
+        int total = 0;
+        for (int c = 0; c < merged.length; c++)
+            total += merged[c];
+        return total;
+    }
+
+    private static int parent(long x) {
+        return (int) (x & PARENT);
+    }
+
+    private static int rank(long x) {
+        return (int) (x >>> 32);
+    }
+
+    // validate that p is a valid index
+    private void validate(int p) {
+        int n = node.length();
+        if (p < 0 || p >= n) {
+            throw new IllegalArgumentException("index " + p + " is not between 0 and " + (n-1));
+        }
+    }
+
+    /**
+     * Reads an integer {@code n} and a sequence of pairs of integers
+     * (between {@code 0} and {@code n-1}) from standard input, merges
+     * the sets of all of the pairs with a batch union, and prints the
+     * number of sets.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        int n = StdIn.readInt();
+        int[] pairs = StdIn.readAllInts();
+        int[] p = new int[pairs.length / 2];
+        int[] q = new int[pairs.length / 2];
+        for (int i = 0; i < p.length; i++) {
+            p[i] = pairs[2*i];
+            q[i] = pairs[2*i + 1];
+        }
+        ConcurrentUF uf = new ConcurrentUF(n);
+        uf.union(p, q, threads);
+        StdOut.println(uf.count() + " components");
+    }
+}
@@ -22,13 +22,17 @@
 
 package edu.princeton.cs.algs4;
 
+import java.util.Iterator;
+
 /**
  *  The {@code Cycle} class represents a data type for
  *  determining whether an undirected graph has a simple cycle.
  *  The <em>hasCycle</em> operation determines whether the graph has
  *  a cycle and, if so, the <em>cycle</em> operation returns one.
  *  <p>
- *  This implementation uses depth-first search.
+ *  This implementation uses depth-first search, with an explicit stack
+ *  instead of recursion, so that it does not overflow the call stack
+ *  on graphs with long paths.
  *  The constructor takes &Theta;(<em>V</em> + <em>E</em>) time in the
  *  worst case, where <em>V</em> is the number of vertices and
  *  <em>E</em> is the number of edges.
@@ -66,9 +70,11 @@ public class Cycle {
 
         marked = new boolean[G.V()];
         edgeTo = new int[G.V()];
-        for (int v = 0; v < G.V(); v++)
+        int[] path = new int[G.V()];
+        Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[G.V()];
+        for (int v = 0; v < G.V() && cycle == null; v++)
             if (!marked[v])
-                dfs(G, -1, v);
+                dfs(G, v, path, adj);
     }
 
 
@@ -133,16 +139,27 @@ public class Cycle {
         return cycle;
     }
 
-    private void dfs(Graph G, int u, int v) {
-        marked[v] = true;
-        for (int w : G.adj(v)) {
-
-            // short circuit if cycle already found
-            if (cycle != null) return;
+    // depth-first search from s, with path[i] = i-th vertex on the path
+    // from s and adj[i] = iterator over its adjacency list
+    private void dfs(Graph G, int s, int[] path, Iterator<Integer>[] adj) {
+        int n = 0;
+        marked[s] = true;
+        path[n] = s;
+        adj[n++] = G.adj(s).iterator();
+        while (n > 0) {
+            int v = path[n-1];
+            int u = n > 1 ? path[n-2] : -1;
+            if (!adj[n-1].hasNext()) {
+                adj[--n] = null;
+                continue;
+            }
+            int w = adj[n-1].next();
 
             if (!marked[w]) {
+                marked[w] = true;
                 edgeTo[w] = v;
-                dfs(G, v, w);
+                path[n] = w;
+                adj[n++] = G.adj(w).iterator();
             }
 
             // check for cycle (but disregard reverse of edge leading to v)
@@ -153,6 +170,7 @@ public class Cycle {
                 }
                 cycle.push(w);
                 cycle.push(v);
+                return;
             }
         }
     }
@@ -2,7 +2,7 @@
  *  Compilation:  javac PrimMST.java
  *  Execution:    java PrimMST filename.txt
  *  Dependencies: EdgeWeightedGraph.java Edge.java Queue.java
- *                IndexMinPQ.java UF.java In.java StdOut.java
+ *                IndexDoubleMinPQ.java UF.java In.java StdOut.java
  *  Data files:   https://algs4.cs.princeton.edu/43mst/tinyEWG.txt
  *                https://algs4.cs.princeton.edu/43mst/mediumEWG.txt
  *                https://algs4.cs.princeton.edu/43mst/largeEWG.txt
@@ -39,7 +39,6 @@
 package edu.princeton.cs.algs4;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 import java.util.*;
 
@@ -83,7 +82,7 @@ public class DMST1 {
     private Edge[] edgeTo;        // edgeTo[v] = shortest edge from tree vertex to non-tree vertex
     private double[] distTo;      // distTo[v] = weight of shortest such edge
     private boolean[] marked;     // marked[v] = true if v on tree, false otherwise
-    private IndexMinPQ<Double> pq;
+    private IndexDoubleMinPQ pq;
 
     /**
      * Compute a minimum spanning tree (or forest) of an edge-weighted graph.
@@ -93,7 +92,7 @@ public class DMST1 {
         edgeTo = new Edge[G.V()];
         distTo = new double[G.V()];
         marked = new boolean[G.V()];
-        pq = new IndexMinPQ<Double>(G.V());
+        pq = new IndexDoubleMinPQ(G.V());
         for (int v = 0; v < G.V(); v++)
             distTo[v] = Double.POSITIVE_INFINITY;
 
@@ -217,9 +216,55 @@ public class DMST1 {
     }
     public void averageMST(File[] files)throws IOException 
     {
-    	int edgeCount = 0;
+        // CREATING A FILE TO STORE OUTPUT MST
+        Out out = new Out("outputFileDMST1.txt");
+        DMST1 mst = averageMST(files, out);
+        out.close();
+        for (Edge e : mst.edges()) {
+            StdOut.println(e);
+        }
+        StdOut.printf("%.5f\n", mst.weight());
+        System.out.println("outputFileDMST1.txt file is created!" );
+    
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of the union of the minimum
+     * spanning trees of the edge-weighted graphs in the specified files.
+     * The combined graph is built in memory; a report is written only if
+     * an output stream is specified.
+     *
+     * @param  files the files, each containing an edge-weighted graph
+     * @param  out the output stream for the report, or {@code null} for none
+     * @return a minimum spanning tree (or forest) of the combined graph
+     */
+    public DMST1 averageMST(File[] files, Out out)
+    {
+        EdgeWeightedGraph G = combinedGraph(files);
+        DMST1 mst = new DMST1();
+        mst.primsMST(G);
+        if (out != null) {
+            out.print("AVERAGE PRIMS MST \n");
+            out.print("THE AVERAGE MST WEIGHT USING PRIMS MST IS "+ mst.weight() + "\n");
+            for (Edge e : mst.edges())
+                out.print(e + "\n");
+        }
+        return mst;
+    }
+
+    /**
+     * Returns the union of the minimum spanning trees (or forests) of the
+     * edge-weighted graphs in the specified files, as an edge-weighted graph
+     * on as many vertices as the largest of them. Edges with the same
+     * endpoints and weight are included only once.
+     *
+     * @param  files the files, each containing an edge-weighted graph
+     * @return the union of the minimum spanning trees of the graphs
+     */
+    public static EdgeWeightedGraph combinedGraph(File[] files)
+    {
 	    int vertexCount = 0;   
-        ArrayList<Edge> comList = new ArrayList<Edge>();
+        EdgeUnion comList = new EdgeUnion();
     	
     	for(File file: files) 
     	{
@@ -232,65 +277,19 @@ public class DMST1 {
     		if(G.V()> vertexCount)
     			vertexCount = G.V();
     		
-    		for(Edge e : mst1.edges()) {
-	        	int flag = 0;
-	        	for(int i=0;i<comList.size();i++) {
-	        		Edge temp = comList.get(i);
-	        		if(e.equalsTo(temp))
-	        		{
-	        			flag++;
-	        			break;
-	        		}
-	        	}
-	        	if(flag==0) {
-	        		comList.add(e);
-	        		edgeCount++;
-	        	}
-	        }
-    	  
-    
+    		comList.addAll(mst1.edges());
        }
-    	 // ADDING ALL THE MST's TO THE FILE TO CREATE A COMBINED SINGLE GRAPH
-        
-        File file = new File("combinedFile1.txt");
-    	file.createNewFile();
-        try (FileWriter fwrite = new FileWriter("combinedFile1.txt")) {
-		  
-        	fwrite.write(vertexCount+"\n");
-			fwrite.write( edgeCount +"\n");
-			
-			for(int i=0;i<comList.size();i++) {
-				Edge temp = comList.get(i);
-				fwrite.write(temp+"\n");
-			}
-			fwrite.close();
-		}
-        
-        
-        // CREATING ANOTHER FILE TO STORE OUTPUT MST
-        File OFile = new File("outputFileDMST1.txt");
-        OFile.createNewFile();
-        FileWriter OFwrite = new FileWriter("outputFileDMST1.txt");
-            OFwrite.write("AVERAGE PRIMS MST \n");
-        In in = new In("combinedFile1.txt");
-        EdgeWeightedGraph G = new EdgeWeightedGraph(in);
-        DMST1 mst = new DMST1();
-        mst.primsMST(G);
-        OFwrite.write("THE AVERAGE MST WEIGHT USING PRIMS MST IS "+ mst.weight() + "\n");
-        for (Edge e : mst.edges()) {
-            StdOut.println(e);
-            OFwrite.write(e+"\n");
-        }
-        StdOut.printf("%.5f\n", mst.weight());
-        System.out.println(OFile.getName() + " file is created!" );
-        
-        OFwrite.close();
-    
+
+        // ADDING ALL THE MST's TO A COMBINED SINGLE GRAPH
+        EdgeWeightedGraph combined = new EdgeWeightedGraph(vertexCount);
+        for (Edge e : comList)
+            combined.addEdge(e);
+        return combined;
     }
     
        double minMST(File [] files)
        {
-    	   ArrayList<Double> MSTweight = new ArrayList<Double>();
+    	   QuantileSketch MSTweight = new QuantileSketch();
     	   for(File file: files) 
        	   {
        		String filename = file.getName();
@@ -302,14 +301,13 @@ public class DMST1 {
        		MSTweight.add(mst1.weight());
        	    
        	   }
-    	   MSTweight.sort(null);
-    	   return MSTweight.get(0);
+    	   return MSTweight.min();
        
        }
        
        double maxMST(File [] files)
        {
-    	   ArrayList<Double> MSTweight = new ArrayList<Double>();
+    	   QuantileSketch MSTweight = new QuantileSketch();
     	   for(File file: files) 
        	   {
        		String filename = file.getName();
@@ -321,16 +319,14 @@ public class DMST1 {
        		MSTweight.add(mst1.weight());
        	    
        	   }
-    	   MSTweight.sort(null);
-    	   
-    	   return MSTweight.get(MSTweight.size()-1); 
+    	   return MSTweight.max(); 
     	   
     	   
        }
        
        double medianMST(File [] files) 
        {
-    	   ArrayList<Double> MSTweight = new ArrayList<Double>();
+    	   QuantileSketch MSTweight = new QuantileSketch();
     	   for(File file: files) 
        	   {
        		String filename = file.getName();
@@ -342,15 +338,7 @@ public class DMST1 {
        		MSTweight.add(mst1.weight());
        	    
        	   }
-    	   MSTweight.sort(null);
-    	   
-    	   int size =MSTweight.size();
-    	   if(size%2 == 0) {
-    		   double result = (MSTweight.get(size/2)) + (MSTweight.get((size/2)-1));
-    		   return (result/2);
-           }
-    	   
-    	   return MSTweight.get((size/2));
+    	   return MSTweight.median();
     	   
     	   
        }
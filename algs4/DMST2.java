@@ -1,7 +1,6 @@
 package edu.princeton.cs.algs4;
 
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
 
 /******************************************************************************
@@ -193,9 +192,55 @@ public class DMST2 {
     
     public void averageMST(File[] files)throws IOException 
     {
-    	int edgeCount = 0;
+        // CREATING A FILE TO STORE OUTPUT MST
+        Out out = new Out("outputFileDMST2.txt");
+        DMST2 mst = averageMST(files, out);
+        out.close();
+        for (Edge e : mst.edges()) {
+            StdOut.println(e);
+        }
+        StdOut.printf("%.5f\n", mst.weight());
+        System.out.println("outputFileDMST2.txt file is created!" );
+    
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of the union of the minimum
+     * spanning trees of the edge-weighted graphs in the specified files.
+     * The combined graph is built in memory; a report is written only if
+     * an output stream is specified.
+     *
+     * @param  files the files, each containing an edge-weighted graph
+     * @param  out the output stream for the report, or {@code null} for none
+     * @return a minimum spanning tree (or forest) of the combined graph
+     */
+    public DMST2 averageMST(File[] files, Out out)
+    {
+        EdgeWeightedGraph G = combinedGraph(files);
+        DMST2 mst = new DMST2();
+        mst.kruskalMST(G);
+        if (out != null) {
+            out.print("\tAVERAGE KRUSKAL MST \n");
+            out.print("THE AVERAGE MST WEIGHT USING KRUSKAL MST IS "+ mst.weight() + "\n");
+            for (Edge e : mst.edges())
+                out.print(e + "\n");
+        }
+        return mst;
+    }
+
+    /**
+     * Returns the union of the minimum spanning trees (or forests) of the
+     * edge-weighted graphs in the specified files, as an edge-weighted graph
+     * on as many vertices as the largest of them. Edges with the same
+     * endpoints and weight are included only once.
+     *
+     * @param  files the files, each containing an edge-weighted graph
+     * @return the union of the minimum spanning trees of the graphs
+     */
+    public static EdgeWeightedGraph combinedGraph(File[] files)
+    {
 	    int vertexCount = 0;   
-        ArrayList<Edge> comList = new ArrayList<Edge>();
+        EdgeUnion comList = new EdgeUnion();
     	
     	for(File file: files) 
     	{
@@ -208,65 +253,19 @@ public class DMST2 {
     		if(G.V()> vertexCount)
     			vertexCount = G.V();
     		
-    		for(Edge e : mst1.edges()) {
-	        	int flag = 0;
-	        	for(int i=0;i<comList.size();i++) {
-	        		Edge temp = comList.get(i);
-	        		if(e.equalsTo(temp))
-	        		{
-	        			flag++;
-	        			break;
-	        		}
-	        	}
-	        	if(flag==0) {
-	        		comList.add(e);
-	        		edgeCount++;
-	        	}
-	        }
-    	  
-    
+    		comList.addAll(mst1.edges());
        }
-    	 // ADDING ALL THE MST's TO THE FILE TO CREATE A COMBINED SINGLE GRAPH
-        
-        File file = new File("combinedFile2.txt");
-    	file.createNewFile();
-        try (FileWriter fwrite = new FileWriter("combinedFile2.txt")) {
-		  
-        	fwrite.write(vertexCount+"\n");
-			fwrite.write( edgeCount +"\n");
-			
-			for(int i=0;i<comList.size();i++) {
-				Edge temp = comList.get(i);
-				fwrite.write(temp+"\n");
-			}
-			fwrite.close();
-		}
-        
-        
-        // CREATING ANOTHER FILE TO STORE OUTPUT MST
-        File OFile = new File("outputFileDMST2.txt");
-        OFile.createNewFile();
-        FileWriter OFwrite = new FileWriter("outputFileDMST2.txt");
-            OFwrite.write("\tAVERAGE KRUSKAL MST \n");
-        In in = new In("combinedFile2.txt");
-        EdgeWeightedGraph G = new EdgeWeightedGraph(in);
-        DMST2 mst = new DMST2();
-        mst.kruskalMST(G);
-        OFwrite.write("THE AVERAGE MST WEIGHT USING KRUSKAL MST IS "+mst.weight()+ "\n");
-        for (Edge e : mst.edges()) {
-            StdOut.println(e);
-            OFwrite.write(e+"\n");
-        }
-        StdOut.printf("%.5f\n", mst.weight());
-        System.out.println(OFile.getName()+ " file is created!" );
-        
-        OFwrite.close();
-    
+
+        // ADDING ALL THE MST's TO A COMBINED SINGLE GRAPH
+        EdgeWeightedGraph combined = new EdgeWeightedGraph(vertexCount);
+        for (Edge e : comList)
+            combined.addEdge(e);
+        return combined;
     }
     
     double minMST(File [] files)
     {
- 	   ArrayList<Double> MSTweight = new ArrayList<Double>();
+ 	   QuantileSketch MSTweight = new QuantileSketch();
  	   for(File file: files) 
     	   {
     		String filename = file.getName();
@@ -278,14 +277,13 @@ public class DMST2 {
     		MSTweight.add(mst2.weight());
     	    
     	   }
- 	   MSTweight.sort(null);
- 	   return MSTweight.get(0);
+ 	   return MSTweight.min();
     
     }
     
     double maxMST(File [] files)
     {
- 	   ArrayList<Double> MSTweight = new ArrayList<Double>();
+ 	   QuantileSketch MSTweight = new QuantileSketch();
  	   for(File file: files) 
     	   {
     		String filename = file.getName();
@@ -297,15 +295,13 @@ public class DMST2 {
     		MSTweight.add(mst2.weight());
     	    
     	   }
- 	   MSTweight.sort(null);
- 	   
- 	   return MSTweight.get(MSTweight.size()-1); 
+ 	   return MSTweight.max(); 
  	     
     }
     
     double medianMST(File [] files) 
     {
- 	   ArrayList<Double> MSTweight = new ArrayList<Double>();
+ 	   QuantileSketch MSTweight = new QuantileSketch();
  	   for(File file: files) 
     	   {
     		String filename = file.getName();
@@ -317,15 +313,7 @@ public class DMST2 {
     		MSTweight.add(mst2.weight());
     	    
     	   }
- 	   MSTweight.sort(null);
- 	   
- 	   int size =MSTweight.size();
- 	   if(size%2 == 0) {
- 		   double result = (MSTweight.get(size/2)) + (MSTweight.get((size/2)-1));
- 		   return (result/2);
-        }
- 	   
- 	   return MSTweight.get((size/2));
+ 	   return MSTweight.median();
  	   
  	   
     }
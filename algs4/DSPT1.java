@@ -5,7 +5,7 @@ import java.util.*;
 public class DSPT1 {
 	    private double[] distTo;          // distTo[v] = distance  of shortest s->v path
 	    private Edge[] edgeTo;            // edgeTo[v] = last edge on shortest s->v path
-	    private IndexMinPQ<Double> pq;    // priority queue of vertices
+	    private IndexDoubleMinPQ pq;    // priority queue of vertices
 
 	    /**
 	     * Computes a shortest-paths tree from the source vertex {@code s} to every
@@ -32,7 +32,7 @@ public class DSPT1 {
 	        distTo[s] = 0.0;
 
 	        // relax vertices in order of distance from s
-	        pq = new IndexMinPQ<Double>(G.V());
+	        pq = new IndexDoubleMinPQ(G.V());
 	        pq.insert(s, distTo[s]);
 	        while (!pq.isEmpty()) {
 	            int v = pq.delMin();
@@ -163,117 +163,51 @@ public class DSPT1 {
 	    }
 	    
 	    public double averageSP(File []files,int s,int t)throws IOException 
-	    {     
-	    	   double result = 0;
-	           int count = 0;
-	    	
-	    	   for(File file: files) 
-	       	   {
-	       		String filename = file.getName();
-	       		In in = new In(filename);
-	       		EdgeWeightedGraph G = new EdgeWeightedGraph(in);
-	       		DSPT1 sp = new DSPT1();
-	       		sp.Dijkstra(G, s);
-	       		if(sp.distTo(t) != Double.POSITIVE_INFINITY) {
-	       		   result += sp.distTo(t);
-	       		   count++;
-	       		}
-	       	    
-	       	   }
-	    	   if(result == 0) {
+	    {
+	    	   SnapshotSP snapshots = SnapshotSP.dijkstra(files, s, t);
+	    	   if(snapshots.count() == 0) {
 	    		   System.out.println("NO path from vertex "+ s+ " to "+ t);
 	    		   return 0;
 	    	   }
 	    	   
-	    	   return (result/count);
+	    	   return snapshots.average();
 	    		
 	    }
 	    
 	    
 	    public double minSP(File [] files, int s,int t)
 	    {
-	    	   ArrayList<Double> SPweight = new ArrayList<Double>();
-	    	   for(File file: files) 
-	       	   {
-	       		String filename = file.getName();
-	       		In in = new In(filename);
-	       		EdgeWeightedGraph G = new EdgeWeightedGraph(in);
-	       		DSPT1 sp = new DSPT1();
-	       		sp.Dijkstra(G, s);
-	       		if(sp.distTo(t) != Double.POSITIVE_INFINITY) 
-	       		   SPweight.add(sp.distTo(t));
-	       	    
-	       	   }
-	    	   
-	    	   if(SPweight.isEmpty()) {
+	    	   SnapshotSP snapshots = SnapshotSP.dijkstra(files, s, t);
+	    	   if(snapshots.count() == 0) {
 	    		   System.out.println("NO path from vertex "+ s+ " to "+ t);
 	    		   return 0;
 	    	   }
-	    	   
-	    	   SPweight.sort(null);
 	  
-	    	   return SPweight.get(0);
+	    	   return snapshots.min();
 	       
 	       }
 	    
 	    public double maxSP(File [] files, int s,int t)
 	    {   
-	    	 int count=0;
-	    	 ArrayList<Double> SPweight = new ArrayList<Double>();
-	    	 for(File file: files) 
-	       	 {
-	       		String filename = file.getName();
-	       		In in = new In(filename);
-	       		EdgeWeightedGraph G = new EdgeWeightedGraph(in);
-	       		DSPT1 sp = new DSPT1();
-	       		sp.Dijkstra(G, s);
-	       		if(sp.distTo(t) != Double.POSITIVE_INFINITY) { 
-	       		   SPweight.add(sp.distTo(t));
-	       		   count++;
-	       		}
-	       	  }
-	    	   
-	    	  if(SPweight.isEmpty()) {
+	    	   SnapshotSP snapshots = SnapshotSP.dijkstra(files, s, t);
+	    	   if(snapshots.count() == 0) {
 	    		   System.out.println("NO path from vertex "+ s+ " to "+ t);
 	    		   return 0;
 	    	   }
-	    	   
-	    	   SPweight.sort(null);
 	  
-	    	   return SPweight.get(count-1);
+	    	   return snapshots.max();
 	       
 	       }
 	   
 	   public double medianSP(File [] files, int s, int t) 
 	   {
-		   ArrayList<Double> SPweight = new ArrayList<Double>();
-    	   for(File file: files) 
-       	   {
-       		String filename = file.getName();
-       		In in = new In(filename);
-       		EdgeWeightedGraph G = new EdgeWeightedGraph(in);
-       		DSPT1 sp = new DSPT1();
-       		sp.Dijkstra(G, s);
-       		if(sp.distTo(t) != Double.POSITIVE_INFINITY) 
-       		    SPweight.add(sp.distTo(t));
-       	    
-       	   }
-    	   
-    	   if(SPweight.isEmpty()) {
+    	   SnapshotSP snapshots = SnapshotSP.dijkstra(files, s, t);
+    	   if(snapshots.count() == 0) {
     		   System.out.println("NO path from vertex "+ s+ " to "+ t);
     		   return 0;
     	   }
-    	   
-    	   SPweight.sort(null);
     
-    	   int size = SPweight.size();
-    	   if(size%2 == 0) {
-    		   double result = (SPweight.get(size/2)) + (SPweight.get((size/2)-1));
-    		   return (result/2);
-    		   
-    	   }
-    	   
-    	   return SPweight.get((size/2));
+    	   return snapshots.median();
 	   }
 	   
 
@@ -0,0 +1,517 @@
+/******************************************************************************
+ *  Compilation:  javac DeltaSteppingSP.java
+ *  Execution:    java DeltaSteppingSP input.txt s [delta] [threads]
+ *  Dependencies: EdgeWeightedDigraph.java EdgeWeightedGraph.java CSRDigraph.java
+ *                DirectedEdge.java ParallelFor.java Stack.java In.java StdOut.java
+ *  Data files:   https://algs4.cs.princeton.edu/44sp/tinyEWD.txt
+ *                https://algs4.cs.princeton.edu/44sp/mediumEWD.txt
+ *                https://algs4.cs.princeton.edu/44sp/largeEWD.txt
+ *
+ *  Delta-stepping. Computes the shortest path tree, relaxing the edges
+ *  of each bucket of vertices in parallel.
+ *  Assumes all weights are non-negative.
+ *
+ *  % java DeltaSteppingSP tinyEWD.txt 0
+ *  0 to 0 (0.00)
+ *  0 to 1 (1.05)  0->4  0.38   4->5  0.35   5->1  0.32
+ *  0 to 2 (0.26)  0->2  0.26
+ *  0 to 3 (0.99)  0->2  0.26   2->7  0.34   7->3  0.39
+ *  0 to 4 (0.38)  0->4  0.38
+ *  0 to 5 (0.73)  0->4  0.38   4->5  0.35
+ *  0 to 6 (1.51)  0->2  0.26   2->7  0.34   7->3  0.39   3->6  0.52
+ *  0 to 7 (0.60)  0->2  0.26   2->7  0.34
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ *  The {@code DeltaSteppingSP} class represents a data type for solving the
+ *  single-source shortest paths problem in edge-weighted digraphs (or
+ *  edge-weighted graphs) where the edge weights are non-negative, using
+ *  several threads.
+ *  <p>
+ *  This implementation uses the <em>delta-stepping</em> algorithm of Meyer and
+ *  Sanders. The vertices are kept in buckets of width &Delta; by tentative
+ *  distance, and the buckets are settled in order. The <em>light</em> edges
+ *  (of weight at most &Delta;) leaving the vertices of the current bucket are
+ *  relaxed repeatedly, until the bucket stays empty; the <em>heavy</em> edges
+ *  leaving the vertices removed from it are then relaxed once. Each of these
+ *  steps relaxes the edges of many vertices at once, in parallel: the
+ *  distances are kept in an atomic array and lowered with compare-and-set,
+ *  and, after each step, the vertices whose distances were lowered are moved
+ *  to their new buckets and given the edge that lowered them last.
+ *  With &Delta; = &infin; this is the Bellman&ndash;Ford algorithm, and with
+ *  &Delta; smaller than every edge weight it is Dijkstra's algorithm with
+ *  a bucket queue; the default &Delta; is the maximum edge weight divided by the
+ *  average outdegree, which works well for sparse graphs with random weights.
+ *  <p>
+ *  Each step takes time proportional to the number of edges that it
+ *  relaxes, divided by the number of threads, plus the number of vertices
+ *  whose distances it lowers; the number of steps depends on &Delta; and
+ *  on the longest shortest path. The constructor takes
+ *  &Theta;(<em>V</em> + <em>E</em>) extra space, where <em>V</em> is the
+ *  number of vertices and <em>E</em> is the number of edges.
+ *  The {@code distTo()} and {@code hasPathTo()} methods take &Theta;(1) time;
+ *  the {@code pathTo()} method takes time proportional to the number of
+ *  edges on the path times log <em>V</em>.
+ *  <p>
+ *  This correctly computes shortest paths if all arithmetic performed is
+ *  without floating-point rounding error or arithmetic overflow.
+ *  This is the case if all edge weights are integers and if none of the
+ *  intermediate results exceeds 2<sup>52</sup>.
+ *  <p>
+ *  For a sequential implementation, see {@link DijkstraSP}.
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/44sp">Section 4.4</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class DeltaSteppingSP {
+
+    // most buckets that can hold vertices at the same time
+    private static final int MAX_BUCKETS = 1 << 24;
+
+    private final CSRDigraph G;       // the digraph
+    private final int s;              // the source vertex
+    private final double delta;       // width of a bucket
+    private double[] distTo;          // distTo[v] = distance of shortest s->v path
+    private int[] parent;             // parent[v] = position of last edge on shortest s->v path
+
+    // used only while computing the shortest paths
+    private AtomicLongArray dist;     // dist[v] = bits of the tentative distance to v
+    private int[][] bucket;           // bucket[b % K] = vertices with tentative distance in bucket b
+    private int[] bucketSize;         // bucketSize[b % K] = number of vertices in bucket b
+    private long pending;             // number of vertices in all of the buckets
+    private Updates[] updates;        // updates[c] = distances lowered by chunk c of a step
+    private ParallelFor loop;         // runs the relaxation steps
+
+    /**
+     * Computes a shortest-paths tree from the source vertex {@code s} to every other
+     * vertex in the edge-weighted digraph {@code G}, using one thread per
+     * available processor and the default bucket width.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DeltaSteppingSP(EdgeWeightedDigraph G, int s) {
+        this(new CSRDigraph(G), s);
+    }
+
+    /**
+     * Computes a shortest-paths tree from the source vertex {@code s} to every other
+     * vertex in the edge-weighted digraph {@code G}, with the specified bucket
+     * width and number of threads.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @param  delta the width of a bucket
+     * @param  threads the number of threads
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code delta > 0}
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public DeltaSteppingSP(EdgeWeightedDigraph G, int s, double delta, int threads) {
+        this(new CSRDigraph(G), s, delta, threads);
+    }
+
+    /**
+     * Computes a shortest-paths tree from the source vertex {@code s} to every other
+     * vertex in the edge-weighted graph {@code G}, using one thread per
+     * available processor and the default bucket width. Each edge may be
+     * used in either direction.
+     *
+     * @param  G the edge-weighted graph
+     * @param  s the source vertex
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DeltaSteppingSP(EdgeWeightedGraph G, int s) {
+        this(new CSRDigraph(G), s);
+    }
+
+    /**
+     * Computes a shortest-paths tree from the source vertex {@code s} to every other
+     * vertex in the edge-weighted graph {@code G}, with the specified bucket
+     * width and number of threads. Each edge may be used in either direction.
+     *
+     * @param  G the edge-weighted graph
+     * @param  s the source vertex
+     * @param  delta the width of a bucket
+     * @param  threads the number of threads
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code delta > 0}
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public DeltaSteppingSP(EdgeWeightedGraph G, int s, double delta, int threads) {
+        this(new CSRDigraph(G), s, delta, threads);
+    }
+
+    /**
+     * Computes a shortest-paths tree from the source vertex {@code s} to every other
+     * vertex in the edge-weighted digraph {@code G}, stored in CSR form, using
+     * one thread per available processor and the default bucket width.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DeltaSteppingSP(CSRDigraph G, int s) {
+        this(G, s, defaultDelta(G), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes a shortest-paths tree from the source vertex {@code s} to every other
+     * vertex in the edge-weighted digraph {@code G}, stored in CSR form, with the
+     * specified bucket width and number of threads. Only the edges on the
+     * shortest paths returned by {@code pathTo()} are created as
+     * {@link DirectedEdge} objects.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @param  delta the width of a bucket
+     * @param  threads the number of threads
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code delta > 0}
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public DeltaSteppingSP(CSRDigraph G, int s, double delta, int threads) {
+        this.G = G;
+        this.s = s;
+        this.delta = delta;
+        validateVertex(s);
+        if (!(delta > 0)) throw new IllegalArgumentException("delta must be positive");
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+
+        // the maximum finite edge weight; an edge of infinite weight is never relaxed
+        double max = 0.0;
+        for (int i = 0; i < G.E(); i++) {
+            double weight = G.weight(i);
+            if (weight < 0)
+                throw new IllegalArgumentException("edge " + G.edge(G.tail(i), i) + " has negative weight");
+            if (weight > max && weight != Double.POSITIVE_INFINITY) max = weight;
+        }
+
+        // a vertex is never more than max/delta + 1 buckets beyond the current one
+        if (max / delta >= MAX_BUCKETS - 2)
+            throw new IllegalArgumentException("delta is too small for the maximum edge weight " + max);
+        int K = (int) (max / delta) + 2;
+
+        int V = G.V();
+        dist = new AtomicLongArray(V);
+        parent = new int[V];
+        for (int v = 0; v < V; v++) {
+            dist.set(v, Double.doubleToRawLongBits(Double.POSITIVE_INFINITY));
+            parent[v] = -1;
+        }
+        dist.set(s, Double.doubleToRawLongBits(0.0));
+        bucket = new int[K][];
+        bucketSize = new int[K];
+        loop = new ParallelFor(threads);
+        updates = new Updates[loop.chunks(Integer.MAX_VALUE)];
+        for (int c = 0; c < updates.length; c++)
+            updates[c] = new Updates();
+        try {
+            insert(s, 0);
+            solve(K);
+        }
+        finally {
+            loop.shutdown();
+            loop = null;
+            updates = null;
+            bucket = null;
+            bucketSize = null;
+        }
+
+        distTo = new double[V];
+        for (int v = 0; v < V; v++)
+            distTo[v] = Double.longBitsToDouble(dist.get(v));
+        dist = null;
+
+        // check optimality conditions
+        assert check();
+    }
+
+    // maximum finite edge weight divided by the average outdegree
+    private static double defaultDelta(CSRDigraph G) {
+        double max = 0.0;
+        for (int i = 0; i < G.E(); i++) {
+            double weight = G.weight(i);
+            if (weight > max && weight != Double.POSITIVE_INFINITY) max = weight;
+        }
+        if (max == 0.0) return 1.0;
+        return max * G.V() / G.E();
+    }
+
+    // settle the buckets in order
+    private void solve(int K) {
+        int V = G.V();
+        int[] frontier = new int[V];           // vertices whose light edges are relaxed in this step
+        int[] settled = new int[V];            // vertices removed from the current bucket
+        int[] inFrontier = new int[V];         // inFrontier[v] = last step with v in frontier
+        int[] inSettled = new int[V];          // inSettled[v] = last bucket with v in settled
+        int step = 0, round = 0;
+
+        for (long b = 0; pending > 0; b++) {
+            int k = (int) (b % K);
+            if (bucketSize[k] == 0) continue;
+            round++;
+            int m = 0;
+
+            // relax the light edges until the bucket stays empty
+            while (bucketSize[k] > 0) {
+                step++;
+                int n = 0;
+                for (int j = 0; j < bucketSize[k]; j++) {
+                    int v = bucket[k][j];
+                    if (index(distance(v)) != b || inFrontier[v] == step) continue;    // stale
+                    inFrontier[v] = step;
+                    frontier[n++] = v;
+                    if (inSettled[v] != round) {
+                        inSettled[v] = round;
+                        settled[m++] = v;
+                    }
+                }
+                pending -= bucketSize[k];
+                bucketSize[k] = 0;
+                relax(frontier, n, true, K);
+            }
+
+            // then the heavy edges, once
+            relax(settled, m, false, K);
+        }
+    }
+
+    // relax the light (or heavy) edges leaving the vertices vertices[0..n)
+    private void relax(final int[] vertices, int n, final boolean light, int K) {
+        loop.run(n, new ParallelFor.Body() {
+            public void run(int lo, int hi, int chunk) {
+                Updates lowered = updates[chunk];
+                for (int j = lo; j < hi; j++) {
+                    int v = vertices[j];
+                    double d = distance(v);
+                    for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                        double weight = G.weight(i);
+                        if ((weight <= delta) != light) continue;
+                        int w = G.target(i);
+                        if (lower(w, d + weight)) lowered.add(w, i, d + weight);
+                    }
+                }
+            }
+        });
+
+        // only one relaxation sets each lowered distance to its final value in this step,
+        // and that one determines the parent and the new bucket
+        for (int c = 0; c < updates.length; c++) {
+            Updates lowered = updates[c];
+            for (int j = 0; j < lowered.n; j++) {
+                int w = lowered.vertex[j];
+                double d = lowered.dist[j];
+                if (distance(w) != d) continue;
+                parent[w] = lowered.position[j];
+                insert(w, index(d) % K);
+            }
+            lowered.n = 0;
+        }
+    }
+
+    // lower the tentative distance to w to d, unless it is already at most d
+    private boolean lower(int w, double d) {
+        long bits = Double.doubleToRawLongBits(d);
+        while (true) {
+            long current = dist.get(w);
+            if (current <= bits) return false;    // non-negative doubles are ordered like their bits
+            if (dist.compareAndSet(w, current, bits)) return true;
+        }
+    }
+
+    private double distance(int v) {
+        return Double.longBitsToDouble(dist.get(v));
+    }
+
+    // bucket of tentative distance d
+    private long index(double d) {
+        return (long) (d / delta);
+    }
+
+    // add v to bucket k
+    private void insert(int v, long k) {
+        int i = (int) k;
+        if (bucket[i] == null) bucket[i] = new int[4];
+        if (bucketSize[i] == bucket[i].length) {
+            int[] copy = new int[2 * bucket[i].length];
+            System.arraycopy(bucket[i], 0, copy, 0, bucketSize[i]);
+            bucket[i] = copy;
+        }
+        bucket[i][bucketSize[i]++] = v;
+        pending++;
+    }
+
+    // distances lowered by one chunk of a relaxation step
+    private static class Updates {
+        private int n;                              // number of lowered distances
+        private int[] vertex = new int[16];         // vertex[j] = vertex whose distance was lowered
+        private int[] position = new int[16];       // position[j] = position of edge that lowered it
+        private double[] dist = new double[16];     // dist[j] = its new distance
+
+        void add(int w, int i, double d) {
+            if (n == vertex.length) {
+                vertex = Arrays.copyOf(vertex, 2*n);
+                position = Arrays.copyOf(position, 2*n);
+                dist = Arrays.copyOf(dist, 2*n);
+            }
+            vertex[n] = w;
+            position[n] = i;
+            dist[n] = d;
+            n++;
+        }
+    }
+
+    /**
+     * Returns the width of a bucket.
+     * @return the width of a bucket
+     */
+    public double delta() {
+        return delta;
+    }
+
+    /**
+     * Returns the length of a shortest path from the source vertex {@code s} to vertex {@code v}.
+     * @param  v the destination vertex
+     * @return the length of a shortest path from the source vertex {@code s} to vertex {@code v};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public double distTo(int v) {
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Returns true if there is a path from the source vertex {@code s} to vertex {@code v}.
+     *
+     * @param  v the destination vertex
+     * @return {@code true} if there is a path from the source vertex
+     *         {@code s} to vertex {@code v}; {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns a shortest path from the source vertex {@code s} to vertex {@code v}.
+     *
+     * @param  v the destination vertex
+     * @return a shortest path from the source vertex {@code s} to vertex {@code v}
+     *         as an iterable of edges, and {@code null} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public Iterable<DirectedEdge> pathTo(int v) {
+        validateVertex(v);
+        if (!hasPathTo(v)) return null;
+        Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+        for (int w = v; parent[w] != -1; ) {
+            int i = parent[w];
+            int u = G.tail(i);
+            path.push(new DirectedEdge(u, w, G.weight(i)));
+            w = u;
+        }
+        return path;
+    }
+
+    // check optimality conditions:
+    // (i) for all edges v->w:            distTo[w] <= distTo[v] + weight
+    // (ii) for all edges v->w on the SPT: distTo[w] == distTo[v] + weight
+    private boolean check() {
+
+        // check that distTo[v] and parent[v] are consistent
+        if (distTo[s] != 0.0 || parent[s] != -1) {
+            System.err.println("distTo[s] and parent[s] inconsistent");
+            return false;
+        }
+        for (int v = 0; v < G.V(); v++) {
+            if (v == s) continue;
+            if ((parent[v] == -1) != (distTo[v] == Double.POSITIVE_INFINITY)) {
+                System.err.println("distTo[] and parent[] inconsistent");
+                return false;
+            }
+        }
+
+        // check that all edges v->w satisfy distTo[w] <= distTo[v] + weight
+        for (int v = 0; v < G.V(); v++) {
+            for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                if (distTo[v] + G.weight(i) < distTo[G.target(i)]) {
+                    System.err.println("edge " + G.edge(v, i) + " not relaxed");
+                    return false;
+                }
+            }
+        }
+
+        // check that all edges v->w on SPT satisfy distTo[w] == distTo[v] + weight
+        for (int w = 0; w < G.V(); w++) {
+            if (parent[w] == -1) continue;
+            int i = parent[w];
+            int v = G.tail(i);
+            if (G.target(i) != w) return false;
+            if (distTo[v] + G.weight(i) != distTo[w]) {
+                System.err.println("edge " + G.edge(v, i) + " on shortest path not tight");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = G.V();
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Unit tests the {@code DeltaSteppingSP} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        EdgeWeightedDigraph G = new EdgeWeightedDigraph(in);
+        int s = Integer.parseInt(args[1]);
+
+        // compute shortest paths
+        DeltaSteppingSP sp;
+        if (args.length > 2) {
+            double delta = Double.parseDouble(args[2]);
+            int threads = args.length > 3 ? Integer.parseInt(args[3]) : Runtime.getRuntime().availableProcessors();
+            sp = new DeltaSteppingSP(G, s, delta, threads);
+        }
+        else {
+            sp = new DeltaSteppingSP(G, s);
+        }
+
+        // print shortest path
+        for (int t = 0; t < G.V(); t++) {
+            if (sp.hasPathTo(t)) {
+                StdOut.printf("%d to %d (%.2f)  ", s, t, sp.distTo(t));
+                for (DirectedEdge e : sp.pathTo(t)) {
+                    StdOut.print(e + "   ");
+                }
+                StdOut.println();
+            }
+            else {
+                StdOut.printf("%d to %d         no path\n", s, t);
+            }
+        }
+    }
+
+}
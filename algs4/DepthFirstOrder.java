@@ -33,12 +33,16 @@
 
 package edu.princeton.cs.algs4;
 
+import java.util.Iterator;
+
 /**
  *  The {@code DepthFirstOrder} class represents a data type for
  *  determining depth-first search ordering of the vertices in a digraph
  *  or edge-weighted digraph, including preorder, postorder, and reverse postorder.
  *  <p>
- *  This implementation uses depth-first search.
+ *  This implementation uses depth-first search, with an explicit stack
+ *  instead of recursion, so that it does not overflow the call stack
+ *  on digraphs with long paths.
  *  Each constructor takes &Theta;(<em>V</em> + <em>E</em>) time,
  *  where <em>V</em> is the number of vertices and <em>E</em> is the
  *  number of edges.
@@ -71,8 +75,10 @@ public class DepthFirstOrder {
         postorder = new Queue<Integer>();
         preorder  = new Queue<Integer>();
         marked    = new boolean[G.V()];
+        int[] path = new int[G.V()];
+        Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[G.V()];
         for (int v = 0; v < G.V(); v++)
-            if (!marked[v]) dfs(G, v);
+            if (!marked[v]) dfs(G, v, path, adj);
 
         assert check();
     }
@@ -87,37 +93,115 @@ public class DepthFirstOrder {
         postorder = new Queue<Integer>();
         preorder  = new Queue<Integer>();
         marked    = new boolean[G.V()];
+        int[] path = new int[G.V()];
+        Iterator<DirectedEdge>[] adj = (Iterator<DirectedEdge>[]) new Iterator[G.V()];
         for (int v = 0; v < G.V(); v++)
-            if (!marked[v]) dfs(G, v);
+            if (!marked[v]) dfs(G, v, path, adj);
     }
 
-    // run DFS in digraph G from vertex v and compute preorder/postorder
-    private void dfs(Digraph G, int v) {
+    /**
+     * Determines a depth-first order for the digraph {@code G}, stored in CSR form.
+     * @param G the digraph
+     */
+    public DepthFirstOrder(CSRDigraph G) {
+        pre    = new int[G.V()];
+        post   = new int[G.V()];
+        postorder = new Queue<Integer>();
+        preorder  = new Queue<Integer>();
+        marked    = new boolean[G.V()];
+        int[] path = new int[G.V()];
+        int[] next = new int[G.V()];
+        for (int v = 0; v < G.V(); v++)
+            if (!marked[v]) dfs(G, v, path, next);
+
+        assert check();
+    }
+
+    // mark v and assign its preorder number
+    private void visit(int v) {
         marked[v] = true;
         pre[v] = preCounter++;
         preorder.enqueue(v);
-        for (int w : G.adj(v)) {
-            if (!marked[w]) {
-                dfs(G, w);
-            }
-        }
+    }
+
+    // assign the postorder number of v
+    private void finish(int v) {
         postorder.enqueue(v);
         post[v] = postCounter++;
     }
 
-    // run DFS in edge-weighted digraph G from vertex v and compute preorder/postorder
-    private void dfs(EdgeWeightedDigraph G, int v) {
-        marked[v] = true;
-        pre[v] = preCounter++;
-        preorder.enqueue(v);
-        for (DirectedEdge e : G.adj(v)) {
-            int w = e.to();
-            if (!marked[w]) {
-                dfs(G, w);
+    // run DFS in digraph G from vertex s and compute preorder/postorder,
+    // with path[i] = i-th vertex on the path from s and adj[i] = iterator over its adjacency list
+    private void dfs(Digraph G, int s, int[] path, Iterator<Integer>[] adj) {
+        int n = 0;
+        visit(s);
+        path[n] = s;
+        adj[n++] = G.adj(s).iterator();
+        while (n > 0) {
+            Iterator<Integer> it = adj[n-1];
+            if (it.hasNext()) {
+                int w = it.next();
+                if (!marked[w]) {
+                    visit(w);
+                    path[n] = w;
+                    adj[n++] = G.adj(w).iterator();
+                }
+            }
+            else {
+                adj[--n] = null;
+                finish(path[n]);
+            }
+        }
+    }
+
+    // run DFS in edge-weighted digraph G from vertex s and compute preorder/postorder,
+    // with path[i] = i-th vertex on the path from s and adj[i] = iterator over its adjacency list
+    private void dfs(EdgeWeightedDigraph G, int s, int[] path, Iterator<DirectedEdge>[] adj) {
+        int n = 0;
+        visit(s);
+        path[n] = s;
+        adj[n++] = G.adj(s).iterator();
+        while (n > 0) {
+            Iterator<DirectedEdge> it = adj[n-1];
+            if (it.hasNext()) {
+                int w = it.next().to();
+                if (!marked[w]) {
+                    visit(w);
+                    path[n] = w;
+                    adj[n++] = G.adj(w).iterator();
+                }
+            }
+            else {
+                adj[--n] = null;
+                finish(path[n]);
+            }
+        }
+    }
+
+    // run DFS in CSR digraph G from vertex s and compute preorder/postorder,
+    // with path[i] = i-th vertex on the path from s and next[i] = position of its next edge
+    private void dfs(CSRDigraph G, int s, int[] path, int[] next) {
+        int n = 0;
+        visit(s);
+        path[n] = s;
+        next[n++] = G.offset(s);
+        while (n > 0) {
+            int v = path[n-1];
+            int i = next[n-1];
+            if (i < G.offset(v+1)) {
+                next[n-1] = i + 1;
+                int w = G.target(i);
+                if (!marked[w]) {
+                    visit(w);
+                    path[n] = w;
+                    next[n++] = G.offset(w);
+                }
+            }
+            else {
+                n--;
+                finish(v);
             }
         }
-        postorder.enqueue(v);
-        post[v] = postCounter++;
     }
 
     /**
@@ -30,12 +30,16 @@
 
 package edu.princeton.cs.algs4;
 
+import java.util.Iterator;
+
 /**
  *  The {@code DepthFirstPaths} class represents a data type for finding
  *  paths from a source vertex <em>s</em> to every other vertex
  *  in an undirected graph.
  *  <p>
- *  This implementation uses depth-first search.
+ *  This implementation uses depth-first search, with an explicit stack
+ *  instead of recursion, so that it does not overflow the call stack
+ *  on graphs with long paths.
  *  The constructor takes &Theta;(<em>V</em> + <em>E</em>) time in the
  *  worst case, where <em>V</em> is the number of vertices and
  *  <em>E</em> is the number of edges.
@@ -68,14 +72,28 @@ public class DepthFirstPaths {
         dfs(G, s);
     }
 
-    // depth first search from v
-    private void dfs(Graph G, int v) {
-        marked[v] = true;
-        for (int w : G.adj(v)) {
-            if (!marked[w]) {
-                edgeTo[w] = v;
-                dfs(G, w);
+    // depth first search from s
+    private void dfs(Graph G, int s) {
+
+        // path[i] = i-th vertex on the path from s, adj[i] = iterator over its adjacency list
+        int[] path = new int[G.V()];
+        Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[G.V()];
+        int n = 0;
+        marked[s] = true;
+        path[n] = s;
+        adj[n++] = G.adj(s).iterator();
+        while (n > 0) {
+            Iterator<Integer> it = adj[n-1];
+            if (it.hasNext()) {
+                int w = it.next();
+                if (!marked[w]) {
+                    marked[w] = true;
+                    edgeTo[w] = path[n-1];
+                    path[n] = w;
+                    adj[n++] = G.adj(w).iterator();
+                }
             }
+            else adj[--n] = null;
         }
     }
 
@@ -20,14 +20,17 @@
 
 package edu.princeton.cs.algs4;
 
+import java.util.Iterator;
+
 /**
  *  The {@code DepthFirstSearch} class represents a data type for
  *  determining the vertices connected to a given source vertex <em>s</em>
  *  in an undirected graph. For versions that find the paths, see
  *  {@link DepthFirstPaths} and {@link BreadthFirstPaths}.
  *  <p>
- *  This implementation uses depth-first search.
- *  See {@link NonrecursiveDFS} for a non-recursive version.
+ *  This implementation uses depth-first search, with an explicit stack
+ *  of adjacency-list iterators instead of recursion, so that it does not
+ *  overflow the call stack on graphs with long paths.
  *  The constructor takes &Theta;(<em>V</em> + <em>E</em>) time in the worst
  *  case, where <em>V</em> is the number of vertices and <em>E</em>
  *  is the number of edges.
@@ -58,14 +61,26 @@ public class DepthFirstSearch {
         dfs(G, s);
     }
 
-    // depth first search from v
-    private void dfs(Graph G, int v) {
+    // depth first search from s
+    private void dfs(Graph G, int s) {
+
+        // adj[i] = iterator over the adjacency list of the i-th vertex on the path from s
+        Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[G.V()];
+        int n = 0;
         count++;
-        marked[v] = true;
-        for (int w : G.adj(v)) {
-            if (!marked[w]) {
-                dfs(G, w);
+        marked[s] = true;
+        adj[n++] = G.adj(s).iterator();
+        while (n > 0) {
+            Iterator<Integer> it = adj[n-1];
+            if (it.hasNext()) {
+                int w = it.next();
+                if (!marked[w]) {
+                    count++;
+                    marked[w] = true;
+                    adj[n++] = G.adj(w).iterator();
+                }
             }
+            else adj[--n] = null;
         }
     }
 
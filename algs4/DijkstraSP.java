@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilation:  javac DijkstraSP.java
  *  Execution:    java DijkstraSP input.txt s
- *  Dependencies: EdgeWeightedDigraph.java IndexMinPQ.java Stack.java DirectedEdge.java
+ *  Dependencies: EdgeWeightedDigraph.java IndexDoubleMinPQ.java Stack.java DirectedEdge.java
  *  Data files:   https://algs4.cs.princeton.edu/44sp/tinyEWD.txt
  *                https://algs4.cs.princeton.edu/44sp/mediumEWD.txt
  *                https://algs4.cs.princeton.edu/44sp/largeEWD.txt
@@ -63,7 +63,7 @@ package edu.princeton.cs.algs4;
 public class DijkstraSP {
     private double[] distTo;          // distTo[v] = distance  of shortest s->v path
     private DirectedEdge[] edgeTo;    // edgeTo[v] = last edge on shortest s->v path
-    private IndexMinPQ<Double> pq;    // priority queue of vertices
+    private IndexDoubleMinPQ pq;    // priority queue of vertices
 
     /**
      * Computes a shortest-paths tree from the source vertex {@code s} to every other
@@ -90,7 +90,7 @@ public class DijkstraSP {
         distTo[s] = 0.0;
 
         // relax vertices in order of distance from s
-        pq = new IndexMinPQ<Double>(G.V());
+        pq = new IndexDoubleMinPQ(G.V());
         pq.insert(s, distTo[s]);
         while (!pq.isEmpty()) {
             int v = pq.delMin();
@@ -102,6 +102,60 @@ public class DijkstraSP {
         assert check(G, s);
     }
 
+    /**
+     * Computes a shortest-paths tree from the source vertex {@code s} to every other
+     * vertex in the edge-weighted digraph {@code G}, stored in CSR form.
+     * Only the edges on the shortest-paths tree are created as
+     * {@link DirectedEdge} objects.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DijkstraSP(CSRDigraph G, int s) {
+        for (int i = 0; i < G.E(); i++) {
+            if (G.weight(i) < 0)
+                throw new IllegalArgumentException("edge at position " + i + " has negative weight");
+        }
+
+        int V = G.V();
+        distTo = new double[V];
+        edgeTo = new DirectedEdge[V];
+        int[] parent = new int[V];     // parent[w] = position of last edge on shortest s->w path
+
+        validateVertex(s);
+
+        for (int v = 0; v < V; v++)
+            distTo[v] = Double.POSITIVE_INFINITY;
+        distTo[s] = 0.0;
+        parent[s] = -1;
+
+        // relax vertices in order of distance from s
+        pq = new IndexDoubleMinPQ(V);
+        pq.insert(s, distTo[s]);
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                int w = G.target(i);
+                double dist = distTo[v] + G.weight(i);
+                if (distTo[w] > dist) {
+                    distTo[w] = dist;
+                    parent[w] = i;
+                    if (pq.contains(w)) pq.decreaseKey(w, dist);
+                    else                pq.insert(w, dist);
+                }
+            }
+        }
+
+        // create the edges on the shortest-paths tree
+        for (int v = 0; v < V; v++) {
+            if (v == s || distTo[v] == Double.POSITIVE_INFINITY) continue;
+            int i = parent[v];
+            edgeTo[v] = new DirectedEdge(G.tail(i), v, G.weight(i));
+        }
+    }
+
     // relax edge e and update pq if changed
     private void relax(DirectedEdge e) {
         int v = e.from(), w = e.to();
@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilation:  javac DijkstraUndirectedSP.java
  *  Execution:    java DijkstraUndirectedSP input.txt s
- *  Dependencies: EdgeWeightedGraph.java IndexMinPQ.java Stack.java Edge.java
+ *  Dependencies: EdgeWeightedGraph.java IndexDoubleMinPQ.java Stack.java Edge.java
  *  Data files:   https://algs4.cs.princeton.edu/43mst/tinyEWG.txt
  *                https://algs4.cs.princeton.edu/43mst/mediumEWG.txt
  *                https://algs4.cs.princeton.edu/43mst/largeEWG.txt
@@ -70,7 +70,7 @@ package edu.princeton.cs.algs4;
 public class DijkstraUndirectedSP {
     private double[] distTo;          // distTo[v] = distance  of shortest s->v path
     private Edge[] edgeTo;            // edgeTo[v] = last edge on shortest s->v path
-    private IndexMinPQ<Double> pq;    // priority queue of vertices
+    private IndexDoubleMinPQ pq;    // priority queue of vertices
 
     /**
      * Computes a shortest-paths tree from the source vertex {@code s} to every
@@ -97,7 +97,7 @@ public class DijkstraUndirectedSP {
         distTo[s] = 0.0;
 
         // relax vertices in order of distance from s
-        pq = new IndexMinPQ<Double>(G.V());
+        pq = new IndexDoubleMinPQ(G.V());
         pq.insert(s, distTo[s]);
         while (!pq.isEmpty()) {
             int v = pq.delMin();
@@ -0,0 +1,220 @@
+/******************************************************************************
+ *  Compilation:  javac Dinic.java
+ *  Execution:    java Dinic V E
+ *  Dependencies: FlowNetwork.java FlowEdge.java ResidualGraph.java
+ *  Data files:   https://algs4.cs.princeton.edu/65maxflow/tinyFN.txt
+ *
+ *  Dinic's algorithm for computing a max flow and a min cut,
+ *  using blocking flows in the level graph.
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+/**
+ *  The {@code Dinic} class represents a data type for computing a
+ *  <em>maximum st-flow</em> and <em>minimum st-cut</em> in a flow
+ *  network.
+ *  <p>
+ *  This implementation uses <em>Dinic's algorithm</em>. Each phase computes the
+ *  <em>level</em> of each vertex (its distance from the source in the residual
+ *  graph) with breadth-first search, and then finds a <em>blocking flow</em>
+ *  in the subgraph of arcs that go from one level to the next, by repeatedly
+ *  following a path of such arcs from the source with an iterative
+ *  depth-first search. Each vertex remembers the next arc to try, so an arc
+ *  is examined at most once per phase unless flow is pushed along it, and
+ *  after an augmentation the search resumes from the tail of the first
+ *  saturated arc rather than from the source. The residual graph is kept in
+ *  primitive arrays (see {@code ResidualGraph}) rather than as
+ *  {@link FlowEdge} objects, and the flow is copied back to the edges of the
+ *  network at the end.
+ *  <p>
+ *  The constructor takes <em>O</em>(<em>V</em><sup>2</sup> <em>E</em>)
+ *  time, where <em>V</em> is the number of vertices and <em>E</em> is
+ *  the number of edges; in practice, the algorithm will run much faster,
+ *  and it takes <em>O</em>(<em>E</em> &radic;<em>V</em>) time if all capacities are 1.
+ *  The {@code inCut()} and {@code value()} methods take &Theta;(1) time.
+ *  It uses &Theta;(<em>V</em> + <em>E</em>) extra space.
+ *  For alternative implementations of the same API, see
+ *  {@link FordFulkerson} and {@link PushRelabel}.
+ *  <p>
+ *  This correctly computes the maxflow and mincut if all arithmetic
+ *  performed is without floating-point rounding error or arithmetic
+ *  overflow. This is guaranteed to be the case if all edge capacities
+ *  and initial flow values are integers and the value of the maxflow
+ *  does not exceed 2<sup>52</sup>.
+ *  <p>
+ *  For additional documentation, see
+ *  <a href="https://algs4.cs.princeton.edu/64maxflow">Section 6.4</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class Dinic {
+    private final ResidualGraph R;  // the residual graph
+    private final int[] level;      // level[v] = distance from s to v in the residual graph (-1 if none)
+    private final int[] current;    // current[v] = position of the next arc from v to try
+    private final int[] queue;      // queue of the breadth-first search
+    private final int[] path;       // path[i] = i-th arc on the path from s in the depth-first search
+    private boolean[] inCut;        // inCut[v] = true iff s->v path in residual graph
+    private double value;           // current value of max flow
+
+    /**
+     * Compute a maximum flow and minimum cut in the network {@code G}
+     * from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  G the flow network
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code s == t}
+     * @throws IllegalArgumentException if initial flow is infeasible
+     */
+    public Dinic(FlowNetwork G, int s, int t) {
+        R = new ResidualGraph(G, s, t);
+        int V = R.V;
+        level = new int[V];
+        current = new int[V];
+        queue = new int[V];
+        path = new int[V];
+
+        // while there exists an augmenting path, find a blocking flow
+        value = R.excess(t);
+        while (bfs(s, t)) {
+            for (int v = 0; v < V; v++)
+                current[v] = R.offsets[v];
+            value += blockingFlow(s, t);
+        }
+        R.writeFlow();
+        inCut = R.reachable(s);
+
+        // check optimality conditions
+        assert R.check(s, t, value, inCut);
+    }
+
+    // compute the levels; is there an augmenting path?
+    private boolean bfs(int s, int t) {
+        java.util.Arrays.fill(level, -1);
+        int first = 0, last = 0;
+        queue[last++] = s;
+        level[s] = 0;
+        while (first < last) {
+            int v = queue[first++];
+            for (int a = R.offsets[v]; a < R.offsets[v+1]; a++) {
+                int w = R.heads[a];
+                if (R.residual[a] > 0 && level[w] < 0) {
+                    level[w] = level[v] + 1;
+                    if (w == t) return true;
+                    queue[last++] = w;
+                }
+            }
+        }
+        return false;
+    }
+
+    // push flow along paths of the level graph until there are none, and return its value
+    private double blockingFlow(int s, int t) {
+        int[] offsets = R.offsets, heads = R.heads, reverse = R.reverse;
+        double[] residual = R.residual;
+        double total = 0.0;
+        int n = 0;       // number of arcs on the path
+        int v = s;       // end of the path
+        while (true) {
+            if (v == t) {
+
+                // compute bottleneck capacity
+                double bottle = Double.POSITIVE_INFINITY;
+                for (int i = 0; i < n; i++)
+                    bottle = Math.min(bottle, residual[path[i]]);
+
+                // augment flow, and back up to the tail of the first saturated arc
+                int saturated = -1;
+                for (int i = 0; i < n; i++) {
+                    int a = path[i];
+                    residual[a] -= bottle;
+                    residual[reverse[a]] += bottle;
+                    if (saturated < 0 && residual[a] <= 0) saturated = i;
+                }
+                total += bottle;
+                n = saturated;
+                v = heads[reverse[path[n]]];
+                continue;
+            }
+
+            // advance along an arc to the next level
+            int a = current[v];
+            int end = offsets[v+1];
+            while (a < end && (residual[a] <= 0 || level[heads[a]] != level[v] + 1))
+                a++;
+            current[v] = a;
+            if (a < end) {
+                path[n++] = a;
+                v = heads[a];
+                continue;
+            }
+
+            // retreat: there is no path from v to t in the level graph
+            if (v == s) return total;
+            level[v] = -1;
+            a = path[--n];
+            v = heads[reverse[a]];
+            current[v]++;
+        }
+    }
+
+    /**
+     * Returns the value of the maximum flow.
+     *
+     * @return the value of the maximum flow
+     */
+    public double value()  {
+        return value;
+    }
+
+    /**
+     * Returns true if the specified vertex is on the {@code s} side of the mincut.
+     *
+     * @param  v vertex
+     * @return {@code true} if vertex {@code v} is on the {@code s} side of the mincut;
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean inCut(int v)  {
+        R.validate(v);
+        return inCut[v];
+    }
+
+    /**
+     * Unit tests the {@code Dinic} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+
+        // create flow network with V vertices and E edges
+        int V = Integer.parseInt(args[0]);
+        int E = Integer.parseInt(args[1]);
+        int s = 0, t = V-1;
+        FlowNetwork G = new FlowNetwork(V, E);
+        StdOut.println(G);
+
+        // compute maximum flow and minimum cut
+        Dinic maxflow = new Dinic(G, s, t);
+        StdOut.println("Max flow from " + s + " to " + t);
+        for (int v = 0; v < G.V(); v++) {
+            for (FlowEdge e : G.adj(v)) {
+                if ((v == e.from()) && e.flow() > 0)
+                    StdOut.println("   " + e);
+            }
+        }
+
+        // print min-cut
+        StdOut.print("Min cut: ");
+        for (int v = 0; v < G.V(); v++) {
+            if (maxflow.inCut(v)) StdOut.print(v + " ");
+        }
+        StdOut.println();
+
+        StdOut.println("Max flow value = " +  maxflow.value());
+    }
+
+}
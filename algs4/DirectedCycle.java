@@ -17,6 +17,8 @@
 
 package edu.princeton.cs.algs4;
 
+import java.util.Iterator;
+
 /**
  *  The {@code DirectedCycle} class represents a data type for
  *  determining whether a digraph has a directed cycle.
@@ -24,7 +26,9 @@ package edu.princeton.cs.algs4;
  *  a simple directed cycle and, if so, the <em>cycle</em> operation
  *  returns one.
  *  <p>
- *  This implementation uses depth-first search.
+ *  This implementation uses depth-first search, with an explicit stack
+ *  instead of recursion, so that it does not overflow the call stack
+ *  on digraphs with long paths.
  *  The constructor takes &Theta;(<em>V</em> + <em>E</em>) time in the worst
  *  case, where <em>V</em> is the number of vertices and <em>E</em> is
  *  the number of edges.
@@ -56,23 +60,36 @@ public class DirectedCycle {
         marked  = new boolean[G.V()];
         onStack = new boolean[G.V()];
         edgeTo  = new int[G.V()];
+        int[] path = new int[G.V()];
+        Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[G.V()];
         for (int v = 0; v < G.V(); v++)
-            if (!marked[v] && cycle == null) dfs(G, v);
+            if (!marked[v] && cycle == null) dfs(G, v, path, adj);
     }
 
-    // run DFS and find a directed cycle (if one exists)
-    private void dfs(Digraph G, int v) {
-        onStack[v] = true;
-        marked[v] = true;
-        for (int w : G.adj(v)) {
-
-            // short circuit if directed cycle found
-            if (cycle != null) return;
+    // run DFS from s and find a directed cycle (if one exists), with
+    // path[i] = i-th vertex on the path from s and adj[i] = iterator over its adjacency list
+    private void dfs(Digraph G, int s, int[] path, Iterator<Integer>[] adj) {
+        int n = 0;
+        onStack[s] = true;
+        marked[s] = true;
+        path[n] = s;
+        adj[n++] = G.adj(s).iterator();
+        while (n > 0) {
+            int v = path[n-1];
+            if (!adj[n-1].hasNext()) {
+                adj[--n] = null;
+                onStack[v] = false;
+                continue;
+            }
+            int w = adj[n-1].next();
 
-            // found new vertex, so recur
-            else if (!marked[w]) {
+            // found new vertex, so descend
+            if (!marked[w]) {
+                onStack[w] = true;
+                marked[w] = true;
                 edgeTo[w] = v;
-                dfs(G, w);
+                path[n] = w;
+                adj[n++] = G.adj(w).iterator();
             }
 
             // trace back directed cycle
@@ -84,9 +101,9 @@ public class DirectedCycle {
                 cycle.push(w);
                 cycle.push(v);
                 assert check();
+                return;
             }
         }
-        onStack[v] = false;
     }
 
     /**
@@ -0,0 +1,514 @@
+/******************************************************************************
+ *  Compilation:  javac DirectionOptimizingBFS.java
+ *  Execution:    java DirectionOptimizingBFS G s [threads]
+ *  Dependencies: Graph.java Digraph.java CSRGraph.java CSRDigraph.java
+ *                ParallelFor.java Stack.java In.java StdOut.java
+ *  Data files:   https://algs4.cs.princeton.edu/41graph/tinyCG.txt
+ *                https://algs4.cs.princeton.edu/41graph/tinyG.txt
+ *                https://algs4.cs.princeton.edu/41graph/mediumG.txt
+ *                https://algs4.cs.princeton.edu/41graph/largeG.txt
+ *
+ *  Run breadth-first search on a graph or digraph, one level at a time in
+ *  parallel, switching between top-down steps (from the frontier) and
+ *  bottom-up steps (from the unvisited vertices).
+ *
+ *  %  java DirectionOptimizingBFS tinyCG.txt 0
+ *  0 to 0 (0):  0
+ *  0 to 1 (1):  0-1
+ *  0 to 2 (1):  0-2
+ *  0 to 3 (2):  0-5-3
+ *  0 to 4 (2):  0-2-4
+ *  0 to 5 (1):  0-5
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  The {@code DirectionOptimizingBFS} class represents a data type for finding
+ *  shortest paths (number of edges) from a source vertex <em>s</em>
+ *  (or a set of source vertices) to every other vertex in a graph or digraph,
+ *  using several threads.
+ *  It supports the same operations as {@link BreadthFirstPaths} and
+ *  {@link BreadthFirstDirectedPaths}, with the same distances; when there
+ *  are several shortest paths to a vertex, it may return a different one.
+ *  <p>
+ *  This implementation uses the <em>direction-optimizing</em> breadth-first
+ *  search of Beamer, Asanovi&cacute;, and Patterson. The vertices at distance
+ *  <em>d</em> (the <em>frontier</em>) are found from those at distance
+ *  <em>d</em> &minus; 1 in one of two ways, each in parallel:
+ *  <ul>
+ *  <li>a <em>top-down</em> step scans the edges from each vertex of the
+ *      frontier, kept in an array, and claims each unvisited vertex it
+ *      reaches by setting its parent with compare-and-set;
+ *  <li>a <em>bottom-up</em> step scans the edges into each unvisited vertex,
+ *      until it finds one from a vertex of the frontier, kept in a bitmap;
+ *      each thread owns a range of 64-bit words of the bitmaps, so that no
+ *      synchronization is needed.
+ *  </ul>
+ *  Top-down steps are cheaper while the frontier is small. When the number of
+ *  edges from the frontier exceeds the number of edges from the unvisited
+ *  vertices divided by &alpha; = 14, the search switches to bottom-up steps,
+ *  which stop early at the first edge found and are cheaper when the frontier
+ *  is large; it switches back when the frontier shrinks below <em>V</em> /
+ *  &beta; vertices, with &beta; = 24. In graphs with small diameter, such as
+ *  social networks, most edges are then never examined. The edges into a
+ *  vertex of a digraph are those of its reverse, which is built the first
+ *  time a bottom-up step is taken.
+ *  <p>
+ *  The constructor takes <em>O</em>(<em>V</em> + <em>E</em>) time per
+ *  bottom-up step, where <em>V</em> is the number of vertices and
+ *  <em>E</em> is the number of edges, and time proportional to the number of
+ *  edges from the frontier per top-down step, divided by the number of threads.
+ *  It uses &Theta;(<em>V</em>) extra space (not including the graph), plus
+ *  &Theta;(<em>E</em>) for the reverse of a digraph if a bottom-up step is taken.
+ *  Each instance method takes &Theta;(1) time, except {@code pathTo()}, which
+ *  takes time proportional to the length of the path.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/41graph">Section 4.1</a>
+ *  of <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class DirectionOptimizingBFS {
+    private static final int INFINITY = Integer.MAX_VALUE;
+
+    // switch to bottom-up when the edges from the frontier exceed the unexplored edges / ALPHA
+    private static final int ALPHA = 14;
+
+    // switch back to top-down when the frontier is smaller than V / BETA vertices and shrinking
+    private static final int BETA = 24;
+
+    private final int[] distTo;       // distTo[v] = number of edges on shortest s->v path
+    private int[] edgeTo;             // edgeTo[v] = last vertex before v on shortest s->v path
+
+    // used only while running the search
+    private CSRDigraph G;             // the digraph (an undirected graph has each edge both ways)
+    private CSRDigraph R;             // the reverse digraph, built when first needed
+    private AtomicIntegerArray parent;  // parent[v] = last vertex before v on shortest s->v path (-1 if none)
+    private ParallelFor loop;         // runs the steps
+    private Buffer[] buffers;         // buffers[c] = vertices found by chunk c of a step
+    private long[] counts;            // counts[c] = edges from (or number of) vertices found by chunk c
+
+    /**
+     * Computes the shortest path between the source vertex {@code s}
+     * and every other vertex in the graph {@code G}, using one thread
+     * per available processor.
+     * @param G the graph
+     * @param s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DirectionOptimizingBFS(Graph G, int s) {
+        this(new CSRGraph(G), s, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes the shortest directed path between the source vertex {@code s}
+     * and every other vertex in the digraph {@code G}, using one thread
+     * per available processor.
+     * @param G the digraph
+     * @param s the source vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DirectionOptimizingBFS(Digraph G, int s) {
+        this(new CSRDigraph(G), s, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes the shortest path between the source vertex {@code s}
+     * and every other vertex in the graph {@code G}, stored in CSR form,
+     * using the specified number of threads.
+     * @param G the graph
+     * @param s the source vertex
+     * @param threads the number of threads
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public DirectionOptimizingBFS(CSRGraph G, int s, int threads) {
+        this(G.asDigraph(), true, new int[] { s }, threads);
+    }
+
+    /**
+     * Computes the shortest directed path between the source vertex {@code s}
+     * and every other vertex in the digraph {@code G}, stored in CSR form,
+     * using the specified number of threads.
+     * @param G the digraph
+     * @param s the source vertex
+     * @param threads the number of threads
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public DirectionOptimizingBFS(CSRDigraph G, int s, int threads) {
+        this(G, false, new int[] { s }, threads);
+    }
+
+    /**
+     * Computes the shortest path between any one of the source vertices in
+     * {@code sources} and every other vertex in the graph {@code G}, stored
+     * in CSR form, using the specified number of threads.
+     * @param G the graph
+     * @param sources the source vertices
+     * @param threads the number of threads
+     * @throws IllegalArgumentException if {@code sources} is {@code null}
+     * @throws IllegalArgumentException if {@code sources} contains no vertices
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} for each vertex
+     *         {@code s} in {@code sources}
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public DirectionOptimizingBFS(CSRGraph G, Iterable<Integer> sources, int threads) {
+        this(G.asDigraph(), true, toArray(sources), threads);
+    }
+
+    /**
+     * Computes the shortest directed path between any one of the source vertices
+     * in {@code sources} and every other vertex in the digraph {@code G}, stored
+     * in CSR form, using the specified number of threads.
+     * @param G the digraph
+     * @param sources the source vertices
+     * @param threads the number of threads
+     * @throws IllegalArgumentException if {@code sources} is {@code null}
+     * @throws IllegalArgumentException if {@code sources} contains no vertices
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} for each vertex
+     *         {@code s} in {@code sources}
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public DirectionOptimizingBFS(CSRDigraph G, Iterable<Integer> sources, int threads) {
+        this(G, false, toArray(sources), threads);
+    }
+
+    // search G (in which each edge has its reverse if undirected) from the sources
+    private DirectionOptimizingBFS(CSRDigraph G, boolean undirected, int[] sources, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+        int V = G.V();
+        distTo = new int[V];
+        Arrays.fill(distTo, INFINITY);
+        for (int s : sources)
+            validateVertex(s);
+
+        this.G = G;
+        this.R = undirected ? G : null;
+        parent = new AtomicIntegerArray(V);
+        for (int v = 0; v < V; v++)
+            parent.set(v, -1);
+        loop = new ParallelFor(threads);
+        buffers = new Buffer[loop.chunks(Integer.MAX_VALUE)];
+        for (int c = 0; c < buffers.length; c++)
+            buffers[c] = new Buffer();
+        counts = new long[buffers.length];
+        try {
+            bfs(sources);
+        }
+        finally {
+            loop.shutdown();
+            loop = null;
+            buffers = null;
+            counts = null;
+            this.R = null;
+            this.G = null;
+        }
+
+        edgeTo = new int[V];
+        for (int v = 0; v < V; v++)
+            edgeTo[v] = parent.get(v);
+        parent = null;
+
+        // check optimality conditions
+        assert check(G, sources);
+    }
+
+    // a growable list of vertices
+    private static class Buffer {
+        private int n;                    // number of vertices
+        private int[] vertex = new int[16];
+
+        void add(int v) {
+            if (n == vertex.length) vertex = Arrays.copyOf(vertex, 2*n);
+            vertex[n++] = v;
+        }
+    }
+
+    // move the vertices in the buffers to a[], in order of chunk, and return their number
+    private int gather(int[] a) {
+        int n = 0;
+        for (Buffer buffer : buffers) {
+            System.arraycopy(buffer.vertex, 0, a, n, buffer.n);
+            n += buffer.n;
+            buffer.n = 0;
+        }
+        return n;
+    }
+
+    // sum of the counts of the chunks, which are reset to 0
+    private long total() {
+        long total = 0;
+        for (int c = 0; c < counts.length; c++) {
+            total += counts[c];
+            counts[c] = 0;
+        }
+        return total;
+    }
+
+    // the breadth-first search, one level at a time
+    private void bfs(int[] sources) {
+        int V = G.V();
+        int[] queue = new int[V];             // the frontier, as an array of vertices
+        long[] front = new long[(V + 63) >>> 6];  // the frontier, as a bitmap
+        long[] next = new long[front.length];     // the next frontier, as a bitmap
+        int n = 0;
+        long scout = 0;                       // number of edges from the frontier
+        for (int s : sources) {
+            if (distTo[s] == 0) continue;
+            distTo[s] = 0;
+            parent.set(s, s);
+            queue[n++] = s;
+            scout += G.outdegree(s);
+        }
+        long unexplored = G.E();              // about the number of edges from unvisited vertices
+
+        for (int d = 0; n > 0; d++) {
+            if (scout > unexplored / ALPHA) {
+                if (R == null) R = G.reverse();
+                toBitmap(front, d);
+                int awake = n, old;
+                do {
+                    old = awake;
+                    awake = bottomUp(front, next, d++);
+                    long[] t = front;
+                    front = next;
+                    next = t;
+                } while (awake > 0 && (awake >= old || awake > V / BETA));
+                d--;
+                n = gather(queue);
+                scout = 1;
+            }
+            else {
+                unexplored -= scout;
+                n = topDown(queue, n, d);
+                scout = total();
+            }
+        }
+    }
+
+    // find the vertices at distance d+1 from those in queue[], put them in
+    // queue[], and return their number; the edges from them are in total()
+    private int topDown(final int[] queue, int n, final int d) {
+        loop.run(n, new ParallelFor.Body() {
+            public void run(int lo, int hi, int chunk) {
+                Buffer buffer = buffers[chunk];
+                long scout = 0;
+                for (int j = lo; j < hi; j++) {
+                    int v = queue[j];
+                    for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                        int w = G.target(i);
+                        if (parent.get(w) < 0 && parent.compareAndSet(w, -1, v)) {
+                            distTo[w] = d + 1;
+                            buffer.add(w);
+                            scout += G.outdegree(w);
+                        }
+                    }
+                }
+                counts[chunk] = scout;
+            }
+        });
+        return gather(queue);
+    }
+
+    // find the vertices at distance d+1 from those in the bitmap front[], put
+    // them in the bitmap next[] and in the buffers, and return their number
+    private int bottomUp(final long[] front, final long[] next, final int d) {
+        final int V = G.V();
+        for (Buffer buffer : buffers)
+            buffer.n = 0;
+        loop.run(front.length, new ParallelFor.Body() {
+            public void run(int lo, int hi, int chunk) {
+                Buffer buffer = buffers[chunk];
+                int awake = 0;
+                for (int k = lo; k < hi; k++) {
+                    long bits = 0L;
+                    for (int v = k << 6, end = Math.min(v + 64, V); v < end; v++) {
+                        if (distTo[v] != INFINITY) continue;
+                        for (int i = R.offset(v), last = R.offset(v+1); i < last; i++) {
+                            int u = R.target(i);
+                            if ((front[u >>> 6] & (1L << u)) != 0) {
+                                parent.lazySet(v, u);
+                                distTo[v] = d + 1;
+                                bits |= 1L << v;
+                                buffer.add(v);
+                                awake++;
+                                break;
+                            }
+                        }
+                    }
+                    next[k] = bits;
+                }
+                counts[chunk] = awake;
+            }
+        });
+        return (int) total();
+    }
+
+    // set bitmap[] to the vertices at distance d
+    private void toBitmap(final long[] bitmap, final int d) {
+        final int V = G.V();
+        loop.run(bitmap.length, new ParallelFor.Body() {
+            public void run(int lo, int hi, int chunk) {
+                for (int k = lo; k < hi; k++) {
+                    long bits = 0L;
+                    for (int v = k << 6, end = Math.min(v + 64, V); v < end; v++)
+                        if (distTo[v] == d) bits |= 1L << v;
+                    bitmap[k] = bits;
+                }
+            }
+        });
+    }
+
+    /**
+     * Is there a path between the source vertex {@code s} (or sources) and vertex {@code v}?
+     * @param v the vertex
+     * @return {@code true} if there is a path, and {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] != INFINITY;
+    }
+
+    /**
+     * Returns the number of edges in a shortest path between the source vertex {@code s}
+     * (or sources) and vertex {@code v}?
+     * @param v the vertex
+     * @return the number of edges in such a shortest path
+     *         (or {@code Integer.MAX_VALUE} if there is no such path)
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int distTo(int v) {
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Returns a shortest path between the source vertex {@code s} (or sources)
+     * and {@code v}, or {@code null} if no such path.
+     * @param  v the vertex
+     * @return the sequence of vertices on a shortest path, as an Iterable
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public Iterable<Integer> pathTo(int v) {
+        validateVertex(v);
+        if (!hasPathTo(v)) return null;
+        Stack<Integer> path = new Stack<Integer>();
+        int x;
+        for (x = v; distTo[x] != 0; x = edgeTo[x])
+            path.push(x);
+        path.push(x);
+        return path;
+    }
+
+    // check optimality conditions
+    private boolean check(CSRDigraph G, int[] sources) {
+
+        // check that the distance of each source = 0
+        for (int s : sources) {
+            if (distTo[s] != 0) {
+                StdOut.println("distance of source " + s + " to itself = " + distTo[s]);
+                return false;
+            }
+        }
+
+        // check that for each edge v->w dist[w] <= dist[v] + 1
+        // provided v is reachable from s
+        for (int v = 0; v < G.V(); v++) {
+            if (!hasPathTo(v)) continue;
+            for (int i = G.offset(v); i < G.offset(v+1); i++) {
+                int w = G.target(i);
+                if (distTo[w] > distTo[v] + 1) {
+                    StdOut.println("edge " + v + "->" + w);
+                    StdOut.println("distTo[" + v + "] = " + distTo[v]);
+                    StdOut.println("distTo[" + w + "] = " + distTo[w]);
+                    return false;
+                }
+            }
+        }
+
+        // check that v = edgeTo[w] satisfies distTo[w] = distTo[v] + 1, for an edge v->w
+        // provided w is reachable from s
+        for (int w = 0; w < G.V(); w++) {
+            if (!hasPathTo(w) || distTo[w] == 0) continue;
+            int v = edgeTo[w];
+            if (v < 0 || distTo[w] != distTo[v] + 1) {
+                StdOut.println("shortest path edge " + v + "->" + w);
+                StdOut.println("distTo[" + w + "] = " + distTo[w]);
+                return false;
+            }
+            boolean isEdge = false;
+            for (int i = G.offset(v); i < G.offset(v+1); i++)
+                if (G.target(i) == w) isEdge = true;
+            if (!isEdge) {
+                StdOut.println("no edge " + v + "->" + w);
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // the vertices, or an IllegalArgumentException if vertices is null or has zero vertices
+    private static int[] toArray(Iterable<Integer> vertices) {
+        if (vertices == null) {
+            throw new IllegalArgumentException("argument is null");
+        }
+        int n = 0;
+        int[] a = new int[1];
+        for (Integer v : vertices) {
+            if (v == null) {
+                throw new IllegalArgumentException("vertex is null");
+            }
+            if (n == a.length) a = Arrays.copyOf(a, 2*n);
+            a[n++] = v;
+        }
+        if (n == 0) {
+            throw new IllegalArgumentException("zero vertices");
+        }
+        return Arrays.copyOf(a, n);
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = distTo.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Unit tests the {@code DirectionOptimizingBFS} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        Graph G = new Graph(in);
+        // StdOut.println(G);
+
+        int s = Integer.parseInt(args[1]);
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        DirectionOptimizingBFS bfs = new DirectionOptimizingBFS(new CSRGraph(G), s, threads);
+
+        for (int v = 0; v < G.V(); v++) {
+            if (bfs.hasPathTo(v)) {
+                StdOut.printf("%d to %d (%d):  ", s, v, bfs.distTo(v));
+                for (int x : bfs.pathTo(v)) {
+                    if (x == s) StdOut.print(x);
+                    else        StdOut.print("-" + x);
+                }
+                StdOut.println();
+            }
+
+            else {
+                StdOut.printf("%d to %d (-):  not connected\n", s, v);
+            }
+
+        }
+    }
+
+}
@@ -0,0 +1,1435 @@
+/******************************************************************************
+ *  Compilation:  javac DynamicMST.java
+ *  Execution:    java DynamicMST file1.txt file2.txt ...
+ *  Dependencies: EdgeWeightedGraph.java Edge.java Queue.java UF.java
+ *                In.java StdOut.java
+ *
+ *  Maintains a minimum spanning forest of an edge-weighted graph under
+ *  edge insertions, deletions, and weight changes, using a link-cut tree
+ *  to find the heaviest edge on the tree path between two vertices, and
+ *  the deletions-only structure of Holm, de Lichtenberg, and Thorup to find
+ *  the edge that replaces a deleted edge of the forest.
+ *  Can also move from one snapshot of the graph to the next by applying
+ *  the difference between the two.
+ *
+ *  % java DynamicMST dataset1.txt dataset2.txt dataset3.txt
+ *  dataset1.txt  14 changes  weight = 1.81000
+ *  dataset2.txt   3 changes  weight = 1.76000
+ *  ...
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+
+/**
+ *  The {@code DynamicMST} class represents a data type for maintaining a
+ *  minimum spanning tree (or forest) of an edge-weighted graph while edges
+ *  are inserted, deleted, and reweighted.
+ *  <p>
+ *  The graph is stored in the data type itself, with at most one edge
+ *  between two vertices: when it is built from (or updated to) a graph with
+ *  parallel edges, only the lightest one of them is kept, which does not
+ *  change the weight of a minimum spanning forest.
+ *  <p>
+ *  This implementation keeps the forest in a <em>link-cut tree</em> (Sleator
+ *  and Tarjan), in which each edge of the forest is a node between its two
+ *  endpoints, so that the heaviest edge on the path between two vertices
+ *  can be found in &Theta;(log <em>V</em>) amortized time, and in an
+ *  <em>Euler tour tree</em>, to test whether two vertices are connected in
+ *  &Theta;(log <em>V</em>) amortized time. The edges are either <em>old</em>,
+ *  present when the data type was last rebuilt, or <em>recent</em>,
+ *  inserted or reweighted since then.
+ *  <ul>
+ *  <li> A minimum spanning forest <em>T</em> of the old edges is maintained
+ *       under deletions by the algorithm of Holm, de Lichtenberg, and Thorup.
+ *       Each old edge has a level between 0 and lg <em>V</em>, the edges of
+ *       <em>T</em> of each level or higher form a forest whose trees have at
+ *       most <em>V</em> / 2<sup><em>i</em></sup> vertices at level <em>i</em>,
+ *       and these forests are kept as Euler tour trees. When an edge of
+ *       <em>T</em> is deleted, the old edges incident to the smaller of the two
+ *       trees are scanned level by level, from the level of the deleted edge down,
+ *       in order of weight; those that do not reconnect the two trees move up
+ *       one level, and the first that does replaces the deleted edge.
+ *       This takes <em>O</em>(log<sup>2</sup> <em>V</em>) amortized time.
+ *  <li> The minimum spanning forest of the graph is the minimum spanning forest
+ *       of <em>T</em> and the recent edges. When an edge is added to these, it
+ *       replaces the heaviest edge on the path between its two endpoints, if
+ *       that edge is heavier (by the cycle property). When an edge of the forest
+ *       is removed from these, the lightest edge that reconnects the two trees
+ *       (by the cut property) is one of the edges of <em>T</em> and the recent
+ *       edges that are not in the forest, and there are no more of those than
+ *       there are recent edges.
+ *  <li> Once there are more than sqrt(<em>V</em> + <em>E</em>) recent edges
+ *       (and more than 16),
+ *       all of the edges become old, the forest becomes <em>T</em>, and the
+ *       levels and Euler tour trees are rebuilt in &Theta;(<em>V</em> + <em>E</em>) time.
+ *  </ul>
+ *  Since each rebuild puts every edge back at level 0, every change to the
+ *  graph takes <em>O</em>(sqrt(<em>V</em> + <em>E</em>) log<sup>2</sup> <em>V</em>)
+ *  amortized time, which is <em>O</em>(sqrt(<em>E</em>) log<sup>2</sup> <em>E</em>)
+ *  for a connected graph.
+ *  The {@link #update(EdgeWeightedGraph)} method computes the difference between
+ *  the current graph and the next snapshot in linear time, using a hash table
+ *  indexed by endpoints, and applies it edge by edge.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/43mst">Section 4.3</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class DynamicMST {
+    private static final double FLOATING_POINT_EPSILON = 1.0E-12;
+
+    // must be a power of 2
+    private static final int INIT_CAPACITY = 16;
+
+    // no valid key is negative since vertex indices are non-negative
+    private static final long EMPTY = -1L;
+
+    // the data type is never rebuilt after fewer insertions than this
+    private static final int MIN_RECENT = 16;
+
+    private final int V;               // number of vertices
+    private int E;                     // number of edges
+    private int treeEdges;             // number of edges in the forest
+
+    // edges, by id; edge e has ends 2e at from[e] and 2e+1 at to[e]
+    private int[] from;                // from[e] = one endpoint of edge e (-1 if deleted)
+    private int[] to;                  // to[e] = the other endpoint of edge e
+    private double[] weight;           // weight[e] = weight of edge e
+    private boolean[] inTree;          // inTree[e] = is edge e in the forest?
+    private boolean[] recent;          // recent[e] = was edge e inserted or reweighted since the last rebuild?
+    private int[] seen;                // seen[e] = last update in which edge e was seen
+    private int edgeCount;             // one more than the largest edge id in use
+    private int[] free;                // ids of deleted edges, for reuse
+    private int freeCount;             // number of ids of deleted edges
+
+    // linear probing hash table from endpoints to edge ids
+    private int m;                     // size of linear probing table
+    private long[] keys;               // keys[i] = endpoints of edge in slot i
+    private int[] ids;                 // ids[i] = id of edge in slot i
+
+    // edges of T and recent edges that are not in the forest
+    private int[] spare;               // spare[0..spareCount-1] = the edges, lightest first
+    private int spareCount;            // number of such edges
+    private int recentCount;           // number of recent edges (not counting self-loops)
+
+    // link-cut tree: vertex v is node v, and edge e is node V+e
+    private int[] left, right;         // children in the splay tree
+    private int[] parent;              // parent in the splay tree, or path-parent
+    private boolean[] reversed;        // is the subtree reversed (lazily)?
+    private double[] value;            // value[x] = weight of edge node x (unused for vertices)
+    private int[] max;                 // max[x] = edge node with the largest value in the subtree of x (-1 if none)
+    private int[] stack;               // scratch stack for pushing down reversals
+
+    // levels of the old edges; the old non-tree edges at level i incident to
+    // vertex v are in a binary heap ordered by weight, then by id
+    private final int levels;          // number of levels of T, 1 + floor(lg V); the forest is at level levels
+    private int[] level;               // level[e] = level of old edge e
+    private boolean[] spanning;        // spanning[e] = is old edge e in T?
+    private int[][] arcs;              // arcs[e][2i] and arcs[e][2i+1] = arc nodes of edge e of T at level i
+    private int[][][] heap;            // heap[v][i][1..heap[v][i][0]] = ends at v of old non-tree edges at level i
+    private int[] heapPos;             // heap[v][i][heapPos[end]] = end
+
+    // Euler tour trees: the tour of each tree of each level, and of each tree
+    // of the forest, is a splay tree with a node for each vertex and a node for
+    // each direction of each edge
+    private final int[] base;          // node of vertex v at level i is base[i] + v (base[i] = -1 if not created yet)
+    private int nodes;                 // number of nodes created
+    private int[] unused;              // arc nodes that were freed, for reuse
+    private int unusedCount;           // number of arc nodes that were freed
+    private int[] tourLeft, tourRight; // children in the splay tree
+    private int[] tourParent;          // parent in the splay tree (-1 if root)
+    private int[] tourSize;            // tourSize[x] = number of vertex nodes in the subtree of x
+    private int[] tourMin;             // tourMin[x] = lightest non-tree end at a vertex node in the subtree of x (-1 if none)
+    private boolean[] tourOwn;         // tourOwn[x] = is x the first arc node of an edge at the level of x?
+    private boolean[] tourFlag;        // tourFlag[x] = is there such an arc node in the subtree of x?
+    private int[] tourVertex;          // tourVertex[x] = vertex of vertex node x (-1 for arc nodes)
+    private int[] tourEdge;            // tourEdge[x] = edge of arc node x
+    private int[] tourLevel;           // tourLevel[x] = level of node x
+
+    private int version;               // number of the current update
+
+    /**
+     * Computes a minimum spanning forest of the edge-weighted graph {@code G},
+     * which can later be changed.
+     *
+     * @param  G the edge-weighted graph
+     * @throws IllegalArgumentException if an edge weight is NaN
+     */
+    public DynamicMST(EdgeWeightedGraph G) {
+        V = G.V();
+        int capacity = Math.max(1, G.E());
+        from = new int[capacity];
+        to = new int[capacity];
+        weight = new double[capacity];
+        inTree = new boolean[capacity];
+        recent = new boolean[capacity];
+        seen = new int[capacity];
+        free = new int[capacity];
+        spare = new int[capacity];
+        level = new int[capacity];
+        spanning = new boolean[capacity];
+        arcs = new int[capacity][];
+        heapPos = new int[2*capacity];
+
+        m = INIT_CAPACITY;
+        while (m < 2*capacity) m *= 2;
+        keys = new long[m];
+        Arrays.fill(keys, EMPTY);
+        ids = new int[m];
+
+        int n = V + capacity;
+        left = new int[n];
+        right = new int[n];
+        parent = new int[n];
+        reversed = new boolean[n];
+        value = new double[n];
+        max = new int[n];
+        stack = new int[n];
+
+        int lg = 0;
+        while ((2 << lg) <= V) lg++;
+        levels = lg + 1;
+        base = new int[levels + 1];
+        int k = 6*V + INIT_CAPACITY;
+        tourLeft = new int[k];
+        tourRight = new int[k];
+        tourParent = new int[k];
+        tourSize = new int[k];
+        tourMin = new int[k];
+        tourOwn = new boolean[k];
+        tourFlag = new boolean[k];
+        tourVertex = new int[k];
+        tourEdge = new int[k];
+        tourLevel = new int[k];
+        unused = new int[k];
+
+        // the edges, keeping the lightest of parallel edges
+        for (Edge edge : G.edges()) {
+            int v = edge.either(), w = edge.other(v);
+            validateVertex(v);
+            validateVertex(w);
+            validateWeight(edge.weight());
+            int e = find(v, w);
+            if (e == -1) add(v, w, edge.weight());
+            else         weight[e] = Math.min(weight[e], edge.weight());
+        }
+
+        // Kruskal's algorithm for the initial forest
+        int[] order = new int[edgeCount];
+        for (int e = 0; e < edgeCount; e++)
+            order[e] = e;
+        sort(order, new int[edgeCount], 0, edgeCount - 1);
+        UF uf = new UF(V);
+        for (int e : order) {
+            if (uf.find(from[e]) != uf.find(to[e])) {
+                uf.union(from[e], to[e]);
+                inTree[e] = true;
+            }
+        }
+        rebuild();
+        assert check();
+    }
+
+    // make every edge old, with the forest as T
+    private void rebuild() {
+        for (int x = 0; x < V + from.length; x++)
+            initNode(x);
+        treeEdges = 0;
+        spareCount = 0;
+        recentCount = 0;
+        Arrays.fill(base, -1);
+        nodes = 0;
+        unusedCount = 0;
+        heap = new int[V][][];
+
+        int[] start = new int[V+1];
+        int[] size = new int[V];
+        for (int e = 0; e < edgeCount; e++) {
+            if (from[e] == -1) continue;
+            recent[e] = false;
+            spanning[e] = inTree[e];
+            inTree[e] = false;
+            level[e] = 0;
+            if (spanning[e]) {
+                start[from[e] + 1]++;
+                start[to[e] + 1]++;
+            }
+            else if (from[e] != to[e]) {
+                size[from[e]]++;
+                size[to[e]]++;
+            }
+        }
+
+        // the heaps of the non-tree edges, all at level 0
+        for (int v = 0; v < V; v++) {
+            if (size[v] == 0) continue;
+            heap[v] = new int[levels][];
+            heap[v][0] = new int[size[v] + 1];
+        }
+        for (int e = 0; e < edgeCount; e++) {
+            if (from[e] == -1 || spanning[e] || from[e] == to[e]) continue;
+            for (int end = 2*e; end <= 2*e + 1; end++) {
+                int[] h = heap[endpoint(end)][0];
+                h[++h[0]] = end;
+                heapPos[end] = h[0];
+            }
+        }
+        for (int v = 0; v < V; v++) {
+            if (size[v] == 0) continue;
+            int[] h = heap[v][0];
+            for (int k = h[0]/2; k >= 1; k--)
+                sink(h, k);
+        }
+
+        // adjacency lists of the ends of the edges of T
+        for (int v = 0; v < V; v++)
+            start[v+1] += start[v];
+        int[] ends = new int[start[V]];
+        int[] next = new int[V];
+        for (int v = 0; v < V; v++)
+            next[v] = start[v];
+        for (int e = 0; e < edgeCount; e++) {
+            if (from[e] == -1 || !spanning[e]) continue;
+            ends[next[from[e]]++] = 2*e;
+            ends[next[to[e]]++] = 2*e + 1;
+        }
+
+        // depth-first search of each tree of T, which gives its Euler tour at
+        // level 0 and in the forest, and its paths to the root as the paths
+        // of the link-cut tree
+        for (int v = 0; v < V; v++)
+            next[v] = start[v];
+        int[] tour = new int[V + ends.length];
+        int[] forestTour = new int[V + ends.length];
+        int[] path = new int[V];
+        int[] edgeTo = new int[V];
+        for (int s = 0; s < V; s++) {
+            if (next[s] == -1) continue;
+            int length = 0, depth = 0;
+            path[depth++] = s;
+            edgeTo[s] = -1;
+            forestTour[length] = vertexNode(s, levels);
+            tour[length++] = vertexNode(s, 0);
+            while (depth > 0) {
+                int v = path[depth-1];
+                if (next[v] == start[v+1]) {
+                    next[v] = -1;
+                    depth--;
+                    int e = edgeTo[v];
+                    if (e == -1) continue;
+                    forestTour[length] = arcs[e][2*levels + 1] = arcNode(e, levels, false);
+                    tour[length++] = arcs[e][1] = arcNode(e, 0, false);
+                    continue;
+                }
+                int end = ends[next[v]++];
+                int e = end >> 1, w = other(end);
+                if (e == edgeTo[v]) continue;
+                if (arcs[e] == null) arcs[e] = new int[2*levels + 2];
+                forestTour[length] = arcs[e][2*levels] = arcNode(e, levels, false);
+                tour[length++] = arcs[e][0] = arcNode(e, 0, true);
+                forestTour[length] = vertexNode(w, levels);
+                tour[length++] = vertexNode(w, 0);
+                edgeTo[w] = e;
+                path[depth++] = w;
+                parent[w] = V + e;
+                parent[V + e] = v;
+                inTree[e] = true;
+                treeEdges++;
+            }
+            tourBuild(tour, 0, length - 1);
+            tourBuild(forestTour, 0, length - 1);
+        }
+    }
+
+    // stable mergesort of edge ids by weight
+    private void sort(int[] a, int[] aux, int lo, int hi) {
+        if (hi <= lo) return;
+        int mid = lo + (hi - lo) / 2;
+        sort(a, aux, lo, mid);
+        sort(a, aux, mid + 1, hi);
+        for (int k = lo; k <= hi; k++)
+            aux[k] = a[k];
+        int i = lo, j = mid + 1;
+        for (int k = lo; k <= hi; k++) {
+            if      (i > mid)                                 a[k] = aux[j++];
+            else if (j > hi)                                  a[k] = aux[i++];
+            else if (weight[aux[j]] < weight[aux[i]])         a[k] = aux[j++];
+            else                                              a[k] = aux[i++];
+        }
+    }
+
+   /***************************************************************************
+    * Edge storage.
+    ***************************************************************************/
+
+    // add a new edge v-w, not yet in any forest, and return its id
+    private int add(int v, int w, double weight) {
+        int e;
+        if (freeCount > 0) e = free[--freeCount];
+        else {
+            if (edgeCount == from.length) resizeEdges(2 * from.length);
+            e = edgeCount++;
+        }
+        from[e] = v;
+        to[e] = w;
+        this.weight[e] = weight;
+        inTree[e] = false;
+        recent[e] = false;
+        spanning[e] = false;
+        seen[e] = version;
+        put(key(v, w), e);
+        initNode(V + e);
+        E++;
+        return e;
+    }
+
+    // remove edge e, which is no longer in any forest
+    private void remove(int e) {
+        delete(key(from[e], to[e]));
+        from[e] = -1;
+        free[freeCount++] = e;
+        E--;
+    }
+
+    private void resizeEdges(int capacity) {
+        from = Arrays.copyOf(from, capacity);
+        to = Arrays.copyOf(to, capacity);
+        weight = Arrays.copyOf(weight, capacity);
+        inTree = Arrays.copyOf(inTree, capacity);
+        recent = Arrays.copyOf(recent, capacity);
+        seen = Arrays.copyOf(seen, capacity);
+        free = Arrays.copyOf(free, capacity);
+        spare = Arrays.copyOf(spare, capacity);
+        level = Arrays.copyOf(level, capacity);
+        spanning = Arrays.copyOf(spanning, capacity);
+        arcs = Arrays.copyOf(arcs, capacity);
+        heapPos = Arrays.copyOf(heapPos, 2*capacity);
+        int n = V + capacity;
+        left = Arrays.copyOf(left, n);
+        right = Arrays.copyOf(right, n);
+        parent = Arrays.copyOf(parent, n);
+        reversed = Arrays.copyOf(reversed, n);
+        value = Arrays.copyOf(value, n);
+        max = Arrays.copyOf(max, n);
+        stack = Arrays.copyOf(stack, n);
+    }
+
+    // the endpoint of edge e at the specified end
+    private int endpoint(int end) {
+        return (end & 1) == 0 ? from[end >> 1] : to[end >> 1];
+    }
+
+    // the other endpoint of edge e
+    private int other(int end) {
+        return (end & 1) == 0 ? to[end >> 1] : from[end >> 1];
+    }
+
+    // is edge e lighter than edge f? ties are broken by id, so that the
+    // minimum spanning forest, and hence T, is unique
+    private boolean lighter(int e, int f) {
+        return weight[e] < weight[f] || (weight[e] == weight[f] && e < f);
+    }
+
+    // number of edges in spare[] lighter than edge e
+    private int rankSpare(int e) {
+        int lo = 0, hi = spareCount - 1;
+        while (lo <= hi) {
+            int mid = lo + (hi - lo) / 2;
+            if (lighter(spare[mid], e)) lo = mid + 1;
+            else                        hi = mid - 1;
+        }
+        return lo;
+    }
+
+    private void addSpare(int e) {
+        int i = rankSpare(e);
+        System.arraycopy(spare, i, spare, i + 1, spareCount - i);
+        spare[i] = e;
+        spareCount++;
+    }
+
+    private void removeSpare(int e) {
+        int i = rankSpare(e);
+        System.arraycopy(spare, i + 1, spare, i, spareCount - i - 1);
+        spareCount--;
+    }
+
+   /***************************************************************************
+    * Hash table from endpoints to edge ids.
+    ***************************************************************************/
+
+    // pack the endpoints into a key that does not depend on their order
+    private static long key(int v, int w) {
+        if (v > w) {
+            int swap = v;
+            v = w;
+            w = swap;
+        }
+        return ((long) v << 32) | w;
+    }
+
+    // hash function for keys - returns value between 0 and m-1
+    private int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & (m - 1);
+    }
+
+    // id of edge v-w, or -1 if no such edge
+    private int find(int v, int w) {
+        long key = key(v, w);
+        for (int i = hash(key); keys[i] != EMPTY; i = (i + 1) & (m - 1)) {
+            if (keys[i] == key) return ids[i];
+        }
+        return -1;
+    }
+
+    private void put(long key, int id) {
+        if (E >= m/2) rehash(2*m);
+        int i;
+        for (i = hash(key); keys[i] != EMPTY; i = (i + 1) & (m - 1))
+            ;
+        keys[i] = key;
+        ids[i] = id;
+    }
+
+    // delete the key, then reinsert the rest of its cluster
+    private void delete(long key) {
+        int i = hash(key);
+        while (keys[i] != key)
+            i = (i + 1) & (m - 1);
+        keys[i] = EMPTY;
+        i = (i + 1) & (m - 1);
+        while (keys[i] != EMPTY) {
+            long keyToRehash = keys[i];
+            int idToRehash = ids[i];
+            keys[i] = EMPTY;
+            int j;
+            for (j = hash(keyToRehash); keys[j] != EMPTY; j = (j + 1) & (m - 1))
+                ;
+            keys[j] = keyToRehash;
+            ids[j] = idToRehash;
+            i = (i + 1) & (m - 1);
+        }
+    }
+
+    // resizes the hash table to the given capacity by re-hashing all of the keys
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldIds = ids;
+        m = capacity;
+        keys = new long[m];
+        Arrays.fill(keys, EMPTY);
+        ids = new int[m];
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) continue;
+            int i;
+            for (i = hash(oldKeys[j]); keys[i] != EMPTY; i = (i + 1) & (m - 1))
+                ;
+            keys[i] = oldKeys[j];
+            ids[i] = oldIds[j];
+        }
+    }
+
+   /***************************************************************************
+    * Link-cut tree.
+    ***************************************************************************/
+
+    private void initNode(int x) {
+        left[x] = right[x] = parent[x] = -1;
+        reversed[x] = false;
+        if (x < V) {
+            value[x] = 0.0;
+            max[x] = -1;
+        }
+        else {
+            value[x] = weight[x - V];
+            max[x] = x;
+        }
+    }
+
+    // is x the root of its splay tree?
+    private boolean isRoot(int x) {
+        int p = parent[x];
+        return p == -1 || (left[p] != x && right[p] != x);
+    }
+
+    // push the lazy reversal of x down to its children
+    private void push(int x) {
+        if (!reversed[x]) return;
+        int swap = left[x];
+        left[x] = right[x];
+        right[x] = swap;
+        if (left[x] != -1)  reversed[left[x]] ^= true;
+        if (right[x] != -1) reversed[right[x]] ^= true;
+        reversed[x] = false;
+    }
+
+    // recompute max[x] from its children; a vertex node is never preferred
+    // to an edge node, whatever the weights (even -infinity)
+    private void pull(int x) {
+        int best = (x < V) ? -1 : x;
+        if (left[x] != -1)  best = heavier(best, max[left[x]]);
+        if (right[x] != -1) best = heavier(best, max[right[x]]);
+        max[x] = best;
+    }
+
+    // the heavier of the edge nodes a and b, either of which may be -1;
+    // ties are broken by id, as in lighter()
+    private int heavier(int a, int b) {
+        if (a == -1) return b;
+        if (b == -1) return a;
+        return (value[b] > value[a] || (value[b] == value[a] && b > a)) ? b : a;
+    }
+
+    private void rotate(int x) {
+        int y = parent[x], z = parent[y];
+        if (!isRoot(y)) {
+            if (left[z] == y) left[z] = x;
+            else              right[z] = x;
+        }
+        parent[x] = z;
+        if (left[y] == x) {
+            left[y] = right[x];
+            if (right[x] != -1) parent[right[x]] = y;
+            right[x] = y;
+        }
+        else {
+            right[y] = left[x];
+            if (left[x] != -1) parent[left[x]] = y;
+            left[x] = y;
+        }
+        parent[y] = x;
+        pull(y);
+        pull(x);
+    }
+
+    // make x the root of its splay tree
+    private void splay(int x) {
+        int n = 0;
+        stack[n++] = x;
+        for (int y = x; !isRoot(y); y = parent[y])
+            stack[n++] = parent[y];
+        while (n > 0)
+            push(stack[--n]);
+
+        while (!isRoot(x)) {
+            int y = parent[x];
+            if (!isRoot(y)) {
+                int z = parent[y];
+                if ((left[y] == x) == (left[z] == y)) rotate(y);
+                else                                  rotate(x);
+            }
+            rotate(x);
+        }
+    }
+
+    // make the path from the root to x preferred, with x at the root of its splay tree
+    private void access(int x) {
+        int last = -1;
+        for (int y = x; y != -1; y = parent[y]) {
+            splay(y);
+            right[y] = last;
+            pull(y);
+            last = y;
+        }
+        splay(x);
+    }
+
+    // make x the root of its tree
+    private void makeRoot(int x) {
+        access(x);
+        reversed[x] ^= true;
+        push(x);
+    }
+
+    private void linkNodes(int x, int y) {
+        makeRoot(x);
+        parent[x] = y;
+    }
+
+    private void cutNodes(int x, int y) {
+        makeRoot(x);
+        access(y);
+        // x is now the left child of y, with no right child
+        left[y] = -1;
+        parent[x] = -1;
+        pull(y);
+    }
+
+    // the edge node with the largest weight on the path between vertices v and w
+    // (-1 if v == w)
+    private int pathMax(int v, int w) {
+        makeRoot(v);
+        access(w);
+        return max[w];
+    }
+
+    // add edge e to the forest
+    private void link(int e) {
+        int x = V + e;
+        initNode(x);
+        linkNodes(from[e], x);
+        linkNodes(x, to[e]);
+        tourLink(e, levels);
+        inTree[e] = true;
+        treeEdges++;
+    }
+
+    // remove edge e from the forest
+    private void cut(int e) {
+        int x = V + e;
+        cutNodes(from[e], x);
+        cutNodes(x, to[e]);
+        tourCut(e, levels);
+        inTree[e] = false;
+        treeEdges--;
+    }
+
+    // set the weight of edge e, and of its node if it is in the forest
+    private void setEdgeWeight(int e, double weight) {
+        this.weight[e] = weight;
+        if (inTree[e]) {
+            int x = V + e;
+            access(x);
+            value[x] = weight;
+            pull(x);
+        }
+    }
+
+   /***************************************************************************
+    * Euler tour trees.
+    ***************************************************************************/
+
+    private void resizeNodes(int capacity) {
+        tourLeft = Arrays.copyOf(tourLeft, capacity);
+        tourRight = Arrays.copyOf(tourRight, capacity);
+        tourParent = Arrays.copyOf(tourParent, capacity);
+        tourSize = Arrays.copyOf(tourSize, capacity);
+        tourMin = Arrays.copyOf(tourMin, capacity);
+        tourOwn = Arrays.copyOf(tourOwn, capacity);
+        tourFlag = Arrays.copyOf(tourFlag, capacity);
+        tourVertex = Arrays.copyOf(tourVertex, capacity);
+        tourEdge = Arrays.copyOf(tourEdge, capacity);
+        tourLevel = Arrays.copyOf(tourLevel, capacity);
+        unused = Arrays.copyOf(unused, capacity);
+    }
+
+    // node of vertex v at level i, creating the nodes of the vertices at level i if needed
+    private int vertexNode(int v, int i) {
+        if (base[i] == -1) {
+            if (nodes + V > tourLeft.length) resizeNodes(Math.max(2 * tourLeft.length, nodes + V));
+            base[i] = nodes;
+            for (int u = 0; u < V; u++) {
+                int x = nodes++;
+                tourLeft[x] = tourRight[x] = tourParent[x] = -1;
+                tourSize[x] = 1;
+                tourMin[x] = top(u, i);
+                tourOwn[x] = tourFlag[x] = false;
+                tourVertex[x] = u;
+                tourLevel[x] = i;
+            }
+        }
+        return base[i] + v;
+    }
+
+    // a new arc node of edge e at level i
+    private int arcNode(int e, int i, boolean own) {
+        int x;
+        if (unusedCount > 0) x = unused[--unusedCount];
+        else {
+            if (nodes == tourLeft.length) resizeNodes(2 * nodes);
+            x = nodes++;
+        }
+        tourLeft[x] = tourRight[x] = tourParent[x] = -1;
+        tourSize[x] = 0;
+        tourMin[x] = -1;
+        tourOwn[x] = tourFlag[x] = own;
+        tourVertex[x] = -1;
+        tourEdge[x] = e;
+        tourLevel[x] = i;
+        return x;
+    }
+
+    // recompute the size, lightest non-tree end, and flag of x from its children
+    private void tourPull(int x) {
+        int size = 0, min = -1;
+        if (tourVertex[x] != -1) {
+            size = 1;
+            min = top(tourVertex[x], tourLevel[x]);
+        }
+        boolean flag = tourOwn[x];
+        int l = tourLeft[x], r = tourRight[x];
+        if (l != -1) {
+            size += tourSize[l];
+            min = lighterEnd(min, tourMin[l]);
+            flag |= tourFlag[l];
+        }
+        if (r != -1) {
+            size += tourSize[r];
+            min = lighterEnd(min, tourMin[r]);
+            flag |= tourFlag[r];
+        }
+        tourSize[x] = size;
+        tourMin[x] = min;
+        tourFlag[x] = flag;
+    }
+
+    // the end of the lighter edge, either of which may be -1
+    private int lighterEnd(int a, int b) {
+        if (a == -1) return b;
+        if (b == -1) return a;
+        return lighter(b >> 1, a >> 1) ? b : a;
+    }
+
+    private void tourRotate(int x) {
+        int y = tourParent[x], z = tourParent[y];
+        if (z != -1) {
+            if (tourLeft[z] == y) tourLeft[z] = x;
+            else                  tourRight[z] = x;
+        }
+        tourParent[x] = z;
+        if (tourLeft[y] == x) {
+            tourLeft[y] = tourRight[x];
+            if (tourRight[x] != -1) tourParent[tourRight[x]] = y;
+            tourRight[x] = y;
+        }
+        else {
+            tourRight[y] = tourLeft[x];
+            if (tourLeft[x] != -1) tourParent[tourLeft[x]] = y;
+            tourLeft[x] = y;
+        }
+        tourParent[y] = x;
+        tourPull(y);
+        tourPull(x);
+    }
+
+    // make x the root of its splay tree
+    private void tourSplay(int x) {
+        while (tourParent[x] != -1) {
+            int y = tourParent[x], z = tourParent[y];
+            if (z != -1) {
+                if ((tourLeft[y] == x) == (tourLeft[z] == y)) tourRotate(y);
+                else                                          tourRotate(x);
+            }
+            tourRotate(x);
+        }
+    }
+
+    // are nodes x and y in the same tour? after splaying x and then y,
+    // x is the root of its splay tree only if y is in another one
+    private boolean sameTour(int x, int y) {
+        if (x == y) return true;
+        tourSplay(x);
+        tourSplay(y);
+        return tourParent[x] != -1;
+    }
+
+    // concatenate the tours whose splay trees have roots a and b (-1 if empty)
+    // and return the root of the result
+    private int tourJoin(int a, int b) {
+        if (a == -1) return b;
+        if (b == -1) return a;
+        int x = a;
+        while (tourRight[x] != -1)
+            x = tourRight[x];
+        tourSplay(x);
+        tourRight[x] = b;
+        tourParent[b] = x;
+        tourPull(x);
+        return x;
+    }
+
+    // detach and return the left subtree of x, which must be a root
+    private int detachLeft(int x) {
+        int l = tourLeft[x];
+        if (l == -1) return -1;
+        tourLeft[x] = -1;
+        tourParent[l] = -1;
+        tourPull(x);
+        return l;
+    }
+
+    // detach and return the right subtree of x, which must be a root
+    private int detachRight(int x) {
+        int r = tourRight[x];
+        if (r == -1) return -1;
+        tourRight[x] = -1;
+        tourParent[r] = -1;
+        tourPull(x);
+        return r;
+    }
+
+    // a balanced splay tree of the nodes in a[lo..hi], and return its root
+    private int tourBuild(int[] a, int lo, int hi) {
+        if (lo > hi) return -1;
+        int mid = lo + (hi - lo) / 2;
+        int x = a[mid];
+        int l = tourBuild(a, lo, mid - 1);
+        int r = tourBuild(a, mid + 1, hi);
+        tourLeft[x] = l;
+        tourRight[x] = r;
+        if (l != -1) tourParent[l] = x;
+        if (r != -1) tourParent[r] = x;
+        tourPull(x);
+        return x;
+    }
+
+    // are vertices v and w in the same tree of the forest?
+    private boolean connectedNodes(int v, int w) {
+        return sameTour(vertexNode(v, levels), vertexNode(w, levels));
+    }
+
+    // rotate the tour of vertex node x so that it starts at x, and return its root
+    private int tourReroot(int x) {
+        tourSplay(x);
+        return tourJoin(x, detachLeft(x));
+    }
+
+    // join the trees of the endpoints of edge e at level i
+    private void tourLink(int e, int i) {
+        if (arcs[e] == null) arcs[e] = new int[2*levels + 2];
+        int a = arcNode(e, i, level[e] == i);
+        int b = arcNode(e, i, false);
+        arcs[e][2*i] = a;
+        arcs[e][2*i + 1] = b;
+        int root = tourJoin(tourReroot(vertexNode(from[e], i)), a);
+        root = tourJoin(root, tourReroot(vertexNode(to[e], i)));
+        tourJoin(root, b);
+    }
+
+    // split the tree of edge e at level i in two
+    private void tourCut(int e, int i) {
+        int a = arcs[e][2*i], b = arcs[e][2*i + 1];
+
+        // after splaying a and then b, a is at most two levels below b
+        tourSplay(a);
+        tourSplay(b);
+        int x = a;
+        while (tourParent[x] != b)
+            x = tourParent[x];
+        if (tourLeft[b] != x) {
+            int swap = a;
+            a = b;
+            b = swap;
+        }
+
+        // the tour is P a Q b R: Q is one tree, and P R is the other
+        tourSplay(a);
+        int p = detachLeft(a);
+        detachRight(a);
+        tourSplay(b);
+        detachLeft(b);
+        int r = detachRight(b);
+        tourJoin(p, r);
+        unused[unusedCount++] = a;
+        unused[unusedCount++] = b;
+    }
+
+    // the lightest end in heap[v][i], or -1 if none
+    private int top(int v, int i) {
+        if (i == levels || heap[v] == null || heap[v][i] == null || heap[v][i][0] == 0) return -1;
+        return heap[v][i][1];
+    }
+
+    private void heapInsert(int end, int v, int i) {
+        if (heap[v] == null) heap[v] = new int[levels][];
+        int[] h = heap[v][i];
+        if (h == null) h = heap[v][i] = new int[4];
+        else if (h[0] + 1 == h.length) h = heap[v][i] = Arrays.copyOf(h, 2 * h.length);
+        int k = ++h[0];
+        h[k] = end;
+        heapPos[end] = k;
+        swim(h, k);
+    }
+
+    private void heapDelete(int end, int v, int i) {
+        int[] h = heap[v][i];
+        int k = heapPos[end], n = h[0]--;
+        if (k == n) return;
+        h[k] = h[n];
+        heapPos[h[k]] = k;
+        swim(h, k);
+        sink(h, k);
+    }
+
+    private void swim(int[] h, int k) {
+        while (k > 1 && lighter(h[k] >> 1, h[k/2] >> 1)) {
+            exch(h, k, k/2);
+            k = k/2;
+        }
+    }
+
+    private void sink(int[] h, int k) {
+        int n = h[0];
+        while (2*k <= n) {
+            int j = 2*k;
+            if (j < n && lighter(h[j+1] >> 1, h[j] >> 1)) j++;
+            if (!lighter(h[j] >> 1, h[k] >> 1)) break;
+            exch(h, k, j);
+            k = j;
+        }
+    }
+
+    private void exch(int[] h, int i, int j) {
+        int swap = h[i];
+        h[i] = h[j];
+        h[j] = swap;
+        heapPos[h[i]] = i;
+        heapPos[h[j]] = j;
+    }
+
+    // recompute the lightest non-tree end of the tour of vertex v at level i
+    private void refresh(int v, int i) {
+        int x = vertexNode(v, i);
+        tourSplay(x);
+        tourPull(x);
+    }
+
+    // put old non-tree edge e at level i
+    private void addNonTree(int e, int i) {
+        level[e] = i;
+        heapInsert(2*e, from[e], i);
+        heapInsert(2*e + 1, to[e], i);
+        if (base[i] != -1) {
+            refresh(from[e], i);
+            refresh(to[e], i);
+        }
+    }
+
+    // remove old non-tree edge e from its level
+    private void removeNonTree(int e) {
+        int i = level[e];
+        heapDelete(2*e, from[e], i);
+        heapDelete(2*e + 1, to[e], i);
+        refresh(from[e], i);
+        refresh(to[e], i);
+    }
+
+    // delete edge e from T, and return the edge that replaces it in T (-1 if none)
+    private int deleteSpanning(int e) {
+        int top = level[e];
+        for (int i = 0; i <= top; i++)
+            tourCut(e, i);
+        spanning[e] = false;
+
+        for (int i = top; i >= 0; i--) {
+            int x = vertexNode(from[e], i), y = vertexNode(to[e], i);
+            tourSplay(x);
+            tourSplay(y);
+            int small = (tourSize[x] <= tourSize[y]) ? x : y;
+
+            // move the edges of T at level i in the smaller tree up one level,
+            // which keeps the trees at level i+1 within half the size
+            while (true) {
+                tourSplay(small);
+                if (!tourFlag[small]) break;
+                int a = small;
+                while (!tourOwn[a]) {
+                    int l = tourLeft[a];
+                    a = (l != -1 && tourFlag[l]) ? l : tourRight[a];
+                }
+                tourSplay(a);
+                tourOwn[a] = false;
+                tourPull(a);
+                int f = tourEdge[a];
+                level[f] = i + 1;
+                tourLink(f, i + 1);
+            }
+
+            // the non-tree edges at level i incident to the smaller tree, lightest first:
+            // each either reconnects the two trees, or moves up one level
+            while (true) {
+                tourSplay(small);
+                int end = tourMin[small];
+                if (end == -1) break;
+                int g = end >> 1;
+                removeNonTree(g);
+                if (!sameTour(vertexNode(other(end), i), small)) {
+                    spanning[g] = true;
+                    level[g] = i;
+                    for (int j = 0; j <= i; j++)
+                        tourLink(g, j);
+                    return g;
+                }
+                addNonTree(g, i + 1);
+            }
+        }
+        return -1;
+    }
+
+   /***************************************************************************
+    * Maintaining the forest.
+    ***************************************************************************/
+
+    // edge e, not in the forest, joined T and the recent edges: by the
+    // cycle property, it replaces the heaviest edge on the cycle it closes
+    private void offer(int e) {
+        int v = from[e], w = to[e];
+        if (!connectedNodes(v, w)) {
+            link(e);
+            return;
+        }
+        int f = pathMax(v, w) - V;
+        if (lighter(e, f)) {
+            cut(f);
+            link(e);
+            addSpare(f);
+        }
+        else addSpare(e);
+    }
+
+    // an edge was cut from the forest: by the cut property, the lightest
+    // edge of T and the recent edges that joins the two trees replaces it
+    private void reconnect() {
+        for (int k = 0; k < spareCount; k++) {
+            int f = spare[k];
+            if (!connectedNodes(from[f], to[f])) {
+                removeSpare(f);
+                link(f);
+                return;
+            }
+        }
+    }
+
+    // make edge e recent, and rebuild if there are too many recent edges
+    private void attach(int e) {
+        if (from[e] == to[e]) return;
+        recent[e] = true;
+        recentCount++;
+        offer(e);
+        if (recentCount > MIN_RECENT && (long) recentCount * recentCount > (long) V + E)
+            rebuild();
+    }
+
+    // take edge e out of T and the recent edges
+    private void detach(int e) {
+        if (from[e] == to[e]) return;
+        if (recent[e]) {
+            recent[e] = false;
+            recentCount--;
+            if (inTree[e]) {
+                cut(e);
+                reconnect();
+            }
+            else removeSpare(e);
+        }
+        else if (!spanning[e]) removeNonTree(e);
+        else {
+            int r = deleteSpanning(e);
+            if (inTree[e]) {
+                cut(e);
+                reconnect();
+            }
+            else removeSpare(e);
+            if (r != -1) offer(r);
+        }
+    }
+
+   /***************************************************************************
+    * Changing the graph.
+    ***************************************************************************/
+
+    /**
+     * Adds the edge {@code v}-{@code w} with the specified weight, and
+     * updates the minimum spanning forest. Takes
+     * <em>O</em>(sqrt(<em>V</em> + <em>E</em>) log<sup>2</sup> <em>V</em>)
+     * amortized time, most of which pays for rebuilding.
+     *
+     * @param  v one endpoint
+     * @param  w the other endpoint
+     * @param  weight the weight
+     * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+     * @throws IllegalArgumentException if {@code weight} is NaN
+     * @throws IllegalArgumentException if there already is an edge {@code v}-{@code w}
+     */
+    public void insertEdge(int v, int w, double weight) {
+        validateVertex(v);
+        validateVertex(w);
+        validateWeight(weight);
+        if (find(v, w) != -1) throw new IllegalArgumentException("edge " + v + "-" + w + " is already in the graph");
+        attach(add(v, w, weight));
+        assert check();
+    }
+
+    /**
+     * Removes the edge {@code v}-{@code w}, and updates the minimum spanning forest.
+     * Takes <em>O</em>(log<sup>2</sup> <em>V</em> + sqrt(<em>V</em> + <em>E</em>) log <em>V</em>)
+     * amortized time, and &Theta;(log <em>V</em>) amortized time for an old
+     * edge that is not in <em>T</em>.
+     *
+     * @param  v one endpoint
+     * @param  w the other endpoint
+     * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+     * @throws IllegalArgumentException if there is no edge {@code v}-{@code w}
+     */
+    public void deleteEdge(int v, int w) {
+        int e = edge(v, w);
+        detach(e);
+        remove(e);
+        assert check();
+    }
+
+    /**
+     * Changes the weight of the edge {@code v}-{@code w}, and updates the
+     * minimum spanning forest. Making an edge of the forest lighter takes
+     * &Theta;(log <em>V</em>) amortized time. Making an edge of <em>T</em> or
+     * a recent edge lighter, or making a recent edge not in the forest heavier,
+     * takes <em>O</em>(log <em>V</em> + sqrt(<em>V</em> + <em>E</em>)) amortized
+     * time. Otherwise, the edge is removed and inserted again with the new weight,
+     * which takes the time of both operations.
+     *
+     * @param  v one endpoint
+     * @param  w the other endpoint
+     * @param  weight the new weight
+     * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+     * @throws IllegalArgumentException if {@code weight} is NaN
+     * @throws IllegalArgumentException if there is no edge {@code v}-{@code w}
+     */
+    public void setWeight(int v, int w, double weight) {
+        validateWeight(weight);
+        reweight(edge(v, w), weight);
+        assert check();
+    }
+
+    private void reweight(int e, double weight) {
+        double old = this.weight[e];
+
+        // T does not change when one of its edges or a recent edge becomes
+        // lighter, or when a recent edge becomes heavier outside the forest
+        if (from[e] == to[e] || weight == old) setEdgeWeight(e, weight);
+        else if (weight < old && inTree[e]) setEdgeWeight(e, weight);
+        else if (weight < old && (recent[e] || spanning[e])) {
+            removeSpare(e);
+            setEdgeWeight(e, weight);
+            offer(e);
+        }
+        else if (weight > old && recent[e] && !inTree[e]) {
+            removeSpare(e);
+            setEdgeWeight(e, weight);
+            addSpare(e);
+        }
+        else {
+            detach(e);
+            setEdgeWeight(e, weight);
+            attach(e);
+        }
+    }
+
+    /**
+     * Changes the graph to the specified snapshot, by inserting, deleting,
+     * and reweighting edges, and updates the minimum spanning forest.
+     * Takes time linear in the number of edges to find the changes,
+     * plus the time to update the forest after each change.
+     *
+     * @param  next the next snapshot
+     * @return the number of edges inserted, deleted, or reweighted
+     * @throws IllegalArgumentException if {@code next} does not have {@code V} vertices
+     * @throws IllegalArgumentException if an edge weight is NaN
+     */
+    public int update(EdgeWeightedGraph next) {
+        if (next == null) throw new IllegalArgumentException("argument is null");
+        if (next.V() != V)
+            throw new IllegalArgumentException("snapshot has " + next.V() + " vertices instead of " + V);
+        if (version == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            version = 0;
+        }
+        version++;
+
+        int changes = 0;
+        for (int v = 0; v < V; v++) {
+            for (Edge edge : next.adj(v)) {
+                int w = edge.other(v);
+                if (w < v) continue;
+                double weight = edge.weight();
+                validateWeight(weight);
+                int e = find(v, w);
+                if (e == -1) {
+                    attach(add(v, w, weight));
+                    changes++;
+                    continue;
+                }
+                if (seen[e] == version && weight >= this.weight[e]) continue;  // parallel edge
+                seen[e] = version;
+                if (weight != this.weight[e]) {
+                    reweight(e, weight);
+                    changes++;
+                }
+            }
+        }
+
+        // delete the edges not in the next snapshot
+        for (int e = 0; e < edgeCount; e++) {
+            if (from[e] == -1 || seen[e] == version) continue;
+            deleteEdge(from[e], to[e]);
+            changes++;
+        }
+        assert check();
+        return changes;
+    }
+
+   /***************************************************************************
+    * Queries.
+    ***************************************************************************/
+
+    /**
+     * Returns the number of vertices.
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges.
+     * @return the number of edges
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns the edges in the current minimum spanning tree (or forest).
+     * @return the edges in the current minimum spanning tree (or forest) as
+     *    an iterable of edges
+     */
+    public Iterable<Edge> edges() {
+        Queue<Edge> mst = new Queue<Edge>();
+        for (int e = 0; e < edgeCount; e++) {
+            if (from[e] != -1 && inTree[e])
+                mst.enqueue(new Edge(from[e], to[e], weight[e]));
+        }
+        return mst;
+    }
+
+    /**
+     * Returns the sum of the edge weights in the current minimum spanning tree
+     * (or forest). Takes time linear in the number of edges.
+     * @return the sum of the edge weights in the current minimum spanning tree (or forest)
+     */
+    public double weight() {
+        double total = 0.0;
+        for (int e = 0; e < edgeCount; e++) {
+            if (from[e] != -1 && inTree[e])
+                total += weight[e];
+        }
+        return total;
+    }
+
+    /**
+     * Returns the number of edges in the current minimum spanning forest,
+     * which is <em>V</em> minus the number of connected components.
+     * @return the number of edges in the current minimum spanning forest
+     */
+    public int size() {
+        return treeEdges;
+    }
+
+    /**
+     * Returns true if vertices {@code v} and {@code w} are connected.
+     * Takes logarithmic amortized time.
+     *
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @return {@code true} if {@code v} and {@code w} are connected; {@code false} otherwise
+     * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public boolean connected(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        return connectedNodes(v, w);
+    }
+
+    // id of the edge v-w, which must exist
+    private int edge(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        int e = find(v, w);
+        if (e == -1) throw new IllegalArgumentException("no edge " + v + "-" + w + " in the graph");
+        return e;
+    }
+
+    // check that the forest has the same weight and number of edges as
+    // a minimum spanning forest computed from scratch, that T is a minimum
+    // spanning forest of the old edges, and that there are no more edges
+    // of T and recent edges outside the forest than recent edges
+    private boolean check() {
+        EdgeWeightedGraph G = new EdgeWeightedGraph(V);
+        EdgeWeightedGraph old = new EdgeWeightedGraph(V);
+        int size = 0, oldSize = 0;
+        double oldWeight = 0.0;
+        for (int e = 0; e < edgeCount; e++) {
+            if (from[e] == -1) continue;
+            G.addEdge(new Edge(from[e], to[e], weight[e]));
+            if (recent[e]) continue;
+            old.addEdge(new Edge(from[e], to[e], weight[e]));
+            if (spanning[e]) {
+                oldSize++;
+                oldWeight += weight[e];
+            }
+        }
+        KruskalMST mst = new KruskalMST(G);
+        for (Edge e : mst.edges())
+            size++;
+        if (size != treeEdges) {
+            System.err.printf("forest has %d edges instead of %d\n", treeEdges, size);
+            return false;
+        }
+        if (!close(mst.weight(), weight())) {
+            System.err.printf("weight of forest = %f, weight of minimum spanning forest = %f\n", weight(), mst.weight());
+            return false;
+        }
+        KruskalMST oldMst = new KruskalMST(old);
+        size = 0;
+        for (Edge e : oldMst.edges())
+            size++;
+        if (size != oldSize || !close(oldMst.weight(), oldWeight)) {
+            System.err.printf("T has %d edges of weight %f instead of %d of weight %f\n",
+                              oldSize, oldWeight, size, oldMst.weight());
+            return false;
+        }
+        if (spareCount > recentCount) {
+            System.err.printf("%d edges outside the forest but only %d recent edges\n", spareCount, recentCount);
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean close(double a, double b) {
+        if (a == b) return true;
+        return !(Math.abs(a - b) > FLOATING_POINT_EPSILON * Math.max(1.0, Math.abs(a)));
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    private static void validateWeight(double weight) {
+        if (Double.isNaN(weight)) throw new IllegalArgumentException("edge weight is NaN");
+    }
+
+    /**
+     * Unit tests the {@code DynamicMST} data type, by moving through
+     * a series of snapshots of an edge-weighted graph.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        DynamicMST mst = null;
+        for (int i = 0; i < args.length; i++) {
+            EdgeWeightedGraph G = new EdgeWeightedGraph(new In(args[i]));
+            int changes = G.E();
+            if (mst == null) mst = new DynamicMST(G);
+            else             changes = mst.update(G);
+            StdOut.printf("%s  %2d changes  weight = %.5f\n", args[i], changes, mst.weight());
+        }
+    }
+}
@@ -0,0 +1,792 @@
+/******************************************************************************
+ *  Compilation:  javac DynamicSP.java
+ *  Execution:    java DynamicSP s file1.txt file2.txt ...
+ *  Dependencies: EdgeWeightedDigraph.java EdgeWeightedGraph.java DirectedEdge.java
+ *                Edge.java IndexDoubleMinPQ.java Stack.java In.java StdOut.java
+ *
+ *  Maintains a shortest-paths tree from a fixed source vertex in a graph
+ *  or digraph with non-negative edge weights, under edge insertions,
+ *  deletions, and weight changes, repairing only the part of the tree that
+ *  the change affects. Can also move from one snapshot of the graph to the
+ *  next by applying the difference between the two.
+ *
+ *  % java DynamicSP 0 dataset1.txt dataset2.txt dataset3.txt
+ *  dataset1.txt  14 changes   2 vertices rescanned
+ *  dataset2.txt   3 changes   1 vertices rescanned
+ *  ...
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+
+/**
+ *  The {@code DynamicSP} class represents a data type for maintaining a
+ *  shortest-paths tree from a source vertex <em>s</em> in an edge-weighted
+ *  digraph (or graph) where the edge weights are non-negative, while
+ *  edges are inserted, deleted, and reweighted.
+ *  <p>
+ *  The digraph is stored in the data type itself, with at most one edge
+ *  from <em>v</em> to <em>w</em>: when it is built from (or updated to) a
+ *  digraph with parallel edges, only the lightest one of them is kept, which
+ *  does not change the length of any shortest path. An undirected edge
+ *  <em>v</em>-<em>w</em> is stored as the two directed edges
+ *  <em>v</em>&rarr;<em>w</em> and <em>w</em>&rarr;<em>v</em>, which are
+ *  inserted, deleted, and reweighted together.
+ *  <p>
+ *  This implementation repairs the tree after each change in the style of
+ *  Ramalingam and Reps. If the change makes an edge <em>v</em>&rarr;<em>w</em>
+ *  shorter, only the vertices whose distance decreases are scanned, in order of
+ *  their new distance, as in Dijkstra's algorithm. If the change makes an edge of
+ *  the tree longer (or deletes it), only the vertices in the subtree below it are
+ *  affected: their distances are recomputed from the unaffected vertices, again
+ *  with Dijkstra's algorithm, and the rest of the tree is left as it is. A change
+ *  to an edge not in the tree that makes it longer takes constant time.
+ *  Each change takes time proportional to the number of affected vertices
+ *  and edges (times a logarithmic factor), rather than to the size of the
+ *  digraph. The {@link #update(EdgeWeightedDigraph)} and
+ *  {@link #update(EdgeWeightedGraph)} methods compute the difference between
+ *  the current digraph and the next snapshot in linear time, using a hash
+ *  table indexed by endpoints, and apply it edge by edge.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/44sp">Section 4.4</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class DynamicSP {
+
+    // must be a power of 2
+    private static final int INIT_CAPACITY = 16;
+
+    // no valid key is negative since vertex indices are non-negative
+    private static final long EMPTY = -1L;
+
+    private final int V;               // number of vertices
+    private final int s;               // source vertex
+    private final boolean directed;    // is the graph directed?
+    private final int arcsPerEdge;     // 1 if directed, 2 otherwise
+    private int E;                     // number of edges
+
+    // edges, by id: the arcs of edge e are e (directed), or 2e and 2e+1 (undirected)
+    private int[] from;                // from[e] = one endpoint of edge e (-1 if deleted)
+    private int[] to;                  // to[e] = the other endpoint of edge e
+    private double[] weight;           // weight[e] = weight of edge e
+    private int[] seen;                // seen[e] = last update in which edge e was seen
+    private int edgeCount;             // one more than the largest edge id in use
+    private int[] free;                // ids of deleted edges, for reuse
+    private int freeCount;             // number of ids of deleted edges
+
+    // linear probing hash table from endpoints to edge ids
+    private int m;                     // size of linear probing table
+    private long[] keys;               // keys[i] = endpoints of edge in slot i
+    private int[] ids;                 // ids[i] = id of edge in slot i
+
+    // adjacency lists of arcs
+    private int[][] out;               // out[v][0..outdegree[v]-1] = arcs pointing from v
+    private int[][] in;                // in[v][0..indegree[v]-1] = arcs pointing to v
+    private int[] outdegree;           // outdegree[v] = number of arcs pointing from v
+    private int[] indegree;            // indegree[v] = number of arcs pointing to v
+    private int[] outPos;              // out[tail(a)][outPos[a]] = a
+    private int[] inPos;               // in[head(a)][inPos[a]] = a
+
+    // the shortest-paths tree
+    private final double[] distTo;     // distTo[v] = length of shortest s->v path
+    private final int[] edgeTo;        // edgeTo[v] = last arc on shortest s->v path (-1 if none)
+    private final IndexDoubleMinPQ pq; // vertices whose distance decreased
+    private final int[] mark;          // mark[v] == epoch iff v is affected by the change
+    private final int[] affected;      // the affected vertices
+    private int epoch;                 // number of the current change
+    private int version;               // number of the current update
+    private int scanned;               // number of vertices scanned since last reset
+
+    /**
+     * Computes a shortest-paths tree from the source vertex {@code s} to every
+     * other vertex in the edge-weighted digraph {@code G}, which can later be
+     * changed.
+     *
+     * @param  G the edge-weighted digraph
+     * @param  s the source vertex
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DynamicSP(EdgeWeightedDigraph G, int s) {
+        this(G.V(), s, true, G.E());
+        for (DirectedEdge e : G.edges())
+            build(e.from(), e.to(), e.weight());
+        solve();
+    }
+
+    /**
+     * Computes a shortest-paths tree from the source vertex {@code s} to every
+     * other vertex in the edge-weighted graph {@code G}, which can later be
+     * changed.
+     *
+     * @param  G the edge-weighted graph
+     * @param  s the source vertex
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     */
+    public DynamicSP(EdgeWeightedGraph G, int s) {
+        this(G.V(), s, false, G.E());
+        for (Edge e : G.edges()) {
+            int v = e.either();
+            build(v, e.other(v), e.weight());
+        }
+        solve();
+    }
+
+    private DynamicSP(int V, int s, boolean directed, int capacity) {
+        this.V = V;
+        this.s = s;
+        this.directed = directed;
+        this.arcsPerEdge = directed ? 1 : 2;
+        validateVertex(s);
+
+        capacity = Math.max(1, capacity);
+        from = new int[capacity];
+        to = new int[capacity];
+        weight = new double[capacity];
+        seen = new int[capacity];
+        free = new int[capacity];
+        outPos = new int[arcsPerEdge * capacity];
+        inPos = new int[arcsPerEdge * capacity];
+
+        m = INIT_CAPACITY;
+        while (m < 2*capacity) m *= 2;
+        keys = new long[m];
+        Arrays.fill(keys, EMPTY);
+        ids = new int[m];
+
+        out = new int[V][];
+        in = new int[V][];
+        outdegree = new int[V];
+        indegree = new int[V];
+
+        distTo = new double[V];
+        edgeTo = new int[V];
+        pq = new IndexDoubleMinPQ(V);
+        mark = new int[V];
+        affected = new int[V];
+    }
+
+    // add an edge while building the digraph, keeping the lightest of parallel edges
+    private void build(int v, int w, double weight) {
+        validateVertex(v);
+        validateVertex(w);
+        validateWeight(weight);
+        int e = find(v, w);
+        if (e == -1) add(v, w, weight);
+        else         this.weight[e] = Math.min(this.weight[e], weight);
+    }
+
+    // compute the shortest-paths tree from scratch
+    private void solve() {
+        for (int v = 0; v < V; v++) {
+            distTo[v] = Double.POSITIVE_INFINITY;
+            edgeTo[v] = -1;
+        }
+        distTo[s] = 0.0;
+        pq.insert(s, 0.0);
+        propagate();
+        assert check();
+    }
+
+   /***************************************************************************
+    * Arcs.
+    ***************************************************************************/
+
+    private int tail(int a) {
+        return (directed || (a & 1) == 0) ? from[a / arcsPerEdge] : to[a / arcsPerEdge];
+    }
+
+    private int head(int a) {
+        return (directed || (a & 1) == 0) ? to[a / arcsPerEdge] : from[a / arcsPerEdge];
+    }
+
+    private double weight(int a) {
+        return weight[a / arcsPerEdge];
+    }
+
+    private int firstArc(int e) {
+        return arcsPerEdge * e;
+    }
+
+   /***************************************************************************
+    * Edge storage.
+    ***************************************************************************/
+
+    // add a new edge v-w and return its id; does not repair the tree
+    private int add(int v, int w, double weight) {
+        int e;
+        if (freeCount > 0) e = free[--freeCount];
+        else {
+            if (edgeCount == from.length) resizeEdges(2 * from.length);
+            e = edgeCount++;
+        }
+        from[e] = v;
+        to[e] = w;
+        this.weight[e] = weight;
+        seen[e] = version;
+        put(key(v, w), e);
+        for (int a = firstArc(e); a < firstArc(e) + arcsPerEdge; a++)
+            link(a);
+        E++;
+        return e;
+    }
+
+    // remove edge e; does not repair the tree
+    private void remove(int e) {
+        for (int a = firstArc(e); a < firstArc(e) + arcsPerEdge; a++)
+            unlink(a);
+        delete(key(from[e], to[e]));
+        from[e] = -1;
+        free[freeCount++] = e;
+        E--;
+    }
+
+    private void resizeEdges(int capacity) {
+        from = Arrays.copyOf(from, capacity);
+        to = Arrays.copyOf(to, capacity);
+        weight = Arrays.copyOf(weight, capacity);
+        seen = Arrays.copyOf(seen, capacity);
+        free = Arrays.copyOf(free, capacity);
+        outPos = Arrays.copyOf(outPos, arcsPerEdge * capacity);
+        inPos = Arrays.copyOf(inPos, arcsPerEdge * capacity);
+    }
+
+    // add arc a to the adjacency lists of its endpoints
+    private void link(int a) {
+        int v = tail(a), w = head(a);
+        if (out[v] == null) out[v] = new int[2];
+        else if (outdegree[v] == out[v].length) out[v] = Arrays.copyOf(out[v], 2 * out[v].length);
+        outPos[a] = outdegree[v];
+        out[v][outdegree[v]++] = a;
+
+        if (in[w] == null) in[w] = new int[2];
+        else if (indegree[w] == in[w].length) in[w] = Arrays.copyOf(in[w], 2 * in[w].length);
+        inPos[a] = indegree[w];
+        in[w][indegree[w]++] = a;
+    }
+
+    // remove arc a from the adjacency lists of its endpoints, by moving the last arc in its place
+    private void unlink(int a) {
+        int v = tail(a), w = head(a);
+        int last = out[v][--outdegree[v]];
+        out[v][outPos[a]] = last;
+        outPos[last] = outPos[a];
+
+        last = in[w][--indegree[w]];
+        in[w][inPos[a]] = last;
+        inPos[last] = inPos[a];
+    }
+
+   /***************************************************************************
+    * Hash table from endpoints to edge ids.
+    ***************************************************************************/
+
+    // pack the endpoints into a key (that does not depend on their order, if undirected)
+    private long key(int v, int w) {
+        if (!directed && v > w) {
+            int swap = v;
+            v = w;
+            w = swap;
+        }
+        return ((long) v << 32) | w;
+    }
+
+    // hash function for keys - returns value between 0 and m-1
+    private int hash(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & (m - 1);
+    }
+
+    // id of edge v-w, or -1 if no such edge
+    private int find(int v, int w) {
+        long key = key(v, w);
+        for (int i = hash(key); keys[i] != EMPTY; i = (i + 1) & (m - 1)) {
+            if (keys[i] == key) return ids[i];
+        }
+        return -1;
+    }
+
+    private void put(long key, int id) {
+        if (E >= m/2) rehash(2*m);
+        int i;
+        for (i = hash(key); keys[i] != EMPTY; i = (i + 1) & (m - 1))
+            ;
+        keys[i] = key;
+        ids[i] = id;
+    }
+
+    // delete the key, then reinsert the rest of its cluster
+    private void delete(long key) {
+        int i = hash(key);
+        while (keys[i] != key)
+            i = (i + 1) & (m - 1);
+        keys[i] = EMPTY;
+        i = (i + 1) & (m - 1);
+        while (keys[i] != EMPTY) {
+            long keyToRehash = keys[i];
+            int idToRehash = ids[i];
+            keys[i] = EMPTY;
+            int j;
+            for (j = hash(keyToRehash); keys[j] != EMPTY; j = (j + 1) & (m - 1))
+                ;
+            keys[j] = keyToRehash;
+            ids[j] = idToRehash;
+            i = (i + 1) & (m - 1);
+        }
+    }
+
+    // resizes the hash table to the given capacity by re-hashing all of the keys
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldIds = ids;
+        m = capacity;
+        keys = new long[m];
+        Arrays.fill(keys, EMPTY);
+        ids = new int[m];
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) continue;
+            int i;
+            for (i = hash(oldKeys[j]); keys[i] != EMPTY; i = (i + 1) & (m - 1))
+                ;
+            keys[i] = oldKeys[j];
+            ids[i] = oldIds[j];
+        }
+    }
+
+   /***************************************************************************
+    * Repairing the shortest-paths tree.
+    ***************************************************************************/
+
+    // arc a became shorter: relax it, and propagate any decrease
+    private void decrease(int a) {
+        relax(a);
+        propagate();
+    }
+
+    // relax arc a and update pq if changed
+    private void relax(int a) {
+        int v = tail(a), w = head(a);
+        double dist = distTo[v] + weight(a);
+        if (distTo[w] > dist) {
+            distTo[w] = dist;
+            edgeTo[w] = a;
+            if (pq.contains(w)) pq.decreaseKey(w, dist);
+            else                pq.insert(w, dist);
+        }
+    }
+
+    // scan the vertices on pq in order of distance, as in Dijkstra's algorithm
+    private void propagate() {
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            scanned++;
+            for (int j = 0; j < outdegree[v]; j++)
+                relax(out[v][j]);
+        }
+    }
+
+    // the arc into w on the tree became longer or was removed:
+    // recompute the distances in the subtree rooted at w
+    private void increase(int w) {
+        if (epoch == Integer.MAX_VALUE) {
+            Arrays.fill(mark, 0);
+            epoch = 0;
+        }
+        epoch++;
+
+        // find the vertices in the subtree rooted at w
+        int n = 0;
+        affected[n++] = w;
+        mark[w] = epoch;
+        for (int k = 0; k < n; k++) {
+            int v = affected[k];
+            for (int j = 0; j < outdegree[v]; j++) {
+                int a = out[v][j];
+                int x = head(a);
+                if (edgeTo[x] == a && mark[x] != epoch) {
+                    mark[x] = epoch;
+                    affected[n++] = x;
+                }
+            }
+        }
+
+        // the best path to each of them through an unaffected vertex
+        for (int k = 0; k < n; k++) {
+            int x = affected[k];
+            distTo[x] = Double.POSITIVE_INFINITY;
+            edgeTo[x] = -1;
+        }
+        for (int k = 0; k < n; k++) {
+            int x = affected[k];
+            for (int j = 0; j < indegree[x]; j++) {
+                int a = in[x][j];
+                if (mark[tail(a)] != epoch) relax(a);
+            }
+        }
+        propagate();
+    }
+
+    // edge e is no longer in the digraph, or became longer: repair the tree
+    private void repairIncrease(int e) {
+        for (int a = firstArc(e); a < firstArc(e) + arcsPerEdge; a++) {
+            int w = head(a);
+            if (edgeTo[w] == a) increase(w);
+        }
+    }
+
+    // edge e was added to the digraph, or became shorter: repair the tree
+    private void repairDecrease(int e) {
+        for (int a = firstArc(e); a < firstArc(e) + arcsPerEdge; a++)
+            relax(a);
+        propagate();
+    }
+
+   /***************************************************************************
+    * Changing the digraph.
+    ***************************************************************************/
+
+    /**
+     * Adds the edge {@code v}-{@code w} with the specified weight, and
+     * updates the shortest-paths tree.
+     *
+     * @param  v one endpoint (the tail, if directed)
+     * @param  w the other endpoint (the head, if directed)
+     * @param  weight the weight
+     * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+     * @throws IllegalArgumentException if {@code weight} is negative or NaN
+     * @throws IllegalArgumentException if there already is an edge {@code v}-{@code w}
+     */
+    public void insertEdge(int v, int w, double weight) {
+        validateVertex(v);
+        validateVertex(w);
+        validateWeight(weight);
+        if (find(v, w) != -1) throw new IllegalArgumentException("edge " + v + "-" + w + " is already in the graph");
+        repairDecrease(add(v, w, weight));
+        assert check();
+    }
+
+    /**
+     * Removes the edge {@code v}-{@code w}, and updates the shortest-paths tree.
+     *
+     * @param  v one endpoint (the tail, if directed)
+     * @param  w the other endpoint (the head, if directed)
+     * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+     * @throws IllegalArgumentException if there is no edge {@code v}-{@code w}
+     */
+    public void deleteEdge(int v, int w) {
+        int e = edge(v, w);
+
+        // at most one of the arcs of the edge is on the tree
+        int x = -1;
+        for (int a = firstArc(e); a < firstArc(e) + arcsPerEdge; a++) {
+            if (edgeTo[head(a)] == a) x = head(a);
+        }
+        remove(e);
+        if (x != -1) increase(x);
+        assert check();
+    }
+
+    /**
+     * Changes the weight of the edge {@code v}-{@code w}, and updates the
+     * shortest-paths tree.
+     *
+     * @param  v one endpoint (the tail, if directed)
+     * @param  w the other endpoint (the head, if directed)
+     * @param  weight the new weight
+     * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+     * @throws IllegalArgumentException if {@code weight} is negative or NaN
+     * @throws IllegalArgumentException if there is no edge {@code v}-{@code w}
+     */
+    public void setWeight(int v, int w, double weight) {
+        validateWeight(weight);
+        reweight(edge(v, w), weight);
+        assert check();
+    }
+
+    private void reweight(int e, double weight) {
+        double old = this.weight[e];
+        this.weight[e] = weight;
+        if      (weight < old) repairDecrease(e);
+        else if (weight > old) repairIncrease(e);
+    }
+
+    /**
+     * Changes the digraph to the specified snapshot, by inserting, deleting,
+     * and reweighting edges, and updates the shortest-paths tree.
+     * Takes time linear in the number of edges to find the changes,
+     * plus the time to repair the tree after each change.
+     *
+     * @param  next the next snapshot
+     * @return the number of edges inserted, deleted, or reweighted
+     * @throws IllegalArgumentException if this data type is for an undirected graph
+     * @throws IllegalArgumentException if {@code next} does not have {@code V} vertices
+     * @throws IllegalArgumentException if an edge weight is negative
+     */
+    public int update(EdgeWeightedDigraph next) {
+        if (next == null) throw new IllegalArgumentException("argument is null");
+        if (!directed) throw new IllegalArgumentException("graph is undirected");
+        beginUpdate(next.V());
+        int changes = 0;
+        for (int v = 0; v < V; v++)
+            for (DirectedEdge e : next.adj(v))
+                changes += merge(e.from(), e.to(), e.weight());
+        return changes + endUpdate();
+    }
+
+    /**
+     * Changes the graph to the specified snapshot, by inserting, deleting,
+     * and reweighting edges, and updates the shortest-paths tree.
+     * Takes time linear in the number of edges to find the changes,
+     * plus the time to repair the tree after each change.
+     *
+     * @param  next the next snapshot
+     * @return the number of edges inserted, deleted, or reweighted
+     * @throws IllegalArgumentException if this data type is for a directed graph
+     * @throws IllegalArgumentException if {@code next} does not have {@code V} vertices
+     * @throws IllegalArgumentException if an edge weight is negative
+     */
+    public int update(EdgeWeightedGraph next) {
+        if (next == null) throw new IllegalArgumentException("argument is null");
+        if (directed) throw new IllegalArgumentException("graph is directed");
+        beginUpdate(next.V());
+        int changes = 0;
+        for (int v = 0; v < V; v++) {
+            for (Edge e : next.adj(v)) {
+                int w = e.other(v);
+                if (w >= v) changes += merge(v, w, e.weight());
+            }
+        }
+        return changes + endUpdate();
+    }
+
+    private void beginUpdate(int V) {
+        if (V != this.V)
+            throw new IllegalArgumentException("snapshot has " + V + " vertices instead of " + this.V);
+        if (version == Integer.MAX_VALUE) {
+            Arrays.fill(seen, 0);
+            version = 0;
+        }
+        version++;
+    }
+
+    // make v-w an edge of the next snapshot; returns 1 if the digraph changed
+    private int merge(int v, int w, double weight) {
+        validateWeight(weight);
+        int e = find(v, w);
+        if (e == -1) {
+            repairDecrease(add(v, w, weight));
+            return 1;
+        }
+        if (seen[e] == version) {
+            // a parallel edge: keep the lightest
+            if (weight >= this.weight[e]) return 0;
+        }
+        seen[e] = version;
+        if (weight == this.weight[e]) return 0;
+        reweight(e, weight);
+        return 1;
+    }
+
+    // delete the edges not in the next snapshot; returns the number deleted
+    private int endUpdate() {
+        int changes = 0;
+        for (int e = 0; e < edgeCount; e++) {
+            if (from[e] == -1 || seen[e] == version) continue;
+            deleteEdge(from[e], to[e]);
+            changes++;
+        }
+        assert check();
+        return changes;
+    }
+
+   /***************************************************************************
+    * Queries.
+    ***************************************************************************/
+
+    /**
+     * Returns the number of vertices.
+     * @return the number of vertices
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns the number of edges.
+     * @return the number of edges
+     */
+    public int E() {
+        return E;
+    }
+
+    /**
+     * Returns the source vertex.
+     * @return the source vertex
+     */
+    public int source() {
+        return s;
+    }
+
+    /**
+     * Returns true if there is an edge {@code v}-{@code w}.
+     *
+     * @param  v one endpoint (the tail, if directed)
+     * @param  w the other endpoint (the head, if directed)
+     * @return {@code true} if there is an edge {@code v}-{@code w}; {@code false} otherwise
+     * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+     */
+    public boolean containsEdge(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        return find(v, w) != -1;
+    }
+
+    /**
+     * Returns the weight of the edge {@code v}-{@code w}.
+     *
+     * @param  v one endpoint (the tail, if directed)
+     * @param  w the other endpoint (the head, if directed)
+     * @return the weight of the edge {@code v}-{@code w}
+     * @throws IllegalArgumentException unless both {@code 0 <= v < V} and {@code 0 <= w < V}
+     * @throws IllegalArgumentException if there is no edge {@code v}-{@code w}
+     */
+    public double weight(int v, int w) {
+        return weight[edge(v, w)];
+    }
+
+    /**
+     * Returns the length of a shortest path from the source vertex {@code s} to vertex {@code v}.
+     * @param  v the destination vertex
+     * @return the length of a shortest path from the source vertex {@code s} to vertex {@code v};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public double distTo(int v) {
+        validateVertex(v);
+        return distTo[v];
+    }
+
+    /**
+     * Returns true if there is a path from the source vertex {@code s} to vertex {@code v}.
+     *
+     * @param  v the destination vertex
+     * @return {@code true} if there is a path from the source vertex
+     *         {@code s} to vertex {@code v}; {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean hasPathTo(int v) {
+        validateVertex(v);
+        return distTo[v] < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns a shortest path from the source vertex {@code s} to vertex {@code v}.
+     * For an undirected graph, the edges are oriented from {@code s} to {@code v}.
+     *
+     * @param  v the destination vertex
+     * @return a shortest path from the source vertex {@code s} to vertex {@code v}
+     *         as an iterable of edges, and {@code null} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public Iterable<DirectedEdge> pathTo(int v) {
+        validateVertex(v);
+        if (!hasPathTo(v)) return null;
+        Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+        for (int a = edgeTo[v]; a != -1; a = edgeTo[tail(a)])
+            path.push(new DirectedEdge(tail(a), head(a), weight(a)));
+        return path;
+    }
+
+    /**
+     * Returns the number of vertices scanned since the last call to this method
+     * (or since the tree was first computed). This is a measure of the work done
+     * to repair the tree; computing it from scratch scans every vertex reachable
+     * from the source.
+     *
+     * @return the number of vertices scanned since the last call to this method
+     */
+    public int scanned() {
+        int n = scanned;
+        scanned = 0;
+        return n;
+    }
+
+    // id of the edge v-w, which must exist
+    private int edge(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        int e = find(v, w);
+        if (e == -1) throw new IllegalArgumentException("no edge " + v + "-" + w + " in the graph");
+        return e;
+    }
+
+    // check optimality conditions:
+    // (i) for all arcs a = v->w:            distTo[w] <= distTo[v] + weight(a)
+    // (ii) for all arcs a = v->w on the SPT: distTo[w] == distTo[v] + weight(a)
+    private boolean check() {
+        if (distTo[s] != 0.0 || edgeTo[s] != -1) {
+            System.err.println("distTo[s] and edgeTo[s] inconsistent");
+            return false;
+        }
+        for (int v = 0; v < V; v++) {
+            if (v == s) continue;
+            if (edgeTo[v] == -1 && distTo[v] != Double.POSITIVE_INFINITY) {
+                System.err.println("distTo[] and edgeTo[] inconsistent");
+                return false;
+            }
+        }
+        for (int v = 0; v < V; v++) {
+            for (int j = 0; j < outdegree[v]; j++) {
+                int a = out[v][j];
+                if (distTo[v] + weight(a) < distTo[head(a)]) {
+                    System.err.println("edge " + v + "->" + head(a) + " not relaxed");
+                    return false;
+                }
+            }
+        }
+        for (int w = 0; w < V; w++) {
+            int a = edgeTo[w];
+            if (a == -1) continue;
+            if (head(a) != w || distTo[tail(a)] + weight(a) != distTo[w]) {
+                System.err.println("edge " + tail(a) + "->" + w + " on shortest path not tight");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    private static void validateWeight(double weight) {
+        if (!(weight >= 0.0)) throw new IllegalArgumentException("edge weight " + weight + " is negative or NaN");
+    }
+
+    /**
+     * Unit tests the {@code DynamicSP} data type, by moving through
+     * a series of snapshots of an edge-weighted graph.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        int s = Integer.parseInt(args[0]);
+        DynamicSP sp = null;
+        for (int i = 1; i < args.length; i++) {
+            EdgeWeightedGraph G = new EdgeWeightedGraph(new In(args[i]));
+            int changes = G.E();
+            if (sp == null) sp = new DynamicSP(G, s);
+            else            changes = sp.update(G);
+            StdOut.printf("%s  %2d changes  %2d vertices rescanned\n", args[i], changes, sp.scanned());
+        }
+    }
+}
@@ -105,10 +105,17 @@ public class Edge implements Comparable<Edge> {
         return String.format("%d %d %.5f", v, w, weight);
     }
     
+    /**
+     * Returns true if this edge has the same endpoints (in either order)
+     * and the same weight as the specified edge.
+     *
+     * @param  that the other edge
+     * @return {@code true} if this edge and {@code that} have the same
+     *         endpoints and weight; {@code false} otherwise
+     */
     public boolean equalsTo(Edge that) {
-    	if((this.weight == that.weight) && (this.v == that.v) && (this.w == that.w)) 
-    		return true;
-    	return false;
+    	if (this.weight != that.weight) return false;
+    	return (this.v == that.v && this.w == that.w) || (this.v == that.w && this.w == that.v);
     }
 
     /**
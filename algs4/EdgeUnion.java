@@ -0,0 +1,247 @@
+/******************************************************************************
+ *  Compilation:  javac EdgeUnion.java
+ *  Execution:    java EdgeUnion file1.txt file2.txt ...
+ *  Dependencies: Edge.java EdgeWeightedGraph.java In.java StdOut.java
+ *
+ *  The union of sets of undirected weighted edges, indexed by a
+ *  linear-probing hash table on primitive keys.
+ *
+ *  % java EdgeUnion tinyEWG.txt tinyEWG.txt
+ *  16 distinct edges on 8 vertices
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ *  The {@code EdgeUnion} class represents the union of sets of undirected
+ *  weighted edges. Two edges are considered the same if they have the same
+ *  endpoints (in either order) and the same weight, as in
+ *  {@link Edge#equalsTo(Edge)}; adding an edge that is already in the
+ *  union has no effect. Iteration returns the distinct edges in the order
+ *  in which they were first added.
+ *  <p>
+ *  This implementation uses a linear-probing hash table whose keys are
+ *  primitive {@code long} values that pack the normalized endpoints
+ *  <em>min</em>(<em>v</em>, <em>w</em>) and <em>max</em>(<em>v</em>, <em>w</em>),
+ *  with the edge weights stored alongside them in a parallel
+ *  {@code double[]} array, so probing never follows a reference.
+ *  The expected time per <em>add</em> or <em>contains</em> operation is
+ *  constant, subject to the uniform hashing assumption; merging <em>k</em>
+ *  edge sets with a total of <em>E</em> edges takes expected
+ *  &Theta;(<em>E</em>) time.
+ *  <p>
+ *  For additional documentation, see <a href="https://algs4.cs.princeton.edu/34hash">Section 3.4</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class EdgeUnion implements Iterable<Edge> {
+
+    // must be a power of 2
+    private static final int INIT_CAPACITY = 16;
+
+    // no valid key is negative since vertex indices are non-negative
+    private static final long EMPTY = -1L;
+
+    private int n;             // number of distinct edges
+    private int m;             // size of linear probing table
+    private long[] keys;       // keys[i] = normalized endpoints of edge in slot i
+    private double[] weights;  // weights[i] = weight of edge in slot i
+    private Edge[] edges;      // distinct edges, in insertion order
+    private int V;             // one more than the largest endpoint
+
+    /**
+     * Initializes an empty union of edges.
+     */
+    public EdgeUnion() {
+        this(INIT_CAPACITY);
+    }
+
+    /**
+     * Initializes an empty union of edges, with room for the specified
+     * number of distinct edges before resizing.
+     *
+     * @param  capacity the expected number of distinct edges
+     * @throws IllegalArgumentException if {@code capacity < 0}
+     */
+    public EdgeUnion(int capacity) {
+        if (capacity < 0) throw new IllegalArgumentException("capacity must be non-negative");
+        m = INIT_CAPACITY;
+        while (m < 2*capacity) m *= 2;
+        keys = new long[m];
+        Arrays.fill(keys, EMPTY);
+        weights = new double[m];
+        edges = new Edge[Math.max(1, capacity)];
+    }
+
+    /**
+     * Returns the number of distinct edges.
+     * @return the number of distinct edges
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Returns true if the union contains no edges.
+     * @return {@code true} if the union contains no edges; {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    /**
+     * Returns one more than the largest endpoint of an edge in the union,
+     * that is, the smallest number of vertices of a graph containing every edge.
+     * @return one more than the largest endpoint of an edge in the union
+     */
+    public int V() {
+        return V;
+    }
+
+    /**
+     * Returns true if the union contains an edge with the same endpoints
+     * (in either order) and the same weight as the specified edge.
+     *
+     * @param  e the edge
+     * @return {@code true} if the union contains an edge equal to {@code e};
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException if {@code e} is {@code null}
+     */
+    public boolean contains(Edge e) {
+        if (e == null) throw new IllegalArgumentException("argument to contains() is null");
+        return slot(e) >= 0;
+    }
+
+    /**
+     * Adds the specified edge to the union, unless the union already
+     * contains an edge with the same endpoints (in either order) and
+     * the same weight.
+     *
+     * @param  e the edge
+     * @return {@code true} if the edge was added; {@code false} if an equal
+     *         edge was already in the union
+     * @throws IllegalArgumentException if {@code e} is {@code null}
+     */
+    public boolean add(Edge e) {
+        if (e == null) throw new IllegalArgumentException("argument to add() is null");
+        if (n >= m/2) resize(2*m);
+
+        int v = e.either(), w = e.other(v);
+        long key = key(v, w);
+        double weight = e.weight();
+        int i;
+        for (i = hash(key, weight); keys[i] != EMPTY; i = (i + 1) & (m - 1)) {
+            if (keys[i] == key && weights[i] == weight) return false;
+        }
+        keys[i] = key;
+        weights[i] = weight;
+        if (n == edges.length) edges = Arrays.copyOf(edges, 2*edges.length);
+        edges[n++] = e;
+        V = Math.max(V, Math.max(v, w) + 1);
+        return true;
+    }
+
+    /**
+     * Adds every edge in the specified collection to the union.
+     *
+     * @param  edges the edges
+     * @throws IllegalArgumentException if {@code edges} is {@code null}
+     */
+    public void addAll(Iterable<Edge> edges) {
+        if (edges == null) throw new IllegalArgumentException("argument to addAll() is null");
+        for (Edge e : edges)
+            add(e);
+    }
+
+    // returns the table slot of an edge equal to e, or -1 if no such edge
+    private int slot(Edge e) {
+        int v = e.either(), w = e.other(v);
+        long key = key(v, w);
+        double weight = e.weight();
+        for (int i = hash(key, weight); keys[i] != EMPTY; i = (i + 1) & (m - 1)) {
+            if (keys[i] == key && weights[i] == weight) return i;
+        }
+        return -1;
+    }
+
+    // pack the endpoints into a key that does not depend on their order
+    private static long key(int v, int w) {
+        if (v > w) {
+            int swap = v;
+            v = w;
+            w = swap;
+        }
+        return ((long) v << 32) | w;
+    }
+
+    // hash function for keys - returns value between 0 and m-1
+    private int hash(long key, double weight) {
+        long bits = (weight == 0.0) ? 0L : Double.doubleToLongBits(weight);   // -0.0 == 0.0
+        long h = key * 0x9E3779B97F4A7C15L + bits;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        return (int) h & (m - 1);
+    }
+
+    // resizes the hash table to the given capacity by re-hashing all of the keys
+    private void resize(int capacity) {
+        long[] oldKeys = keys;
+        double[] oldWeights = weights;
+        m = capacity;
+        keys = new long[m];
+        Arrays.fill(keys, EMPTY);
+        weights = new double[m];
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == EMPTY) continue;
+            int i;
+            for (i = hash(oldKeys[j], oldWeights[j]); keys[i] != EMPTY; i = (i + 1) & (m - 1))
+                ;
+            keys[i] = oldKeys[j];
+            weights[i] = oldWeights[j];
+        }
+    }
+
+    /**
+     * Returns an iterator that iterates over the distinct edges, in the order
+     * in which they were first added.
+     *
+     * @return an iterator that iterates over the distinct edges
+     */
+    public Iterator<Edge> iterator() {
+        return new EdgeIterator();
+    }
+
+    private class EdgeIterator implements Iterator<Edge> {
+        private int i = 0;
+
+        public boolean hasNext() {
+            return i < n;
+        }
+
+        public Edge next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return edges[i++];
+        }
+    }
+
+    /**
+     * Unit tests the {@code EdgeUnion} data type.
+     * Reads in edge-weighted graphs from the files named on the command line
+     * and prints the number of distinct edges in their union.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        EdgeUnion union = new EdgeUnion();
+        for (String filename : args) {
+            EdgeWeightedGraph G = new EdgeWeightedGraph(new In(filename));
+            union.addAll(G.edges());
+        }
+        StdOut.println(union.size() + " distinct edges on " + union.V() + " vertices");
+    }
+}
@@ -0,0 +1,419 @@
+/******************************************************************************
+ *  Compilation:  javac FilterKruskalMST.java
+ *  Execution:    java FilterKruskalMST filename.txt [threads]
+ *  Dependencies: EdgeWeightedGraph.java CSRGraph.java Edge.java Queue.java
+ *                ConcurrentUF.java UF.java ParallelFor.java In.java StdOut.java
+ *  Data files:   https://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *                https://algs4.cs.princeton.edu/43mst/mediumEWG.txt
+ *                https://algs4.cs.princeton.edu/43mst/largeEWG.txt
+ *
+ *  Compute a minimum spanning forest using the filter-Kruskal algorithm,
+ *  partitioning the edges in parallel.
+ *
+ *  % java FilterKruskalMST tinyEWG.txt
+ *  0 7 0.16000
+ *  2 3 0.17000
+ *  1 7 0.19000
+ *  0 2 0.26000
+ *  5 7 0.28000
+ *  4 5 0.35000
+ *  6 2 0.40000
+ *  1.81000
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+
+/**
+ *  The {@code FilterKruskalMST} class represents a data type for computing a
+ *  <em>minimum spanning tree</em> in an edge-weighted graph, using several threads.
+ *  The edge weights can be positive, zero, or negative and need not
+ *  be distinct. If the graph is not connected, it computes a <em>minimum
+ *  spanning forest</em>, which is the union of minimum spanning trees
+ *  in each connected component. The {@code weight()} method returns the
+ *  weight of a minimum spanning tree and the {@code edges()} method
+ *  returns its edges.
+ *  <p>
+ *  This implementation uses the <em>filter-Kruskal algorithm</em> of
+ *  Osipov, Sanders, and Singler and the concurrent union-find data type
+ *  {@link ConcurrentUF}.
+ *  Rather than sorting all of the edges, it partitions them, quicksort-style,
+ *  around a pivot weight; it finds the minimum spanning forest of the light
+ *  edges recursively, discards the heavy edges whose endpoints are already
+ *  connected, and recurses on the heavy edges that remain. Small subproblems
+ *  are sorted and solved by Kruskal's algorithm. The partitioning is done in
+ *  parallel, by splitting the edges into chunks, counting the light edges in
+ *  each chunk, and moving each chunk's edges into place, again in parallel;
+ *  so is the filtering of the heavy edges, by many concurrent <em>find</em>
+ *  operations.
+ *  On dense graphs, most of the heavy edges are discarded before they are sorted.
+ *  <p>
+ *  The partitions are stable, so the edges are considered in the same order as
+ *  by {@link KruskalMST}, and both compute the same minimum spanning forest.
+ *  The constructor takes &Theta;(<em>E</em> log <em>E</em>) time in the worst
+ *  case, where <em>E</em> is the number of edges.
+ *  Each instance method takes &Theta;(1) time.
+ *  It uses &Theta;(<em>V</em> + <em>E</em>) extra space (not including the
+ *  edge-weighted graph).
+ *  <p>
+ *  This {@code weight()} method correctly computes the weight of the MST
+ *  if all arithmetic performed is without floating-point rounding error
+ *  or arithmetic overflow.
+ *  This is the case if all edge weights are non-negative integers
+ *  and the weight of the MST does not exceed 2<sup>52</sup>.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/43mst">Section 4.3</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ *  For alternate implementations, see {@link KruskalMST}, {@link BoruvkaMST},
+ *  and {@link ParallelBoruvkaMST}.
+ */
+public class FilterKruskalMST {
+    private static final double FLOATING_POINT_EPSILON = 1.0E-12;
+
+    // subproblems with at most this many edges are sorted
+    private static final int CUTOFF = 1 << 12;
+
+    // number of edges sampled to choose a pivot
+    private static final int SAMPLE = 31;
+
+    private Queue<Edge> mst = new Queue<Edge>();  // edges in MST
+    private double weight;                        // weight of MST
+
+    private int V;                                // number of vertices
+    private int[] from;                           // from[e] = one endpoint of edge e
+    private int[] to;                             // to[e] = the other endpoint of edge e
+    private double[] cost;                        // cost[e] = weight of edge e
+    private int[] aux;                            // auxiliary array for partitioning and sorting
+    private ConcurrentUF uf;                      // trees of the forest found so far
+    private Queue<Integer> found;                 // edges of the forest found so far
+    private ParallelFor loop;                     // runs the partitioning loops
+
+    /**
+     * Computes a minimum spanning tree (or forest) of an edge-weighted graph,
+     * using one thread per available processor.
+     * @param G the edge-weighted graph
+     */
+    public FilterKruskalMST(EdgeWeightedGraph G) {
+        this(G, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of an edge-weighted graph,
+     * using the specified number of threads.
+     * @param G the edge-weighted graph
+     * @param threads the number of threads
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public FilterKruskalMST(EdgeWeightedGraph G, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+        Edge[] edges = new Edge[G.E()];
+        from = new int[G.E()];
+        to = new int[G.E()];
+        cost = new double[G.E()];
+        int t = 0;
+        for (Edge e : G.edges()) {
+            int v = e.either();
+            edges[t] = e;
+            from[t] = v;
+            to[t] = e.other(v);
+            cost[t] = e.weight();
+            t++;
+        }
+        for (int e : solve(G.V(), threads)) {
+            mst.enqueue(edges[e]);
+            weight += cost[e];
+        }
+        from = to = null;
+        cost = null;
+
+        // check optimality conditions
+        assert check(G);
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of an edge-weighted graph
+     * stored in CSR form, using the specified number of threads. Only the
+     * edges in the minimum spanning tree (or forest) are created as
+     * {@link Edge} objects.
+     * @param G the edge-weighted graph
+     * @param threads the number of threads
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public FilterKruskalMST(CSRGraph G, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+
+        // one entry per edge, in the same order as EdgeWeightedGraph.edges();
+        // self-loops are never in the MST
+        int m = 0;
+        for (int v = 0; v < G.V(); v++)
+            for (int i = G.offset(v), end = G.offset(v+1); i < end; i++)
+                if (G.target(i) > v) m++;
+        int[] position = new int[m];
+        from = new int[m];
+        to = new int[m];
+        cost = new double[m];
+        int t = m;
+        for (int v = 0; v < G.V(); v++) {
+            for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                int w = G.target(i);
+                if (w > v) {
+                    t--;
+                    position[t] = i;
+                    from[t] = v;
+                    to[t] = w;
+                    cost[t] = G.weight(i);
+                }
+            }
+        }
+        for (int e : solve(G.V(), threads)) {
+            mst.enqueue(G.edge(from[e], position[e]));
+            weight += cost[e];
+        }
+        from = to = null;
+        cost = null;
+    }
+
+    // the edges of a minimum spanning forest, in order of weight
+    private Queue<Integer> solve(int V, int threads) {
+        this.V = V;
+        uf = new ConcurrentUF(V);
+        found = new Queue<Integer>();
+        loop = new ParallelFor(threads);
+        try {
+            int[] a = new int[from.length];
+            int n = 0;
+            for (int e = 0; e < from.length; e++)
+                if (from[e] != to[e]) a[n++] = e;
+            aux = new int[n];
+            filterKruskal(a, 0, n);
+            return found;
+        }
+        finally {
+            loop.shutdown();
+            loop = null;
+            aux = null;
+            uf = null;
+        }
+    }
+
+    // add the edges of a minimum spanning forest of the edges a[lo..hi) to the forest found so far
+    private void filterKruskal(int[] a, int lo, int hi) {
+        if (found.size() == V - 1) return;
+        if (hi - lo <= CUTOFF) {
+            kruskal(a, lo, hi);
+            return;
+        }
+        int mid = partition(a, lo, hi, pivot(a, lo, hi));
+
+        // the pivot is the heaviest weight, so nothing to filter
+        if (mid == hi) {
+            kruskal(a, lo, hi);
+            return;
+        }
+        filterKruskal(a, lo, mid);
+        filterKruskal(a, mid, filter(a, mid, hi));
+    }
+
+    // Kruskal's algorithm on the edges a[lo..hi)
+    private void kruskal(int[] a, int lo, int hi) {
+        sort(a, aux, cost, lo, hi);
+        for (int k = lo; k < hi && found.size() < V - 1; k++) {
+            int e = a[k];
+            int v = from[e], w = to[e];
+
+            // v-w does not create a cycle
+            if (uf.find(v) != uf.find(w)) {
+                uf.union(v, w);
+                found.enqueue(e);
+            }
+        }
+    }
+
+    // median of evenly spaced sample weights of the edges a[lo..hi)
+    private double pivot(int[] a, int lo, int hi) {
+        double[] sample = new double[SAMPLE];
+        for (int i = 0; i < SAMPLE; i++)
+            sample[i] = cost[a[lo + (int) ((long) (hi - lo) * i / SAMPLE)]];
+        Arrays.sort(sample);
+        return sample[SAMPLE / 2];
+    }
+
+    // stably partition a[lo..hi) into the edges of weight at most pivot, followed by the others;
+    // return the index of the first of the others
+    private int partition(final int[] a, final int lo, final int hi, final double pivot) {
+        final int n = hi - lo;
+        final int[] light = new int[loop.chunks(n) + 1];
+        final int[] heavy = new int[loop.chunks(n) + 1];
+
+        // count the light edges in each chunk
+        loop.run(n, new ParallelFor.Body() {
+            public void run(int i, int j, int chunk) {
+                int count = 0;
+                for (int k = lo + i; k < lo + j; k++)
+                    if (Double.compare(cost[a[k]], pivot) <= 0) count++;
+                light[chunk+1] = count;
+            }
+        });
+
+        // where each chunk's light and heavy edges go
+        for (int c = 1; c < light.length; c++)
+            light[c] += light[c-1];
+        final int mid = lo + light[light.length - 1];
+        for (int c = 0; c < heavy.length; c++)
+            heavy[c] = loop.start(n, c) - light[c];
+
+        // move the edges into aux, then back into a
+        loop.run(n, new ParallelFor.Body() {
+            public void run(int i, int j, int chunk) {
+                int l = lo + light[chunk], h = mid + heavy[chunk];
+                for (int k = lo + i; k < lo + j; k++) {
+                    int e = a[k];
+                    if (Double.compare(cost[e], pivot) <= 0) aux[l++] = e;
+                    else                                     aux[h++] = e;
+                }
+            }
+        });
+        loop.run(n, new ParallelFor.Body() {
+            public void run(int i, int j, int chunk) {
+                System.arraycopy(aux, lo + i, a, lo + i, j - i);
+            }
+        });
+        return mid;
+    }
+
+    // remove the edges in a[lo..hi) whose endpoints are in the same tree, keeping
+    // the others in order; return the index following the last one kept
+    private int filter(final int[] a, final int lo, int hi) {
+        final int n = hi - lo;
+        final int[] count = new int[loop.chunks(n)];
+        loop.run(n, new ParallelFor.Body() {
+            public void run(int i, int j, int chunk) {
+                int k = lo + i;
+                for (int m = lo + i; m < lo + j; m++) {
+                    int e = a[m];
+                    if (uf.find(from[e]) != uf.find(to[e])) a[k++] = e;
+                }
+                count[chunk] = k - lo - i;
+            }
+        });
+        int k = lo;
+        for (int c = 0; c < count.length; c++) {
+            System.arraycopy(a, lo + loop.start(n, c), a, k, count[c]);
+            k += count[c];
+        }
+        return k;
+    }
+
+    // stable mergesort of a[lo..hi) by key[a[i]], using aux[lo..hi)
+    private static void sort(int[] a, int[] aux, double[] key, int lo, int hi) {
+        if (hi - lo <= 1) return;
+        int mid = (lo + hi) >>> 1;
+        sort(a, aux, key, lo, mid);
+        sort(a, aux, key, mid, hi);
+        if (Double.compare(key[a[mid-1]], key[a[mid]]) <= 0) return;
+        System.arraycopy(a, lo, aux, lo, hi - lo);
+        int i = lo, j = mid;
+        for (int k = lo; k < hi; k++) {
+            if      (i == mid)                                     a[k] = aux[j++];
+            else if (j == hi)                                      a[k] = aux[i++];
+            else if (Double.compare(key[aux[j]], key[aux[i]]) < 0) a[k] = aux[j++];
+            else                                                   a[k] = aux[i++];
+        }
+    }
+
+    /**
+     * Returns the edges in a minimum spanning tree (or forest).
+     * @return the edges in a minimum spanning tree (or forest) as
+     *    an iterable of edges
+     */
+    public Iterable<Edge> edges() {
+        return mst;
+    }
+
+    /**
+     * Returns the sum of the edge weights in a minimum spanning tree (or forest).
+     * @return the sum of the edge weights in a minimum spanning tree (or forest)
+     */
+    public double weight() {
+        return weight;
+    }
+
+    // check optimality conditions (takes time proportional to E V lg* V)
+    private boolean check(EdgeWeightedGraph G) {
+
+        // check weight
+        double totalWeight = 0.0;
+        for (Edge e : edges()) {
+            totalWeight += e.weight();
+        }
+        if (Math.abs(totalWeight - weight()) > FLOATING_POINT_EPSILON) {
+            System.err.printf("Weight of edges does not equal weight(): %f vs. %f\n", totalWeight, weight());
+            return false;
+        }
+
+        // check that it is acyclic
+        UF uf = new UF(G.V());
+        for (Edge e : edges()) {
+            int v = e.either(), w = e.other(v);
+            if (uf.find(v) == uf.find(w)) {
+                System.err.println("Not a forest");
+                return false;
+            }
+            uf.union(v, w);
+        }
+
+        // check that it is a spanning forest
+        for (Edge e : G.edges()) {
+            int v = e.either(), w = e.other(v);
+            if (uf.find(v) != uf.find(w)) {
+                System.err.println("Not a spanning forest");
+                return false;
+            }
+        }
+
+        // check that it is a minimal spanning forest (cut optimality conditions)
+        for (Edge e : edges()) {
+
+            // all edges in MST except e
+            uf = new UF(G.V());
+            for (Edge f : mst) {
+                int x = f.either(), y = f.other(x);
+                if (f != e) uf.union(x, y);
+            }
+
+            // check that e is min weight edge in crossing cut
+            for (Edge f : G.edges()) {
+                int x = f.either(), y = f.other(x);
+                if (uf.find(x) != uf.find(y)) {
+                    if (f.weight() < e.weight()) {
+                        System.err.println("Edge " + f + " violates cut optimality conditions");
+                        return false;
+                    }
+                }
+            }
+
+        }
+
+        return true;
+    }
+
+    /**
+     * Unit tests the {@code FilterKruskalMST} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        EdgeWeightedGraph G = new EdgeWeightedGraph(in);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        FilterKruskalMST mst = new FilterKruskalMST(G, threads);
+        for (Edge e : mst.edges()) {
+            StdOut.println(e);
+        }
+        StdOut.printf("%.5f\n", mst.weight());
+    }
+
+}
@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilation:  javac GabowSCC.java
  *  Execution:    java GabowSCC V E
- *  Dependencies: Digraph.java Stack.java TransitiveClosure.java StdOut.java
+ *  Dependencies: Digraph.java DirectedDFS.java StdOut.java
  *  Data files:   https://algs4.cs.princeton.edu/42digraph/tinyDG.txt
  *                https://algs4.cs.princeton.edu/42digraph/mediumDG.txt
  *                https://algs4.cs.princeton.edu/42digraph/largeDG.txt
@@ -22,6 +22,9 @@
  ******************************************************************************/
 
 package edu.princeton.cs.algs4;
+
+import java.util.Iterator;
+
 /**
  *  The {@code GabowSCC} class represents a data type for
  *  determining the strong components in a digraph.
@@ -36,7 +39,9 @@ package edu.princeton.cs.algs4;
  *  identifier if and only if they are in the same strong component.
 
  *  <p>
- *  This implementation uses the Gabow's algorithm.
+ *  This implementation uses the Gabow's algorithm, with a depth-first search
+ *  that uses an explicit stack instead of recursion, so that it does not
+ *  overflow the call stack on digraphs with long paths.
  *  The constructor takes &Theta;(<em>V</em> + <em>E</em>) time,
  *  where <em>V</em> is the number of vertices and <em>E</em> is
  *  the number of edges.
@@ -59,8 +64,10 @@ public class GabowSCC {
     private int[] preorder;          // preorder[v] = preorder of v
     private int pre;                 // preorder number counter
     private int count;               // number of strongly-connected components
-    private Stack<Integer> stack1;
-    private Stack<Integer> stack2;
+    private int[] stack1;            // vertices not yet assigned to a strong component
+    private int[] stack2;            // roots of the strong components on stack1
+    private int top1;                // number of vertices on stack1
+    private int top2;                // number of vertices on stack2
 
 
     /**
@@ -69,43 +76,64 @@ public class GabowSCC {
      */
     public GabowSCC(Digraph G) {
         marked = new boolean[G.V()];
-        stack1 = new Stack<Integer>();
-        stack2 = new Stack<Integer>();
+        stack1 = new int[G.V()];
+        stack2 = new int[G.V()];
         id = new int[G.V()];
         preorder = new int[G.V()];
         for (int v = 0; v < G.V(); v++)
             id[v] = -1;
 
+        int[] path = new int[G.V()];
+        Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[G.V()];
         for (int v = 0; v < G.V(); v++) {
-            if (!marked[v]) dfs(G, v);
+            if (!marked[v]) dfs(G, v, path, adj);
         }
 
         // check that id[] gives strong components
         assert check(G);
     }
 
-    private void dfs(Digraph G, int v) {
-        marked[v] = true;
-        preorder[v] = pre++;
-        stack1.push(v);
-        stack2.push(v);
-        for (int w : G.adj(v)) {
-            if (!marked[w]) dfs(G, w);
-            else if (id[w] == -1) {
-                while (preorder[stack2.peek()] > preorder[w])
-                    stack2.pop();
+    // depth-first search from s, with path[i] = i-th vertex on the path
+    // from s and adj[i] = iterator over its adjacency list
+    private void dfs(Digraph G, int s, int[] path, Iterator<Integer>[] adj) {
+        int n = 0;
+        marked[s] = true;
+        preorder[s] = pre++;
+        stack1[top1++] = s;
+        stack2[top2++] = s;
+        path[n] = s;
+        adj[n++] = G.adj(s).iterator();
+        while (n > 0) {
+            Iterator<Integer> it = adj[n-1];
+            if (it.hasNext()) {
+                int w = it.next();
+                if (!marked[w]) {
+                    marked[w] = true;
+                    preorder[w] = pre++;
+                    stack1[top1++] = w;
+                    stack2[top2++] = w;
+                    path[n] = w;
+                    adj[n++] = G.adj(w).iterator();
+                }
+                else if (id[w] == -1) {
+                    while (preorder[stack2[top2-1]] > preorder[w])
+                        top2--;
+                }
+                continue;
+            }
+            adj[--n] = null;
+            int v = path[n];
+
+            // found strong component containing v
+            if (stack2[top2-1] == v) {
+                top2--;
+                int w;
+                do {
+                    w = stack1[--top1];
+                    id[w] = count;
+                } while (w != v);
+                count++;
             }
-        }
-
-        // found strong component containing v
-        if (stack2.peek() == v) {
-            stack2.pop();
-            int w;
-            do {
-                w = stack1.pop();
-                id[w] = count;
-            } while (w != v);
-            count++;
         }
     }
 
@@ -145,10 +173,13 @@ public class GabowSCC {
 
     // does the id[] array contain the strongly connected components?
     private boolean check(Digraph G) {
-        TransitiveClosure tc = new TransitiveClosure(G);
+        // search from each vertex (TransitiveClosure is itself built on TarjanSCC)
+        DirectedDFS[] dfs = new DirectedDFS[G.V()];
+        for (int v = 0; v < G.V(); v++)
+            dfs[v] = new DirectedDFS(G, v);
         for (int v = 0; v < G.V(); v++) {
             for (int w = 0; w < G.V(); w++) {
-                if (stronglyConnected(v, w) != (tc.reachable(v, w) && tc.reachable(w, v)))
+                if (stronglyConnected(v, w) != (dfs[v].marked(w) && dfs[w].marked(v)))
                     return false;
             }
         }
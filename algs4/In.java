@@ -9,7 +9,6 @@
 
 package edu.princeton.cs.algs4;
 
-import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
@@ -18,11 +17,10 @@ import java.net.URL;
 import java.net.Socket;
 import java.net.URLConnection;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.InputMismatchException;
-import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
-import java.util.regex.Pattern;
 
 /**
  *  <i>Input</i>. This class provides methods for reading strings
@@ -47,6 +45,13 @@ import java.util.regex.Pattern;
  *  consist of \n, \r, \r\n, and Unicode hex code points 0x2028, 0x2029, 0x0085;
  *  see <a href="http://www.docjar.com/html/api/java/util/Scanner.java.html">
  *  Scanner.java</a> (NB: Java 6u23 and earlier uses only \r, \r, \r\n).
+ *  <p>
+ *  The input is tokenized directly from a byte buffer rather than with
+ *  regular expressions, and tokens that are plain decimal numbers are
+ *  converted without creating a {@code String}; the results are the same
+ *  as with {@code Scanner}. To fill a large array of numbers, use
+ *  {@link #readInts(int[])}, {@link #readLongs(long[])}, or
+ *  {@link #readDoubles(double[])}.
  *
  *  @author David Pritchard
  *  @author Robert Sedgewick
@@ -54,35 +59,15 @@ import java.util.regex.Pattern;
  */
 public final class In {
 
-    ///// begin: section (1 of 2) of code duplicated from In to StdIn.
-
-    // assume Unicode UTF-8 encoding
-    private static final String CHARSET_NAME = "UTF-8";
-
-    // assume language = English, country = US for consistency with System.out.
-    private static final Locale LOCALE = Locale.US;
-
-    // the default token separator; we maintain the invariant that this value
-    // is held by the scanner's delimiter between calls
-    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\p{javaWhitespace}+");
-
-    // makes whitespace characters significant
-    private static final Pattern EMPTY_PATTERN = Pattern.compile("");
-
-    // used to read the entire input. source:
-    // http://weblogs.java.net/blog/pat/archive/2004/10/stupid_scanner_1.html
-    private static final Pattern EVERYTHING_PATTERN = Pattern.compile("\\A");
-
-    //// end: section (1 of 2) of code duplicated from In to StdIn.
-
-    private Scanner scanner;
+    // reads UTF-8 input, with the same semantics as a Scanner
+    // that uses Locale.US and whitespace as the delimiter
+    private ByteScanner scanner;
 
    /**
      * Initializes an input stream from standard input.
      */
     public In() {
-        scanner = new Scanner(new BufferedInputStream(System.in), CHARSET_NAME);
-        scanner.useLocale(LOCALE);
+        scanner = new ByteScanner(System.in);
     }
 
    /**
@@ -96,8 +81,7 @@ public final class In {
         if (socket == null) throw new IllegalArgumentException("socket argument is null");
         try {
             InputStream is = socket.getInputStream();
-            scanner = new Scanner(new BufferedInputStream(is), CHARSET_NAME);
-            scanner.useLocale(LOCALE);
+            scanner = new ByteScanner(is);
         }
         catch (IOException ioe) {
             throw new IllegalArgumentException("Could not open " + socket, ioe);
@@ -116,8 +100,7 @@ public final class In {
         try {
             URLConnection site = url.openConnection();
             InputStream is     = site.getInputStream();
-            scanner            = new Scanner(new BufferedInputStream(is), CHARSET_NAME);
-            scanner.useLocale(LOCALE);
+            scanner            = new ByteScanner(is);
         }
         catch (IOException ioe) {
             throw new IllegalArgumentException("Could not open " + url, ioe);
@@ -134,11 +117,8 @@ public final class In {
     public In(File file) {
         if (file == null) throw new IllegalArgumentException("file argument is null");
         try {
-            // for consistency with StdIn, wrap with BufferedInputStream instead of use
-            // file as argument to Scanner
             FileInputStream fis = new FileInputStream(file);
-            scanner = new Scanner(new BufferedInputStream(fis), CHARSET_NAME);
-            scanner.useLocale(LOCALE);
+            scanner = new ByteScanner(fis);
         }
         catch (IOException ioe) {
             throw new IllegalArgumentException("Could not open " + file, ioe);
@@ -161,11 +141,8 @@ public final class In {
             // first try to read file from local file system
             File file = new File(name);
             if (file.exists()) {
-                // for consistency with StdIn, wrap with BufferedInputStream instead of use
-                // file as argument to Scanner
                 FileInputStream fis = new FileInputStream(file);
-                scanner = new Scanner(new BufferedInputStream(fis), CHARSET_NAME);
-                scanner.useLocale(LOCALE);
+                scanner = new ByteScanner(fis);
                 return;
             }
 
@@ -189,8 +166,7 @@ public final class In {
             // site.addRequestProperty("User-Agent", "Mozilla/4.76");
 
             InputStream is     = site.getInputStream();
-            scanner            = new Scanner(new BufferedInputStream(is), CHARSET_NAME);
-            scanner.useLocale(LOCALE);
+            scanner            = new ByteScanner(is);
         }
         catch (IOException ioe) {
             throw new IllegalArgumentException("Could not open " + name, ioe);
@@ -209,7 +185,7 @@ public final class In {
      */
     public In(Scanner scanner) {
         if (scanner == null) throw new IllegalArgumentException("scanner argument is null");
-        this.scanner = scanner;
+        this.scanner = new ByteScanner(scanner);
     }
 
     /**
@@ -258,10 +234,7 @@ public final class In {
      *         {@code false} otherwise
      */
     public boolean hasNextChar() {
-        scanner.useDelimiter(EMPTY_PATTERN);
-        boolean result = scanner.hasNext();
-        scanner.useDelimiter(WHITESPACE_PATTERN);
-        return result;
+        return scanner.hasNextChar();
     }
 
 
@@ -288,13 +261,8 @@ public final class In {
      * @throws NoSuchElementException if the input stream is empty
      */
     public char readChar() {
-        scanner.useDelimiter(EMPTY_PATTERN);
         try {
-            String ch = scanner.next();
-            assert ch.length() == 1 : "Internal (Std)In.readChar() error!"
-                + " Please contact the authors.";
-            scanner.useDelimiter(WHITESPACE_PATTERN);
-            return ch.charAt(0);
+            return scanner.nextChar();
         }
         catch (NoSuchElementException e) {
             throw new NoSuchElementException("attempts to read a 'char' value from the input stream, "
@@ -309,13 +277,7 @@ public final class In {
      * @return the remainder of this input stream, as a string
      */
     public String readAll() {
-        if (!scanner.hasNextLine())
-            return "";
-
-        String result = scanner.useDelimiter(EVERYTHING_PATTERN).next();
-        // not that important to reset delimeter, since now scanner is empty
-        scanner.useDelimiter(WHITESPACE_PATTERN); // but let's do it anyway
-        return result;
+        return scanner.nextAll();
     }
 
 
@@ -507,15 +469,10 @@ public final class In {
      * @return all remaining tokens in this input stream, as an array of strings
      */
     public String[] readAllStrings() {
-        // we could use readAll.trim().split(), but that's not consistent
-        // since trim() uses characters 0x00..0x20 as whitespace
-        String[] tokens = WHITESPACE_PATTERN.split(readAll());
-        if (tokens.length == 0 || tokens[0].length() > 0)
-            return tokens;
-        String[] decapitokens = new String[tokens.length-1];
-        for (int i = 0; i < tokens.length-1; i++)
-            decapitokens[i] = tokens[i+1];
-        return decapitokens;
+        ArrayList<String> tokens = new ArrayList<String>();
+        while (scanner.hasNext())
+            tokens.add(scanner.next());
+        return tokens.toArray(new String[0]);
     }
 
     /**
@@ -540,11 +497,13 @@ public final class In {
      * @return all remaining lines in this input stream, as an array of integers
      */
     public int[] readAllInts() {
-        String[] fields = readAllStrings();
-        int[] vals = new int[fields.length];
-        for (int i = 0; i < fields.length; i++)
-            vals[i] = Integer.parseInt(fields[i]);
-        return vals;
+        int[] vals = new int[16];
+        int n = 0;
+        while (scanner.hasNext()) {
+            if (n == vals.length) vals = Arrays.copyOf(vals, 2*n);
+            vals[n++] = scanner.parseInt();
+        }
+        return Arrays.copyOf(vals, n);
     }
 
     /**
@@ -554,11 +513,13 @@ public final class In {
      * @return all remaining lines in this input stream, as an array of longs
      */
     public long[] readAllLongs() {
-        String[] fields = readAllStrings();
-        long[] vals = new long[fields.length];
-        for (int i = 0; i < fields.length; i++)
-            vals[i] = Long.parseLong(fields[i]);
-        return vals;
+        long[] vals = new long[16];
+        int n = 0;
+        while (scanner.hasNext()) {
+            if (n == vals.length) vals = Arrays.copyOf(vals, 2*n);
+            vals[n++] = scanner.parseLong();
+        }
+        return Arrays.copyOf(vals, n);
     }
 
     /**
@@ -568,11 +529,61 @@ public final class In {
      * @return all remaining lines in this input stream, as an array of doubles
      */
     public double[] readAllDoubles() {
-        String[] fields = readAllStrings();
-        double[] vals = new double[fields.length];
-        for (int i = 0; i < fields.length; i++)
-            vals[i] = Double.parseDouble(fields[i]);
-        return vals;
+        double[] vals = new double[16];
+        int n = 0;
+        while (scanner.hasNext()) {
+            if (n == vals.length) vals = Arrays.copyOf(vals, 2*n);
+            vals[n++] = scanner.parseDouble();
+        }
+        return Arrays.copyOf(vals, n);
+    }
+
+    /**
+     * Reads the next {@code a.length} tokens from this input stream, parses them
+     * as integers, and stores them in the array {@code a}, as if by
+     * {@code a.length} calls to {@link #readInt()}.
+     *
+     * @param  a the array
+     * @throws IllegalArgumentException if {@code a} is {@code null}
+     * @throws NoSuchElementException if this input stream has fewer than {@code a.length} tokens
+     * @throws InputMismatchException if a token cannot be parsed as an {@code int}
+     */
+    public void readInts(int[] a) {
+        if (a == null) throw new IllegalArgumentException("argument is null");
+        for (int i = 0; i < a.length; i++)
+            a[i] = readInt();
+    }
+
+    /**
+     * Reads the next {@code a.length} tokens from this input stream, parses them
+     * as longs, and stores them in the array {@code a}, as if by
+     * {@code a.length} calls to {@link #readLong()}.
+     *
+     * @param  a the array
+     * @throws IllegalArgumentException if {@code a} is {@code null}
+     * @throws NoSuchElementException if this input stream has fewer than {@code a.length} tokens
+     * @throws InputMismatchException if a token cannot be parsed as a {@code long}
+     */
+    public void readLongs(long[] a) {
+        if (a == null) throw new IllegalArgumentException("argument is null");
+        for (int i = 0; i < a.length; i++)
+            a[i] = readLong();
+    }
+
+    /**
+     * Reads the next {@code a.length} tokens from this input stream, parses them
+     * as doubles, and stores them in the array {@code a}, as if by
+     * {@code a.length} calls to {@link #readDouble()}.
+     *
+     * @param  a the array
+     * @throws IllegalArgumentException if {@code a} is {@code null}
+     * @throws NoSuchElementException if this input stream has fewer than {@code a.length} tokens
+     * @throws InputMismatchException if a token cannot be parsed as a {@code double}
+     */
+    public void readDoubles(double[] a) {
+        if (a == null) throw new IllegalArgumentException("argument is null");
+        for (int i = 0; i < a.length; i++)
+            a[i] = readDouble();
     }
 
     ///// end: section (2 of 2) of code duplicated from In to StdIn */
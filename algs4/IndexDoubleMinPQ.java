@@ -0,0 +1,382 @@
+/******************************************************************************
+ *  Compilation:  javac IndexDoubleMinPQ.java
+ *  Execution:    java IndexDoubleMinPQ
+ *  Dependencies: StdOut.java
+ *
+ *  Minimum-oriented indexed PQ implementation with primitive double keys,
+ *  using a binary or d-ary heap.
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ *  The {@code IndexDoubleMinPQ} class represents an indexed priority queue
+ *  of {@code double} keys. It supports the same operations as
+ *  {@link IndexMinPQ}{@code <Double>}: the usual <em>insert</em> and
+ *  <em>delete-the-minimum</em> operations, along with <em>delete</em> and
+ *  <em>change-the-key</em> methods, where the client uses an integer between
+ *  {@code 0} and {@code maxN - 1} to refer to each key. Keys are compared as
+ *  by {@link Double#compare(double, double)}, as in {@code IndexMinPQ<Double>}.
+ *  <p>
+ *  Since the keys are stored in a primitive {@code double[]} array, no key
+ *  is ever boxed, and comparing two keys does not follow any references.
+ *  With the default arity 2, this implementation performs exactly the same
+ *  sequence of comparisons and exchanges as {@code IndexMinPQ<Double>}, so
+ *  the two return the indices in the same order even when keys are equal.
+ *  <p>
+ *  This implementation uses a <em>d</em>-ary heap along with an array to
+ *  associate keys with integers in the given range.
+ *  The <em>insert</em> and <em>decrease-key</em> operations take
+ *  &Theta;(log<sub><em>d</em></sub> <em>n</em>) time in the worst case, and the
+ *  <em>delete-the-minimum</em>, <em>delete</em>, <em>change-key</em>, and
+ *  <em>increase-key</em> operations take &Theta;(<em>d</em> log<sub><em>d</em></sub> <em>n</em>)
+ *  time in the worst case, where <em>n</em> is the number of elements in the
+ *  priority queue. A larger arity, such as 4, makes the heap shallower, which
+ *  favors algorithms like Dijkstra's that perform many more <em>decrease-key</em>
+ *  than <em>delete-the-minimum</em> operations.
+ *  Construction takes time proportional to the specified capacity.
+ *  <p>
+ *  For additional documentation, see
+ *  <a href="https://algs4.cs.princeton.edu/24pq">Section 2.4</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class IndexDoubleMinPQ implements Iterable<Integer> {
+    private final int maxN;      // maximum number of elements on PQ
+    private final int d;         // arity of the heap
+    private int n;               // number of elements on PQ
+    private int[] pq;            // d-ary heap using 1-based indexing
+    private int[] qp;            // inverse of pq - qp[pq[i]] = pq[qp[i]] = i
+    private double[] keys;       // keys[i] = priority of i
+
+    /**
+     * Initializes an empty indexed priority queue with indices between {@code 0}
+     * and {@code maxN - 1}, using a binary heap.
+     * @param  maxN the keys on this priority queue are index from {@code 0}
+     *         {@code maxN - 1}
+     * @throws IllegalArgumentException if {@code maxN < 0}
+     */
+    public IndexDoubleMinPQ(int maxN) {
+        this(maxN, 2);
+    }
+
+    /**
+     * Initializes an empty indexed priority queue with indices between {@code 0}
+     * and {@code maxN - 1}, using a {@code d}-ary heap.
+     * @param  maxN the keys on this priority queue are index from {@code 0}
+     *         {@code maxN - 1}
+     * @param  d the arity of the heap
+     * @throws IllegalArgumentException if {@code maxN < 0}
+     * @throws IllegalArgumentException if {@code d < 2}
+     */
+    public IndexDoubleMinPQ(int maxN, int d) {
+        if (maxN < 0) throw new IllegalArgumentException();
+        if (d < 2) throw new IllegalArgumentException("arity must be at least 2");
+        this.maxN = maxN;
+        this.d = d;
+        n = 0;
+        keys = new double[maxN + 1];
+        pq   = new int[maxN + 1];
+        qp   = new int[maxN + 1];
+        for (int i = 0; i <= maxN; i++)
+            qp[i] = -1;
+    }
+
+    /**
+     * Returns true if this priority queue is empty.
+     *
+     * @return {@code true} if this priority queue is empty;
+     *         {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    /**
+     * Is {@code i} an index on this priority queue?
+     *
+     * @param  i an index
+     * @return {@code true} if {@code i} is an index on this priority queue;
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     */
+    public boolean contains(int i) {
+        validateIndex(i);
+        return qp[i] != -1;
+    }
+
+    /**
+     * Returns the number of keys on this priority queue.
+     *
+     * @return the number of keys on this priority queue
+     */
+    public int size() {
+        return n;
+    }
+
+    /**
+     * Associates key with index {@code i}.
+     *
+     * @param  i an index
+     * @param  key the key to associate with index {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if there already is an item associated
+     *         with index {@code i}
+     */
+    public void insert(int i, double key) {
+        validateIndex(i);
+        if (contains(i)) throw new IllegalArgumentException("index is already in the priority queue");
+        n++;
+        qp[i] = n;
+        pq[n] = i;
+        keys[i] = key;
+        swim(n);
+    }
+
+    /**
+     * Returns an index associated with a minimum key.
+     *
+     * @return an index associated with a minimum key
+     * @throws NoSuchElementException if this priority queue is empty
+     */
+    public int minIndex() {
+        if (n == 0) throw new NoSuchElementException("Priority queue underflow");
+        return pq[1];
+    }
+
+    /**
+     * Returns a minimum key.
+     *
+     * @return a minimum key
+     * @throws NoSuchElementException if this priority queue is empty
+     */
+    public double minKey() {
+        if (n == 0) throw new NoSuchElementException("Priority queue underflow");
+        return keys[pq[1]];
+    }
+
+    /**
+     * Removes a minimum key and returns its associated index.
+     * @return an index associated with a minimum key
+     * @throws NoSuchElementException if this priority queue is empty
+     */
+    public int delMin() {
+        if (n == 0) throw new NoSuchElementException("Priority queue underflow");
+        int min = pq[1];
+        exch(1, n--);
+        sink(1);
+        assert min == pq[n+1];
+        qp[min] = -1;        // delete
+        pq[n+1] = -1;        // not needed
+        return min;
+    }
+
+    /**
+     * Returns the key associated with index {@code i}.
+     *
+     * @param  i the index of the key to return
+     * @return the key associated with index {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public double keyOf(int i) {
+        validateIndex(i);
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        else return keys[i];
+    }
+
+    /**
+     * Change the key associated with index {@code i} to the specified value.
+     *
+     * @param  i the index of the key to change
+     * @param  key change the key associated with index {@code i} to this key
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void changeKey(int i, double key) {
+        validateIndex(i);
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        keys[i] = key;
+        swim(qp[i]);
+        sink(qp[i]);
+    }
+
+    /**
+     * Decrease the key associated with index {@code i} to the specified value.
+     *
+     * @param  i the index of the key to decrease
+     * @param  key decrease the key associated with index {@code i} to this key
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if {@code key >= keyOf(i)}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void decreaseKey(int i, double key) {
+        validateIndex(i);
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        if (Double.compare(keys[i], key) == 0)
+            throw new IllegalArgumentException("Calling decreaseKey() with a key equal to the key in the priority queue");
+        if (Double.compare(keys[i], key) < 0)
+            throw new IllegalArgumentException("Calling decreaseKey() with a key strictly greater than the key in the priority queue");
+        keys[i] = key;
+        swim(qp[i]);
+    }
+
+    /**
+     * Increase the key associated with index {@code i} to the specified value.
+     *
+     * @param  i the index of the key to increase
+     * @param  key increase the key associated with index {@code i} to this key
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws IllegalArgumentException if {@code key <= keyOf(i)}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void increaseKey(int i, double key) {
+        validateIndex(i);
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        if (Double.compare(keys[i], key) == 0)
+            throw new IllegalArgumentException("Calling increaseKey() with a key equal to the key in the priority queue");
+        if (Double.compare(keys[i], key) > 0)
+            throw new IllegalArgumentException("Calling increaseKey() with a key strictly less than the key in the priority queue");
+        keys[i] = key;
+        sink(qp[i]);
+    }
+
+    /**
+     * Remove the key associated with index {@code i}.
+     *
+     * @param  i the index of the key to remove
+     * @throws IllegalArgumentException unless {@code 0 <= i < maxN}
+     * @throws NoSuchElementException no key is associated with index {@code i}
+     */
+    public void delete(int i) {
+        validateIndex(i);
+        if (!contains(i)) throw new NoSuchElementException("index is not in the priority queue");
+        int index = qp[i];
+        exch(index, n--);
+        swim(index);
+        sink(index);
+        qp[i] = -1;
+    }
+
+    // throw an IllegalArgumentException if i is an invalid index
+    private void validateIndex(int i) {
+        if (i < 0) throw new IllegalArgumentException("index is negative: " + i);
+        if (i >= maxN) throw new IllegalArgumentException("index >= capacity: " + i);
+    }
+
+   /***************************************************************************
+    * General helper functions.
+    ***************************************************************************/
+    private boolean greater(int i, int j) {
+        return Double.compare(keys[pq[i]], keys[pq[j]]) > 0;
+    }
+
+    private void exch(int i, int j) {
+        int swap = pq[i];
+        pq[i] = pq[j];
+        pq[j] = swap;
+        qp[pq[i]] = i;
+        qp[pq[j]] = j;
+    }
+
+
+   /***************************************************************************
+    * Heap helper functions. The children of node k are the nodes
+    * d(k-1)+2 through dk+1, and its parent is node (k-2)/d+1;
+    * for d = 2, these are nodes 2k and 2k+1, and node k/2.
+    ***************************************************************************/
+    private void swim(int k) {
+        while (k > 1 && greater((k-2)/d + 1, k)) {
+            int parent = (k-2)/d + 1;
+            exch(k, parent);
+            k = parent;
+        }
+    }
+
+    private void sink(int k) {
+        while (d*(k-1) + 2 <= n) {
+            int j = d*(k-1) + 2;
+            int last = Math.min(j + d - 1, n);
+            for (int c = j + 1; c <= last; c++)
+                if (greater(j, c)) j = c;
+            if (!greater(k, j)) break;
+            exch(k, j);
+            k = j;
+        }
+    }
+
+
+   /***************************************************************************
+    * Iterators.
+    ***************************************************************************/
+
+    /**
+     * Returns an iterator that iterates over the keys on the
+     * priority queue in ascending order.
+     * The iterator doesn't implement {@code remove()} since it's optional.
+     *
+     * @return an iterator that iterates over the keys in ascending order
+     */
+    public Iterator<Integer> iterator() { return new HeapIterator(); }
+
+    private class HeapIterator implements Iterator<Integer> {
+        // create a new pq
+        private IndexDoubleMinPQ copy;
+
+        // add all elements to copy of heap
+        // takes linear time since already in heap order so no keys move
+        public HeapIterator() {
+            copy = new IndexDoubleMinPQ(pq.length - 1, d);
+            for (int i = 1; i <= n; i++)
+                copy.insert(pq[i], keys[pq[i]]);
+        }
+
+        public boolean hasNext()  { return !copy.isEmpty();                     }
+        public void remove()      { throw new UnsupportedOperationException();  }
+
+        public Integer next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            return copy.delMin();
+        }
+    }
+
+
+    /**
+     * Unit tests the {@code IndexDoubleMinPQ} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        // insert a bunch of doubles
+        double[] keys = { 0.5, 0.25, 0.75, 0.125, 0.5, 1.0, 0.0625, 0.875, 0.25, 0.375 };
+
+        IndexDoubleMinPQ pq = new IndexDoubleMinPQ(keys.length, 4);
+        for (int i = 0; i < keys.length; i++) {
+            pq.insert(i, keys[i]);
+        }
+
+        // delete and print each key
+        while (!pq.isEmpty()) {
+            int i = pq.delMin();
+            StdOut.println(i + " " + keys[i]);
+        }
+        StdOut.println();
+
+        // reinsert the same keys
+        for (int i = 0; i < keys.length; i++) {
+            pq.insert(i, keys[i]);
+        }
+
+        // print each key using the iterator
+        for (int i : pq) {
+            StdOut.println(i + " " + keys[i]);
+        }
+        while (!pq.isEmpty()) {
+            pq.delMin();
+        }
+
+    }
+}
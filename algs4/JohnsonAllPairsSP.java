@@ -0,0 +1,421 @@
+/******************************************************************************
+ *  Compilation:  javac JohnsonAllPairsSP.java
+ *  Execution:    java JohnsonAllPairsSP filename.txt [threads]
+ *  Dependencies: CSRDigraph.java EdgeWeightedDigraph.java BellmanFordSP.java
+ *                IndexDoubleMinPQ.java ParallelFor.java Stack.java
+ *  Data files:   https://algs4.cs.princeton.edu/44sp/tinyEWD.txt
+ *                https://algs4.cs.princeton.edu/44sp/tinyEWDn.txt
+ *                https://algs4.cs.princeton.edu/44sp/tinyEWDnc.txt
+ *
+ *  Johnson's all-pairs shortest path algorithm: Bellman-Ford reweighting,
+ *  then Dijkstra's algorithm from each vertex, in parallel.
+ *
+ *  % java JohnsonAllPairsSP tinyEWDn.txt
+ *         0      1      2      3      4      5      6      7
+ *    0:   0.00   0.93   0.26   0.99   0.26   0.61   1.51   0.60
+ *    1:  -0.59   0.00  -0.39   0.29  -0.44  -0.09   0.81  -0.07
+ *    2:  -0.15   0.67   0.00   0.73   0.00   0.35   1.25   0.34
+ *    3:  -0.88  -0.06  -0.68   0.00  -0.73  -0.38   0.52  -0.36
+ *    4:  -0.12   0.67   0.08   0.76   0.00   0.35   1.28   0.37
+ *    5:  -0.27   0.32  -0.07   0.61  -0.12   0.00   1.13   0.25
+ *    6:  -1.40  -0.58  -1.20  -0.49  -1.25  -0.90   0.00  -0.88
+ *    7:  -0.49   0.33  -0.29   0.39  -0.34   0.01   0.91   0.00
+ *  ...
+ *
+ *  % java JohnsonAllPairsSP tinyEWDnc.txt
+ *  Negative cost cycle:
+ *  4->5  0.35
+ *  5->4 -0.66
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ *  The {@code JohnsonAllPairsSP} class represents a data type for solving the
+ *  all-pairs shortest paths problem in sparse edge-weighted digraphs with
+ *  no negative cycles, using several threads.
+ *  The edge weights can be positive, negative, or zero.
+ *  This class finds either a shortest path between every pair of vertices
+ *  or a negative cycle.
+ *  <p>
+ *  This implementation uses Johnson's algorithm. It first computes a
+ *  <em>potential</em> <em>h</em>(<em>v</em>) for each vertex with the
+ *  Bellman-Ford algorithm, as the length of a shortest path to <em>v</em>
+ *  from a new vertex with an edge of weight 0 to every vertex (it skips this
+ *  step if no edge weight is negative). Reweighting each edge
+ *  <em>v</em>&rarr;<em>w</em> to
+ *  <em>weight</em> + <em>h</em>(<em>v</em>) &minus; <em>h</em>(<em>w</em>)
+ *  makes every weight non-negative without changing the shortest paths, so
+ *  it then runs Dijkstra's algorithm from each vertex, on a pool of threads.
+ *  The graph is stored in CSR form, and each <em>row</em> of results (the
+ *  distances from one vertex, and the position of the last edge on each
+ *  shortest path) in two primitive arrays, rather than in {@link DijkstraSP}
+ *  objects; the edges on a path are created only when the path is requested.
+ *  <p>
+ *  The constructor takes &Theta;(<em>V</em> <em>E</em>) time in the worst case
+ *  for the Bellman-Ford step, plus
+ *  <em>O</em>(<em>V</em> (<em>E</em> log <em>V</em>) / <em>p</em>) time
+ *  with <em>p</em> threads for the Dijkstra step, and uses
+ *  12 <em>V</em><sup>2</sup> bytes of extra space.
+ *  The {@code dist()} and {@code hasPath()} methods take &Theta;(1) time;
+ *  the {@code path()} method takes time proportional to the number of edges
+ *  on the path times log <em>V</em>.
+ *  <p>
+ *  Alternatively, {@link #lazy(CSRDigraph, int)} creates a data type that
+ *  computes each row only when it is first used, and keeps a bounded
+ *  number of rows in a least-recently-used cache, using
+ *  12 <em>V</em> bytes of extra space per cached row. This suits large graphs
+ *  in which only the shortest paths from a few vertices are needed.
+ *  <p>
+ *  This correctly computes shortest paths if all arithmetic performed is
+ *  without floating-point rounding error or arithmetic overflow.
+ *  This is the case if all edge weights are integers and if none of the
+ *  intermediate results exceeds 2<sup>52</sup>.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/44sp">Section 4.4</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class JohnsonAllPairsSP {
+    private final CSRDigraph G;            // the digraph
+    private final int V;                   // number of vertices
+    private double[] h;                    // h[v] = potential of v
+    private double[] reduced;              // reduced[i] = reweighted weight of edge at position i
+    private Iterable<DirectedEdge> cycle;  // negative cycle (or null if none)
+    private Row[] rows;                    // rows[s] = shortest paths from s (null if lazy)
+    private LinkedHashMap<Integer, Row> cache;  // s -> shortest paths from s, in access order (if lazy)
+
+    // the shortest paths from one vertex
+    private static final class Row {
+        final double[] distTo;   // distTo[v] = length of shortest s->v path
+        final int[] parent;      // parent[v] = position of last edge on shortest s->v path
+
+        Row(int V) {
+            distTo = new double[V];
+            parent = new int[V];
+        }
+    }
+
+    /**
+     * Computes a shortest path from each vertex to every other vertex in
+     * the edge-weighted digraph {@code G}, using one thread per available
+     * processor. If no such shortest path exists for some pair of vertices,
+     * it computes a negative cycle.
+     * @param G the edge-weighted digraph
+     */
+    public JohnsonAllPairsSP(EdgeWeightedDigraph G) {
+        this(new CSRDigraph(G), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes a shortest path from each vertex to every other vertex in
+     * the edge-weighted digraph {@code G}, stored in CSR form, using the
+     * specified number of threads. If no such shortest path exists for
+     * some pair of vertices, it computes a negative cycle.
+     * @param G the edge-weighted digraph
+     * @param threads the number of threads
+     * @throws IllegalArgumentException if {@code G} is {@code null}
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public JohnsonAllPairsSP(CSRDigraph G, int threads) {
+        this(G);
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+        if (cycle != null) return;
+
+        // run Dijkstra's algorithm from each vertex, in parallel
+        rows = new Row[V];
+        ParallelFor loop = new ParallelFor(threads, 1);
+        try {
+            loop.run(V, new ParallelFor.Body() {
+                public void run(int lo, int hi, int chunk) {
+                    IndexDoubleMinPQ pq = new IndexDoubleMinPQ(V);
+                    for (int s = lo; s < hi; s++)
+                        rows[s] = dijkstra(s, pq);
+                }
+            });
+        }
+        finally {
+            loop.shutdown();
+        }
+        assert check();
+    }
+
+    // compute the potentials, or find a negative cycle
+    private JohnsonAllPairsSP(CSRDigraph G) {
+        if (G == null) throw new IllegalArgumentException("argument is null");
+        this.G = G;
+        this.V = G.V();
+        int E = G.E();
+        h = new double[V];
+        reduced = new double[E];
+
+        boolean negative = false;
+        for (int i = 0; i < E; i++)
+            if (G.weight(i) < 0) negative = true;
+
+        // Bellman-Ford from a new vertex V, with an edge of weight 0 to each vertex
+        if (negative) {
+            EdgeWeightedDigraph H = new EdgeWeightedDigraph(V+1);
+            for (int v = 0; v < V; v++)
+                for (int i = G.offset(v); i < G.offset(v+1); i++)
+                    H.addEdge(G.edge(v, i));
+            for (int v = 0; v < V; v++)
+                H.addEdge(new DirectedEdge(V, v, 0.0));
+            BellmanFordSP sp = new BellmanFordSP(H, V, BellmanFordSP.SUBTREE_DISASSEMBLY);
+            if (sp.hasNegativeCycle()) {
+                cycle = sp.negativeCycle();
+                return;
+            }
+            for (int v = 0; v < V; v++)
+                h[v] = sp.distTo(v);
+        }
+
+        // reweight the edges (rounding errors may leave tiny negative weights)
+        for (int v = 0; v < V; v++)
+            for (int i = G.offset(v); i < G.offset(v+1); i++)
+                reduced[i] = Math.max(0.0, G.weight(i) + h[v] - h[G.target(i)]);
+    }
+
+    /**
+     * Returns a data type that computes the shortest paths from each vertex
+     * of the edge-weighted digraph {@code G}, stored in CSR form, only when
+     * they are first used, and caches the shortest paths from the
+     * {@code cacheRows} most recently used vertices. If no shortest path
+     * exists for some pair of vertices, it computes a negative cycle.
+     * The methods of the returned data type may be called concurrently
+     * by several threads; the rows are computed outside of the lock on the
+     * cache, so that rows from different vertices are computed in parallel.
+     * @param G the edge-weighted digraph
+     * @param cacheRows the maximum number of vertices whose shortest paths are cached
+     * @return a data type that computes shortest paths on demand
+     * @throws IllegalArgumentException if {@code G} is {@code null}
+     * @throws IllegalArgumentException unless {@code cacheRows >= 1}
+     */
+    public static JohnsonAllPairsSP lazy(CSRDigraph G, final int cacheRows) {
+        if (cacheRows < 1) throw new IllegalArgumentException("cache size must be positive");
+        JohnsonAllPairsSP sp = new JohnsonAllPairsSP(G);
+        sp.cache = new LinkedHashMap<Integer, Row>(16, 0.75f, true) {
+            protected boolean removeEldestEntry(Map.Entry<Integer, Row> eldest) {
+                return size() > cacheRows;
+            }
+        };
+        return sp;
+    }
+
+    // Dijkstra's algorithm from s with the reweighted edges
+    private Row dijkstra(int s, IndexDoubleMinPQ pq) {
+        Row row = new Row(V);
+        double[] distTo = row.distTo;
+        int[] parent = row.parent;
+        for (int v = 0; v < V; v++)
+            distTo[v] = Double.POSITIVE_INFINITY;
+        distTo[s] = 0.0;
+        parent[s] = -1;
+
+        // relax vertices in order of distance from s
+        pq.insert(s, 0.0);
+        while (!pq.isEmpty()) {
+            int v = pq.delMin();
+            for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                int w = G.target(i);
+                double dist = distTo[v] + reduced[i];
+                if (distTo[w] > dist) {
+                    distTo[w] = dist;
+                    parent[w] = i;
+                    if (pq.contains(w)) pq.decreaseKey(w, dist);
+                    else                pq.insert(w, dist);
+                }
+            }
+        }
+
+        // undo the reweighting
+        for (int v = 0; v < V; v++)
+            if (distTo[v] < Double.POSITIVE_INFINITY)
+                distTo[v] += h[v] - h[s];
+        return row;
+    }
+
+    // the shortest paths from s, computing them if necessary
+    private Row row(int s) {
+        if (hasNegativeCycle())
+            throw new UnsupportedOperationException("Negative cost cycle exists");
+        if (rows != null) return rows[s];
+        synchronized (cache) {
+            Row row = cache.get(s);
+            if (row != null) return row;
+        }
+
+        // two threads may compute the same row; the first one cached is kept
+        Row row = dijkstra(s, new IndexDoubleMinPQ(V));
+        synchronized (cache) {
+            Row cached = cache.get(s);
+            if (cached != null) return cached;
+            cache.put(s, row);
+            return row;
+        }
+    }
+
+    /**
+     * Is there a negative cycle?
+     * @return {@code true} if there is a negative cycle, and {@code false} otherwise
+     */
+    public boolean hasNegativeCycle() {
+        return cycle != null;
+    }
+
+    /**
+     * Returns a negative cycle, or {@code null} if there is no such cycle.
+     * @return a negative cycle as an iterable of edges,
+     * or {@code null} if there is no such cycle
+     */
+    public Iterable<DirectedEdge> negativeCycle() {
+        return cycle;
+    }
+
+    /**
+     * Is there a path from the vertex {@code s} to vertex {@code t}?
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return {@code true} if there is a path from vertex {@code s}
+     *         to vertex {@code t}, and {@code false} otherwise
+     * @throws UnsupportedOperationException if there is a negative cost cycle
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     */
+    public boolean hasPath(int s, int t) {
+        return dist(s, t) < Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Returns the length of a shortest path from vertex {@code s} to vertex {@code t}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return the length of a shortest path from vertex {@code s} to vertex {@code t};
+     *         {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws UnsupportedOperationException if there is a negative cost cycle
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     */
+    public double dist(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        return row(s).distTo[t];
+    }
+
+    /**
+     * Returns a shortest path from vertex {@code s} to vertex {@code t}.
+     * @param  s the source vertex
+     * @param  t the destination vertex
+     * @return a shortest path from vertex {@code s} to vertex {@code t}
+     *         as an iterable of edges, and {@code null} if no such path
+     * @throws UnsupportedOperationException if there is a negative cost cycle
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     */
+    public Iterable<DirectedEdge> path(int s, int t) {
+        validateVertex(s);
+        validateVertex(t);
+        Row row = row(s);
+        if (row.distTo[t] == Double.POSITIVE_INFINITY) return null;
+        Stack<DirectedEdge> path = new Stack<DirectedEdge>();
+        for (int v = t; v != s; ) {
+            int i = row.parent[v];
+            int u = G.tail(i);
+            path.push(new DirectedEdge(u, v, G.weight(i)));
+            v = u;
+        }
+        return path;
+    }
+
+    // check optimality conditions: no edge is eligible, and each tree edge is tight
+    private boolean check() {
+        for (int s = 0; s < V; s++) {
+            double[] distTo = rows[s].distTo;
+            int[] parent = rows[s].parent;
+            for (int v = 0; v < V; v++) {
+                if (distTo[v] == Double.POSITIVE_INFINITY) continue;
+                for (int i = G.offset(v); i < G.offset(v+1); i++) {
+                    int w = G.target(i);
+                    if (distTo[v] + G.weight(i) < distTo[w] - 1E-9 * (1 + Math.abs(distTo[w]))) {
+                        System.err.println("edge at position " + i + " is eligible from " + s);
+                        return false;
+                    }
+                }
+                if (v == s) continue;
+                int i = parent[v];
+                double d = distTo[G.tail(i)] + G.weight(i);
+                if (Math.abs(d - distTo[v]) > 1E-9 * (1 + Math.abs(d))) {
+                    System.err.println("edge at position " + i + " on shortest path from " + s + " not tight");
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Unit tests the {@code JohnsonAllPairsSP} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+
+        // read edge-weighted digraph
+        In in = new In(args[0]);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        CSRDigraph G = new CSRDigraph(in, true);
+
+        // compute shortest paths between all pairs of vertices
+        JohnsonAllPairsSP spt = new JohnsonAllPairsSP(G, threads);
+
+        // print negative cycle
+        if (spt.hasNegativeCycle()) {
+            StdOut.println("Negative cost cycle:");
+            for (DirectedEdge e : spt.negativeCycle())
+                StdOut.println(e);
+            StdOut.println();
+            return;
+        }
+
+        // print all-pairs shortest path distances
+        StdOut.printf("  ");
+        for (int v = 0; v < G.V(); v++) {
+            StdOut.printf("%6d ", v);
+        }
+        StdOut.println();
+        for (int v = 0; v < G.V(); v++) {
+            StdOut.printf("%3d: ", v);
+            for (int w = 0; w < G.V(); w++) {
+                if (spt.hasPath(v, w)) StdOut.printf("%6.2f ", spt.dist(v, w));
+                else StdOut.printf("  Inf ");
+            }
+            StdOut.println();
+        }
+        StdOut.println();
+
+        // print all-pairs shortest paths
+        for (int v = 0; v < G.V(); v++) {
+            for (int w = 0; w < G.V(); w++) {
+                if (spt.hasPath(v, w)) {
+                    StdOut.printf("%d to %d (%5.2f)  ", v, w, spt.dist(v, w));
+                    for (DirectedEdge e : spt.path(v, w))
+                        StdOut.print(e + "  ");
+                    StdOut.println();
+                }
+                else {
+                    StdOut.printf("%d to %d no path\n", v, w);
+                }
+            }
+        }
+    }
+}
@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilation:  javac KosarajuSharirSCC.java
  *  Execution:    java KosarajuSharirSCC filename.txt
- *  Dependencies: Digraph.java TransitiveClosure.java StdOut.java In.java
+ *  Dependencies: Digraph.java DirectedDFS.java StdOut.java In.java
  *  Data files:   https://algs4.cs.princeton.edu/42digraph/tinyDG.txt
  *                https://algs4.cs.princeton.edu/42digraph/mediumDG.txt
  *                https://algs4.cs.princeton.edu/42digraph/largeDG.txt
@@ -32,7 +32,7 @@
  *  0
  *  10
  *
- *  % java -Xss50m KosarajuSharirSCC mediumDG.txt
+ *  % java KosarajuSharirSCC mediumDG.txt
  *  25 strong components
  *  7 11 32 36 61 84 95 116 121 128 230   ...
  *  28 73 80 104 115 143 149 164 184 185  ...
@@ -64,6 +64,8 @@
 
 package edu.princeton.cs.algs4;
 
+import java.util.Iterator;
+
 /**
  *  The {@code KosarajuSharirSCC} class represents a data type for
  *  determining the strong components in a digraph.
@@ -77,7 +79,9 @@ package edu.princeton.cs.algs4;
  *  vertices in the strong component: two vertices have the same component
  *  identifier if and only if they are in the same strong component.
  *  <p>
- *  This implementation uses the Kosaraju-Sharir algorithm.
+ *  This implementation uses the Kosaraju-Sharir algorithm, with depth-first
+ *  searches that use an explicit stack instead of recursion, so that it does
+ *  not overflow the call stack on digraphs with long paths.
  *  The constructor takes &Theta;(<em>V</em> + <em>E</em>) time,
  *  where <em>V</em> is the number of vertices and <em>E</em>
  *  is the number of edges.
@@ -110,9 +114,10 @@ public class KosarajuSharirSCC {
         // run DFS on G, using reverse postorder to guide calculation
         marked = new boolean[G.V()];
         id = new int[G.V()];
+        Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[G.V()];
         for (int v : dfs.reversePost()) {
             if (!marked[v]) {
-                dfs(G, v);
+                dfs(G, v, adj);
                 count++;
             }
         }
@@ -121,12 +126,24 @@ public class KosarajuSharirSCC {
         assert check(G);
     }
 
-    // DFS on graph G
-    private void dfs(Digraph G, int v) {
-        marked[v] = true;
-        id[v] = count;
-        for (int w : G.adj(v)) {
-            if (!marked[w]) dfs(G, w);
+    // DFS on graph G from s, with adj[i] = iterator over the adjacency list
+    // of the i-th vertex on the path from s
+    private void dfs(Digraph G, int s, Iterator<Integer>[] adj) {
+        int n = 0;
+        marked[s] = true;
+        id[s] = count;
+        adj[n++] = G.adj(s).iterator();
+        while (n > 0) {
+            Iterator<Integer> it = adj[n-1];
+            if (it.hasNext()) {
+                int w = it.next();
+                if (!marked[w]) {
+                    marked[w] = true;
+                    id[w] = count;
+                    adj[n++] = G.adj(w).iterator();
+                }
+            }
+            else adj[--n] = null;
         }
     }
 
@@ -166,10 +183,13 @@ public class KosarajuSharirSCC {
 
     // does the id[] array contain the strongly connected components?
     private boolean check(Digraph G) {
-        TransitiveClosure tc = new TransitiveClosure(G);
+        // search from each vertex (TransitiveClosure is itself built on TarjanSCC)
+        DirectedDFS[] dfs = new DirectedDFS[G.V()];
+        for (int v = 0; v < G.V(); v++)
+            dfs[v] = new DirectedDFS(G, v);
         for (int v = 0; v < G.V(); v++) {
             for (int w = 0; w < G.V(); w++) {
-                if (stronglyConnected(v, w) != (tc.reachable(v, w) && tc.reachable(w, v)))
+                if (stronglyConnected(v, w) != (dfs[v].marked(w) && dfs[w].marked(v)))
                     return false;
             }
         }
@@ -109,6 +109,74 @@ public class KruskalMST {
         assert check(G);
     }
 
+    /**
+     * Compute a minimum spanning tree (or forest) of an edge-weighted graph
+     * stored in CSR form. The edges are sorted as primitive positions rather
+     * than objects, and only the edges in the minimum spanning tree (or forest)
+     * are created as {@link Edge} objects.
+     * @param G the edge-weighted graph
+     */
+    public KruskalMST(CSRGraph G) {
+
+        // positions of the edges, in the same order as EdgeWeightedGraph.edges()
+        int[] tail = new int[G.E()];
+        int[] position = new int[G.E()];
+        int t = G.E();
+        for (int v = 0; v < G.V(); v++) {
+            int selfLoops = 0;
+            for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                int w = G.target(i);
+                if (w > v || (w == v && selfLoops++ % 2 == 0)) {
+                    t--;
+                    tail[t] = v;
+                    position[t] = i;
+                }
+            }
+        }
+        t = G.E();
+
+        // sort by weight; a stable sort gives the same tree as sorting Edge objects
+        int[] order = new int[t];
+        for (int i = 0; i < t; i++)
+            order[i] = i;
+        double[] weights = new double[t];
+        for (int i = 0; i < t; i++)
+            weights[i] = G.weight(position[i]);
+        sort(order, new int[t], weights, 0, t);
+
+        // run greedy algorithm
+        UF uf = new UF(G.V());
+        for (int k = 0; k < t && mst.size() < G.V() - 1; k++) {
+            int j = order[k];
+            int v = tail[j];
+            int w = G.target(position[j]);
+
+            // v-w does not create a cycle
+            if (uf.find(v) != uf.find(w)) {
+                uf.union(v, w);                         // merge v and w components
+                mst.enqueue(G.edge(v, position[j]));    // add edge v-w to mst
+                weight += weights[j];
+            }
+        }
+    }
+
+    // stable mergesort of a[lo..hi) by key[a[i]], using aux[lo..hi)
+    private static void sort(int[] a, int[] aux, double[] key, int lo, int hi) {
+        if (hi - lo <= 1) return;
+        int mid = (lo + hi) >>> 1;
+        sort(a, aux, key, lo, mid);
+        sort(a, aux, key, mid, hi);
+        if (Double.compare(key[a[mid-1]], key[a[mid]]) <= 0) return;
+        System.arraycopy(a, lo, aux, lo, hi - lo);
+        int i = lo, j = mid;
+        for (int k = lo; k < hi; k++) {
+            if      (i == mid)                                     a[k] = aux[j++];
+            else if (j == hi)                                      a[k] = aux[i++];
+            else if (Double.compare(key[aux[j]], key[aux[i]]) < 0) a[k] = aux[j++];
+            else                                                   a[k] = aux[i++];
+        }
+    }
+
     /**
      * Returns the edges in a minimum spanning tree (or forest).
      * @return the edges in a minimum spanning tree (or forest) as
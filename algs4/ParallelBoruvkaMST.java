@@ -0,0 +1,356 @@
+/******************************************************************************
+ *  Compilation:  javac ParallelBoruvkaMST.java
+ *  Execution:    java ParallelBoruvkaMST filename.txt [threads]
+ *  Dependencies: EdgeWeightedGraph.java CSRGraph.java Edge.java Queue.java
+ *                ConcurrentUF.java UF.java ParallelFor.java In.java StdOut.java
+ *  Data files:   https://algs4.cs.princeton.edu/43mst/tinyEWG.txt
+ *                https://algs4.cs.princeton.edu/43mst/mediumEWG.txt
+ *                https://algs4.cs.princeton.edu/43mst/largeEWG.txt
+ *
+ *  Compute a minimum spanning forest using Boruvka's algorithm, scanning
+ *  the edges of each round in parallel.
+ *
+ *  % java ParallelBoruvkaMST tinyEWG.txt
+ *  0 7 0.16000
+ *  1 7 0.19000
+ *  2 3 0.17000
+ *  4 5 0.35000
+ *  5 7 0.28000
+ *  6 2 0.40000
+ *  0 2 0.26000
+ *  1.81000
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  The {@code ParallelBoruvkaMST} class represents a data type for computing a
+ *  <em>minimum spanning tree</em> in an edge-weighted graph, using several threads.
+ *  The edge weights can be positive, zero, or negative and need not
+ *  be distinct. If the graph is not connected, it computes a <em>minimum
+ *  spanning forest</em>, which is the union of minimum spanning trees
+ *  in each connected component. The {@code weight()} method returns the
+ *  weight of a minimum spanning tree and the {@code edges()} method
+ *  returns its edges.
+ *  <p>
+ *  This implementation uses <em>Boruvka's algorithm</em> and the concurrent
+ *  union-find data type {@link ConcurrentUF}. Each round splits the remaining
+ *  edges into chunks and scans the chunks in parallel, each thread offering
+ *  every edge as the closest edge of the two trees that it connects with a
+ *  compare-and-set; it then merges the trees along their closest edges and
+ *  discards the edges whose endpoints are now in the same tree, again in
+ *  parallel, so that every round scans fewer edges than the last.
+ *  Ties are broken in favor of the first edge in {@code G.edges()}, so the
+ *  edges are compared in a total order and the minimum spanning forest
+ *  does not depend on the number of threads or on how they are scheduled.
+ *  <p>
+ *  There are at most log <em>V</em> rounds, each of which takes
+ *  &Theta;(<em>E</em> / <em>p</em> + <em>V</em>) time with <em>p</em> threads
+ *  (ignoring contention and the union-find operations), where <em>V</em> is
+ *  the number of vertices and <em>E</em> is the number of edges; the closest
+ *  edges are reset and collected in a sequential pass over the vertices.
+ *  Each instance method takes &Theta;(1) time.
+ *  It uses &Theta;(<em>V</em> + <em>E</em>) extra space (not including the
+ *  edge-weighted graph).
+ *  <p>
+ *  This {@code weight()} method correctly computes the weight of the MST
+ *  if all arithmetic performed is without floating-point rounding error
+ *  or arithmetic overflow.
+ *  This is the case if all edge weights are non-negative integers
+ *  and the weight of the MST does not exceed 2<sup>52</sup>.
+ *  <p>
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/43mst">Section 4.3</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ *  For alternate implementations, see {@link BoruvkaMST}, {@link KruskalMST},
+ *  and {@link FilterKruskalMST}.
+ */
+public class ParallelBoruvkaMST {
+    private static final double FLOATING_POINT_EPSILON = 1.0E-12;
+
+    private Queue<Edge> mst = new Queue<Edge>();  // edges in MST
+    private double weight;                        // weight of MST
+
+    private int[] from;                           // from[e] = one endpoint of edge e
+    private int[] to;                             // to[e] = the other endpoint of edge e
+    private double[] cost;                        // cost[e] = weight of edge e
+
+    /**
+     * Computes a minimum spanning tree (or forest) of an edge-weighted graph,
+     * using one thread per available processor.
+     * @param G the edge-weighted graph
+     */
+    public ParallelBoruvkaMST(EdgeWeightedGraph G) {
+        this(G, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of an edge-weighted graph,
+     * using the specified number of threads.
+     * @param G the edge-weighted graph
+     * @param threads the number of threads
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public ParallelBoruvkaMST(EdgeWeightedGraph G, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+        Edge[] edges = new Edge[G.E()];
+        from = new int[G.E()];
+        to = new int[G.E()];
+        cost = new double[G.E()];
+        int t = 0;
+        for (Edge e : G.edges()) {
+            int v = e.either();
+            edges[t] = e;
+            from[t] = v;
+            to[t] = e.other(v);
+            cost[t] = e.weight();
+            t++;
+        }
+        for (int e : boruvka(G.V(), threads)) {
+            mst.enqueue(edges[e]);
+            weight += cost[e];
+        }
+        from = to = null;
+        cost = null;
+
+        // check optimality conditions
+        assert check(G);
+    }
+
+    /**
+     * Computes a minimum spanning tree (or forest) of an edge-weighted graph
+     * stored in CSR form, using the specified number of threads. Only the
+     * edges in the minimum spanning tree (or forest) are created as
+     * {@link Edge} objects.
+     * @param G the edge-weighted graph
+     * @param threads the number of threads
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public ParallelBoruvkaMST(CSRGraph G, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+
+        // one entry per edge, from the endpoint with the smaller index; self-loops are never in the MST
+        int m = 0;
+        for (int v = 0; v < G.V(); v++)
+            for (int i = G.offset(v), end = G.offset(v+1); i < end; i++)
+                if (G.target(i) > v) m++;
+        int[] position = new int[m];
+        from = new int[m];
+        to = new int[m];
+        cost = new double[m];
+        int t = 0;
+        for (int v = 0; v < G.V(); v++) {
+            for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                int w = G.target(i);
+                if (w > v) {
+                    position[t] = i;
+                    from[t] = v;
+                    to[t] = w;
+                    cost[t] = G.weight(i);
+                    t++;
+                }
+            }
+        }
+        for (int e : boruvka(G.V(), threads)) {
+            mst.enqueue(G.edge(from[e], position[e]));
+            weight += cost[e];
+        }
+        from = to = null;
+        cost = null;
+    }
+
+    // the edges of a minimum spanning forest, in the order in which they are found
+    private Queue<Integer> boruvka(int V, int threads) {
+        Queue<Integer> found = new Queue<Integer>();
+        final ParallelFor loop = new ParallelFor(threads);
+        try {
+            final ConcurrentUF uf = new ConcurrentUF(V);
+            final int[] tree = new int[V];          // tree[v] = root of the tree containing v
+            for (int v = 0; v < V; v++)
+                tree[v] = v;
+            final AtomicIntegerArray closest = new AtomicIntegerArray(V);
+
+            // the edges that are not self-loops
+            int[] live = new int[from.length];
+            int n = 0;
+            for (int e = 0; e < from.length; e++)
+                if (from[e] != to[e]) live[n++] = e;
+
+            while (n > 0 && found.size() < V - 1) {
+
+                // foreach tree in forest, find closest edge
+                final int[] edges = live;
+                for (int v = 0; v < V; v++)
+                    closest.set(v, -1);
+                loop.run(n, new ParallelFor.Body() {
+                    public void run(int lo, int hi, int chunk) {
+                        for (int k = lo; k < hi; k++) {
+                            int e = edges[k];
+                            offer(closest, tree[from[e]], e);
+                            offer(closest, tree[to[e]], e);
+                        }
+                    }
+                });
+
+                // merge the trees along their closest edges; since the edges are
+                // compared in a total order, these edges form a forest, and an edge
+                // that is the closest edge of both of its trees is added only once
+                loop.run(V, new ParallelFor.Body() {
+                    public void run(int lo, int hi, int chunk) {
+                        for (int v = lo; v < hi; v++) {
+                            int e = closest.get(v);
+                            if (e == -1) continue;
+                            int other = tree[from[e]] == v ? tree[to[e]] : tree[from[e]];
+                            if (other < v && closest.get(other) == e) closest.set(v, -1);
+                            else uf.union(from[e], to[e]);
+                        }
+                    }
+                });
+                for (int v = 0; v < V; v++) {
+                    int e = closest.get(v);
+                    if (e != -1) found.enqueue(e);
+                }
+                loop.run(V, new ParallelFor.Body() {
+                    public void run(int lo, int hi, int chunk) {
+                        for (int v = lo; v < hi; v++)
+                            tree[v] = uf.find(v);
+                    }
+                });
+
+                // discard the edges within a tree
+                final int[] count = new int[loop.chunks(n)];
+                loop.run(n, new ParallelFor.Body() {
+                    public void run(int lo, int hi, int chunk) {
+                        int k = lo;
+                        for (int j = lo; j < hi; j++) {
+                            int e = edges[j];
+                            if (tree[from[e]] != tree[to[e]]) edges[k++] = e;
+                        }
+                        count[chunk] = k - lo;
+                    }
+                });
+                int m = 0;
+                for (int c = 0; c < count.length; c++) {
+                    System.arraycopy(edges, loop.start(n, c), edges, m, count[c]);
+                    m += count[c];
+                }
+                n = m;
+            }
+        }
+        finally {
+            loop.shutdown();
+        }
+        return found;
+    }
+
+    // make e the closest edge of tree t, unless it already has a closer one
+    private void offer(AtomicIntegerArray closest, int t, int e) {
+        while (true) {
+            int f = closest.get(t);
+            if (f != -1 && !less(e, f)) return;
+            if (closest.compareAndSet(t, f, e)) return;
+        }
+    }
+
+    // is edge e less than edge f? ties are broken by edge index
+    private boolean less(int e, int f) {
+        int cmp = Double.compare(cost[e], cost[f]);
+        return cmp < 0 || (cmp == 0 && e < f);
+    }
+
+    /**
+     * Returns the edges in a minimum spanning tree (or forest).
+     * @return the edges in a minimum spanning tree (or forest) as
+     *    an iterable of edges
+     */
+    public Iterable<Edge> edges() {
+        return mst;
+    }
+
+    /**
+     * Returns the sum of the edge weights in a minimum spanning tree (or forest).
+     * @return the sum of the edge weights in a minimum spanning tree (or forest)
+     */
+    public double weight() {
+        return weight;
+    }
+
+    // check optimality conditions (takes time proportional to E V lg* V)
+    private boolean check(EdgeWeightedGraph G) {
+
+        // check weight
+        double totalWeight = 0.0;
+        for (Edge e : edges()) {
+            totalWeight += e.weight();
+        }
+        if (Math.abs(totalWeight - weight()) > FLOATING_POINT_EPSILON) {
+            System.err.printf("Weight of edges does not equal weight(): %f vs. %f\n", totalWeight, weight());
+            return false;
+        }
+
+        // check that it is acyclic
+        UF uf = new UF(G.V());
+        for (Edge e : edges()) {
+            int v = e.either(), w = e.other(v);
+            if (uf.find(v) == uf.find(w)) {
+                System.err.println("Not a forest");
+                return false;
+            }
+            uf.union(v, w);
+        }
+
+        // check that it is a spanning forest
+        for (Edge e : G.edges()) {
+            int v = e.either(), w = e.other(v);
+            if (uf.find(v) != uf.find(w)) {
+                System.err.println("Not a spanning forest");
+                return false;
+            }
+        }
+
+        // check that it is a minimal spanning forest (cut optimality conditions)
+        for (Edge e : edges()) {
+
+            // all edges in MST except e
+            uf = new UF(G.V());
+            for (Edge f : mst) {
+                int x = f.either(), y = f.other(x);
+                if (f != e) uf.union(x, y);
+            }
+
+            // check that e is min weight edge in crossing cut
+            for (Edge f : G.edges()) {
+                int x = f.either(), y = f.other(x);
+                if (uf.find(x) != uf.find(y)) {
+                    if (f.weight() < e.weight()) {
+                        System.err.println("Edge " + f + " violates cut optimality conditions");
+                        return false;
+                    }
+                }
+            }
+
+        }
+
+        return true;
+    }
+
+    /**
+     * Unit tests the {@code ParallelBoruvkaMST} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        EdgeWeightedGraph G = new EdgeWeightedGraph(in);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ParallelBoruvkaMST mst = new ParallelBoruvkaMST(G, threads);
+        for (Edge e : mst.edges()) {
+            StdOut.println(e);
+        }
+        StdOut.printf("%.5f\n", mst.weight());
+    }
+
+}
@@ -0,0 +1,189 @@
+/******************************************************************************
+ *  Compilation:  javac ParallelFor.java
+ *  Execution:    none
+ *  Dependencies: none
+ *
+ *  Runs a loop over a range of indices as a few contiguous chunks on a
+ *  fixed pool of worker threads, for the parallel graph algorithms.
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ *  The {@code ParallelFor} class runs a loop over the indices 0 through
+ *  <em>n</em> &minus; 1 by splitting them into contiguous chunks, one task per
+ *  chunk, on a fixed pool of worker threads; the calling thread runs the first
+ *  chunk itself and waits for the others. Small loops, and every loop if there
+ *  is only one thread, run in the calling thread.
+ *  <p>
+ *  The chunks of a loop over <em>n</em> indices are always the same, so
+ *  that a caller can allocate one slot per chunk (for example, to count
+ *  elements) in one loop and use it in the next.
+ *  The pool is created on first use and should be released with {@link #shutdown()};
+ *  its threads are daemon threads, so that a pool kept for the lifetime of a
+ *  data type does not prevent the program from exiting. Several threads may
+ *  run loops at the same time; their chunks share the pool.
+ */
+final class ParallelFor {
+
+    // default smallest number of indices worth running as a separate task
+    private static final int GRAIN = 1 << 12;
+
+    // the body of a loop, for the indices lo through hi-1 in the specified chunk
+    interface Body {
+        void run(int lo, int hi, int chunk);
+    }
+
+    private final int threads;         // number of threads, including the caller
+    private final int grain;           // smallest number of indices in a chunk
+    private ExecutorService pool;      // worker threads, created on first use
+
+    /**
+     * Initializes loops that use the specified number of threads, for
+     * bodies that take little time per index.
+     *
+     * @param  threads the number of threads
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    ParallelFor(int threads) {
+        this(threads, GRAIN);
+    }
+
+    /**
+     * Initializes loops that use the specified number of threads and that
+     * split the indices into chunks of at least {@code grain} indices; use
+     * a small grain when the body takes a long time per index.
+     *
+     * @param  threads the number of threads
+     * @param  grain the smallest number of indices in a chunk
+     * @throws IllegalArgumentException unless {@code threads >= 1} and {@code grain >= 1}
+     */
+    ParallelFor(int threads, int grain) {
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+        if (grain < 1)   throw new IllegalArgumentException("grain must be positive");
+        this.threads = threads;
+        this.grain = grain;
+    }
+
+    /**
+     * Returns the number of threads.
+     * @return the number of threads
+     */
+    int threads() {
+        return threads;
+    }
+
+    /**
+     * Returns the number of chunks of a loop over {@code n} indices.
+     * @param  n the number of indices
+     * @return the number of chunks of a loop over {@code n} indices
+     */
+    int chunks(int n) {
+        if (threads == 1 || n < 2L*grain) return 1;
+        return (int) Math.min(4L * threads, n / grain);
+    }
+
+    /**
+     * Returns the first index of the specified chunk of a loop over {@code n} indices.
+     * @param  n the number of indices
+     * @param  chunk the chunk, between 0 and {@code chunks(n)}
+     * @return the first index of chunk {@code chunk}, or {@code n} if {@code chunk == chunks(n)}
+     */
+    int start(int n, int chunk) {
+        return (int) ((long) n * chunk / chunks(n));
+    }
+
+    /**
+     * Runs the body for the indices 0 through {@code n-1}, and waits for all
+     * of the chunks to complete. If any of them threw an exception, rethrows
+     * the first one (that of the calling thread, if it threw one), with those
+     * of the other chunks added as suppressed exceptions.
+     *
+     * @param n the number of indices
+     * @param body the body of the loop
+     */
+    void run(final int n, final Body body) {
+        int k = chunks(n);
+        if (k == 1) {
+            body.run(0, n, 0);
+            return;
+        }
+        ExecutorService pool = pool();
+        Future<?>[] futures = new Future<?>[k];
+        for (int c = 1; c < k; c++) {
+            final int chunk = c;
+            final int lo = start(n, c), hi = start(n, c+1);
+            futures[c] = pool.submit(new Callable<Void>() {
+                public Void call() {
+                    body.run(lo, hi, chunk);
+                    return null;
+                }
+            });
+        }
+        Throwable first = null;
+        try {
+            body.run(0, start(n, 1), 0);
+        }
+        catch (RuntimeException | Error e) {
+            first = e;
+        }
+        for (int c = 1; c < k; c++) {
+            try {
+                await(futures[c]);
+            }
+            catch (RuntimeException | Error e) {
+                if (first == null)   first = e;
+                else if (first != e) first.addSuppressed(e);
+            }
+        }
+        if (first instanceof Error) throw (Error) first;
+        if (first != null)          throw (RuntimeException) first;
+    }
+
+    // the worker threads, created if necessary
+    private synchronized ExecutorService pool() {
+        if (pool == null) {
+            pool = Executors.newFixedThreadPool(threads - 1, new ThreadFactory() {
+                public Thread newThread(Runnable task) {
+                    Thread thread = new Thread(task, "ParallelFor");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return pool;
+    }
+
+    /**
+     * Releases the worker threads. They are created again if another loop is run.
+     */
+    synchronized void shutdown() {
+        if (pool != null) pool.shutdownNow();
+        pool = null;
+    }
+
+    // wait for the task to complete, rethrowing any exception that it threw
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while running a parallel loop", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error)            throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,556 @@
+/******************************************************************************
+ *  Compilation:  javac ParallelSCC.java
+ *  Execution:    java ParallelSCC filename.txt [threads]
+ *  Dependencies: Digraph.java CSRDigraph.java ParallelFor.java TarjanSCC.java
+ *                Queue.java In.java StdOut.java
+ *  Data files:   https://algs4.cs.princeton.edu/42digraph/tinyDG.txt
+ *                https://algs4.cs.princeton.edu/42digraph/mediumDG.txt
+ *                https://algs4.cs.princeton.edu/42digraph/largeDG.txt
+ *
+ *  Compute the strongly-connected components of a digraph using several
+ *  threads: trimming, a forward-backward search from a pivot, coloring,
+ *  and Tarjan's algorithm for what is left.
+ *
+ *  % java ParallelSCC tinyDG.txt
+ *  5 components
+ *  1
+ *  0 2 3 4 5
+ *  9 10 11 12
+ *  6 8
+ *  7
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ *  The {@code ParallelSCC} class represents a data type for
+ *  determining the strong components in a digraph, using several threads.
+ *  It supports the same operations as {@link TarjanSCC}.
+ *  <p>
+ *  This implementation works on the digraph and its reverse in CSR form
+ *  (see {@link CSRDigraph}), in four phases, each of which assigns some
+ *  strong components and leaves the others to the next one.
+ *  <ul>
+ *  <li><em>Trimming</em> removes the vertices with no edges in or no edges
+ *      out (other than self-loops), each of which is a strong component by
+ *      itself, and then the vertices that lose their last edge in or out,
+ *      level by level, with atomic counters of the remaining indegrees and
+ *      outdegrees.
+ *  <li>A <em>forward-backward</em> search from the remaining vertex of highest
+ *      indegree times outdegree finds the vertices it reaches and then, among
+ *      those, the vertices that reach it: in most large digraphs, this is the
+ *      one giant strong component.
+ *  <li><em>Coloring</em> gives each remaining vertex the largest vertex that
+ *      reaches it as its color, by propagating colors along the edges until
+ *      none changes; each vertex whose color is itself is the root of a strong
+ *      component, made of the vertices of its color that reach it. The roots
+ *      are searched from in parallel, and the coloring is repeated on the rest.
+ *  <li>When few vertices remain, or when a round of coloring assigns few of
+ *      them, Tarjan's algorithm, with an explicit stack, finishes the job in
+ *      the calling thread.
+ *  </ul>
+ *  Each step of the first three phases processes one frontier of vertices
+ *  in parallel, using a {@code ParallelFor}, and collects the next frontier
+ *  in one buffer per chunk.
+ *  <p>
+ *  The constructor takes <em>O</em>(<em>V</em> + <em>E</em>) time per
+ *  step of trimming or search and per round of coloring, where <em>V</em> is
+ *  the number of vertices and <em>E</em> is the number of edges, divided by
+ *  the number of threads; the number of steps depends on the lengths of the
+ *  paths in the digraph, and is small for most large digraphs. It uses
+ *  &Theta;(<em>V</em> + <em>E</em>) extra space, for the reverse digraph.
+ *  Each instance method takes &Theta;(1) time.
+ *  The component ids are between 0 and {@code count() - 1}, but, unlike those of
+ *  {@link TarjanSCC} and {@link KosarajuSharirSCC}, not in topological order.
+ *  <p>
+ *  For sequential implementations of the same API, see
+ *  {@link TarjanSCC}, {@link KosarajuSharirSCC}, and {@link GabowSCC}.
+ *  For additional documentation,
+ *  see <a href="https://algs4.cs.princeton.edu/42digraph">Section 4.2</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class ParallelSCC {
+
+    // number of remaining vertices below which Tarjan's algorithm takes over
+    private static final int SERIAL_CUTOFF = 1 << 14;
+
+    // a counter of a trimmed vertex is set to (below) this, so that it never reaches 0 again
+    private static final int TRIMMED = Integer.MIN_VALUE / 2;
+
+    private final int[] id;           // id[v] = id of strong component containing v (-1 while unassigned)
+    private int count;                // number of strongly-connected components
+
+    // used only while computing the strong components
+    private CSRDigraph G;             // the digraph
+    private CSRDigraph R;             // the reverse digraph
+    private ParallelFor loop;         // runs the steps over the vertices of a frontier
+    private ParallelFor roots;        // runs the searches from the roots of a coloring
+    private Buffer[] buffers;         // buffers[c] = vertices found by chunk c of a step
+
+    /**
+     * Computes the strong components of the digraph {@code G}, using one
+     * thread per available processor.
+     * @param G the digraph
+     */
+    public ParallelSCC(Digraph G) {
+        this(new CSRDigraph(G));
+    }
+
+    /**
+     * Computes the strong components of the digraph {@code G}, using the
+     * specified number of threads.
+     * @param  G the digraph
+     * @param  threads the number of threads
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public ParallelSCC(Digraph G, int threads) {
+        this(new CSRDigraph(G), threads);
+    }
+
+    /**
+     * Computes the strong components of the digraph {@code G}, stored in CSR
+     * form, using one thread per available processor.
+     * @param G the digraph
+     */
+    public ParallelSCC(CSRDigraph G) {
+        this(G, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes the strong components of the digraph {@code G}, stored in CSR
+     * form, using the specified number of threads.
+     * @param  G the digraph
+     * @param  threads the number of threads
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public ParallelSCC(CSRDigraph G, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+        int V = G.V();
+        this.G = G;
+        this.R = G.reverse();
+        id = new int[V];
+        Arrays.fill(id, -1);
+        loop = new ParallelFor(threads);
+        roots = new ParallelFor(threads, 1);
+        buffers = new Buffer[Math.max(loop.chunks(Integer.MAX_VALUE), roots.chunks(Integer.MAX_VALUE))];
+        for (int c = 0; c < buffers.length; c++)
+            buffers[c] = new Buffer();
+        try {
+            int[] live = new int[V];
+            int n = trim(live);
+            if (n > 0) n = forwardBackward(live, n);
+            while (n > SERIAL_CUTOFF) {
+                int remaining = color(live, n);
+                boolean progress = 16L * (n - remaining) >= n;
+                n = remaining;
+                if (!progress) break;
+            }
+            tarjan(live, n);
+        }
+        finally {
+            loop.shutdown();
+            roots.shutdown();
+            loop = null;
+            roots = null;
+            buffers = null;
+            this.R = null;
+            this.G = null;
+        }
+
+        // check that id[] gives strong components
+        assert check(G);
+    }
+
+    // a growable list of vertices, also used as a stack
+    private static class Buffer {
+        private int n;                    // number of vertices
+        private int[] vertex = new int[16];
+
+        void add(int v) {
+            if (n == vertex.length) vertex = Arrays.copyOf(vertex, 2*n);
+            vertex[n++] = v;
+        }
+    }
+
+    // move the vertices in the buffers to a[], in order of chunk, and return their number
+    private int gather(int[] a) {
+        int n = 0;
+        for (Buffer buffer : buffers) {
+            System.arraycopy(buffer.vertex, 0, a, n, buffer.n);
+            n += buffer.n;
+            buffer.n = 0;
+        }
+        return n;
+    }
+
+    /**************************************************************************
+     *  Trimming.
+     **************************************************************************/
+
+    // assign the vertices that trimming removes to their own components, and
+    // return the number of others, which are put in live[]
+    private int trim(int[] live) {
+        final int V = G.V();
+        final AtomicIntegerArray in = new AtomicIntegerArray(V);
+        final AtomicIntegerArray out = new AtomicIntegerArray(V);
+
+        // count the edges other than self-loops, and start with the vertices missing some
+        loop.run(V, new ParallelFor.Body() {
+            public void run(int lo, int hi, int chunk) {
+                Buffer buffer = buffers[chunk];
+                for (int v = lo; v < hi; v++) {
+                    int outdegree = degree(G, v), indegree = degree(R, v);
+                    in.set(v, indegree);
+                    if (outdegree == 0 || indegree == 0) {
+                        out.set(v, TRIMMED);
+                        buffer.add(v);
+                    }
+                    else out.set(v, outdegree);
+                }
+            }
+        });
+
+        // remove the vertices of the frontier, collecting the ones that lose their last edge in or out
+        final int[] frontier = new int[V];
+        int n = gather(frontier);
+        while (n > 0) {
+            for (int j = 0; j < n; j++)
+                id[frontier[j]] = count++;
+            loop.run(n, new ParallelFor.Body() {
+                public void run(int lo, int hi, int chunk) {
+                    Buffer buffer = buffers[chunk];
+                    for (int j = lo; j < hi; j++) {
+                        int v = frontier[j];
+                        for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                            int w = G.target(i);
+                            if (w != v && in.decrementAndGet(w) == 0 && claim(out, w)) buffer.add(w);
+                        }
+                        for (int i = R.offset(v), end = R.offset(v+1); i < end; i++) {
+                            int u = R.target(i);
+                            if (u != v && out.decrementAndGet(u) == 0 && claim(out, u)) buffer.add(u);
+                        }
+                    }
+                }
+            });
+            n = gather(frontier);
+        }
+
+        // the rest, with the vertex of highest indegree times outdegree first
+        n = 0;
+        long best = -1;
+        for (int v = 0; v < V; v++) {
+            if (id[v] >= 0) continue;
+            long product = (long) in.get(v) * out.get(v);
+            if (product > best) {
+                best = product;
+                live[n] = live[0];
+                live[0] = v;
+            }
+            else live[n] = v;
+            n++;
+        }
+        return n;
+    }
+
+    // number of edges from v in G, other than self-loops
+    private static int degree(CSRDigraph G, int v) {
+        int degree = 0;
+        for (int i = G.offset(v), end = G.offset(v+1); i < end; i++)
+            if (G.target(i) != v) degree++;
+        return degree;
+    }
+
+    // trim v, unless it already is; the thread that sets its counter to TRIMMED first claims it
+    private static boolean claim(AtomicIntegerArray out, int v) {
+        return out.getAndSet(v, TRIMMED) >= 0;
+    }
+
+    /**************************************************************************
+     *  Forward-backward search.
+     **************************************************************************/
+
+    // assign the strong component of the pivot live[0], and return the number
+    // of vertices left in live[]
+    private int forwardBackward(int[] live, int n) {
+        int V = G.V();
+        int pivot = live[0];
+        final AtomicIntegerArray reached = new AtomicIntegerArray(V);
+        int[] frontier = new int[V];
+
+        // vertices the pivot reaches have reached[v] = 1, and the ones
+        // among them that also reach the pivot have reached[v] = 2
+        reached.set(pivot, 1);
+        search(G, frontier, pivot, reached, 0, 1);
+        reached.set(pivot, 2);
+        search(R, frontier, pivot, reached, 1, 2);
+
+        int component = count++;
+        int m = 0;
+        for (int j = 0; j < n; j++) {
+            int v = live[j];
+            if (reached.get(v) == 2) id[v] = component;
+            else                     live[m++] = v;
+        }
+        return m;
+    }
+
+    // breadth-first search in G from s, through the live vertices with reached[v] == from,
+    // setting reached[v] = to
+    private void search(final CSRDigraph G, final int[] frontier, int s,
+                        final AtomicIntegerArray reached, final int from, final int to) {
+        frontier[0] = s;
+        int n = 1;
+        while (n > 0) {
+            loop.run(n, new ParallelFor.Body() {
+                public void run(int lo, int hi, int chunk) {
+                    Buffer buffer = buffers[chunk];
+                    for (int j = lo; j < hi; j++) {
+                        int v = frontier[j];
+                        for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                            int w = G.target(i);
+                            if (id[w] < 0 && reached.get(w) == from && reached.compareAndSet(w, from, to))
+                                buffer.add(w);
+                        }
+                    }
+                }
+            });
+            n = gather(frontier);
+        }
+    }
+
+    /**************************************************************************
+     *  Coloring.
+     **************************************************************************/
+
+    // assign the strong components of the roots of one coloring of the
+    // vertices in live[], and return the number of vertices left in live[]
+    private int color(final int[] live, int n) {
+        int V = G.V();
+        final AtomicIntegerArray color = new AtomicIntegerArray(V);
+        final AtomicIntegerArray queued = new AtomicIntegerArray(V);  // queued[v] = last step with v in the next frontier
+        final int[] frontier = new int[n];
+        for (int j = 0; j < n; j++) {
+            color.set(live[j], live[j]);
+            frontier[j] = live[j];
+        }
+
+        // propagate the largest color along the edges, until no color changes
+        int m = n;
+        for (int step = 1; m > 0; step++) {
+            final int stamp = step;
+            loop.run(m, new ParallelFor.Body() {
+                public void run(int lo, int hi, int chunk) {
+                    Buffer buffer = buffers[chunk];
+                    for (int j = lo; j < hi; j++) {
+                        int v = frontier[j];
+                        int c = color.get(v);
+                        for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                            int w = G.target(i);
+                            if (id[w] >= 0) continue;
+                            int old = color.get(w);
+                            while (old < c && !color.compareAndSet(w, old, c))
+                                old = color.get(w);
+                            if (old < c && queued.getAndSet(w, stamp) != stamp)
+                                buffer.add(w);
+                        }
+                    }
+                }
+            });
+            m = gather(frontier);
+        }
+
+        // the roots: the vertices whose color is their own
+        int k = 0;
+        final int first = count;
+        for (int j = 0; j < n; j++) {
+            int v = live[j];
+            if (color.get(v) == v) {
+                frontier[k++] = v;
+                id[v] = count++;
+            }
+        }
+
+        // search back from each root through the vertices of its color
+        roots.run(k, new ParallelFor.Body() {
+            public void run(int lo, int hi, int chunk) {
+                Buffer stack = buffers[chunk];
+                for (int j = lo; j < hi; j++) {
+                    int r = frontier[j];
+                    int component = first + j;
+                    stack.add(r);
+                    while (stack.n > 0) {
+                        int v = stack.vertex[--stack.n];
+                        for (int i = R.offset(v), end = R.offset(v+1); i < end; i++) {
+                            int w = R.target(i);
+                            if (color.get(w) == r && id[w] < 0) {
+                                id[w] = component;
+                                stack.add(w);
+                            }
+                        }
+                    }
+                }
+            }
+        });
+
+        m = 0;
+        for (int j = 0; j < n; j++)
+            if (id[live[j]] < 0) live[m++] = live[j];
+        return m;
+    }
+
+    /**************************************************************************
+     *  Tarjan's algorithm.
+     **************************************************************************/
+
+    // assign the strong components of the vertices in live[], among those vertices
+    private void tarjan(int[] live, int n) {
+        if (n == 0) return;
+        int V = G.V();
+        int[] low = new int[V];       // low[v] = low number of v (0 if not visited)
+        int[] path = new int[n];      // path[i] = i-th vertex on the path from the source
+        int[] next = new int[n];      // next[i] = position of its next edge
+        int[] min = new int[n];       // min[i] = smallest low number it reaches so far
+        int[] stack = new int[n];     // vertices not yet assigned to a strong component
+        int top = 0, pre = 1;
+
+        for (int j = 0; j < n; j++) {
+            int s = live[j];
+            if (low[s] != 0) continue;
+            int depth = 0;
+            low[s] = pre++;
+            min[depth] = low[s];
+            stack[top++] = s;
+            path[depth] = s;
+            next[depth++] = G.offset(s);
+            while (depth > 0) {
+                int v = path[depth-1];
+                int i = next[depth-1];
+                if (i < G.offset(v+1)) {
+                    next[depth-1] = i + 1;
+                    int w = G.target(i);
+                    if (id[w] >= 0) continue;
+                    if (low[w] == 0) {
+                        low[w] = pre++;
+                        min[depth] = low[w];
+                        stack[top++] = w;
+                        path[depth] = w;
+                        next[depth++] = G.offset(w);
+                    }
+                    else if (low[w] < min[depth-1]) min[depth-1] = low[w];
+                    continue;
+                }
+
+                // done with v: either it is the root of a strong component, or not
+                depth--;
+                if (min[depth] < low[v]) {
+                    low[v] = min[depth];
+                    if (depth > 0 && low[v] < min[depth-1]) min[depth-1] = low[v];
+                }
+                else {
+                    int w;
+                    do {
+                        w = stack[--top];
+                        id[w] = count;
+                    } while (w != v);
+                    count++;
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the number of strong components.
+     * @return the number of strong components
+     */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Are vertices {@code v} and {@code w} in the same strong component?
+     * @param  v one vertex
+     * @param  w the other vertex
+     * @return {@code true} if vertices {@code v} and {@code w} are in the same
+     *         strong component, and {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     * @throws IllegalArgumentException unless {@code 0 <= w < V}
+     */
+    public boolean stronglyConnected(int v, int w) {
+        validateVertex(v);
+        validateVertex(w);
+        return id[v] == id[w];
+    }
+
+    /**
+     * Returns the component id of the strong component containing vertex {@code v}.
+     * @param  v the vertex
+     * @return the component id of the strong component containing vertex {@code v}
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public int id(int v) {
+        validateVertex(v);
+        return id[v];
+    }
+
+    // does the id[] array contain the strongly connected components?
+    private boolean check(CSRDigraph G) {
+        TarjanSCC scc = new TarjanSCC(G.toDigraph());
+        if (scc.count() != count) return false;
+
+        // the ids of the same component must correspond one to one
+        int[] map = new int[count];
+        Arrays.fill(map, -1);
+        for (int v = 0; v < G.V(); v++) {
+            if (id[v] < 0 || id[v] >= count) return false;
+            if (map[id[v]] < 0) map[id[v]] = scc.id(v);
+            else if (map[id[v]] != scc.id(v)) return false;
+        }
+        return true;
+    }
+
+    // throw an IllegalArgumentException unless {@code 0 <= v < V}
+    private void validateVertex(int v) {
+        int V = id.length;
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+
+    /**
+     * Unit tests the {@code ParallelSCC} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        In in = new In(args[0]);
+        Digraph G = new Digraph(in);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        ParallelSCC scc = new ParallelSCC(G, threads);
+
+        // number of connected components
+        int m = scc.count();
+        StdOut.println(m + " components");
+
+        // compute list of vertices in each strong component
+        Queue<Integer>[] components = (Queue<Integer>[]) new Queue[m];
+        for (int i = 0; i < m; i++) {
+            components[i] = new Queue<Integer>();
+        }
+        for (int v = 0; v < G.V(); v++) {
+            components[scc.id(v)].enqueue(v);
+        }
+
+        // print results
+        for (int i = 0; i < m; i++) {
+            for (int v : components[i]) {
+                StdOut.print(v + " ");
+            }
+            StdOut.println();
+        }
+
+    }
+
+}
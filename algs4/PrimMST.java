@@ -2,7 +2,7 @@
  *  Compilation:  javac PrimMST.java
  *  Execution:    java PrimMST filename.txt
  *  Dependencies: EdgeWeightedGraph.java Edge.java Queue.java
- *                IndexMinPQ.java UF.java In.java StdOut.java
+ *                IndexDoubleMinPQ.java UF.java In.java StdOut.java
  *  Data files:   https://algs4.cs.princeton.edu/43mst/tinyEWG.txt
  *                https://algs4.cs.princeton.edu/43mst/mediumEWG.txt
  *                https://algs4.cs.princeton.edu/43mst/largeEWG.txt
@@ -78,7 +78,7 @@ public class PrimMST {
     private Edge[] edgeTo;        // edgeTo[v] = shortest edge from tree vertex to non-tree vertex
     private double[] distTo;      // distTo[v] = weight of shortest such edge
     private boolean[] marked;     // marked[v] = true if v on tree, false otherwise
-    private IndexMinPQ<Double> pq;
+    private IndexDoubleMinPQ pq;
 
     /**
      * Compute a minimum spanning tree (or forest) of an edge-weighted graph.
@@ -88,7 +88,7 @@ public class PrimMST {
         edgeTo = new Edge[G.V()];
         distTo = new double[G.V()];
         marked = new boolean[G.V()];
-        pq = new IndexMinPQ<Double>(G.V());
+        pq = new IndexDoubleMinPQ(G.V());
         for (int v = 0; v < G.V(); v++)
             distTo[v] = Double.POSITIVE_INFINITY;
 
@@ -99,6 +99,53 @@ public class PrimMST {
         assert check(G);
     }
 
+    /**
+     * Compute a minimum spanning tree (or forest) of an edge-weighted graph
+     * stored in CSR form. Only the edges in the minimum spanning tree (or forest)
+     * are created as {@link Edge} objects.
+     * @param G the edge-weighted graph
+     */
+    public PrimMST(CSRGraph G) {
+        int V = G.V();
+        edgeTo = new Edge[V];
+        distTo = new double[V];
+        marked = new boolean[V];
+        pq = new IndexDoubleMinPQ(V);
+        int[] parent = new int[V];     // parent[w] = tree vertex v of shortest edge v-w (-1 if root)
+        int[] position = new int[V];   // position[w] = position of that edge in adjacency list of v
+        for (int v = 0; v < V; v++)
+            distTo[v] = Double.POSITIVE_INFINITY;
+
+        for (int s = 0; s < V; s++) {
+            if (marked[s]) continue;
+            distTo[s] = 0.0;
+            parent[s] = -1;
+            pq.insert(s, distTo[s]);
+            while (!pq.isEmpty()) {
+                int v = pq.delMin();
+                marked[v] = true;
+                for (int i = G.offset(v), end = G.offset(v+1); i < end; i++) {
+                    int w = G.target(i);
+                    if (marked[w]) continue;         // v-w is obsolete edge
+                    double weight = G.weight(i);
+                    if (weight < distTo[w]) {
+                        distTo[w] = weight;
+                        parent[w] = v;
+                        position[w] = i;
+                        if (pq.contains(w)) pq.decreaseKey(w, distTo[w]);
+                        else                pq.insert(w, distTo[w]);
+                    }
+                }
+            }
+        }
+
+        // create the edges in the minimum spanning forest
+        for (int v = 0; v < V; v++) {
+            if (parent[v] >= 0)
+                edgeTo[v] = G.edge(parent[v], position[v]);
+        }
+    }
+
     // run Prim's algorithm in graph G, starting from vertex s
     private void prim(EdgeWeightedGraph G, int s) {
         distTo[s] = 0.0;
@@ -0,0 +1,324 @@
+/******************************************************************************
+ *  Compilation:  javac PushRelabel.java
+ *  Execution:    java PushRelabel V E
+ *  Dependencies: FlowNetwork.java FlowEdge.java ResidualGraph.java
+ *  Data files:   https://algs4.cs.princeton.edu/65maxflow/tinyFN.txt
+ *
+ *  Push-relabel algorithm for computing a max flow and a min cut,
+ *  using the highest-label rule with the global relabeling and
+ *  gap heuristics.
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+
+/**
+ *  The {@code PushRelabel} class represents a data type for computing a
+ *  <em>maximum st-flow</em> and <em>minimum st-cut</em> in a flow
+ *  network.
+ *  <p>
+ *  This implementation uses the <em>push-relabel</em> algorithm of Goldberg
+ *  and Tarjan. It maintains a <em>preflow</em>, in which more flow may enter a
+ *  vertex than leave it, and a <em>label</em> for each vertex that bounds its
+ *  distance to the sink in the residual graph. An <em>active</em> vertex (one
+ *  with excess flow) pushes its excess along residual arcs to vertices whose
+ *  label is one less than its own, and its label is increased when it has no
+ *  such arc. It always discharges an active vertex of highest label, and uses
+ *  two heuristics that matter much more in practice than the selection rule:
+ *  <em>global relabeling</em>, which periodically sets every label to the exact
+ *  distance to the sink with a breadth-first search, and the <em>gap</em>
+ *  heuristic, which removes every vertex above a label that no vertex has,
+ *  since no such vertex can reach the sink. When no vertex is active, the
+ *  excess at the sink is the value of a maximum flow; a second phase, using
+ *  the same method with the source as the sink, returns the remaining excess
+ *  to the source, to turn the preflow into a flow.
+ *  The residual graph is kept in primitive arrays (see {@code ResidualGraph})
+ *  rather than as {@link FlowEdge} objects, and the flow is copied back to the
+ *  edges of the network at the end.
+ *  <p>
+ *  The constructor takes <em>O</em>(<em>V</em><sup>2</sup> &radic;<em>E</em>)
+ *  time, where <em>V</em> is the number of vertices and <em>E</em> is
+ *  the number of edges; in practice, the algorithm will run much faster.
+ *  The {@code inCut()} and {@code value()} methods take &Theta;(1) time.
+ *  It uses &Theta;(<em>V</em> + <em>E</em>) extra space.
+ *  For alternative implementations of the same API, see
+ *  {@link FordFulkerson} and {@link Dinic}.
+ *  <p>
+ *  This correctly computes the maxflow and mincut if all arithmetic
+ *  performed is without floating-point rounding error or arithmetic
+ *  overflow. This is guaranteed to be the case if all edge capacities
+ *  and initial flow values are integers and the value of the maxflow
+ *  does not exceed 2<sup>52</sup>.
+ *  <p>
+ *  For additional documentation, see
+ *  <a href="https://algs4.cs.princeton.edu/64maxflow">Section 6.4</a> of
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class PushRelabel {
+
+    // amount of work (arcs scanned by relabel operations) between global relabelings, per vertex
+    private static final int GLOBAL_RELABEL_WORK = 6;
+
+    private final ResidualGraph R;  // the residual graph
+    private final int V;            // number of vertices
+    private final double[] excess;  // excess[v] = flow into v minus flow out of v
+    private final int[] label;      // label[v] = lower bound on distance from v to the sink (V if none)
+    private final int[] current;    // current[v] = position of the next arc from v to try
+    private final int[] active;     // active[d] = an active vertex with label d (-1 if none)
+    private final int[] nextActive; // nextActive[v] = next active vertex with the same label as v
+    private final int[] first;      // first[d] = a vertex with label d (-1 if none)
+    private final int[] next;       // next[v] = next vertex with the same label as v (-1 if none)
+    private final int[] prev;       // prev[v] = previous vertex with the same label as v (-1 if none)
+    private final int[] queue;      // queue of the breadth-first search
+    private int sink;               // vertex to push the excess to
+    private int maxActive;          // no active vertex has a label greater than maxActive
+    private int maxLabel;           // no vertex has a label greater than maxLabel (other than V)
+    private long work;              // work since the last global relabeling
+    private boolean[] inCut;        // inCut[v] = true iff s->v path in residual graph
+    private double value;           // value of max flow
+
+    /**
+     * Compute a maximum flow and minimum cut in the network {@code G}
+     * from vertex {@code s} to vertex {@code t}.
+     *
+     * @param  G the flow network
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code s == t}
+     * @throws IllegalArgumentException if initial flow is infeasible
+     */
+    public PushRelabel(FlowNetwork G, int s, int t) {
+        R = new ResidualGraph(G, s, t);
+        V = R.V;
+        excess = new double[V];
+        label = new int[V];
+        current = new int[V];
+        active = new int[V];
+        nextActive = new int[V];
+        first = new int[V];
+        next = new int[V];
+        prev = new int[V];
+        queue = new int[V];
+
+        // saturate the arcs from the source
+        for (int a = R.offsets[s]; a < R.offsets[s+1]; a++) {
+            double delta = R.residual[a];
+            if (delta > 0) {
+                R.residual[a] = 0.0;
+                R.residual[R.reverse[a]] += delta;
+                excess[R.heads[a]] += delta;
+            }
+        }
+
+        // push as much excess as possible to the sink, then the rest back to the source
+        discharge(t, s);
+        value = R.excess(t) + excess[t];
+        discharge(s, t);
+
+        R.writeFlow();
+        inCut = R.reachable(s);
+
+        // check optimality conditions
+        assert R.check(s, t, value, inCut);
+    }
+
+    // push the excess of every vertex other than the source to the sink, as long as it can reach it
+    private void discharge(int sink, int source) {
+        this.sink = sink;
+        globalRelabel(sink, source);
+        while (maxActive >= 0) {
+            int v = active[maxActive];
+            if (v < 0) {
+                maxActive--;
+                continue;
+            }
+            active[maxActive] = nextActive[v];
+            discharge(v);
+            if (work > (long) GLOBAL_RELABEL_WORK * V + R.heads.length)
+                globalRelabel(sink, source);
+        }
+    }
+
+    // push the excess of v, relabeling it as needed, until it has none or can no longer reach the sink
+    private void discharge(int v) {
+        int[] offsets = R.offsets, heads = R.heads, reverse = R.reverse;
+        double[] residual = R.residual;
+        int end = offsets[v+1];
+        while (true) {
+            int d = label[v];
+
+            // push to vertices with label d-1
+            for (int a = current[v]; a < end; a++) {
+                if (residual[a] <= 0) continue;
+                int w = heads[a];
+                if (label[w] != d - 1) continue;
+                double delta = Math.min(excess[v], residual[a]);
+                residual[a] -= delta;
+                residual[reverse[a]] += delta;
+                if (excess[w] <= 0 && w != sink) addActive(w);
+                excess[w] += delta;
+                excess[v] -= delta;
+                if (excess[v] <= 0) {
+                    current[v] = a;
+                    return;
+                }
+            }
+
+            // relabel: v has excess but no arc to push it along
+            int min = V;
+            int arc = end;
+            for (int a = offsets[v]; a < end; a++) {
+                if (residual[a] > 0 && label[heads[a]] + 1 < min) {
+                    min = label[heads[a]] + 1;
+                    arc = a;
+                }
+            }
+            work += end - offsets[v] + 12;
+            remove(v);
+
+            // gap: no other vertex has label d, so no vertex above it can reach the sink
+            if (first[d] < 0) {
+                for (int k = d + 1; k <= maxLabel; k++) {
+                    for (int w = first[k]; w >= 0; w = next[w])
+                        label[w] = V;
+                    first[k] = -1;
+                    active[k] = -1;
+                }
+                maxLabel = d - 1;
+                maxActive = Math.min(maxActive, d - 1);
+                label[v] = V;
+                return;
+            }
+            if (min >= V) {
+                label[v] = V;
+                return;
+            }
+            label[v] = min;
+            current[v] = arc;
+            add(v);
+        }
+    }
+
+    // set each label to the distance to the sink in the residual graph, and rebuild the lists
+    private void globalRelabel(int sink, int source) {
+        int[] offsets = R.offsets, heads = R.heads, reverse = R.reverse;
+        double[] residual = R.residual;
+        Arrays.fill(label, V);
+        Arrays.fill(first, -1);
+        Arrays.fill(active, -1);
+        maxActive = -1;
+        maxLabel = 0;
+        work = 0;
+
+        // breadth-first search from the sink, along arcs in reverse
+        int head = 0, tail = 0;
+        queue[tail++] = sink;
+        label[sink] = 0;
+        while (head < tail) {
+            int w = queue[head++];
+            for (int a = offsets[w]; a < offsets[w+1]; a++) {
+                int v = heads[a];
+                if (label[v] == V && v != source && residual[reverse[a]] > 0) {
+                    label[v] = label[w] + 1;
+                    queue[tail++] = v;
+                }
+            }
+        }
+
+        // vertices in the lists, other than the sink
+        for (int i = 1; i < tail; i++) {
+            int v = queue[i];
+            current[v] = offsets[v];
+            add(v);
+            if (excess[v] > 0) addActive(v);
+        }
+    }
+
+    // add v to the list of vertices with its label
+    private void add(int v) {
+        int d = label[v];
+        prev[v] = -1;
+        next[v] = first[d];
+        if (first[d] >= 0) prev[first[d]] = v;
+        first[d] = v;
+        if (d > maxLabel) maxLabel = d;
+    }
+
+    // remove v from the list of vertices with its label
+    private void remove(int v) {
+        int d = label[v];
+        if (prev[v] >= 0) next[prev[v]] = next[v];
+        else              first[d] = next[v];
+        if (next[v] >= 0) prev[next[v]] = prev[v];
+    }
+
+    // add v to the list of active vertices with its label
+    private void addActive(int v) {
+        int d = label[v];
+        if (d >= V) return;
+        nextActive[v] = active[d];
+        active[d] = v;
+        if (d > maxActive) maxActive = d;
+    }
+
+    /**
+     * Returns the value of the maximum flow.
+     *
+     * @return the value of the maximum flow
+     */
+    public double value()  {
+        return value;
+    }
+
+    /**
+     * Returns true if the specified vertex is on the {@code s} side of the mincut.
+     *
+     * @param  v vertex
+     * @return {@code true} if vertex {@code v} is on the {@code s} side of the mincut;
+     *         {@code false} otherwise
+     * @throws IllegalArgumentException unless {@code 0 <= v < V}
+     */
+    public boolean inCut(int v)  {
+        R.validate(v);
+        return inCut[v];
+    }
+
+    /**
+     * Unit tests the {@code PushRelabel} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+
+        // create flow network with V vertices and E edges
+        int V = Integer.parseInt(args[0]);
+        int E = Integer.parseInt(args[1]);
+        int s = 0, t = V-1;
+        FlowNetwork G = new FlowNetwork(V, E);
+        StdOut.println(G);
+
+        // compute maximum flow and minimum cut
+        PushRelabel maxflow = new PushRelabel(G, s, t);
+        StdOut.println("Max flow from " + s + " to " + t);
+        for (int v = 0; v < G.V(); v++) {
+            for (FlowEdge e : G.adj(v)) {
+                if ((v == e.from()) && e.flow() > 0)
+                    StdOut.println("   " + e);
+            }
+        }
+
+        // print min-cut
+        StdOut.print("Min cut: ");
+        for (int v = 0; v < G.V(); v++) {
+            if (maxflow.inCut(v)) StdOut.print(v + " ");
+        }
+        StdOut.println();
+
+        StdOut.println("Max flow value = " +  maxflow.value());
+    }
+
+}
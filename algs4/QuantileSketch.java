@@ -0,0 +1,477 @@
+/******************************************************************************
+ *  Compilation:  javac QuantileSketch.java
+ *  Execution:    java QuantileSketch < input.txt
+ *  Dependencies: StdIn.java StdOut.java
+ *
+ *  Mutable data type that computes the minimum, maximum, mean, median,
+ *  and other quantiles of a stream of real numbers. Small streams are
+ *  answered exactly using quickselect; large streams are summarized by
+ *  a mergeable KLL sketch that uses a bounded amount of memory.
+ *
+ *  % java QuantileSketch < tinyT.txt
+ *  n      = 15
+ *  min    = 10.00000
+ *  max    = 98.00000
+ *  mean   = 50.86667
+ *  median = 48.00000
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+/**
+ *  The {@code QuantileSketch} class is a data type for computing the
+ *  minimum, maximum, mean, median, and other quantiles of a stream of
+ *  real numbers, without storing the stream.
+ *  <p>
+ *  The first values (up to a fixed limit) are kept in a primitive
+ *  {@code double[]} buffer, and quantile queries on them are exact, using
+ *  quickselect in linear time. Once the limit is exceeded, the values are
+ *  summarized by a <em>KLL sketch</em> (Karnin, Lang, and Liberty): a
+ *  hierarchy of compactors, where level <em>h</em> holds values that each
+ *  represent 2<sup><em>h</em></sup> values of the stream. When a level
+ *  fills up, it is sorted and every other value (starting from a random
+ *  offset) is promoted to the next level. The rank of every value returned
+ *  by {@link #quantile(double)} is then within roughly
+ *  1.7 / <em>k</em> &middot; <em>n</em> of the requested rank, where
+ *  <em>k</em> is the accuracy parameter.
+ *  <p>
+ *  The minimum, maximum, mean, and size are always exact. Adding a value
+ *  takes constant amortized time. The sketch uses
+ *  &Theta;(<em>k</em> log(<em>n</em>/<em>k</em>)) memory, independent of
+ *  the number of exact values that can be buffered. Two sketches with the
+ *  same parameters can be combined with {@link #merge(QuantileSketch)},
+ *  for example to aggregate results computed by different threads.
+ *  <p>
+ *  This implementation is not thread-safe.
+ */
+public class QuantileSketch {
+    private static final int DEFAULT_K = 200;             // default accuracy parameter
+    private static final int DEFAULT_EXACT_LIMIT = 4096;  // default number of values kept exactly
+    private static final double C = 2.0 / 3.0;            // capacity decay between levels
+
+    private final int k;               // accuracy parameter
+    private final int exactLimit;      // maximum number of values kept in exact mode
+    private final Random random;       // source of the random offsets used by compactions
+
+    private long n;                    // number of values added
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+    private double sum;                // sum of the values added
+
+    private double[] exact;            // values kept in exact mode; null in sketch mode
+    private int exactSize;             // number of values in exact[]
+
+    private double[][] levels;         // levels[h] = compactor holding values of weight 2^h
+    private int[] levelSize;           // levelSize[h] = number of values in levels[h]
+    private int height;                // number of levels in use
+    private int retained;              // total number of values held by the compactors
+    private int capacity;              // total capacity of the compactors at the current height
+
+    /**
+     * Initializes an empty sketch with the default accuracy parameter (200)
+     * that stays exact for the first 4096 values.
+     */
+    public QuantileSketch() {
+        this(DEFAULT_K, DEFAULT_EXACT_LIMIT);
+    }
+
+    /**
+     * Initializes an empty sketch with the given accuracy parameter that
+     * stays exact for the first {@code exactLimit} values.
+     *
+     * @param  k the accuracy parameter (larger is more accurate)
+     * @param  exactLimit the number of values kept before switching to the sketch
+     * @throws IllegalArgumentException if {@code k < 8} or {@code exactLimit < 0}
+     */
+    public QuantileSketch(int k, int exactLimit) {
+        if (k < 8) throw new IllegalArgumentException("accuracy parameter must be at least 8");
+        if (exactLimit < 0) throw new IllegalArgumentException("exact limit must be non-negative");
+        this.k = k;
+        this.exactLimit = exactLimit;
+        this.random = new Random();
+        this.exact = new double[Math.min(exactLimit, 16)];
+    }
+
+    /**
+     * Adds the specified value to the sketch.
+     *
+     * @param  x the value
+     * @throws IllegalArgumentException if {@code x} is {@code NaN}
+     */
+    public void add(double x) {
+        if (Double.isNaN(x)) throw new IllegalArgumentException("value is NaN");
+        n++;
+        sum += x;
+        if (x < min) min = x;
+        if (x > max) max = x;
+
+        if (exact != null) {
+            if (exactSize < exactLimit) {
+                if (exactSize == exact.length) exact = Arrays.copyOf(exact, Math.min(exactLimit, 2*exact.length));
+                exact[exactSize++] = x;
+                return;
+            }
+            toSketch();
+        }
+        insert(0, x);
+        while (retained > capacity) compress();
+    }
+
+    /**
+     * Adds all of the values from the specified sketch to this sketch.
+     *
+     * @param  that the other sketch
+     * @throws IllegalArgumentException if the two sketches do not have the
+     *         same accuracy parameter and exact limit
+     */
+    public void merge(QuantileSketch that) {
+        if (that == null) throw new IllegalArgumentException("argument is null");
+        if (that.k != this.k || that.exactLimit != this.exactLimit)
+            throw new IllegalArgumentException("sketches have different parameters");
+        if (that == this || that.n == 0) {
+            if (that == this) merge(that.copy());
+            return;
+        }
+
+        // add the values of that exact buffer one at a time
+        if (that.exact != null) {
+            for (int i = 0; i < that.exactSize; i++)
+                add(that.exact[i]);
+            return;
+        }
+
+        // combine compactors level by level
+        if (exact != null) toSketch();
+        n   += that.n;
+        sum += that.sum;
+        min = Math.min(min, that.min);
+        max = Math.max(max, that.max);
+        for (int h = 0; h < that.height; h++) {
+            for (int i = 0; i < that.levelSize[h]; i++)
+                insert(h, that.levels[h][i]);
+        }
+        while (retained > capacity) compress();
+    }
+
+    // returns an independent copy of this sketch
+    private QuantileSketch copy() {
+        QuantileSketch c = new QuantileSketch(k, exactLimit);
+        c.n = n;
+        c.min = min;
+        c.max = max;
+        c.sum = sum;
+        c.exactSize = exactSize;
+        c.exact = (exact == null) ? null : exact.clone();
+        c.height = height;
+        c.retained = retained;
+        c.capacity = capacity;
+        if (levels != null) {
+            c.levels = new double[levels.length][];
+            for (int h = 0; h < height; h++)
+                c.levels[h] = levels[h].clone();
+            c.levelSize = levelSize.clone();
+        }
+        return c;
+    }
+
+    /**
+     * Returns the number of values added to the sketch.
+     * @return the number of values added to the sketch
+     */
+    public long size() {
+        return n;
+    }
+
+    /**
+     * Returns true if no values have been added to the sketch.
+     * @return {@code true} if no values have been added to the sketch;
+     *         {@code false} otherwise
+     */
+    public boolean isEmpty() {
+        return n == 0;
+    }
+
+    /**
+     * Returns true if quantile queries are answered exactly, that is, if the
+     * number of values added does not exceed the exact limit.
+     * @return {@code true} if quantile queries are exact; {@code false} otherwise
+     */
+    public boolean isExact() {
+        return exact != null;
+    }
+
+    /**
+     * Returns the smallest value added to the sketch.
+     * @return the smallest value added to the sketch
+     * @throws NoSuchElementException if the sketch is empty
+     */
+    public double min() {
+        validateNonEmpty();
+        return min;
+    }
+
+    /**
+     * Returns the largest value added to the sketch.
+     * @return the largest value added to the sketch
+     * @throws NoSuchElementException if the sketch is empty
+     */
+    public double max() {
+        validateNonEmpty();
+        return max;
+    }
+
+    /**
+     * Returns the sum of the values added to the sketch.
+     * @return the sum of the values added to the sketch
+     */
+    public double sum() {
+        return sum;
+    }
+
+    /**
+     * Returns the average of the values added to the sketch.
+     * @return the average of the values added to the sketch
+     * @throws NoSuchElementException if the sketch is empty
+     */
+    public double mean() {
+        validateNonEmpty();
+        return sum / n;
+    }
+
+    /**
+     * Returns the median of the values added to the sketch. In exact mode,
+     * if the number of values is even, returns the average of the two
+     * middle values.
+     * @return the median of the values added to the sketch
+     * @throws NoSuchElementException if the sketch is empty
+     */
+    public double median() {
+        return quantile(0.5);
+    }
+
+    /**
+     * Returns the specified quantile of the values added to the sketch.
+     * In exact mode, this is the value of rank {@code q * (n-1)}, linearly
+     * interpolating between the two closest ranks. In sketch mode, this is a
+     * value whose rank is approximately {@code q * (n-1)}.
+     *
+     * @param  q the quantile, between 0 and 1
+     * @return the {@code q}-quantile of the values added to the sketch
+     * @throws IllegalArgumentException unless {@code 0 <= q <= 1}
+     * @throws NoSuchElementException if the sketch is empty
+     */
+    public double quantile(double q) {
+        if (!(q >= 0.0 && q <= 1.0))
+            throw new IllegalArgumentException("quantile must be between 0 and 1: " + q);
+        validateNonEmpty();
+        if (q == 0.0) return min;
+        if (q == 1.0) return max;
+        if (exact != null) return exactQuantile(q);
+        return sketchQuantile(q);
+    }
+
+    private void validateNonEmpty() {
+        if (n == 0) throw new NoSuchElementException("sketch is empty");
+    }
+
+
+   /***************************************************************************
+    *  Exact mode.
+    ***************************************************************************/
+
+    private double exactQuantile(double q) {
+        double rank = q * (exactSize - 1);
+        int lo = (int) Math.floor(rank);
+        double a = select(exact, exactSize, lo);
+        if (rank == lo) return a;
+
+        // after select(), every value to the right of lo is >= a
+        double b = Double.POSITIVE_INFINITY;
+        for (int i = lo + 1; i < exactSize; i++)
+            if (exact[i] < b) b = exact[i];
+        return a + (rank - lo) * (b - a);
+    }
+
+    // rearranges a[0..n-1] so that a[k] is the kth smallest value and returns it
+    private double select(double[] a, int n, int k) {
+        int lo = 0, hi = n - 1;
+        while (hi > lo) {
+            exch(a, lo, lo + random.nextInt(hi - lo + 1));
+            int i = partition(a, lo, hi);
+            if      (i > k) hi = i - 1;
+            else if (i < k) lo = i + 1;
+            else return a[i];
+        }
+        return a[lo];
+    }
+
+    // partition the subarray a[lo..hi] so that a[lo..j-1] <= a[j] <= a[j+1..hi]
+    private static int partition(double[] a, int lo, int hi) {
+        int i = lo;
+        int j = hi + 1;
+        double v = a[lo];
+        while (true) {
+            while (a[++i] < v) {
+                if (i == hi) break;
+            }
+            while (v < a[--j]) {
+                if (j == lo) break;
+            }
+            if (i >= j) break;
+            exch(a, i, j);
+        }
+        exch(a, lo, j);
+        return j;
+    }
+
+    private static void exch(double[] a, int i, int j) {
+        double swap = a[i];
+        a[i] = a[j];
+        a[j] = swap;
+    }
+
+
+   /***************************************************************************
+    *  Sketch mode.
+    ***************************************************************************/
+
+    // switch from exact mode to sketch mode
+    private void toSketch() {
+        levels = new double[4][];
+        levelSize = new int[4];
+        height = 1;
+        levels[0] = new double[Math.max(2, k)];
+        capacity = levelCapacity(0);
+        double[] values = exact;
+        int size = exactSize;
+        exact = null;
+        exactSize = 0;
+        for (int i = 0; i < size; i++) {
+            insert(0, values[i]);
+            while (retained > capacity) compress();
+        }
+    }
+
+    // the capacity of level h, given the current height
+    private int levelCapacity(int h) {
+        int depth = height - 1 - h;
+        return Math.max(2, (int) Math.ceil(k * Math.pow(C, depth)));
+    }
+
+    // append value x to level h
+    private void insert(int h, double x) {
+        while (h >= height) grow();
+        if (levelSize[h] == levels[h].length)
+            levels[h] = Arrays.copyOf(levels[h], 2*levels[h].length);
+        levels[h][levelSize[h]++] = x;
+        retained++;
+    }
+
+    // add a new empty level on top
+    private void grow() {
+        if (height == levels.length) {
+            levels = Arrays.copyOf(levels, 2*levels.length);
+            levelSize = Arrays.copyOf(levelSize, 2*levelSize.length);
+        }
+        levels[height] = new double[Math.max(2, k)];
+        height++;
+        capacity = 0;
+        for (int h = 0; h < height; h++)
+            capacity += levelCapacity(h);
+    }
+
+    // compact the lowest level that is over its capacity
+    private void compress() {
+        for (int h = 0; h < height; h++) {
+            if (levelSize[h] >= levelCapacity(h)) {
+                compact(h);
+                return;
+            }
+        }
+    }
+
+    // sort level h and promote every other value to level h+1
+    private void compact(int h) {
+        double[] a = levels[h];
+        int size = levelSize[h];
+        Arrays.sort(a, 0, size);
+
+        // an odd value out stays behind at level h
+        int keep = size % 2;
+        int offset = random.nextBoolean() ? 1 : 0;
+        for (int i = keep + offset; i < size; i += 2)
+            insert(h + 1, a[i]);
+        levelSize[h] = keep;
+        retained -= size - keep;
+    }
+
+    private double sketchQuantile(double q) {
+
+        // merge the sorted levels into one array of weighted values
+        double[] values = new double[retained];
+        long[] weights = new long[retained];
+        double[] aux = new double[retained];
+        long[] auxWeights = new long[retained];
+        int m = 0;
+        for (int h = 0; h < height; h++) {
+            double[] level = Arrays.copyOf(levels[h], levelSize[h]);
+            Arrays.sort(level);
+            int i = 0, j = 0, t = 0;
+            while (i < m || j < level.length) {
+                if (j == level.length || (i < m && values[i] <= level[j])) {
+                    aux[t] = values[i];
+                    auxWeights[t++] = weights[i++];
+                }
+                else {
+                    aux[t] = level[j++];
+                    auxWeights[t++] = 1L << h;
+                }
+            }
+            double[] swap = values;
+            values = aux;
+            aux = swap;
+            long[] swapWeights = weights;
+            weights = auxWeights;
+            auxWeights = swapWeights;
+            m = t;
+        }
+
+        // find the value whose cumulative weight covers the requested rank
+        long total = 0;
+        for (int i = 0; i < m; i++)
+            total += weights[i];
+        double rank = q * (total - 1);
+        long cumulative = 0;
+        for (int i = 0; i < m; i++) {
+            cumulative += weights[i];
+            if (cumulative > rank) return values[i];
+        }
+        return values[m-1];
+    }
+
+    /**
+     * Unit tests the {@code QuantileSketch} data type.
+     * Reads in a stream of real numbers from standard input;
+     * adds them to the sketch; and prints the size, minimum,
+     * maximum, mean, and median.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        QuantileSketch sketch = new QuantileSketch();
+        while (!StdIn.isEmpty()) {
+            double x = StdIn.readDouble();
+            sketch.add(x);
+        }
+        StdOut.printf("n      = %d\n",   sketch.size());
+        StdOut.printf("min    = %.5f\n", sketch.min());
+        StdOut.printf("max    = %.5f\n", sketch.max());
+        StdOut.printf("mean   = %.5f\n", sketch.mean());
+        StdOut.printf("median = %.5f\n", sketch.median());
+    }
+}
@@ -0,0 +1,238 @@
+/******************************************************************************
+ *  Compilation:  javac ResidualGraph.java
+ *  Execution:    none
+ *  Dependencies: FlowNetwork.java FlowEdge.java
+ *
+ *  The residual graph of a flow network, stored in primitive arrays,
+ *  for the maximum-flow algorithms.
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+/**
+ *  The {@code ResidualGraph} class represents the residual graph of a
+ *  {@link FlowNetwork} with respect to the flow on its edges. Each edge
+ *  <em>v</em>&rarr;<em>w</em> of the network becomes two <em>arcs</em>: a forward
+ *  arc <em>v</em>&rarr;<em>w</em> whose residual capacity is the capacity minus
+ *  the flow, and a backward arc <em>w</em>&rarr;<em>v</em> whose residual capacity
+ *  is the flow. The arcs pointing from vertex <em>v</em> occupy positions
+ *  {@code offsets[v]} through {@code offsets[v+1] - 1} of the arrays, and
+ *  each arc knows the position of its reverse arc, so that pushing flow along
+ *  an arc takes two array updates and no {@link FlowEdge} objects.
+ *  Self-loops are left out, since they cannot carry flow from one vertex to another.
+ *  <p>
+ *  The flow is copied back to the edges of the network with {@link #writeFlow()}.
+ */
+final class ResidualGraph {
+    private static final double FLOATING_POINT_EPSILON = 1.0E-11;
+
+    final int V;              // number of vertices
+    final int[] offsets;      // arcs from v are at positions offsets[v] through offsets[v+1]-1
+    final int[] heads;        // heads[a] = vertex that arc a points to
+    final int[] reverse;      // reverse[a] = position of the reverse of arc a
+    final double[] residual;  // residual[a] = residual capacity of arc a
+
+    private final FlowNetwork G;     // the network
+    private final FlowEdge[] edges;  // edges[k] = edge of the network for forward arc forward[k]
+    private final int[] forward;     // forward[k] = position of the forward arc of edges[k]
+
+    /**
+     * Initializes the residual graph of the flow network {@code G}
+     * with respect to the flow on its edges.
+     *
+     * @param  G the flow network
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @throws IllegalArgumentException unless {@code 0 <= s < V}
+     * @throws IllegalArgumentException unless {@code 0 <= t < V}
+     * @throws IllegalArgumentException if {@code s == t}
+     * @throws IllegalArgumentException if initial flow is infeasible
+     */
+    ResidualGraph(FlowNetwork G, int s, int t) {
+        this.G = G;
+        V = G.V();
+        validate(s);
+        validate(t);
+        if (s == t)               throw new IllegalArgumentException("Source equals sink");
+        if (!isFeasible(s, t))    throw new IllegalArgumentException("Initial flow is infeasible");
+
+        // count the arcs from each vertex
+        int E = 0;
+        offsets = new int[V+1];
+        for (int v = 0; v < V; v++) {
+            for (FlowEdge e : G.adj(v)) {
+                if (e.from() != v || e.to() == v) continue;
+                offsets[v+1]++;
+                offsets[e.to()+1]++;
+                E++;
+            }
+        }
+        for (int v = 0; v < V; v++)
+            offsets[v+1] += offsets[v];
+
+        // fill in the arcs
+        heads = new int[2*E];
+        reverse = new int[2*E];
+        residual = new double[2*E];
+        edges = new FlowEdge[E];
+        forward = new int[E];
+        int[] next = new int[V];
+        for (int v = 0; v < V; v++)
+            next[v] = offsets[v];
+        int k = 0;
+        for (int v = 0; v < V; v++) {
+            for (FlowEdge e : G.adj(v)) {
+                int w = e.to();
+                if (e.from() != v || w == v) continue;
+                int a = next[v]++, b = next[w]++;
+                heads[a] = w;
+                heads[b] = v;
+                reverse[a] = b;
+                reverse[b] = a;
+                residual[a] = e.capacity() - e.flow();
+                residual[b] = e.flow();
+                edges[k] = e;
+                forward[k] = a;
+                k++;
+            }
+        }
+    }
+
+    /**
+     * Copies the flow back to the edges of the network.
+     */
+    void writeFlow() {
+        for (int k = 0; k < edges.length; k++) {
+            FlowEdge e = edges[k];
+            double delta = residual[reverse[forward[k]]] - e.flow();
+            if (delta > 0) e.addResidualFlowTo(e.to(), delta);
+            if (delta < 0) e.addResidualFlowTo(e.from(), -delta);
+        }
+    }
+
+    /**
+     * Returns the vertices that can be reached from {@code s} by arcs of
+     * positive residual capacity; with a maximum flow, these are the
+     * vertices on the {@code s} side of a minimum cut.
+     *
+     * @param  s the source vertex
+     * @return {@code marked[v]} is {@code true} iff {@code v} can be reached from {@code s}
+     */
+    boolean[] reachable(int s) {
+        boolean[] marked = new boolean[V];
+        int[] queue = new int[V];
+        int first = 0, last = 0;
+        queue[last++] = s;
+        marked[s] = true;
+        while (first < last) {
+            int v = queue[first++];
+            for (int a = offsets[v]; a < offsets[v+1]; a++) {
+                int w = heads[a];
+                if (residual[a] > 0 && !marked[w]) {
+                    marked[w] = true;
+                    queue[last++] = w;
+                }
+            }
+        }
+        return marked;
+    }
+
+    /**
+     * Returns the excess flow at vertex {@code v} in the network.
+     *
+     * @param  v the vertex
+     * @return the flow into {@code v} minus the flow out of {@code v}
+     */
+    double excess(int v) {
+        double excess = 0.0;
+        for (FlowEdge e : G.adj(v)) {
+            if (v == e.from()) excess -= e.flow();
+            else               excess += e.flow();
+        }
+        return excess;
+    }
+
+    // is the flow on the edges of the network feasible?
+    private boolean isFeasible(int s, int t) {
+
+        // check that capacity constraints are satisfied
+        for (int v = 0; v < V; v++) {
+            for (FlowEdge e : G.adj(v)) {
+                if (e.flow() < -FLOATING_POINT_EPSILON || e.flow() > e.capacity() + FLOATING_POINT_EPSILON) {
+                    System.err.println("Edge does not satisfy capacity constraints: " + e);
+                    return false;
+                }
+            }
+        }
+
+        // check that net flow into a vertex equals zero, except at source and sink
+        if (Math.abs(excess(s) + excess(t)) > FLOATING_POINT_EPSILON) {
+            System.err.println("Excess at source = " + excess(s));
+            System.err.println("Excess at sink   = " + excess(t));
+            return false;
+        }
+        for (int v = 0; v < V; v++) {
+            if (v == s || v == t) continue;
+            else if (Math.abs(excess(v)) > FLOATING_POINT_EPSILON) {
+                System.err.println("Net flow out of " + v + " doesn't equal zero");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks that the flow on the edges of the network is a maximum flow
+     * of the specified value, and that the specified cut is a minimum cut.
+     *
+     * @param  s the source vertex
+     * @param  t the sink vertex
+     * @param  value the value of the flow
+     * @param  inCut {@code inCut[v]} is {@code true} iff {@code v} is on the {@code s} side of the cut
+     * @return {@code true} if the optimality conditions hold; {@code false} otherwise
+     */
+    boolean check(int s, int t, double value, boolean[] inCut) {
+
+        // check that flow is feasible
+        if (!isFeasible(s, t)) {
+            System.err.println("Flow is infeasible");
+            return false;
+        }
+        if (Math.abs(value - excess(t)) > FLOATING_POINT_EPSILON) {
+            System.err.println("Excess at sink   = " + excess(t));
+            System.err.println("Max flow         = " + value);
+            return false;
+        }
+
+        // check that s is on the source side of min cut and that t is not on source side
+        if (!inCut[s]) {
+            System.err.println("source " + s + " is not on source side of min cut");
+            return false;
+        }
+        if (inCut[t]) {
+            System.err.println("sink " + t + " is on source side of min cut");
+            return false;
+        }
+
+        // check that value of min cut = value of max flow
+        double mincutValue = 0.0;
+        for (int v = 0; v < V; v++) {
+            for (FlowEdge e : G.adj(v)) {
+                if ((v == e.from()) && inCut[e.from()] && !inCut[e.to()])
+                    mincutValue += e.capacity();
+            }
+        }
+        if (Math.abs(mincutValue - value) > FLOATING_POINT_EPSILON) {
+            System.err.println("Max flow value = " + value + ", min cut value = " + mincutValue);
+            return false;
+        }
+        return true;
+    }
+
+    // throw an IllegalArgumentException if v is outside prescribed range
+    void validate(int v) {
+        if (v < 0 || v >= V)
+            throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
+    }
+}
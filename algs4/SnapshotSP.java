@@ -0,0 +1,427 @@
+/******************************************************************************
+ *  Compilation:  javac SnapshotSP.java
+ *  Execution:    java SnapshotSP s t file1.txt file2.txt ...
+ *  Dependencies: BidirectionalDijkstraSP.java DSPT2.java DynamicSP.java
+ *                EdgeWeightedGraph.java
+ *                EdgeWeightedDigraph.java QuantileSketch.java ParallelFor.java
+ *                In.java StdOut.java
+ *
+ *  Solves a shortest-path query s->t over a series of graph snapshot
+ *  files in parallel and computes summary statistics (average, minimum,
+ *  maximum, median, and percentiles) from the shared set of results.
+ *
+ *  % java SnapshotSP 0 5 dataset1.txt dataset2.txt dataset3.txt
+ *  dataset1.txt  0.64000  0.002 seconds
+ *  dataset2.txt  0.71000  0.001 seconds
+ *  dataset3.txt  0.58000  0.001 seconds
+ *  average = 0.64333
+ *  minimum = 0.58000
+ *  maximum = 0.71000
+ *  median  = 0.64000
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+import java.io.File;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ *  The {@code SnapshotSP} class represents a data type for solving the
+ *  same <em>s</em>-<em>t</em> shortest-path query over a series of
+ *  graph snapshot files, one file per snapshot.
+ *  <p>
+ *  The files are parsed and solved concurrently on a fixed pool of worker
+ *  threads (by default, one per available processor), either with
+ *  bidirectional Dijkstra on an {@link EdgeWeightedGraph} (see
+ *  {@link BidirectionalDijkstraSP}), which stops as soon as the
+ *  <em>s</em>-<em>t</em> distance is known instead of computing a
+ *  shortest-paths tree as {@link DSPT1} does, or with the Bellman-Ford
+ *  algorithm on an {@link EdgeWeightedDigraph} (as in {@link DSPT2}).
+ *  Alternatively, for a series of nearly identical snapshots, a single
+ *  {@link DynamicSP} can be moved from each snapshot to the next, repairing
+ *  the shortest-paths tree only where the two snapshots differ; the files are
+ *  still parsed concurrently, ahead of the snapshot being solved.
+ *  Each file is read and solved exactly once; the average, minimum,
+ *  maximum, median, and percentiles are all computed from the same
+ *  set of results, summarized by a {@link QuantileSketch}.
+ *  <p>
+ *  Snapshots in which <em>t</em> is not reachable from <em>s</em> are
+ *  excluded from the statistics. The per-file distance and the wall-clock
+ *  time spent parsing and solving each file are available through
+ *  {@link #distance(int)} and {@link #elapsedTime(int)}.
+ */
+public class SnapshotSP {
+    private final String[] names;     // names[i] = name of i-th snapshot file
+    private final String[] paths;     // paths[i] = path of i-th snapshot file
+    private final double[] distance;  // distance[i] = length of shortest s->t path in i-th snapshot
+    private final double[] elapsed;   // elapsed[i] = seconds spent parsing and solving i-th snapshot
+    private final QuantileSketch stats;  // lengths of the shortest s->t paths that exist
+
+    // solves a shortest-path query in a single snapshot file
+    private interface Solver {
+        double solve(String filename, int s, int t);
+    }
+
+    private static final Solver DIJKSTRA = new Solver() {
+        public double solve(String filename, int s, int t) {
+            EdgeWeightedGraph G = new EdgeWeightedGraph(new In(filename));
+            BidirectionalDijkstraSP sp = new BidirectionalDijkstraSP(G);
+            return sp.distance(s, t);
+        }
+    };
+
+    private static final Solver BELLMAN_FORD = new Solver() {
+        public double solve(String filename, int s, int t) {
+            EdgeWeightedDigraph G = new EdgeWeightedDigraph(new In(filename));
+            DSPT2 sp = new DSPT2();
+            sp.BellmanFord(G, s);
+            return sp.distTo(t);
+        }
+    };
+
+    // solves the snapshots independently with the solver or, if it is null,
+    // incrementally in order with a single DynamicSP
+    private SnapshotSP(File[] files, int s, int t, int threads, Solver solver) {
+        if (files == null) throw new IllegalArgumentException("argument is null");
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+        int n = files.length;
+        names = new String[n];
+        paths = new String[n];
+        distance = new double[n];
+        elapsed = new double[n];
+        for (int i = 0; i < n; i++) {
+            names[i] = files[i].getName();
+            paths[i] = files[i].getPath();
+        }
+
+        if (solver == null) solveIncrementally(s, t, threads);
+        else                solveAll(s, t, threads, solver);
+
+        stats = new QuantileSketch();
+        for (int i = 0; i < n; i++) {
+            if (distance[i] != Double.POSITIVE_INFINITY)
+                stats.add(distance[i]);
+        }
+    }
+
+    // parse and solve every snapshot on a pool of worker threads
+    private void solveAll(final int s, final int t, int threads, final Solver solver) {
+        ParallelFor loop = new ParallelFor(threads, 1);
+        try {
+            loop.run(names.length, new ParallelFor.Body() {
+                public void run(int lo, int hi, int chunk) {
+                    for (int k = lo; k < hi; k++) {
+                        long start = System.nanoTime();
+                        distance[k] = solver.solve(paths[k], s, t);
+                        elapsed[k] = (System.nanoTime() - start) / 1.0E9;
+                    }
+                }
+            });
+        }
+        finally {
+            loop.shutdown();
+        }
+    }
+
+    // parse the snapshots on a pool of worker threads, at most one per thread
+    // ahead of the one being solved, and solve them in order with a DynamicSP;
+    // unlike solveAll(), this overlaps the parsing with the solving, which a
+    // ParallelFor cannot do
+    private void solveIncrementally(int s, int t, int threads) {
+        int n = names.length;
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, n)));
+        try {
+            Queue<Future<EdgeWeightedGraph>> parsed = new Queue<Future<EdgeWeightedGraph>>();
+            int submitted = 0;
+            DynamicSP sp = null;
+            for (int i = 0; i < n; i++) {
+                while (submitted < n && submitted <= i + threads) {
+                    final int k = submitted++;
+                    parsed.enqueue(pool.submit(new Callable<EdgeWeightedGraph>() {
+                        public EdgeWeightedGraph call() {
+                            long start = System.nanoTime();
+                            EdgeWeightedGraph G = new EdgeWeightedGraph(new In(paths[k]));
+                            elapsed[k] = (System.nanoTime() - start) / 1.0E9;
+                            return G;
+                        }
+                    }));
+                }
+                EdgeWeightedGraph G = await(parsed.dequeue());
+                long start = System.nanoTime();
+                if (sp == null) sp = new DynamicSP(G, s);
+                else            sp.update(G);
+                distance[i] = sp.distTo(t);
+                elapsed[i] += (System.nanoTime() - start) / 1.0E9;
+            }
+        }
+        finally {
+            pool.shutdownNow();
+        }
+    }
+
+    // wait for the task to complete, rethrowing any exception that it threw
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        }
+        catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while solving snapshots", e);
+        }
+        catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error)            throw (Error) cause;
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    /**
+     * Solves the query {@code s}-{@code t} in every snapshot with Dijkstra's
+     * algorithm on an edge-weighted graph, using one worker thread per
+     * available processor.
+     *
+     * @param  files the snapshot files
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return the results of the query in every snapshot
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     *         in every snapshot
+     */
+    public static SnapshotSP dijkstra(File[] files, int s, int t) {
+        return dijkstra(files, s, t, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Solves the query {@code s}-{@code t} in every snapshot with Dijkstra's
+     * algorithm on an edge-weighted graph, using the given number of worker threads.
+     *
+     * @param  files the snapshot files
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @param  threads the number of worker threads
+     * @return the results of the query in every snapshot
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     *         in every snapshot
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public static SnapshotSP dijkstra(File[] files, int s, int t, int threads) {
+        return new SnapshotSP(files, s, t, threads, DIJKSTRA);
+    }
+
+    /**
+     * Solves the query {@code s}-{@code t} in every snapshot with the Bellman-Ford
+     * algorithm on an edge-weighted digraph, using one worker thread per
+     * available processor.
+     *
+     * @param  files the snapshot files
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return the results of the query in every snapshot
+     * @throws UnsupportedOperationException if a snapshot has a negative cycle
+     *         reachable from {@code s}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     *         in every snapshot
+     */
+    public static SnapshotSP bellmanFord(File[] files, int s, int t) {
+        return bellmanFord(files, s, t, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Solves the query {@code s}-{@code t} in every snapshot with the Bellman-Ford
+     * algorithm on an edge-weighted digraph, using the given number of worker threads.
+     *
+     * @param  files the snapshot files
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @param  threads the number of worker threads
+     * @return the results of the query in every snapshot
+     * @throws UnsupportedOperationException if a snapshot has a negative cycle
+     *         reachable from {@code s}
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     *         in every snapshot
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public static SnapshotSP bellmanFord(File[] files, int s, int t, int threads) {
+        return new SnapshotSP(files, s, t, threads, BELLMAN_FORD);
+    }
+
+    /**
+     * Solves the query {@code s}-{@code t} in every snapshot of an edge-weighted
+     * graph, in order, with a single {@link DynamicSP}: the shortest-paths tree
+     * of the first snapshot is computed from scratch, and the tree of each later
+     * snapshot is repaired from the tree of the previous one, after inserting,
+     * deleting, and reweighting the edges in which the two snapshots differ.
+     * The files are parsed ahead on a pool of worker threads, one per available
+     * processor. The per-file time is the time to parse the file plus the time
+     * to repair the tree.
+     *
+     * @param  files the snapshot files
+     * @param  s the source vertex
+     * @param  t the target vertex
+     * @return the results of the query in every snapshot
+     * @throws IllegalArgumentException if an edge weight is negative
+     * @throws IllegalArgumentException unless {@code 0 <= s < V} and {@code 0 <= t < V}
+     *         in every snapshot
+     * @throws IllegalArgumentException unless every snapshot has the same number of vertices
+     */
+    public static SnapshotSP incremental(File[] files, int s, int t) {
+        return new SnapshotSP(files, s, t, Runtime.getRuntime().availableProcessors(), null);
+    }
+
+    /**
+     * Returns the number of snapshots.
+     * @return the number of snapshots
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Returns the number of snapshots in which there is a path from {@code s} to {@code t}.
+     * @return the number of snapshots in which there is a path from {@code s} to {@code t}
+     */
+    public int count() {
+        return (int) stats.size();
+    }
+
+    /**
+     * Returns the name of the file of the specified snapshot.
+     * @param  i the index of the snapshot
+     * @return the name of the file of snapshot {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < size()}
+     */
+    public String name(int i) {
+        validateIndex(i);
+        return names[i];
+    }
+
+    /**
+     * Returns the length of a shortest path from {@code s} to {@code t} in the
+     * specified snapshot.
+     * @param  i the index of the snapshot
+     * @return the length of a shortest path from {@code s} to {@code t} in
+     *         snapshot {@code i}; {@code Double.POSITIVE_INFINITY} if no such path
+     * @throws IllegalArgumentException unless {@code 0 <= i < size()}
+     */
+    public double distance(int i) {
+        validateIndex(i);
+        return distance[i];
+    }
+
+    /**
+     * Returns the wall-clock time (in seconds) spent parsing and solving the
+     * specified snapshot.
+     * @param  i the index of the snapshot
+     * @return the wall-clock time (in seconds) spent on snapshot {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < size()}
+     */
+    public double elapsedTime(int i) {
+        validateIndex(i);
+        return elapsed[i];
+    }
+
+    /**
+     * Returns the average length of a shortest path from {@code s} to {@code t}
+     * over the snapshots in which such a path exists.
+     * @return the average length of a shortest path from {@code s} to {@code t}
+     * @throws java.util.NoSuchElementException if there is no path in any snapshot
+     */
+    public double average() {
+        validateNonEmpty();
+        return stats.mean();
+    }
+
+    /**
+     * Returns the minimum length of a shortest path from {@code s} to {@code t}
+     * over the snapshots in which such a path exists.
+     * @return the minimum length of a shortest path from {@code s} to {@code t}
+     * @throws java.util.NoSuchElementException if there is no path in any snapshot
+     */
+    public double min() {
+        validateNonEmpty();
+        return stats.min();
+    }
+
+    /**
+     * Returns the maximum length of a shortest path from {@code s} to {@code t}
+     * over the snapshots in which such a path exists.
+     * @return the maximum length of a shortest path from {@code s} to {@code t}
+     * @throws java.util.NoSuchElementException if there is no path in any snapshot
+     */
+    public double max() {
+        validateNonEmpty();
+        return stats.max();
+    }
+
+    /**
+     * Returns the median length of a shortest path from {@code s} to {@code t}
+     * over the snapshots in which such a path exists. If there is an even number
+     * of such snapshots, returns the average of the two middle values.
+     * @return the median length of a shortest path from {@code s} to {@code t}
+     * @throws java.util.NoSuchElementException if there is no path in any snapshot
+     */
+    public double median() {
+        return percentile(50.0);
+    }
+
+    /**
+     * Returns the specified percentile of the length of a shortest path from
+     * {@code s} to {@code t} over the snapshots in which such a path exists,
+     * linearly interpolating between the two closest ranks.
+     * @param  p the percentile, between 0 and 100
+     * @return the {@code p}th percentile of the length of a shortest path
+     *         from {@code s} to {@code t}
+     * @throws IllegalArgumentException unless {@code 0 <= p <= 100}
+     * @throws java.util.NoSuchElementException if there is no path in any snapshot
+     */
+    public double percentile(double p) {
+        if (!(p >= 0.0 && p <= 100.0))
+            throw new IllegalArgumentException("percentile must be between 0 and 100: " + p);
+        validateNonEmpty();
+        return stats.quantile(p / 100.0);
+    }
+
+    private void validateIndex(int i) {
+        if (i < 0 || i >= names.length)
+            throw new IllegalArgumentException("index " + i + " is not between 0 and " + (names.length - 1));
+    }
+
+    private void validateNonEmpty() {
+        if (stats.isEmpty())
+            throw new java.util.NoSuchElementException("no path in any snapshot");
+    }
+
+    /**
+     * Unit tests the {@code SnapshotSP} data type.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        int s = Integer.parseInt(args[0]);
+        int t = Integer.parseInt(args[1]);
+        File[] files = new File[args.length - 2];
+        for (int i = 2; i < args.length; i++)
+            files[i-2] = new File(args[i]);
+
+        SnapshotSP sp = SnapshotSP.dijkstra(files, s, t);
+        for (int i = 0; i < sp.size(); i++) {
+            StdOut.printf("%s  %.5f  %.3f seconds\n", sp.name(i), sp.distance(i), sp.elapsedTime(i));
+        }
+        if (sp.count() == 0) {
+            StdOut.println("no path from " + s + " to " + t);
+            return;
+        }
+        StdOut.printf("average = %.5f\n", sp.average());
+        StdOut.printf("minimum = %.5f\n", sp.min());
+        StdOut.printf("maximum = %.5f\n", sp.max());
+        StdOut.printf("median  = %.5f\n", sp.median());
+    }
+}
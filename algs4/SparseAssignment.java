@@ -0,0 +1,455 @@
+/******************************************************************************
+ *  Compilation:  javac SparseAssignment.java
+ *  Execution:    java SparseAssignment n d
+ *  Dependencies: IndexDoubleMinPQ.java Stopwatch.java StdRandom.java StdOut.java
+ *
+ *  Solve an n-by-n assignment problem with a sparse list of costs using
+ *  the successive shortest path algorithm, optionally starting from the
+ *  solution of a similar problem.
+ *
+ *  % java SparseAssignment 20000 20
+ *  weight = 3426044 (3.94 seconds)
+ *  weight = 3427163 (1.07 seconds, warm start with 1% of the costs changed)
+ *
+ ******************************************************************************/
+
+package edu.princeton.cs.algs4;
+
+/**
+ *  The {@code SparseAssignment} class represents a data type for computing
+ *  an optimal solution to an <em>n</em>-by-<em>n</em> <em>assignment problem</em>
+ *  in which only some of the rows and columns can be matched.
+ *  The assignment problem is to find a minimum weight perfect matching in an
+ *  edge-weighted bipartite graph; here the graph is given as a list of
+ *  <em>m</em> triples (<em>row</em>, <em>column</em>, <em>cost</em>), rather
+ *  than as the dense <em>n</em>-by-<em>n</em> matrix of {@link AssignmentProblem}.
+ *  <p>
+ *  The data type supplies methods for determining the optimal solution
+ *  and the corresponding dual solution: values <em>u</em><sub><em>i</em></sub>
+ *  for the rows and <em>v</em><sub><em>j</em></sub> for the columns such that
+ *  <em>u</em><sub><em>i</em></sub> + <em>v</em><sub><em>j</em></sub> is at most
+ *  the cost of every pair <em>i</em>-<em>j</em>, with equality for the pairs in
+ *  the solution, so that the weight of the solution is the sum of the dual values.
+ *  <p>
+ *  This implementation uses the <em>successive shortest paths algorithm</em>,
+ *  in the form of Jonker and Volgenant. It first matches each row, if possible,
+ *  to a column of least reduced cost. Then, for each unmatched row, it runs
+ *  Dijkstra's algorithm over the columns, using the reduced costs, until it reaches
+ *  an unmatched column; it augments the matching along the shortest path and
+ *  updates the dual values of the columns it scanned. The costs are stored in
+ *  primitive arrays, row by row, and the priority queue and the other arrays
+ *  used by Dijkstra's algorithm are allocated once and reused.
+ *  <p>
+ *  To solve a sequence of similar problems, such as the same assignment with
+ *  a few costs changed, pass the previous solution to the constructor: it
+ *  starts from the previous dual values of the columns, keeps each pair of
+ *  the previous solution that still has zero reduced cost, and augments only
+ *  the rows that are left unmatched.
+ *  <p>
+ *  The constructor takes <em>O</em>(<em>n</em> <em>m</em> log <em>n</em>) time
+ *  in the worst case; in practice each search stops long before it scans every
+ *  column. It uses &Theta;(<em>n</em> + <em>m</em>) extra space.
+ *  <p>
+ *  This computes correct results if all arithmetic performed is
+ *  without floating-point rounding error or arithmetic overflow.
+ *  This is the case if all costs are integers and if none of the
+ *  intermediate results exceeds 2<sup>52</sup>.
+ *  <p>
+ *  For additional documentation, see
+ *  <a href="https://algs4.cs.princeton.edu/65reductions">Section 6.5</a>
+ *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
+ */
+public class SparseAssignment {
+    private static final double FLOATING_POINT_EPSILON = 1.0E-14;
+    private static final int UNMATCHED = -1;
+
+    private final int n;          // number of rows and columns
+    private final int[] offsets;  // pairs of row i are at positions offsets[i] through offsets[i+1]-1
+    private final int[] cols;     // cols[p] = column of pair at position p
+    private final double[] costs; // costs[p] = cost of pair at position p
+    private final double[] u;     // u[i] = dual variable for row i
+    private final double[] v;     // v[j] = dual variable for col j
+    private final int[] xy;       // xy[i] = position of the pair matching row i (or UNMATCHED)
+    private final int[] yx;       // yx[j] = row matched to column j (or UNMATCHED)
+
+    // buffers for Dijkstra's algorithm, reused by every search
+    private final IndexDoubleMinPQ pq;  // columns to scan, by distance
+    private final double[] dist;        // dist[j] = length of shortest path to column j found
+    private final int[] edgeTo;         // edgeTo[j] = position of last pair on that path
+    private final int[] mark;           // dist[j] is valid iff mark[j] == search
+    private final int[] scanned;        // columns scanned by the current search, in order
+    private int search;                 // number of the current search
+
+    /**
+     * Determines an optimal solution to the assignment problem.
+     *
+     * @param  n the number of rows and columns
+     * @param  row the rows of the pairs
+     * @param  col the columns of the pairs
+     * @param  cost the costs of the pairs
+     * @throws IllegalArgumentException if any argument is {@code null}
+     * @throws IllegalArgumentException if the arrays have different lengths
+     * @throws IllegalArgumentException unless each row and column is between {@code 0} and {@code n-1}
+     * @throws IllegalArgumentException if any cost is {@code NaN} or infinite
+     * @throws IllegalArgumentException if there is no perfect matching
+     */
+    public SparseAssignment(int n, int[] row, int[] col, double[] cost) {
+        this(n, row, col, cost, null);
+    }
+
+    /**
+     * Determines an optimal solution to the assignment problem, starting
+     * from the solution of a previous assignment problem of the same size.
+     *
+     * @param  n the number of rows and columns
+     * @param  row the rows of the pairs
+     * @param  col the columns of the pairs
+     * @param  cost the costs of the pairs
+     * @param  previous the solution of the previous problem (or {@code null} if none)
+     * @throws IllegalArgumentException if any array is {@code null}
+     * @throws IllegalArgumentException if the arrays have different lengths
+     * @throws IllegalArgumentException unless each row and column is between {@code 0} and {@code n-1}
+     * @throws IllegalArgumentException if any cost is {@code NaN} or infinite
+     * @throws IllegalArgumentException if {@code previous} is for a problem of a different size
+     * @throws IllegalArgumentException if there is no perfect matching
+     */
+    public SparseAssignment(int n, int[] row, int[] col, double[] cost, SparseAssignment previous) {
+        if (row == null || col == null || cost == null) throw new IllegalArgumentException("argument is null");
+        if (n < 0) throw new IllegalArgumentException("n must be non-negative");
+        int m = row.length;
+        if (col.length != m || cost.length != m) throw new IllegalArgumentException("arrays of different lengths");
+        if (previous != null && previous.n != n)
+            throw new IllegalArgumentException("previous solution is for " + previous.n + " rows, not " + n);
+        this.n = n;
+
+        // store the pairs row by row
+        offsets = new int[n+1];
+        for (int p = 0; p < m; p++) {
+            validate(row[p]);
+            validate(col[p]);
+            if (Double.isNaN(cost[p]) || Double.isInfinite(cost[p]))
+                throw new IllegalArgumentException("cost " + row[p] + "-" + col[p] + " is " + cost[p]);
+            offsets[row[p]+1]++;
+        }
+        for (int i = 0; i < n; i++)
+            offsets[i+1] += offsets[i];
+        cols = new int[m];
+        costs = new double[m];
+        int[] next = new int[n];
+        for (int i = 0; i < n; i++)
+            next[i] = offsets[i];
+        for (int p = 0; p < m; p++) {
+            int q = next[row[p]]++;
+            cols[q] = col[p];
+            costs[q] = cost[p];
+        }
+
+        u = new double[n];
+        v = new double[n];
+        xy = new int[n];
+        yx = new int[n];
+        pq = new IndexDoubleMinPQ(n);
+        dist = new double[n];
+        edgeTo = new int[n];
+        mark = new int[n];
+        scanned = new int[n];
+
+        // initial matching
+        if (previous != null) System.arraycopy(previous.v, 0, v, 0, n);
+        initialize(previous);
+
+        // add edges to matching
+        for (int i = 0; i < n; i++) {
+            if (xy[i] == UNMATCHED) {
+                assert isDualFeasible();
+                assert isComplementarySlack();
+                augment(i);
+            }
+        }
+        assert certifySolution();
+    }
+
+    // set the row duals to make the least reduced cost of each row 0, and match
+    // rows to columns of reduced cost 0: first as in the previous solution, then greedily
+    private void initialize(SparseAssignment previous) {
+        for (int i = 0; i < n; i++)
+            xy[i] = UNMATCHED;
+        for (int j = 0; j < n; j++)
+            yx[j] = UNMATCHED;
+        for (int i = 0; i < n; i++) {
+            double min = Double.POSITIVE_INFINITY;
+            for (int p = offsets[i]; p < offsets[i+1]; p++)
+                min = Math.min(min, costs[p] - v[cols[p]]);
+            if (min == Double.POSITIVE_INFINITY)
+                throw new IllegalArgumentException("no perfect matching: row " + i + " has no pairs");
+            u[i] = min;
+        }
+        if (previous != null) {
+            for (int i = 0; i < n; i++) {
+                int q = previous.xy[i];
+                if (q == UNMATCHED) continue;
+                int j = previous.cols[q];
+                for (int p = offsets[i]; p < offsets[i+1]; p++) {
+                    if (cols[p] == j && yx[j] == UNMATCHED && reducedCost(i, p) == 0.0) {
+                        xy[i] = p;
+                        yx[j] = i;
+                        break;
+                    }
+                }
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (xy[i] != UNMATCHED) continue;
+            for (int p = offsets[i]; p < offsets[i+1]; p++) {
+                int j = cols[p];
+                if (yx[j] == UNMATCHED && reducedCost(i, p) == 0.0) {
+                    xy[i] = p;
+                    yx[j] = i;
+                    break;
+                }
+            }
+        }
+    }
+
+    // find shortest augmenting path from row i0 and update
+    private void augment(int i0) {
+        search++;
+        int count = 0;
+
+        // Dijkstra's algorithm over the columns, until reaching an unmatched column
+        relax(i0, 0.0);
+        int end = UNMATCHED;
+        while (!pq.isEmpty()) {
+            int j = pq.delMin();
+            scanned[count++] = j;
+            if (yx[j] == UNMATCHED) {
+                end = j;
+                break;
+            }
+            relax(yx[j], dist[j]);
+        }
+
+        // empty the priority queue for the next search
+        while (!pq.isEmpty())
+            pq.delMin();
+        if (end == UNMATCHED)
+            throw new IllegalArgumentException("no perfect matching: row " + i0 + " cannot be matched");
+
+        // update dual variables
+        double delta = dist[end];
+        for (int k = 0; k < count - 1; k++) {
+            int j = scanned[k];
+            u[yx[j]] += delta - dist[j];
+            v[j] -= delta - dist[j];
+        }
+        u[i0] += delta;
+
+        // augment along alternating path
+        for (int j = end; j != UNMATCHED; ) {
+            int p = edgeTo[j];
+            int i = rowOf(p);
+            int k = (i == i0) ? UNMATCHED : cols[xy[i]];
+            xy[i] = p;
+            yx[j] = i;
+            j = k;
+        }
+    }
+
+    // relax the pairs of row i, which is at distance d
+    private void relax(int i, double d) {
+        for (int p = offsets[i]; p < offsets[i+1]; p++) {
+            int j = cols[p];
+            double dj = d + reducedCost(i, p);
+            if (mark[j] != search) {
+                mark[j] = search;
+                dist[j] = dj;
+                edgeTo[j] = p;
+                pq.insert(j, dj);
+            }
+            else if (dj < dist[j] && pq.contains(j)) {
+                dist[j] = dj;
+                edgeTo[j] = p;
+                pq.decreaseKey(j, dj);
+            }
+        }
+    }
+
+    // row of the pair at position p
+    private int rowOf(int p) {
+        int lo = 0, hi = n - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (offsets[mid] <= p) lo = mid;
+            else                   hi = mid - 1;
+        }
+        return lo;
+    }
+
+    // reduced cost of the pair at position p, in row i
+    private double reducedCost(int i, int p) {
+        int j = cols[p];
+        double reducedCost = costs[p] - u[i] - v[j];
+
+        // to avoid issues with floating-point precision
+        double magnitude = Math.abs(costs[p]) + Math.abs(u[i]) + Math.abs(v[j]);
+        if (Math.abs(reducedCost) <= FLOATING_POINT_EPSILON * magnitude) return 0.0;
+        return reducedCost;
+    }
+
+    /**
+     * Returns the dual optimal value for the specified row.
+     *
+     * @param  i the row index
+     * @return the dual optimal value for row {@code i}
+     * @throws IllegalArgumentException unless {@code 0 <= i < n}
+     */
+    public double dualRow(int i) {
+        validate(i);
+        return u[i];
+    }
+
+    /**
+     * Returns the dual optimal value for the specified column.
+     *
+     * @param  j the column index
+     * @return the dual optimal value for column {@code j}
+     * @throws IllegalArgumentException unless {@code 0 <= j < n}
+     */
+    public double dualCol(int j) {
+        validate(j);
+        return v[j];
+    }
+
+    /**
+     * Returns the column associated with the specified row in the optimal solution.
+     *
+     * @param  i the row index
+     * @return the column matched to row {@code i} in the optimal solution
+     * @throws IllegalArgumentException unless {@code 0 <= i < n}
+     */
+    public int sol(int i) {
+        validate(i);
+        return cols[xy[i]];
+    }
+
+    /**
+     * Returns the total weight of the optimal solution
+     *
+     * @return the total weight of the optimal solution
+     */
+    public double weight() {
+        double total = 0.0;
+        for (int i = 0; i < n; i++)
+            total += costs[xy[i]];
+        return total;
+    }
+
+    private void validate(int i) {
+        if (i < 0 || i >= n) throw new IllegalArgumentException("index is not between 0 and " + (n-1) + ": " + i);
+    }
+
+
+    /**************************************************************************
+     *
+     *  The code below is solely for testing correctness of the data type.
+     *
+     **************************************************************************/
+
+    // check that dual variables are feasible
+    private boolean isDualFeasible() {
+        // check that all pairs have >= 0 reduced cost
+        for (int i = 0; i < n; i++) {
+            for (int p = offsets[i]; p < offsets[i+1]; p++) {
+                if (reducedCost(i, p) < 0) {
+                    StdOut.println("Dual variables are not feasible");
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // check that primal and dual variables are complementary slack
+    private boolean isComplementarySlack() {
+
+        // check that all matched pairs have 0-reduced cost
+        for (int i = 0; i < n; i++) {
+            if ((xy[i] != UNMATCHED) && (reducedCost(i, xy[i]) != 0)) {
+                StdOut.println("Primal and dual variables are not complementary slack");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // check that primal variables are a perfect matching
+    private boolean isPerfectMatching() {
+        boolean[] perm = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            if (xy[i] == UNMATCHED || xy[i] < offsets[i] || xy[i] >= offsets[i+1]) {
+                StdOut.println("Row " + i + " is not matched by one of its pairs");
+                return false;
+            }
+            int j = cols[xy[i]];
+            if (perm[j] || yx[j] != i) {
+                StdOut.println("Not a perfect matching");
+                return false;
+            }
+            perm[j] = true;
+        }
+        return true;
+    }
+
+    // check optimality conditions
+    private boolean certifySolution() {
+        return isPerfectMatching() && isDualFeasible() && isComplementarySlack();
+    }
+
+    /**
+     * Unit tests the {@code SparseAssignment} data type.
+     * Takes command-line arguments n and d; creates a random n-by-n
+     * problem with d pairs per row (one of them from a random permutation,
+     * so that a perfect matching exists); solves it; changes 1% of the
+     * costs; and solves the new problem, starting from the first solution.
+     *
+     * @param args the command-line arguments
+     */
+    public static void main(String[] args) {
+        int n = Integer.parseInt(args[0]);
+        int d = Integer.parseInt(args[1]);
+
+        // create random sparse problem
+        int[] perm = new int[n];
+        for (int j = 0; j < n; j++)
+            perm[j] = j;
+        StdRandom.shuffle(perm);
+        int m = n * d;
+        int[] row = new int[m];
+        int[] col = new int[m];
+        double[] cost = new double[m];
+        for (int p = 0; p < m; p++) {
+            row[p] = p / d;
+            col[p] = (p % d == 0) ? perm[p / d] : StdRandom.uniformInt(n);
+            cost[p] = StdRandom.uniformInt(900) + 100;  // 3 digits
+        }
+
+        // solve assignment problem
+        Stopwatch timer = new Stopwatch();
+        SparseAssignment assignment = new SparseAssignment(n, row, col, cost);
+        StdOut.printf("weight = %.0f (%.2f seconds)\n", assignment.weight(), timer.elapsedTime());
+
+        // change 1% of the costs, and solve again from the previous solution
+        for (int k = 0; k < m / 100; k++)
+            cost[StdRandom.uniformInt(m)] = StdRandom.uniformInt(900) + 100;
+        timer = new Stopwatch();
+        SparseAssignment warm = new SparseAssignment(n, row, col, cost, assignment);
+        StdOut.printf("weight = %.0f (%.2f seconds, warm start with 1%% of the costs changed)\n",
+                      warm.weight(), timer.elapsedTime());
+
+        // print optimal solution
+        if (n >= 20) return;
+        for (int i = 0; i < n; i++)
+            StdOut.println(i + "-" + warm.sol(i));
+    }
+
+}
@@ -10,11 +10,11 @@
 package edu.princeton.cs.algs4;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.InputMismatchException;
 import java.util.Locale;
 import java.util.NoSuchElementException;
 import java.util.Scanner;
-import java.util.regex.Pattern;
 
 /**
  *  <p><b>Overview.</b>
@@ -182,6 +182,8 @@ import java.util.regex.Pattern;
  *  <p>
  *  Historical note: {@code StdIn} preceded {@code Scanner}; when
  *  {@code Scanner} was introduced, this class was re-implemented to use {@code Scanner}.
+ *  It now tokenizes standard input directly from a byte buffer, with the
+ *  same results, because {@code Scanner} is slow on large numeric inputs.
  *  <p>
  *  <b>Using standard input.</b>
  *  Standard input is a fundamental operating system abstraction on Mac OS X,
@@ -213,27 +215,9 @@ import java.util.regex.Pattern;
  */
 public final class StdIn {
 
-    /*** begin: section (1 of 2) of code duplicated from In to StdIn. */
-
-    // assume Unicode UTF-8 encoding
-    private static final String CHARSET_NAME = "UTF-8";
-
-    // assume language = English, country = US for consistency with System.out.
-    private static final Locale LOCALE = Locale.US;
-
-    // the default token separator; we maintain the invariant that this value
-    // is held by the scanner's delimiter between calls
-    private static final Pattern WHITESPACE_PATTERN = Pattern.compile("\\p{javaWhitespace}+");
-
-    // makes whitespace significant
-    private static final Pattern EMPTY_PATTERN = Pattern.compile("");
-
-    // used to read the entire input
-    private static final Pattern EVERYTHING_PATTERN = Pattern.compile("\\A");
-
-    /*** end: section (1 of 2) of code duplicated from In to StdIn. */
-
-    private static Scanner scanner;
+    // reads UTF-8 input, with the same semantics as a Scanner
+    // that uses Locale.US and whitespace as the delimiter
+    private static ByteScanner scanner;
 
     // it doesn't make sense to instantiate this class
     private StdIn() { }
@@ -275,10 +259,7 @@ public final class StdIn {
      *         {@code false} otherwise
      */
     public static boolean hasNextChar() {
-        scanner.useDelimiter(EMPTY_PATTERN);
-        boolean result = scanner.hasNext();
-        scanner.useDelimiter(WHITESPACE_PATTERN);
-        return result;
+        return scanner.hasNextChar();
     }
 
 
@@ -307,12 +288,7 @@ public final class StdIn {
      */
     public static char readChar() {
         try {
-            scanner.useDelimiter(EMPTY_PATTERN);
-            String ch = scanner.next();
-            assert ch.length() == 1 : "Internal (Std)In.readChar() error!"
-                + " Please contact the authors.";
-            scanner.useDelimiter(WHITESPACE_PATTERN);
-            return ch.charAt(0);
+            return scanner.nextChar();
         }
         catch (NoSuchElementException e) {
             throw new NoSuchElementException("attempts to read a 'char' value from standard input, "
@@ -327,13 +303,7 @@ public final class StdIn {
      * @throws NoSuchElementException if standard input is empty
      */
     public static String readAll() {
-        if (!scanner.hasNextLine())
-            return "";
-
-        String result = scanner.useDelimiter(EVERYTHING_PATTERN).next();
-        // not that important to reset delimiter, since now scanner is empty
-        scanner.useDelimiter(WHITESPACE_PATTERN); // but let's do it anyway
-        return result;
+        return scanner.nextAll();
     }
 
 
@@ -519,17 +489,10 @@ public final class StdIn {
      * @return all remaining tokens on standard input, as an array of strings
      */
     public static String[] readAllStrings() {
-        // we could use readAll.trim().split(), but that's not consistent
-        // because trim() uses characters 0x00..0x20 as whitespace
-        String[] tokens = WHITESPACE_PATTERN.split(readAll());
-        if (tokens.length == 0 || tokens[0].length() > 0)
-            return tokens;
-
-        // don't include first token if it is leading whitespace
-        String[] decapitokens = new String[tokens.length-1];
-        for (int i = 0; i < tokens.length - 1; i++)
-            decapitokens[i] = tokens[i+1];
-        return decapitokens;
+        ArrayList<String> tokens = new ArrayList<String>();
+        while (scanner.hasNext())
+            tokens.add(scanner.next());
+        return tokens.toArray(new String[0]);
     }
 
     /**
@@ -551,11 +514,13 @@ public final class StdIn {
      * @throws InputMismatchException if any token cannot be parsed as an {@code int}
      */
     public static int[] readAllInts() {
-        String[] fields = readAllStrings();
-        int[] vals = new int[fields.length];
-        for (int i = 0; i < fields.length; i++)
-            vals[i] = Integer.parseInt(fields[i]);
-        return vals;
+        int[] vals = new int[16];
+        int n = 0;
+        while (scanner.hasNext()) {
+            if (n == vals.length) vals = Arrays.copyOf(vals, 2*n);
+            vals[n++] = scanner.parseInt();
+        }
+        return Arrays.copyOf(vals, n);
     }
 
     /**
@@ -565,11 +530,13 @@ public final class StdIn {
      * @throws InputMismatchException if any token cannot be parsed as a {@code long}
      */
     public static long[] readAllLongs() {
-        String[] fields = readAllStrings();
-        long[] vals = new long[fields.length];
-        for (int i = 0; i < fields.length; i++)
-            vals[i] = Long.parseLong(fields[i]);
-        return vals;
+        long[] vals = new long[16];
+        int n = 0;
+        while (scanner.hasNext()) {
+            if (n == vals.length) vals = Arrays.copyOf(vals, 2*n);
+            vals[n++] = scanner.parseLong();
+        }
+        return Arrays.copyOf(vals, n);
     }
 
     /**
@@ -579,11 +546,61 @@ public final class StdIn {
      * @throws InputMismatchException if any token cannot be parsed as a {@code double}
      */
     public static double[] readAllDoubles() {
-        String[] fields = readAllStrings();
-        double[] vals = new double[fields.length];
-        for (int i = 0; i < fields.length; i++)
-            vals[i] = Double.parseDouble(fields[i]);
-        return vals;
+        double[] vals = new double[16];
+        int n = 0;
+        while (scanner.hasNext()) {
+            if (n == vals.length) vals = Arrays.copyOf(vals, 2*n);
+            vals[n++] = scanner.parseDouble();
+        }
+        return Arrays.copyOf(vals, n);
+    }
+
+    /**
+     * Reads the next {@code a.length} tokens from standard input, parses them
+     * as integers, and stores them in the array {@code a}, as if by
+     * {@code a.length} calls to {@link #readInt()}.
+     *
+     * @param  a the array
+     * @throws IllegalArgumentException if {@code a} is {@code null}
+     * @throws NoSuchElementException if standard input has fewer than {@code a.length} tokens
+     * @throws InputMismatchException if a token cannot be parsed as an {@code int}
+     */
+    public static void readInts(int[] a) {
+        if (a == null) throw new IllegalArgumentException("argument is null");
+        for (int i = 0; i < a.length; i++)
+            a[i] = readInt();
+    }
+
+    /**
+     * Reads the next {@code a.length} tokens from standard input, parses them
+     * as longs, and stores them in the array {@code a}, as if by
+     * {@code a.length} calls to {@link #readLong()}.
+     *
+     * @param  a the array
+     * @throws IllegalArgumentException if {@code a} is {@code null}
+     * @throws NoSuchElementException if standard input has fewer than {@code a.length} tokens
+     * @throws InputMismatchException if a token cannot be parsed as a {@code long}
+     */
+    public static void readLongs(long[] a) {
+        if (a == null) throw new IllegalArgumentException("argument is null");
+        for (int i = 0; i < a.length; i++)
+            a[i] = readLong();
+    }
+
+    /**
+     * Reads the next {@code a.length} tokens from standard input, parses them
+     * as doubles, and stores them in the array {@code a}, as if by
+     * {@code a.length} calls to {@link #readDouble()}.
+     *
+     * @param  a the array
+     * @throws IllegalArgumentException if {@code a} is {@code null}
+     * @throws NoSuchElementException if standard input has fewer than {@code a.length} tokens
+     * @throws InputMismatchException if a token cannot be parsed as a {@code double}
+     */
+    public static void readDoubles(double[] a) {
+        if (a == null) throw new IllegalArgumentException("argument is null");
+        for (int i = 0; i < a.length; i++)
+            a[i] = readDouble();
     }
 
     //// end: section (2 of 2) of code duplicated from In to StdIn
@@ -597,12 +614,11 @@ public final class StdIn {
      * If StdIn changes, use this to reinitialize the scanner.
      */
     private static void resync() {
-        setScanner(new Scanner(new java.io.BufferedInputStream(System.in), CHARSET_NAME));
+        setScanner(new ByteScanner(System.in));
     }
 
-    private static void setScanner(Scanner scanner) {
+    private static void setScanner(ByteScanner scanner) {
         StdIn.scanner = scanner;
-        StdIn.scanner.useLocale(LOCALE);
     }
 
    /**
@@ -1,7 +1,7 @@
 /******************************************************************************
  *  Compilation:  javac TarjanSCC.java
  *  Execution:    Java TarjanSCC V E
- *  Dependencies: Digraph.java Stack.java TransitiveClosure.java StdOut.java
+ *  Dependencies: Digraph.java DirectedDFS.java StdOut.java
  *  Data files:   https://algs4.cs.princeton.edu/42digraph/tinyDG.txt
  *                https://algs4.cs.princeton.edu/42digraph/mediumDG.txt
  *                https://algs4.cs.princeton.edu/42digraph/largeDG.txt
@@ -23,6 +23,8 @@
 
 package edu.princeton.cs.algs4;
 
+import java.util.Iterator;
+
 /**
  *  The {@code TarjanSCC} class represents a data type for
  *  determining the strong components in a digraph.
@@ -36,7 +38,9 @@ package edu.princeton.cs.algs4;
  *  vertices in the strong component: two vertices have the same component
  *  identifier if and only if they are in the same strong component.
  *  <p>
- *  This implementation uses Tarjan's algorithm.
+ *  This implementation uses Tarjan's algorithm, with a depth-first search
+ *  that uses an explicit stack instead of recursion, so that it does not
+ *  overflow the call stack on digraphs with long paths.
  *  The constructor takes &Theta;(<em>V</em> + <em>E</em>) time,
  *  where <em>V</em> is the number of vertices and <em>E</em> is the
  *  number of edges.
@@ -59,7 +63,8 @@ public class TarjanSCC {
     private int[] low;               // low[v] = low number of v
     private int pre;                 // preorder number counter
     private int count;               // number of strongly-connected components
-    private Stack<Integer> stack;
+    private int[] stack;             // vertices not yet assigned to a strong component
+    private int top;                 // number of vertices on the stack
 
 
     /**
@@ -68,37 +73,62 @@ public class TarjanSCC {
      */
     public TarjanSCC(Digraph G) {
         marked = new boolean[G.V()];
-        stack = new Stack<Integer>();
+        stack = new int[G.V()];
         id = new int[G.V()];
         low = new int[G.V()];
+        int[] path = new int[G.V()];
+        int[] min = new int[G.V()];
+        Iterator<Integer>[] adj = (Iterator<Integer>[]) new Iterator[G.V()];
         for (int v = 0; v < G.V(); v++) {
-            if (!marked[v]) dfs(G, v);
+            if (!marked[v]) dfs(G, v, path, min, adj);
         }
 
         // check that id[] gives strong components
         assert check(G);
     }
 
-    private void dfs(Digraph G, int v) {
-        marked[v] = true;
-        low[v] = pre++;
-        int min = low[v];
-        stack.push(v);
-        for (int w : G.adj(v)) {
-            if (!marked[w]) dfs(G, w);
-            if (low[w] < min) min = low[w];
-        }
-        if (min < low[v]) {
-            low[v] = min;
-            return;
+    // depth-first search from s, with path[i] = i-th vertex on the path from s,
+    // adj[i] = iterator over its adjacency list, and min[i] = smallest low number
+    // of the vertices it points to so far (and its own)
+    private void dfs(Digraph G, int s, int[] path, int[] min, Iterator<Integer>[] adj) {
+        int n = 0;
+        marked[s] = true;
+        low[s] = pre++;
+        min[n] = low[s];
+        stack[top++] = s;
+        path[n] = s;
+        adj[n++] = G.adj(s).iterator();
+        while (n > 0) {
+            Iterator<Integer> it = adj[n-1];
+            if (it.hasNext()) {
+                int w = it.next();
+                if (!marked[w]) {
+                    marked[w] = true;
+                    low[w] = pre++;
+                    min[n] = low[w];
+                    stack[top++] = w;
+                    path[n] = w;
+                    adj[n++] = G.adj(w).iterator();
+                }
+                else if (low[w] < min[n-1]) min[n-1] = low[w];
+                continue;
+            }
+
+            // done with v: either it is the root of a strong component, or not
+            adj[--n] = null;
+            int v = path[n];
+            if (min[n] < low[v]) low[v] = min[n];
+            else {
+                int w;
+                do {
+                    w = stack[--top];
+                    id[w] = count;
+                    low[w] = G.V();
+                } while (w != v);
+                count++;
+            }
+            if (n > 0 && low[v] < min[n-1]) min[n-1] = low[v];
         }
-        int w;
-        do {
-            w = stack.pop();
-            id[w] = count;
-            low[w] = G.V();
-        } while (w != v);
-        count++;
     }
 
 
@@ -139,10 +169,13 @@ public class TarjanSCC {
 
     // does the id[] array contain the strongly connected components?
     private boolean check(Digraph G) {
-        TransitiveClosure tc = new TransitiveClosure(G);
+        // search from each vertex (TransitiveClosure is itself built on TarjanSCC)
+        DirectedDFS[] dfs = new DirectedDFS[G.V()];
+        for (int v = 0; v < G.V(); v++)
+            dfs[v] = new DirectedDFS(G, v);
         for (int v = 0; v < G.V(); v++) {
             for (int w = 0; w < G.V(); w++) {
-                if (stronglyConnected(v, w) != (tc.reachable(v, w) && tc.reachable(w, v)))
+                if (stronglyConnected(v, w) != (dfs[v].marked(w) && dfs[w].marked(v)))
                     return false;
             }
         }
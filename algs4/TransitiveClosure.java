@@ -1,15 +1,17 @@
 /******************************************************************************
  *  Compilation:  javac TransitiveClosure.java
- *  Execution:    java TransitiveClosure filename.txt
- *  Dependencies: Digraph.java DepthFirstDirectedPaths.java In.java StdOut.java
+ *  Execution:    java TransitiveClosure filename.txt [threads]
+ *  Dependencies: Digraph.java TarjanSCC.java ParallelFor.java In.java StdOut.java
  *  Data files:   https://algs4.cs.princeton.edu/42digraph/tinyDG.txt
  *
  *  Compute transitive closure of a digraph and support
- *  reachability queries.
+ *  reachability queries, by propagating bitsets over the
+ *  DAG of its strong components.
  *
- *  Preprocessing time: O(V(E + V)) time.
+ *  Preprocessing time: O(E + V + E C / 64) time, where C is the
+ *  number of strong components.
  *  Query time: O(1).
- *  Space: O(V^2).
+ *  Space: O(V + C^2 / 64) words.
  *
  *  % java TransitiveClosure tinyDG.txt
  *         0  1  2  3  4  5  6  7  8  9 10 11 12
@@ -20,9 +22,9 @@
  *    3:   T  T  T  T  T  T
  *    4:   T  T  T  T  T  T
  *    5:   T  T  T  T  T  T
- *    6:   T  T  T  T  T  T  T        T  T  T  T
+ *    6:   T  T  T  T  T  T  T     T  T  T  T  T
  *    7:   T  T  T  T  T  T  T  T  T  T  T  T  T
- *    8:   T  T  T  T  T  T  T  T  T  T  T  T  T
+ *    8:   T  T  T  T  T  T  T     T  T  T  T  T
  *    9:   T  T  T  T  T  T           T  T  T  T
  *   10:   T  T  T  T  T  T           T  T  T  T
  *   11:   T  T  T  T  T  T           T  T  T  T
@@ -32,22 +34,42 @@
 
 package edu.princeton.cs.algs4;
 
+import java.util.Arrays;
+
 /**
  *  The {@code TransitiveClosure} class represents a data type for
  *  computing the transitive closure of a digraph.
  *  <p>
- *  This implementation runs depth-first search from each vertex.
- *  The constructor takes &Theta;(<em>V</em>(<em>V</em> + <em>E</em>))
- *  in the worst case, where <em>V</em> is the number of vertices and
- *  <em>E</em> is the number of edges.
+ *  This implementation first computes the strong components with
+ *  {@link TarjanSCC}, which numbers them in reverse topological order:
+ *  every component reachable from component <em>c</em> has a number no
+ *  greater than <em>c</em>. It then computes, for each component, the set of
+ *  components reachable from it as a bitset (a {@code long[]} array),
+ *  by combining the bitsets of the components it has an edge to.
+ *  The bitset of component <em>c</em> holds only the bits from the
+ *  lowest-numbered component reachable from <em>c</em> up to <em>c</em>
+ *  itself, which is often much less than one bit per component.
+ *  A component is processed only after all of the components it has an edge
+ *  to, so the components are grouped into <em>levels</em> (the number of
+ *  edges on a longest path to a component without outgoing edges), and the
+ *  components of each level are processed in parallel. Of the components
+ *  that a component has an edge to, the higher-numbered ones are combined
+ *  first, and each one whose bit is already set is skipped, since everything
+ *  it can reach is already in the bitset.
+ *  <p>
+ *  The constructor takes
+ *  <em>O</em>(<em>E</em> + <em>V</em> + <em>E</em> <em>C</em> / 64) time
+ *  in the worst case, where <em>V</em> is the number of vertices,
+ *  <em>E</em> is the number of edges, and <em>C</em> is the number of strong
+ *  components; the last term is divided among the threads.
  *  Each instance method takes &Theta;(1) time.
- *  It uses &Theta;(<em>V</em><sup>2</sup>) extra space (not including the digraph).
+ *  It uses &Theta;(<em>V</em>) extra space (not including the digraph), plus at most
+ *  <em>C</em><sup>2</sup> / 8 bytes for the bitsets, instead of the
+ *  <em>V</em><sup>2</sup> bytes of a {@code boolean} per pair of vertices.
+ *  This approach is similar to the algorithms of
+ *  <a href = "http://www.cs.hut.fi/~enu/thesis.html">Nuutila</a>
+ *  (based on strong components and an interval representation).
  *  <p>
- *  For large digraphs, you may want to consider a more sophisticated algorithm.
- *  <a href = "http://www.cs.hut.fi/~enu/thesis.html">Nuutila</a> proposes two
- *  algorithm for the problem (based on strong components and an interval representation)
- *  that runs in &Theta;(<em>E</em> + <em>V</em>) time on typical digraphs.
- *
  *  For additional documentation,
  *  see <a href="https://algs4.cs.princeton.edu/42digraph">Section 4.2</a> of
  *  <i>Algorithms, 4th Edition</i> by Robert Sedgewick and Kevin Wayne.
@@ -56,16 +78,135 @@ package edu.princeton.cs.algs4;
  *  @author Kevin Wayne
  */
 public class TransitiveClosure {
-    private DirectedDFS[] tc;  // tc[v] = reachable from v
+    private int[] id;       // id[v] = strong component containing v
+    private int[] lo;       // lo[c] = lowest-numbered component reachable from c
+    private long[][] tc;    // tc[c] = bitset of components reachable from c, from word lo[c] / 64
 
     /**
-     * Computes the transitive closure of the digraph {@code G}.
+     * Computes the transitive closure of the digraph {@code G}, using one thread
+     * per available processor.
      * @param G the digraph
      */
     public TransitiveClosure(Digraph G) {
-        tc = new DirectedDFS[G.V()];
-        for (int v = 0; v < G.V(); v++)
-            tc[v] = new DirectedDFS(G, v);
+        this(G, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Computes the transitive closure of the digraph {@code G}, using the
+     * specified number of threads.
+     * @param G the digraph
+     * @param threads the number of threads
+     * @throws IllegalArgumentException unless {@code threads >= 1}
+     */
+    public TransitiveClosure(Digraph G, int threads) {
+        if (threads < 1) throw new IllegalArgumentException("number of threads must be positive");
+        int V = G.V();
+        TarjanSCC scc = new TarjanSCC(G);
+        int C = scc.count();
+        id = new int[V];
+        for (int v = 0; v < V; v++)
+            id[v] = scc.id(v);
+
+        // vertices of component c are members[first[c]] through members[first[c+1]-1]
+        int[] first = new int[C+1];
+        for (int v = 0; v < V; v++)
+            first[id[v]+1]++;
+        for (int c = 0; c < C; c++)
+            first[c+1] += first[c];
+        int[] members = new int[V];
+        int[] next = Arrays.copyOf(first, C);
+        for (int v = 0; v < V; v++)
+            members[next[id[v]]++] = v;
+
+        // edges of the DAG of components, without duplicates: from c to succ[out[c]] through succ[out[c+1]-1]
+        int[] seen = new int[C];
+        int[] out = new int[C+1];
+        for (int c = 0; c < C; c++) {
+            for (int k = first[c]; k < first[c+1]; k++) {
+                for (int w : G.adj(members[k])) {
+                    int d = id[w];
+                    if (d != c && seen[d] != c+1) {
+                        seen[d] = c+1;
+                        out[c+1]++;
+                    }
+                }
+            }
+        }
+        for (int c = 0; c < C; c++)
+            out[c+1] += out[c];
+        final int[] succ = new int[out[C]];
+        for (int c = 0, i = 0; c < C; c++) {
+            for (int k = first[c]; k < first[c+1]; k++) {
+                for (int w : G.adj(members[k])) {
+                    int d = id[w];
+                    if (d != c && seen[d] != -(c+1)) {
+                        seen[d] = -(c+1);
+                        succ[i++] = d;
+                    }
+                }
+            }
+            Arrays.sort(succ, out[c], out[c+1]);
+        }
+
+        // level of each component, and lowest-numbered component reachable from it
+        int[] level = new int[C];
+        lo = new int[C];
+        int levels = 0;
+        for (int c = 0; c < C; c++) {
+            lo[c] = c;
+            for (int i = out[c]; i < out[c+1]; i++) {
+                int d = succ[i];
+                level[c] = Math.max(level[c], level[d] + 1);
+                lo[c] = Math.min(lo[c], lo[d]);
+            }
+            levels = Math.max(levels, level[c] + 1);
+        }
+
+        // components of level k are byLevel[start[k]] through byLevel[start[k+1]-1]
+        int[] start = new int[levels+1];
+        for (int c = 0; c < C; c++)
+            start[level[c]+1]++;
+        for (int k = 0; k < levels; k++)
+            start[k+1] += start[k];
+        final int[] byLevel = new int[C];
+        next = Arrays.copyOf(start, levels);
+        for (int c = 0; c < C; c++)
+            byLevel[next[level[c]]++] = c;
+
+        // compute the bitsets, one level at a time
+        tc = new long[C][];
+        final int[] offsets = out;
+        ParallelFor loop = new ParallelFor(threads, 1);
+        try {
+            for (int k = 0; k < levels; k++) {
+                final int base = start[k];
+                loop.run(start[k+1] - start[k], new ParallelFor.Body() {
+                    public void run(int lo, int hi, int chunk) {
+                        for (int j = lo; j < hi; j++)
+                            closure(byLevel[base + j], succ, offsets);
+                    }
+                });
+            }
+        }
+        finally {
+            loop.shutdown();
+        }
+    }
+
+    // compute the bitset of component c from those of the components it has an edge to
+    private void closure(int c, int[] succ, int[] out) {
+        int base = lo[c] >>> 6;
+        long[] bits = new long[(c >>> 6) - base + 1];
+        bits[(c >>> 6) - base] |= 1L << c;
+        for (int i = out[c+1] - 1; i >= out[c]; i--) {
+            int d = succ[i];
+            if ((bits[(d >>> 6) - base] & (1L << d)) != 0) continue;
+            long[] other = tc[d];
+            int shift = (lo[d] >>> 6) - base;
+            for (int j = 0; j < other.length; j++)
+                bits[shift + j] |= other[j];
+        }
+        tc[c] = bits;
     }
 
     /**
@@ -80,12 +221,14 @@ public class TransitiveClosure {
     public boolean reachable(int v, int w) {
         validateVertex(v);
         validateVertex(w);
-        return tc[v].marked(w);
+        int c = id[v], d = id[w];
+        if (d > c || d < lo[c]) return false;
+        return (tc[c][(d >>> 6) - (lo[c] >>> 6)] & (1L << d)) != 0;
     }
 
     // throw an IllegalArgumentException unless {@code 0 <= v < V}
     private void validateVertex(int v) {
-        int V = tc.length;
+        int V = id.length;
         if (v < 0 || v >= V)
             throw new IllegalArgumentException("vertex " + v + " is not between 0 and " + (V-1));
     }
@@ -98,8 +241,9 @@ public class TransitiveClosure {
     public static void main(String[] args) {
         In in = new In(args[0]);
         Digraph G = new Digraph(in);
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
 
-        TransitiveClosure tc = new TransitiveClosure(G);
+        TransitiveClosure tc = new TransitiveClosure(G, threads);
 
         // print header
         StdOut.print("     ");